@@ -0,0 +1,71 @@
+package com.sistema_seguimiento.benchmark;
+
+import com.sistema_seguimiento.model.Habito;
+import com.sistema_seguimiento.model.RegistroHabito;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Historiales sintéticos reproducibles para los benchmarks
+ *
+ * Cada día del historial se cumple con probabilidad TASA_CUMPLIMIENTO; la semilla fija hace
+ * que dos ejecuciones (o dos commits) midan exactamente los mismos datos.
+ */
+final class DatosSinteticos {
+
+    static final double TASA_CUMPLIMIENTO = 0.8;
+    static final long SEMILLA = 42L;
+
+    private DatosSinteticos() {
+    }
+
+    /**
+     * Días cumplidos, en orden ascendente, de un historial que termina hoy
+     */
+    static List<LocalDate> diasCumplidos(int anios, long semilla) {
+        Random aleatorio = new Random(semilla);
+        LocalDate hoy = LocalDate.now();
+        LocalDate dia = hoy.minusYears(anios);
+        List<LocalDate> dias = new ArrayList<>();
+        while (!dia.isAfter(hoy)) {
+            if (aleatorio.nextDouble() < TASA_CUMPLIMIENTO) {
+                dias.add(dia);
+            }
+            dia = dia.plusDays(1);
+        }
+        return dias;
+    }
+
+    /**
+     * Hábito en memoria con sus registros. Con calendario = true tiene racha y calendario
+     * mantenidos (como los guarda HabitoDAO); con false solo registros (filas antiguas).
+     */
+    static Habito habitoConHistorial(int anios, long semilla, boolean conCalendario) {
+        Habito habito = new Habito("Benchmark", "", Habito.FrecuenciaHabito.DIARIA, 1, 1);
+        habito.setId(1);
+        habito.setFechaInicio(LocalDate.now().minusYears(anios));
+        List<LocalDate> dias = diasCumplidos(anios, semilla);
+        for (LocalDate dia : dias) {
+            RegistroHabito registro = new RegistroHabito(habito, dia, true, null);
+            registro.setVecesRealizado(1);
+            habito.agregarRegistro(registro);
+        }
+        if (conCalendario) {
+            habito.recalcularDesde(dias);
+        }
+        return habito;
+    }
+
+    /**
+     * Silencia System.out en el JVM del benchmark: los DAOs y servicios registran cada
+     * llamada con println y ese volcado dominaría la medida
+     */
+    static void silenciarSalida() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+}
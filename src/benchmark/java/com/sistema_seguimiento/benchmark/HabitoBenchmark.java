@@ -0,0 +1,64 @@
+package com.sistema_seguimiento.benchmark;
+
+import com.sistema_seguimiento.model.Habito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Racha y porcentaje de un hábito en memoria
+ *
+ * modo = calendario: racha y calendario mantenidos por HabitoDAO (camino normal)
+ * modo = registros: hábito sin calendario, se recorre la lista de registros
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HabitoBenchmark {
+
+    @Param({"1", "3"})
+    public int aniosHistorial;
+
+    @Param({"calendario", "registros"})
+    public String modo;
+
+    private Habito habito;
+    private LocalDate desde;
+    private LocalDate hasta;
+
+    @Setup
+    public void preparar() {
+        habito = DatosSinteticos.habitoConHistorial(aniosHistorial, DatosSinteticos.SEMILLA, "calendario".equals(modo));
+        hasta = LocalDate.now();
+        desde = hasta.minusDays(29);
+    }
+
+    @Benchmark
+    public int calcularRachaActual() {
+        return habito.calcularRachaActual();
+    }
+
+    @Benchmark
+    public double getPorcentajeCompletado30Dias() {
+        return habito.getPorcentajeCompletado(desde, hasta);
+    }
+
+    @Benchmark
+    public double getPorcentajeCompletadoHistorial() {
+        return habito.getPorcentajeCompletado(habito.getFechaInicio(), hasta);
+    }
+}
@@ -0,0 +1,142 @@
+package com.sistema_seguimiento.benchmark;
+
+import com.sistema_seguimiento.dao.HabitoDAO;
+import com.sistema_seguimiento.model.Habito;
+import com.sistema_seguimiento.model.RegistroHabito;
+import com.sistema_seguimiento.model.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas y escrituras de HabitoDAO sobre H2 en memoria (unidad TestPU)
+ *
+ * Cada combinación de parámetros carga su propia base: un usuario con habitosPorUsuario
+ * hábitos y aniosHistorial años de registros por hábito. H2 no reproduce la latencia de
+ * red de PostgreSQL; los números sirven para comparar commits entre sí, no como absolutos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HabitoDAOBenchmark {
+
+    private static final int TAMANO_LOTE = 500;
+
+    @Param({"5", "20"})
+    public int habitosPorUsuario;
+
+    @Param({"1", "3"})
+    public int aniosHistorial;
+
+    private EntityManagerFactory emf;
+    private HabitoDAO habitoDAO;
+    private Integer usuarioId;
+    private List<Integer> habitoIds;
+    private int siguienteHabito;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        DatosSinteticos.silenciarSalida();
+        String url = "jdbc:h2:mem:jmh_" + habitosPorUsuario + "_" + aniosHistorial + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+        emf = Persistence.createEntityManagerFactory("TestPU", Map.of(
+                "jakarta.persistence.jdbc.url", url,
+                "hibernate.show_sql", "false"));
+        habitoDAO = new HabitoDAO(emf);
+        usuarioId = crearUsuario();
+        habitoIds = new ArrayList<>();
+        for (int i = 0; i < habitosPorUsuario; i++) {
+            habitoIds.add(crearHabitoConHistorial(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @Benchmark
+    public List<Habito> findByUsuarioId() {
+        return habitoDAO.findByUsuarioId(usuarioId);
+    }
+
+    /**
+     * Rota entre los hábitos; a partir de la primera vuelta actualiza el registro de hoy
+     */
+    @Benchmark
+    public Integer registrarCompletado() {
+        Integer habitoId = habitoIds.get(siguienteHabito++ % habitoIds.size());
+        habitoDAO.registrarCompletado(habitoId, LocalDate.now(), null);
+        return habitoId;
+    }
+
+    @Benchmark
+    public Double getPorcentajeCompletadoSemana() {
+        return habitoDAO.getPorcentajeCompletadoSemana(usuarioId);
+    }
+
+    private Integer crearUsuario() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Usuario usuario = new Usuario();
+            usuario.setUsername("jmh");
+            usuario.setEmail("jmh@benchmark.local");
+            usuario.setPassword("password123");
+            em.persist(usuario);
+            em.getTransaction().commit();
+            return usuario.getId();
+        } finally {
+            em.close();
+        }
+    }
+
+    private Integer crearHabitoConHistorial(int indice) {
+        List<LocalDate> dias = DatosSinteticos.diasCumplidos(aniosHistorial, DatosSinteticos.SEMILLA + indice);
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Habito habito = new Habito("Hábito " + indice, "", Habito.FrecuenciaHabito.DIARIA, 1, usuarioId);
+            habito.setFechaInicio(LocalDate.now().minusYears(aniosHistorial));
+            habito.recalcularDesde(dias);
+            em.persist(habito);
+            for (int i = 0; i < dias.size(); i++) {
+                RegistroHabito registro = new RegistroHabito(habito, dias.get(i), true, null);
+                registro.setVecesRealizado(1);
+                em.persist(registro);
+                if ((i + 1) % TAMANO_LOTE == 0) {
+                    em.flush();
+                    em.clear();
+                    habito = em.merge(habito);
+                }
+            }
+            em.getTransaction().commit();
+            return habito.getId();
+        } finally {
+            em.close();
+        }
+    }
+}
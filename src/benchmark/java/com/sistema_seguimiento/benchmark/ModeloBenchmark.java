@@ -0,0 +1,76 @@
+package com.sistema_seguimiento.benchmark;
+
+import com.sistema_seguimiento.model.Pomodoro;
+import com.sistema_seguimiento.model.TareaKanban;
+import com.sistema_seguimiento.services.PointsService;
+import com.sistema_seguimiento.services.QuoteService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operaciones en memoria de servicios y modelo: puntos, frase del día, Pomodoro y Kanban
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModeloBenchmark {
+
+    private static final String[] ESTADOS = {"CUMPLIDO", "PARCIAL", "NO_CUMPLIDO", "desconocido"};
+
+    private PointsService pointsService;
+    private QuoteService quoteService;
+    private Pomodoro pomodoro;
+    private int contador;
+
+    @Setup
+    public void preparar() {
+        DatosSinteticos.silenciarSalida();
+        pointsService = new PointsService();
+        quoteService = new QuoteService();
+        pomodoro = new Pomodoro("1");
+    }
+
+    @Benchmark
+    public int calculatePoints() {
+        return pointsService.calculatePoints(ESTADOS[contador++ & 3]);
+    }
+
+    @Benchmark
+    public String getDailyQuoteForDay() {
+        contador = contador % 366 + 1;
+        return quoteService.getDailyQuoteForDay(contador);
+    }
+
+    /**
+     * Un minuto por llamada: recorre trabajo, descansos cortos y largos
+     */
+    @Benchmark
+    public boolean pasarTiempo() {
+        return pomodoro.pasarTiempo(1);
+    }
+
+    /**
+     * Ciclo completo POR_HACER → EN_PROGRESO → COMPLETADO más un movimiento rechazado
+     */
+    @Benchmark
+    public void moverTareaKanban(Blackhole bh) {
+        TareaKanban tarea = new TareaKanban("Benchmark");
+        bh.consume(tarea.mover(TareaKanban.EstadoKanban.EN_PROGRESO));
+        bh.consume(tarea.mover(TareaKanban.EstadoKanban.COMPLETADO));
+        bh.consume(tarea.mover(TareaKanban.EstadoKanban.POR_HACER));
+    }
+}
@@ -0,0 +1,235 @@
+package com.sistema_seguimiento.config;
+
+import com.sistema_seguimiento.dao.EjecucionRecordatorioDAO;
+import com.sistema_seguimiento.dao.EntityManagerUtil;
+import com.sistema_seguimiento.dao.EventoGamificacionDAO;
+import com.sistema_seguimiento.dao.LimiteConexiones;
+import com.sistema_seguimiento.dao.MoodDAO;
+import com.sistema_seguimiento.dao.PomodoroDAO;
+import com.sistema_seguimiento.dao.QuoteDAOImpl;
+import com.sistema_seguimiento.dao.UserPetDAO;
+import com.sistema_seguimiento.dao.UsuarioDAOJPA;
+import com.sistema_seguimiento.filter.HilosVirtualesFilter;
+import com.sistema_seguimiento.services.AcumuladorPuntos;
+import com.sistema_seguimiento.services.CacheHabitos;
+import com.sistema_seguimiento.services.CachePorUsuario;
+import com.sistema_seguimiento.services.CatalogoFrases;
+import com.sistema_seguimiento.services.DestinoArchivoRecordatorios;
+import com.sistema_seguimiento.services.DestinoRecordatorios;
+import com.sistema_seguimiento.services.NotificationService;
+import com.sistema_seguimiento.services.PipelineGamificacion;
+import com.sistema_seguimiento.services.MoodService;
+import com.sistema_seguimiento.services.PomodoroServicio;
+import com.sistema_seguimiento.services.TareaRecordatoriosAnimo;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Ciclo de vida de los componentes compartidos de la aplicación
+ *
+ * Acumulador de puntos write-behind (desactivado por defecto), configurable con
+ * propiedades del sistema o variables de entorno:
+ * - sistema.puntos.writeBehind / SISTEMA_PUNTOS_WRITEBEHIND = true
+ * - sistema.puntos.intervaloMs / SISTEMA_PUNTOS_INTERVALOMS (por defecto 2000)
+ * - sistema.puntos.maxPendientes / SISTEMA_PUNTOS_MAXPENDIENTES (por defecto 500)
+ *
+ * Pipeline asíncrono de gamificación (desactivado por defecto; con él activo los puntos de
+ * los check-ins se suman desde la tabla outbox y no pasan por el acumulador):
+ * - sistema.gamificacion.async / SISTEMA_GAMIFICACION_ASYNC = true
+ * - sistema.gamificacion.hilos / SISTEMA_GAMIFICACION_HILOS (por defecto 2)
+ * - sistema.gamificacion.capacidad / SISTEMA_GAMIFICACION_CAPACIDAD (por defecto 1000)
+ * - sistema.gamificacion.barridoMs / SISTEMA_GAMIFICACION_BARRIDOMS (por defecto 5000)
+ *
+ * Peticiones en hilos virtuales (desactivado por defecto, ver HilosVirtualesFilter) y acceso
+ * a la BD acotado (ver LimiteConexiones):
+ * - sistema.hilosVirtuales / SISTEMA_HILOSVIRTUALES = true
+ * - sistema.db.maxConcurrentes / SISTEMA_DB_MAXCONCURRENTES (por defecto sin límite; con
+ *   hilos virtuales, el máximo del pool)
+ * - sistema.db.esperaMs / SISTEMA_DB_ESPERAMS (por defecto 10000)
+ *
+ * Caché de lecturas de hábitos (siempre activa): una instancia compartida por los servlets que
+ * leen o escriben hábitos (ver CacheHabitos), y una CachePorUsuario aparte para la entrada de
+ * ánimo de hoy (ver MoodService).
+ *
+ * Catálogo de frases motivacionales (siempre activo): se carga al arrancar y se recarga en
+ * segundo plano:
+ * - sistema.frases.recargaMs / SISTEMA_FRASES_RECARGAMS (por defecto 3600000)
+ *
+ * Temporizadores Pomodoro en memoria con escritura write-behind (siempre activo), atendidos
+ * por ControladorPomodoro en /pomodoro:
+ * - sistema.pomodoro.intervaloMs / SISTEMA_POMODORO_INTERVALOMS (por defecto 5000)
+ * - sistema.pomodoro.inactividadMin / SISTEMA_POMODORO_INACTIVIDADMIN (por defecto 240)
+ *
+ * Recordatorios diarios de estado de ánimo a los usuarios sin entrada (desactivado por defecto):
+ * - sistema.recordatorios.activo / SISTEMA_RECORDATORIOS_ACTIVO = true
+ * - sistema.recordatorios.hora / SISTEMA_RECORDATORIOS_HORA (por defecto 20:00)
+ * - sistema.recordatorios.hilos / SISTEMA_RECORDATORIOS_HILOS (por defecto 4)
+ * - sistema.recordatorios.pagina / SISTEMA_RECORDATORIOS_PAGINA (por defecto 500)
+ * - sistema.recordatorios.porSegundo / SISTEMA_RECORDATORIOS_PORSEGUNDO (por defecto 50)
+ * - sistema.recordatorios.intervaloMs / SISTEMA_RECORDATORIOS_INTERVALOMS (por defecto 300000)
+ * - sistema.recordatorios.archivo / SISTEMA_RECORDATORIOS_ARCHIVO: outbox local donde escribirlos
+ *   (por defecto se envían con NotificationService)
+ */
+@WebListener
+public class AplicacionListener implements ServletContextListener {
+
+    private static final Logger logger = Logger.getLogger(AplicacionListener.class.getName());
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        // Con una migración fallida el despliegue no arranca
+        EntityManagerUtil.verificarMigraciones();
+
+        boolean hilosVirtuales = Boolean.parseBoolean(leerParametro("hilosVirtuales", "false"));
+        int maxConcurrentes = Integer.parseInt(leerParametro("db.maxConcurrentes", "0"));
+        if (maxConcurrentes <= 0 && hilosVirtuales) {
+            maxConcurrentes = maximoPool();
+        }
+        if (maxConcurrentes > 0) {
+            LimiteConexiones.configurar(maxConcurrentes, Long.parseLong(leerParametro("db.esperaMs", "10000")));
+        }
+        if (hilosVirtuales) {
+            sce.getServletContext().setAttribute(HilosVirtualesFilter.ATRIBUTO_CONTEXTO,
+                    Executors.newVirtualThreadPerTaskExecutor());
+            logger.info(String.format("[HILOS-VIRTUALES] Peticiones atendidas en hilos virtuales, BD limitada a %d", maxConcurrentes));
+        }
+
+        if (Boolean.parseBoolean(leerParametro("puntos.writeBehind", "false"))) {
+            long intervalo = Long.parseLong(leerParametro("puntos.intervaloMs", "2000"));
+            int maxPendientes = Integer.parseInt(leerParametro("puntos.maxPendientes", "500"));
+
+            AcumuladorPuntos acumulador = new AcumuladorPuntos(new UsuarioDAOJPA(), intervalo, maxPendientes);
+            acumulador.iniciar();
+            sce.getServletContext().setAttribute(AcumuladorPuntos.ATRIBUTO_CONTEXTO, acumulador);
+        }
+
+        if (Boolean.parseBoolean(leerParametro("gamificacion.async", "false"))) {
+            int hilos = Integer.parseInt(leerParametro("gamificacion.hilos", "2"));
+            int capacidad = Integer.parseInt(leerParametro("gamificacion.capacidad", "1000"));
+            long barrido = Long.parseLong(leerParametro("gamificacion.barridoMs", "5000"));
+
+            PipelineGamificacion pipeline = new PipelineGamificacion(
+                    new EventoGamificacionDAO(), new UserPetDAO(), capacidad, hilos, barrido);
+            pipeline.iniciar();
+            sce.getServletContext().setAttribute(PipelineGamificacion.ATRIBUTO_CONTEXTO, pipeline);
+        }
+
+        sce.getServletContext().setAttribute(CacheHabitos.ATRIBUTO_CONTEXTO, new CacheHabitos());
+        sce.getServletContext().setAttribute(MoodService.ATRIBUTO_CACHE_HOY, new CachePorUsuario());
+
+        // Antes de que se inicialicen los servlets, para que el primer login no pague la consulta
+        CatalogoFrases catalogo = new CatalogoFrases(new QuoteDAOImpl());
+        catalogo.recargar();
+        catalogo.iniciar(Long.parseLong(leerParametro("frases.recargaMs", "3600000")));
+        sce.getServletContext().setAttribute(CatalogoFrases.ATRIBUTO_CONTEXTO, catalogo);
+
+        PomodoroServicio pomodoroServicio = new PomodoroServicio(new PomodoroDAO(),
+                Long.parseLong(leerParametro("pomodoro.intervaloMs", "5000")),
+                Duration.ofMinutes(Long.parseLong(leerParametro("pomodoro.inactividadMin", "240"))));
+        pomodoroServicio.iniciar();
+        sce.getServletContext().setAttribute(PomodoroServicio.ATRIBUTO_CONTEXTO, pomodoroServicio);
+
+        if (Boolean.parseBoolean(leerParametro("recordatorios.activo", "false"))) {
+            String archivo = leerParametro("recordatorios.archivo", "");
+            DestinoRecordatorios destino = archivo.isEmpty()
+                    ? new NotificationService()
+                    : new DestinoArchivoRecordatorios(Paths.get(archivo));
+
+            TareaRecordatoriosAnimo recordatorios = new TareaRecordatoriosAnimo(new MoodDAO(), new EjecucionRecordatorioDAO(),
+                    destino,
+                    Integer.parseInt(leerParametro("recordatorios.hilos", "4")),
+                    Integer.parseInt(leerParametro("recordatorios.pagina", "500")),
+                    Integer.parseInt(leerParametro("recordatorios.porSegundo", "50")));
+            recordatorios.iniciar(LocalTime.parse(leerParametro("recordatorios.hora", "20:00")),
+                    Long.parseLong(leerParametro("recordatorios.intervaloMs", "300000")));
+            sce.getServletContext().setAttribute(TareaRecordatoriosAnimo.ATRIBUTO_CONTEXTO, recordatorios);
+        }
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        Object recordatorios = sce.getServletContext().getAttribute(TareaRecordatoriosAnimo.ATRIBUTO_CONTEXTO);
+        if (recordatorios instanceof TareaRecordatoriosAnimo) {
+            // La ejecución en curso se retoma desde su punto de control en el siguiente arranque
+            ((TareaRecordatoriosAnimo) recordatorios).detener();
+            sce.getServletContext().removeAttribute(TareaRecordatoriosAnimo.ATRIBUTO_CONTEXTO);
+        }
+
+        Object catalogo = sce.getServletContext().getAttribute(CatalogoFrases.ATRIBUTO_CONTEXTO);
+        if (catalogo instanceof CatalogoFrases) {
+            ((CatalogoFrases) catalogo).detener();
+            sce.getServletContext().removeAttribute(CatalogoFrases.ATRIBUTO_CONTEXTO);
+        }
+
+        Object ejecutor = sce.getServletContext().getAttribute(HilosVirtualesFilter.ATRIBUTO_CONTEXTO);
+        if (ejecutor instanceof ExecutorService) {
+            // Sin atributo, las peticiones que aún lleguen se atienden en el hilo del contenedor
+            sce.getServletContext().removeAttribute(HilosVirtualesFilter.ATRIBUTO_CONTEXTO);
+            ((ExecutorService) ejecutor).shutdown();
+            try {
+                ((ExecutorService) ejecutor).awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        Object pomodoroServicio = sce.getServletContext().getAttribute(PomodoroServicio.ATRIBUTO_CONTEXTO);
+        if (pomodoroServicio instanceof PomodoroServicio) {
+            try {
+                ((PomodoroServicio) pomodoroServicio).detener();
+            } catch (RuntimeException e) {
+                logger.severe(String.format("[POMODORO] Cambios de sesiones no escritos al detener: %s", e.getMessage()));
+            }
+            sce.getServletContext().removeAttribute(PomodoroServicio.ATRIBUTO_CONTEXTO);
+        }
+
+        Object pipeline = sce.getServletContext().getAttribute(PipelineGamificacion.ATRIBUTO_CONTEXTO);
+        if (pipeline instanceof PipelineGamificacion) {
+            // Los eventos sin procesar siguen en la tabla outbox y se retoman al arrancar
+            ((PipelineGamificacion) pipeline).detener();
+            sce.getServletContext().removeAttribute(PipelineGamificacion.ATRIBUTO_CONTEXTO);
+        }
+
+        Object acumulador = sce.getServletContext().getAttribute(AcumuladorPuntos.ATRIBUTO_CONTEXTO);
+        if (acumulador instanceof AcumuladorPuntos) {
+            try {
+                ((AcumuladorPuntos) acumulador).detener();
+            } catch (RuntimeException e) {
+                logger.severe(String.format("[PUNTOS] Puntos pendientes no escritos al detener: %s", e.getMessage()));
+            }
+            sce.getServletContext().removeAttribute(AcumuladorPuntos.ATRIBUTO_CONTEXTO);
+        }
+    }
+
+    /**
+     * Máximo del pool de conexiones, o 10 (el de persistence.xml) si la BD no está disponible
+     */
+    private static int maximoPool() {
+        try {
+            return EntityManagerUtil.getMaximoPool();
+        } catch (RuntimeException e) {
+            logger.warning(String.format("[HILOS-VIRTUALES] No se pudo leer el máximo del pool: %s", e.getMessage()));
+            return 10;
+        }
+    }
+
+    /**
+     * Lee sistema.X de las propiedades del sistema o SISTEMA_X (en mayúsculas, '.' → '_') del entorno
+     */
+    static String leerParametro(String nombre, String porDefecto) {
+        String valor = System.getProperty("sistema." + nombre);
+        if (valor == null) {
+            valor = System.getenv("SISTEMA_" + nombre.toUpperCase().replace('.', '_'));
+        }
+        return valor != null && !valor.isBlank() ? valor.trim() : porDefecto;
+    }
+}
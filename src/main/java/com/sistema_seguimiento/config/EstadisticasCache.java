@@ -0,0 +1,140 @@
+package com.sistema_seguimiento.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Foto de los contadores de la caché de segundo nivel y de consultas de Hibernate
+ *
+ * Requiere hibernate.generate_statistics=true; sin estadísticas todos los contadores valen 0.
+ */
+public final class EstadisticasCache {
+
+    private final long aciertos;
+    private final long fallos;
+    private final long escrituras;
+    private final long aciertosConsultas;
+    private final long fallosConsultas;
+    private final long escriturasConsultas;
+    private final Map<String, Region> regiones;
+
+    private EstadisticasCache(Statistics estadisticas) {
+        this.aciertos = estadisticas.getSecondLevelCacheHitCount();
+        this.fallos = estadisticas.getSecondLevelCacheMissCount();
+        this.escrituras = estadisticas.getSecondLevelCachePutCount();
+        this.aciertosConsultas = estadisticas.getQueryCacheHitCount();
+        this.fallosConsultas = estadisticas.getQueryCacheMissCount();
+        this.escriturasConsultas = estadisticas.getQueryCachePutCount();
+
+        Map<String, Region> porRegion = new LinkedHashMap<>();
+        for (String nombre : estadisticas.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = estadisticas.getCacheRegionStatistics(nombre);
+            if (region != null) {
+                porRegion.put(nombre, new Region(region.getHitCount(), region.getMissCount(),
+                        region.getPutCount(), region.getElementCountInMemory()));
+            }
+        }
+        this.regiones = Collections.unmodifiableMap(porRegion);
+    }
+
+    /**
+     * Toma los contadores actuales de la unidad de persistencia
+     */
+    public static EstadisticasCache de(EntityManagerFactory emf) {
+        return new EstadisticasCache(emf.unwrap(SessionFactory.class).getStatistics());
+    }
+
+    public long getAciertos() {
+        return aciertos;
+    }
+
+    public long getFallos() {
+        return fallos;
+    }
+
+    public long getEscrituras() {
+        return escrituras;
+    }
+
+    public long getAciertosConsultas() {
+        return aciertosConsultas;
+    }
+
+    public long getFallosConsultas() {
+        return fallosConsultas;
+    }
+
+    public long getEscriturasConsultas() {
+        return escriturasConsultas;
+    }
+
+    /**
+     * Contadores por región (pet, frase, habito, usuario, query.*)
+     */
+    public Map<String, Region> getRegiones() {
+        return regiones;
+    }
+
+    /**
+     * Porcentaje de aciertos de la caché de entidades (0 si aún no hubo accesos)
+     */
+    public double getTasaAciertos() {
+        long total = aciertos + fallos;
+        return total == 0 ? 0.0 : (aciertos * 100.0) / total;
+    }
+
+    @Override
+    public String toString() {
+        return "EstadisticasCache{aciertos=" + aciertos +
+                ", fallos=" + fallos +
+                ", escrituras=" + escrituras +
+                ", aciertosConsultas=" + aciertosConsultas +
+                ", fallosConsultas=" + fallosConsultas +
+                ", regiones=" + regiones + "}";
+    }
+
+    /**
+     * Contadores de una región de caché
+     */
+    public static final class Region {
+        private final long aciertos;
+        private final long fallos;
+        private final long escrituras;
+        private final long elementosEnMemoria;
+
+        Region(long aciertos, long fallos, long escrituras, long elementosEnMemoria) {
+            this.aciertos = aciertos;
+            this.fallos = fallos;
+            this.escrituras = escrituras;
+            this.elementosEnMemoria = elementosEnMemoria;
+        }
+
+        public long getAciertos() {
+            return aciertos;
+        }
+
+        public long getFallos() {
+            return fallos;
+        }
+
+        public long getEscrituras() {
+            return escrituras;
+        }
+
+        public long getElementosEnMemoria() {
+            return elementosEnMemoria;
+        }
+
+        @Override
+        public String toString() {
+            return "{aciertos=" + aciertos + ", fallos=" + fallos +
+                    ", escrituras=" + escrituras + ", elementos=" + elementosEnMemoria + "}";
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.sistema_seguimiento.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas del pool de conexiones HikariCP
+ *
+ * Se registra en persistence.xml con hibernate.hikari.metricsTrackerFactory; HikariCP
+ * crea una instancia por pool y este registro la deja disponible por nombre de pool.
+ *
+ * - Conexiones activas, inactivas, totales e hilos esperando (PoolStats de HikariCP)
+ * - Histograma del tiempo de espera para obtener una conexión
+ * - Histograma del tiempo que cada conexión estuvo prestada
+ * - Timeouts de adquisición y conexiones físicas creadas
+ */
+public class MetricasPoolConexiones implements MetricsTrackerFactory {
+
+    private static final Map<String, Metricas> POOLS = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        Metricas metricas = new Metricas(poolName, poolStats);
+        POOLS.put(poolName, metricas);
+        return metricas;
+    }
+
+    /**
+     * Métricas de un pool por su nombre (hibernate.hikari.poolName), o null si no se ha iniciado
+     */
+    public static Metricas obtener(String poolName) {
+        return POOLS.get(poolName);
+    }
+
+    /**
+     * Métricas de un pool concreto
+     */
+    public static class Metricas implements IMetricsTracker {
+
+        // Límites superiores en microsegundos para la espera de conexión
+        private static final long[] LIMITES_ADQUISICION_MICROS = {
+            100, 500, 1_000, 5_000, 10_000, 50_000, 100_000, 500_000, 1_000_000, 5_000_000
+        };
+
+        // Límites superiores en milisegundos para el uso de la conexión
+        private static final long[] LIMITES_USO_MILLIS = {
+            1, 5, 10, 50, 100, 500, 1_000, 5_000, 10_000, 60_000
+        };
+
+        private final String poolName;
+        private final PoolStats poolStats;
+        private final Histograma adquisicionMicros = new Histograma(LIMITES_ADQUISICION_MICROS);
+        private final Histograma usoMillis = new Histograma(LIMITES_USO_MILLIS);
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder conexionesCreadas = new LongAdder();
+
+        Metricas(String poolName, PoolStats poolStats) {
+            this.poolName = poolName;
+            this.poolStats = poolStats;
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            conexionesCreadas.increment();
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            adquisicionMicros.registrar(elapsedAcquiredNanos / 1_000);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usoMillis.registrar(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+
+        @Override
+        public void close() {
+            POOLS.remove(poolName, this);
+        }
+
+        public String getPoolName() {
+            return poolName;
+        }
+
+        public int getActivas() {
+            return poolStats.getActiveConnections();
+        }
+
+        public int getInactivas() {
+            return poolStats.getIdleConnections();
+        }
+
+        public int getTotales() {
+            return poolStats.getTotalConnections();
+        }
+
+        public int getEnEspera() {
+            return poolStats.getPendingThreads();
+        }
+
+        public int getMaximo() {
+            return poolStats.getMaxConnections();
+        }
+
+        public long getTimeouts() {
+            return timeouts.sum();
+        }
+
+        public long getConexionesCreadas() {
+            return conexionesCreadas.sum();
+        }
+
+        public Histograma getAdquisicionMicros() {
+            return adquisicionMicros;
+        }
+
+        public Histograma getUsoMillis() {
+            return usoMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "Pool " + poolName + " {activas=" + getActivas() +
+                    ", inactivas=" + getInactivas() +
+                    ", enEspera=" + getEnEspera() +
+                    ", totales=" + getTotales() +
+                    ", timeouts=" + getTimeouts() +
+                    ", adquisiciones=" + adquisicionMicros.getTotal() +
+                    ", adquisicionP99us<=" + adquisicionMicros.percentil(0.99) +
+                    ", usoP99ms<=" + usoMillis.percentil(0.99) + "}";
+        }
+    }
+
+    /**
+     * Histograma de cubetas fijas, seguro entre hilos y sin bloqueos
+     */
+    public static class Histograma {
+        private final long[] limites;
+        private final AtomicLongArray conteos;
+        private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+        public Histograma(long[] limites) {
+            this.limites = limites.clone();
+            // Una cubeta por límite más una de desbordamiento
+            this.conteos = new AtomicLongArray(limites.length + 1);
+        }
+
+        public void registrar(long valor) {
+            int cubeta = 0;
+            while (cubeta < limites.length && valor > limites[cubeta]) {
+                cubeta++;
+            }
+            conteos.incrementAndGet(cubeta);
+            maximo.accumulate(valor);
+        }
+
+        public long getTotal() {
+            long total = 0;
+            for (int i = 0; i < conteos.length(); i++) {
+                total += conteos.get(i);
+            }
+            return total;
+        }
+
+        /**
+         * Conteo por cubeta; la última cubeta agrupa los valores mayores al último límite
+         */
+        public long[] getConteos() {
+            long[] copia = new long[conteos.length()];
+            for (int i = 0; i < copia.length; i++) {
+                copia[i] = conteos.get(i);
+            }
+            return copia;
+        }
+
+        public long[] getLimites() {
+            return limites.clone();
+        }
+
+        public long getMaximo() {
+            return maximo.get();
+        }
+
+        /**
+         * Límite superior de la cubeta donde cae el percentil indicado (0 si no hay datos).
+         * Para la cubeta de desbordamiento devuelve el máximo observado.
+         */
+        public long percentil(double p) {
+            long[] copia = getConteos();
+            long total = 0;
+            for (long c : copia) {
+                total += c;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long objetivo = (long) Math.ceil(total * p);
+            long acumulado = 0;
+            for (int i = 0; i < copia.length; i++) {
+                acumulado += copia[i];
+                if (acumulado >= objetivo) {
+                    return i < limites.length ? limites[i] : getMaximo();
+                }
+            }
+            return getMaximo();
+        }
+    }
+}
@@ -2,20 +2,53 @@ package com.sistema_seguimiento.dao;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 
 import java.util.Collections;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 public abstract class BaseDAO {
+    /**
+     * Factoría explícita, o null para usar la de la aplicación (ver getEntityManagerFactory)
+     */
     protected final EntityManagerFactory emf;
 
+    /**
+     * Constructor con EntityManagerFactory explícito (tests con H2)
+     */
     public BaseDAO(EntityManagerFactory emf) {
         this.emf = emf;
     }
 
+    /**
+     * Usa la factoría de EntityManagerUtil, que se resuelve en el primer acceso a la BD
+     */
     public BaseDAO() {
-        this.emf = EntityManagerUtil.getEntityManagerFactory();
+        this(null);
+    }
+
+    /**
+     * La factoría explícita o, si no hay, la de la aplicación
+     */
+    protected EntityManagerFactory getEntityManagerFactory() {
+        return emf != null ? emf : EntityManagerUtil.getEntityManagerFactory();
+    }
+
+    /**
+     * EntityManager para una operación: el de la petición si hay ContextoPersistencia abierto,
+     * o uno nuevo en caso contrario. Siempre se cierra tras usarlo (en el compartido no hace nada).
+     */
+    protected EntityManager crearEntityManager() {
+        return ContextoPersistencia.entityManagerPara(getEntityManagerFactory());
+    }
+
+    /**
+     * Si la BD es PostgreSQL: las sentencias nativas (upserts, ON CONFLICT) solo se usan en ella
+     */
+    protected boolean esPostgreSQL() {
+        return getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect() instanceof PostgreSQLDialect;
     }
 
     /**
@@ -26,7 +59,7 @@ public abstract class BaseDAO {
      * @param errorMessage El mensaje de error en caso de excepción
      */
     protected void executeWithTransaction(Consumer<EntityManager> operation, String errorMessage) {
-        EntityManager em = emf.createEntityManager();
+        EntityManager em = crearEntityManager();
         try {
             em.getTransaction().begin();
             operation.accept(em);
@@ -52,7 +85,7 @@ public abstract class BaseDAO {
      * @return El resultado de la consulta
      */
     protected <T> T executeQuery(Function<EntityManager, T> query) {
-        EntityManager em = emf.createEntityManager();
+        EntityManager em = crearEntityManager();
         try {
             return query.apply(em);
         } catch (Exception e) {
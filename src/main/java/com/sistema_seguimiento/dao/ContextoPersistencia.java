@@ -0,0 +1,340 @@
+package com.sistema_seguimiento.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.RollbackException;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Contexto de persistencia por petición (open-session-per-request)
+ *
+ * Mientras hay un contexto abierto en el hilo, los DAOs que piden un EntityManager a
+ * EntityManagerUtil o a BaseDAO reciben el mismo EntityManager compartido, de modo que
+ * una página usa una sola conexión y un solo caché de primer nivel.
+ *
+ * El EntityManager compartido se entrega envuelto para que el patrón habitual de los DAOs
+ * siga funcionando sin cambios:
+ * - close() no cierra nada: lo cierra quien abrió el contexto
+ * - getTransaction().begin() inicia la transacción real solo la primera vez
+ * - getTransaction().commit() solo hace flush; el commit real es uno al final (confirmar/cerrar)
+ * - getTransaction().rollback() marca la transacción para rollback al final
+ *
+ * Antes de pintar la vista el controlador (o el filtro) llama a confirmarAntesDeVista: la
+ * transacción se confirma antes de enviar HTML y las entidades que recibe la vista quedan de
+ * solo lectura, así que lo que la vista cambie para mostrarlo no se escribe en la BD.
+ * Si algún DAO marcó la transacción para rollback, confirmar lanza RollbackException en vez de
+ * mostrar la página como si se hubiera guardado.
+ *
+ * El EntityManager real se crea de forma perezosa: una petición que no usa la BD no
+ * obtiene conexión. Con LimiteConexiones activo, el EntityManager real ocupa un permiso
+ * mientras la petición usa la BD: lo devuelve al confirmar (la siguiente operación lo vuelve a
+ * tomar) y ya no lo toma mientras se pinta la vista, así que una página lenta de pintar no
+ * retiene el acceso a la BD de las demás. Los DAOs que se llaman entre sí durante la petición
+ * usan el mismo EntityManager compartido, así que tampoco toman otro permiso.
+ */
+public final class ContextoPersistencia {
+
+    private static final ThreadLocal<ContextoPersistencia> ACTUAL = new ThreadLocal<>();
+
+    private final EntityManagerFactory emf;
+    private EntityManager real;
+    private EntityManager compartido;
+    private Semaphore permiso;
+    private boolean enVista;
+    private final List<Runnable> alTerminar = new ArrayList<>();
+    private final List<Runnable> trasConfirmar = new ArrayList<>();
+
+    private ContextoPersistencia(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    /**
+     * Abre un contexto en el hilo actual para la factoría indicada
+     *
+     * @throws IllegalStateException si ya hay un contexto abierto en el hilo
+     */
+    public static void abrir(EntityManagerFactory emf) {
+        if (ACTUAL.get() != null) {
+            throw new IllegalStateException("Ya hay un contexto de persistencia abierto en este hilo");
+        }
+        ACTUAL.set(new ContextoPersistencia(emf));
+    }
+
+    /**
+     * Indica si el hilo actual tiene un contexto abierto
+     */
+    public static boolean estaAbierto() {
+        return ACTUAL.get() != null;
+    }
+
+    /**
+     * Ejecuta la acción cuando termine la transacción de la petición (commit o rollback),
+     * o en el acto si el hilo no tiene contexto abierto. Sirve para invalidar cachés en
+     * memoria: invalidar solo antes del commit dejaría que otra petición volviera a leer y
+     * guardar los datos antiguos mientras la transacción sigue abierta.
+     */
+    public static void alTerminar(Runnable accion) {
+        ContextoPersistencia contexto = ACTUAL.get();
+        if (contexto == null) {
+            accion.run();
+        } else {
+            contexto.alTerminar.add(accion);
+        }
+    }
+
+    /**
+     * Ejecuta la acción solo si la transacción de la petición se confirma, o en el acto si el
+     * hilo no tiene contexto abierto (el DAO ya confirmó la suya). Si se revierte, la acción
+     * se descarta. Sirve para llevar a memoria lo que acaba de escribirse en la BD.
+     */
+    public static void trasConfirmar(Runnable accion) {
+        ContextoPersistencia contexto = ACTUAL.get();
+        if (contexto == null) {
+            accion.run();
+        } else {
+            contexto.trasConfirmar.add(accion);
+        }
+    }
+
+    /**
+     * EntityManager para un DAO: el compartido si hay contexto abierto sobre la misma factoría,
+     * o uno nuevo (que el DAO cerrará) en caso contrario.
+     */
+    static EntityManager entityManagerPara(EntityManagerFactory emf) {
+        ContextoPersistencia contexto = ACTUAL.get();
+        if (contexto == null || contexto.emf != emf) {
+            return LimiteConexiones.crearEntityManager(emf);
+        }
+        return contexto.obtenerCompartido();
+    }
+
+    /**
+     * Hace commit de lo acumulado hasta ahora (o rollback si algún DAO lo pidió) sin cerrar
+     * el contexto. Se usa antes de redirigir, para que la siguiente petición vea los cambios.
+     * El contexto sigue disponible: la siguiente escritura abre una transacción nueva.
+     *
+     * @throws RollbackException si algún DAO marcó la transacción para rollback
+     */
+    public static void confirmar() {
+        ContextoPersistencia contexto = ACTUAL.get();
+        if (contexto != null) {
+            boolean confirmada = false;
+            try {
+                contexto.terminarTransaccion();
+                confirmada = true;
+            } finally {
+                contexto.liberarPermiso();
+                contexto.ejecutarAlTerminar(confirmada);
+            }
+        }
+    }
+
+    /**
+     * Confirma como confirmar() y deja de solo lectura las entidades cargadas hasta ahora y las
+     * que se carguen después: la vista puede recorrerlas (incluidas las asociaciones perezosas)
+     * pero sus cambios ya no se vuelcan en la BD.
+     *
+     * @throws RollbackException si algún DAO marcó la transacción para rollback
+     */
+    public static void confirmarAntesDeVista() {
+        confirmar();
+        ContextoPersistencia contexto = ACTUAL.get();
+        if (contexto != null) {
+            // Las cargas perezosas de la vista no vuelven a tomar el permiso
+            contexto.enVista = true;
+            if (contexto.real != null && contexto.real.isOpen()) {
+                contexto.soloLectura();
+            }
+        }
+    }
+
+    /**
+     * Termina la transacción pendiente, cierra el EntityManager y desliga el contexto del hilo
+     *
+     * @param exito false si la petición terminó con excepción: se hace rollback
+     * @throws RollbackException si exito es true pero algún DAO marcó la transacción para rollback
+     */
+    public static void cerrar(boolean exito) {
+        ContextoPersistencia contexto = ACTUAL.get();
+        if (contexto == null) {
+            return;
+        }
+        ACTUAL.remove();
+        boolean confirmada = false;
+        try {
+            if (exito) {
+                contexto.terminarTransaccion();
+                confirmada = true;
+            } else {
+                contexto.revertir();
+            }
+        } finally {
+            try {
+                if (contexto.real != null && contexto.real.isOpen()) {
+                    contexto.real.close();
+                }
+            } finally {
+                contexto.liberarPermiso();
+            }
+            contexto.ejecutarAlTerminar(confirmada);
+        }
+    }
+
+    private EntityManager obtenerCompartido() {
+        if (compartido == null) {
+            asegurarPermiso();
+            try {
+                real = emf.createEntityManager();
+            } catch (RuntimeException e) {
+                liberarPermiso();
+                throw e;
+            }
+            TransaccionCompartida transaccion = new TransaccionCompartida();
+            compartido = (EntityManager) Proxy.newProxyInstance(
+                EntityManager.class.getClassLoader(),
+                new Class<?>[]{EntityManager.class},
+                (proxy, metodo, args) -> {
+                    switch (metodo.getName()) {
+                        case "close":
+                            return null;
+                        case "getTransaction":
+                            return transaccion;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            asegurarPermiso();
+                            try {
+                                return metodo.invoke(real, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+        }
+        return compartido;
+    }
+
+    /**
+     * Vuelve a tomar el permiso si se devolvió al confirmar (salvo mientras se pinta la vista)
+     */
+    private void asegurarPermiso() {
+        if (permiso == null && !enVista && LimiteConexiones.estaActivo()) {
+            permiso = LimiteConexiones.adquirir();
+        }
+    }
+
+    private void liberarPermiso() {
+        LimiteConexiones.liberar(permiso);
+        permiso = null;
+    }
+
+    private void ejecutarAlTerminar(boolean confirmada) {
+        List<Runnable> acciones = new ArrayList<>(alTerminar);
+        alTerminar.clear();
+        if (confirmada) {
+            acciones.addAll(trasConfirmar);
+        }
+        trasConfirmar.clear();
+        for (Runnable accion : acciones) {
+            try {
+                accion.run();
+            } catch (RuntimeException e) {
+                System.err.println("❌ Error en acción al terminar la petición: " + e.getMessage());
+            }
+        }
+    }
+
+    private void soloLectura() {
+        Session session = real.unwrap(Session.class);
+        session.setDefaultReadOnly(true);
+        for (var entrada : real.unwrap(SessionImplementor.class).getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            session.setReadOnly(entrada.getKey(), true);
+        }
+    }
+
+    private void marcarRollback() {
+        if (real != null && real.getTransaction().isActive()) {
+            real.getTransaction().setRollbackOnly();
+        }
+    }
+
+    /**
+     * Rollback sin lanzar: la petición ya falló con su propia excepción
+     */
+    private void revertir() {
+        if (real != null && real.getTransaction().isActive()) {
+            real.getTransaction().rollback();
+        }
+    }
+
+    private void terminarTransaccion() {
+        if (real == null) {
+            return;
+        }
+        EntityTransaction tx = real.getTransaction();
+        if (!tx.isActive()) {
+            return;
+        }
+        if (tx.getRollbackOnly()) {
+            tx.rollback();
+            real.clear(); // Las entidades gestionadas ya no reflejan la BD
+            System.err.println("❌ Transacción de la petición revertida");
+            throw new RollbackException("La transacción de la petición se revirtió por un error en la BD");
+        }
+        tx.commit();
+    }
+
+    /**
+     * Transacción vista por los DAOs: comparten la transacción real del contexto
+     */
+    private final class TransaccionCompartida implements EntityTransaction {
+
+        @Override
+        public void begin() {
+            asegurarPermiso();
+            EntityTransaction tx = real.getTransaction();
+            if (!tx.isActive()) {
+                tx.begin();
+            }
+        }
+
+        @Override
+        public void commit() {
+            // El commit real se hace una vez al final de la petición
+            if (real.getTransaction().isActive()) {
+                real.flush();
+            }
+        }
+
+        @Override
+        public void rollback() {
+            marcarRollback();
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            marcarRollback();
+        }
+
+        @Override
+        public boolean getRollbackOnly() {
+            EntityTransaction tx = real.getTransaction();
+            return tx.isActive() && tx.getRollbackOnly();
+        }
+
+        @Override
+        public boolean isActive() {
+            return real.getTransaction().isActive();
+        }
+    }
+}
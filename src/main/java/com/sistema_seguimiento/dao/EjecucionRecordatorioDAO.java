@@ -0,0 +1,57 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.EjecucionRecordatorio;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * DAO de los puntos de control de la tarea de recordatorios de estado de ánimo
+ */
+public class EjecucionRecordatorioDAO extends BaseDAO {
+
+    public EjecucionRecordatorioDAO() {
+        this(null);
+    }
+
+    public EjecucionRecordatorioDAO(EntityManagerFactory emf) {
+        super(emf);
+    }
+
+    public Optional<EjecucionRecordatorio> findByFecha(LocalDate fecha) {
+        EntityManager em = crearEntityManager();
+        try {
+            return Optional.ofNullable(em.find(EjecucionRecordatorio.class, fecha));
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Inserta o actualiza el punto de control del día
+     */
+    public EjecucionRecordatorio guardar(EjecucionRecordatorio ejecucion) {
+        EntityManager em = crearEntityManager();
+        EntityTransaction transaction = null;
+
+        try {
+            transaction = em.getTransaction();
+            transaction.begin();
+            EjecucionRecordatorio guardada = em.merge(ejecucion);
+            transaction.commit();
+            return guardada;
+
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            System.err.println("✗ Error al guardar el punto de control de recordatorios: " + e.getMessage());
+            throw new RuntimeException("Error al guardar el punto de control de recordatorios", e);
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -1,33 +1,132 @@
 package com.sistema_seguimiento.dao;
 
+import com.sistema_seguimiento.config.EstadisticasCache;
+import com.sistema_seguimiento.config.MetricasPoolConexiones;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Persistence;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class EntityManagerUtil {
-    
+
+    /**
+     * Nombre del pool HikariCP de la unidad sistema-seguimiento-pu (hibernate.hikari.poolName)
+     */
+    public static final String POOL_NAME = "sistema-seguimiento-pool";
+
+    /**
+     * Parámetros del pool que se pueden sobrescribir sin recompilar:
+     * -Dsistema.pool.maximumPoolSize=20 o la variable SISTEMA_POOL_MAXIMUMPOOLSIZE=20
+     */
+    private static final String[] PARAMETROS_POOL = {
+        "minimumIdle", "maximumPoolSize", "idleTimeout", "maxLifetime",
+        "connectionTimeout", "leakDetectionThreshold"
+    };
+
     private static EntityManagerFactory entityManagerFactory;
-    
+
+    /**
+     * Error de una migración al arrancar: la aplicación no debe usar la BD a medio migrar
+     */
+    private static RuntimeException errorMigracion;
+
     static {
         try {
-            entityManagerFactory = Persistence.createEntityManagerFactory("sistema-seguimiento-pu");
+            entityManagerFactory = Persistence.createEntityManagerFactory("sistema-seguimiento-pu", sobrescriturasPool());
         } catch (Exception e) {
             System.err.println("Error al inicializar EntityManagerFactory: " + e.getMessage());
             e.printStackTrace();
         }
+        if (entityManagerFactory != null) {
+            try {
+                // Antes de cualquier INSERT: las tablas antiguas pasan de IDENTITY a secuencias
+                MigracionSecuencias.aplicar(entityManagerFactory);
+                MigracionRegistroUsuario.aplicar(entityManagerFactory);
+                // Un registro por hábito y día antes del primer upsert de registrarCompletado
+                MigracionRegistroUnico.aplicar(entityManagerFactory);
+                MigracionBusquedaDiario.aplicar(entityManagerFactory);
+                // Con usuario_id ya relleno: primer arranque con la tabla de resúmenes vacía
+                new ResumenDiarioDAO(entityManagerFactory).reconstruirSiVacio();
+                // Hábitos antiguos sin calendario: el backfill es una escritura de arranque, no de lectura
+                new HabitoDAO(entityManagerFactory).construirCalendariosPendientes();
+            } catch (RuntimeException e) {
+                System.err.println("❌ Migración de la BD fallida, la aplicación no usará la BD: " + e.getMessage());
+                e.printStackTrace();
+                errorMigracion = e;
+                entityManagerFactory.close();
+                entityManagerFactory = null;
+            }
+        }
+    }
+
+    /**
+     * Falla si alguna migración no se pudo aplicar. AplicacionListener lo llama al arrancar para
+     * que el despliegue falle en vez de atender peticiones contra un esquema a medio migrar.
+     *
+     * @throws IllegalStateException con la causa de la migración fallida
+     */
+    public static void verificarMigraciones() {
+        if (errorMigracion != null) {
+            throw new IllegalStateException("Migración de la BD fallida: " + errorMigracion.getMessage(), errorMigracion);
+        }
     }
-    
+
+    /**
+     * EntityManager para un DAO. Dentro de una petición con ContextoPersistencia abierto
+     * devuelve el EntityManager compartido de la petición.
+     */
     public static EntityManager getEntityManager() {
         if (entityManagerFactory == null) {
-            throw new IllegalStateException("EntityManagerFactory no inicializado");
+            throw new IllegalStateException("EntityManagerFactory no inicializado", errorMigracion);
         }
-        return entityManagerFactory.createEntityManager();
+        return ContextoPersistencia.entityManagerPara(entityManagerFactory);
     }
 
     public static EntityManagerFactory getEntityManagerFactory() {
         if (entityManagerFactory == null) {
-            throw new IllegalStateException("EntityManagerFactory no inicializado");
+            throw new IllegalStateException("EntityManagerFactory no inicializado", errorMigracion);
         }
         return entityManagerFactory;
     }
+
+    /**
+     * Máximo de conexiones del pool (hibernate.hikari.maximumPoolSize con sus sobrescrituras)
+     */
+    public static int getMaximoPool() {
+        Object valor = getEntityManagerFactory().getProperties().get("hibernate.hikari.maximumPoolSize");
+        return valor != null ? Integer.parseInt(valor.toString().trim()) : 10;
+    }
+
+    /**
+     * Métricas del pool de conexiones (activas, inactivas, en espera, histogramas de adquisición y uso)
+     *
+     * @return Métricas del pool, o null si el pool todavía no se ha iniciado
+     */
+    public static MetricasPoolConexiones.Metricas getPoolMetrics() {
+        return MetricasPoolConexiones.obtener(POOL_NAME);
+    }
+
+    /**
+     * Aciertos, fallos y escrituras de la caché de segundo nivel y de consultas, global y por región
+     */
+    public static EstadisticasCache getCacheStatistics() {
+        return EstadisticasCache.de(getEntityManagerFactory());
+    }
+
+    private static Map<String, Object> sobrescriturasPool() {
+        Map<String, Object> propiedades = new HashMap<>();
+        for (String parametro : PARAMETROS_POOL) {
+            String valor = System.getProperty("sistema.pool." + parametro);
+            if (valor == null) {
+                valor = System.getenv("SISTEMA_POOL_" + parametro.toUpperCase());
+            }
+            if (valor != null && !valor.isBlank()) {
+                propiedades.put("hibernate.hikari." + parametro, valor.trim());
+                System.out.println("⚙️ Pool de conexiones: " + parametro + "=" + valor.trim());
+            }
+        }
+        return propiedades;
+    }
 }
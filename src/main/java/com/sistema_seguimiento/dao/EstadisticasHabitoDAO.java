@@ -0,0 +1,139 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.EstadisticaPeriodo;
+import com.sistema_seguimiento.model.EstadisticaPeriodo.Granularidad;
+import com.sistema_seguimiento.model.Habito;
+import com.sistema_seguimiento.model.ResumenDiario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * DAO de estadísticas de cumplimiento de hábitos
+ *
+ * Dos consultas por serie: los hábitos del usuario previstos en algún día del rango (con sus
+ * fechas de inicio y desactivación) y los días del rango en resumen_diario_usuario
+ * (ResumenDiarioDAO.findEntre, una fila por día con registros); registro_habito no se recorre.
+ * El resto (semanas, meses) se acumula en memoria.
+ *
+ * Cada día con resumen aporta sus hábitos cumplidos (los que cumplen la meta) y sus hábitos
+ * previstos, que nunca son menos que los cumplidos. Un día sin resumen no tiene cumplidos y
+ * aporta los hábitos previstos ese día: desde su fecha de inicio hasta el día anterior a su
+ * desactivación.
+ */
+public class EstadisticasHabitoDAO extends BaseDAO {
+
+    /**
+     * Hábitos del usuario activos o desactivados después del inicio del rango
+     */
+    static final String QUERY_HABITOS =
+        "SELECT h FROM Habito h " +
+        "WHERE h.usuarioId = :usuarioId " +
+        "AND (h.activo = true OR h.fechaDesactivacion > :desde)";
+
+    private final ResumenDiarioDAO resumenDiarioDAO;
+
+    public EstadisticasHabitoDAO() {
+        this(null);
+    }
+
+    public EstadisticasHabitoDAO(EntityManagerFactory emf) {
+        super(emf);
+        this.resumenDiarioDAO = new ResumenDiarioDAO(emf);
+    }
+
+    /**
+     * Serie de cumplimiento entre dos fechas (ambas incluidas), un punto por día, semana o mes
+     *
+     * @throws IllegalArgumentException si falta algún parámetro o desde es posterior a hasta
+     */
+    public List<EstadisticaPeriodo> serieCumplimiento(Integer usuarioId, LocalDate desde, LocalDate hasta,
+                                                      Granularidad granularidad) {
+        if (granularidad == null) {
+            throw new IllegalArgumentException("La granularidad es obligatoria");
+        }
+        DiasCumplidos dias = consultar(usuarioId, desde, hasta);
+
+        List<EstadisticaPeriodo> serie = new ArrayList<>();
+        for (LocalDate inicio = granularidad.inicioDe(desde); !inicio.isAfter(hasta); inicio = granularidad.siguiente(inicio)) {
+            LocalDate desdeRecortado = inicio.isBefore(desde) ? desde : inicio;
+            LocalDate fin = granularidad.siguiente(inicio).minusDays(1);
+            LocalDate hastaRecortado = fin.isAfter(hasta) ? hasta : fin;
+            serie.add(dias.periodo(desdeRecortado, hastaRecortado));
+        }
+        return serie;
+    }
+
+    /**
+     * Cumplimiento de todo el rango como un único periodo
+     */
+    public EstadisticaPeriodo totalCumplimiento(Integer usuarioId, LocalDate desde, LocalDate hasta) {
+        return consultar(usuarioId, desde, hasta).periodo(desde, hasta);
+    }
+
+    private DiasCumplidos consultar(Integer usuarioId, LocalDate desde, LocalDate hasta) {
+        if (usuarioId == null || desde == null || hasta == null) {
+            throw new IllegalArgumentException("usuarioId, desde y hasta son obligatorios");
+        }
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+        }
+        List<Habito> habitos;
+        EntityManager em = crearEntityManager();
+        try {
+            habitos = em.createQuery(QUERY_HABITOS, Habito.class)
+                .setParameter("usuarioId", usuarioId)
+                .setParameter("desde", desde)
+                .getResultList();
+        } finally {
+            em.close();
+        }
+
+        DiasCumplidos dias = new DiasCumplidos(habitos);
+        for (ResumenDiario dia : resumenDiarioDAO.findEntre(usuarioId, desde, hasta)) {
+            dias.porFecha.put(dia.getFecha(), dia);
+        }
+        return dias;
+    }
+
+    /**
+     * Hábitos del usuario y resúmenes de los días del rango consultado
+     */
+    private static final class DiasCumplidos {
+        private final List<Habito> habitos;
+        private final Map<LocalDate, ResumenDiario> porFecha = new HashMap<>();
+
+        private DiasCumplidos(List<Habito> habitos) {
+            this.habitos = habitos;
+        }
+
+        private EstadisticaPeriodo periodo(LocalDate desde, LocalDate hasta) {
+            Set<Integer> previstos = new HashSet<>();
+            long posibles = 0;
+            long cumplidos = 0;
+            for (LocalDate dia = desde; !dia.isAfter(hasta); dia = dia.plusDays(1)) {
+                int previstosDelDia = 0;
+                for (Habito habito : habitos) {
+                    if (habito.isPrevistoEl(dia)) {
+                        previstos.add(habito.getId());
+                        previstosDelDia++;
+                    }
+                }
+                ResumenDiario resumen = porFecha.get(dia);
+                if (resumen != null) {
+                    posibles += resumen.getHabitosPrevistos();
+                    cumplidos += resumen.getHabitosCumplidos();
+                } else {
+                    posibles += previstosDelDia;
+                }
+            }
+            return new EstadisticaPeriodo(desde, hasta, previstos.size(), posibles, cumplidos);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.EventoGamificacion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * DAO de la tabla outbox de eventos de gamificación (evento_gamificacion)
+ *
+ * - guardar se une a la transacción de la petición si hay contexto abierto: el evento se
+ *   confirma o se revierte junto con el registro que lo origina. En PostgreSQL inserta con
+ *   ON CONFLICT DO NOTHING: dos peticiones con la misma clave a la vez no rompen la
+ *   restricción única (y con ella la transacción de la petición que pierde).
+ * - procesar suma los puntos y marca el evento como procesado en la misma transacción, con la
+ *   fila del evento bloqueada: dos hilos que reciben el mismo evento no suman dos veces y un
+ *   evento ya procesado se ignora (entrega al menos una vez, efecto una sola vez).
+ */
+public class EventoGamificacionDAO extends BaseDAO {
+
+    private static final int MAX_LONGITUD_ERROR = 500;
+
+    /**
+     * Inserta el evento salvo que su clave ya exista; devuelve el id solo si lo insertó. El id
+     * sale de la secuencia de la entidad (con pooled-lo cada nextval es un bloque que Hibernate
+     * no usa).
+     */
+    static final String INSERT_POSTGRESQL =
+        "INSERT INTO evento_gamificacion " +
+        "  (id, tipo, clave_idempotencia, usuario_id, habito_id, fecha, estado, puntos, creado_en, intentos) " +
+        "VALUES (nextval('evento_gamificacion_seq'), :tipo, :clave, :usuarioId, CAST(:habitoId AS INTEGER), " +
+        "  CAST(:fecha AS DATE), CAST(:estado AS VARCHAR), :puntos, CURRENT_TIMESTAMP, 0) " +
+        "ON CONFLICT (clave_idempotencia) DO NOTHING " +
+        "RETURNING id";
+
+    private static final String QUERY_POR_CLAVE =
+        "SELECT e FROM EventoGamificacion e WHERE e.claveIdempotencia = :clave";
+
+    public EventoGamificacionDAO() {
+        this(null);
+    }
+
+    public EventoGamificacionDAO(EntityManagerFactory emf) {
+        super(emf);
+    }
+
+    /**
+     * Guarda el evento salvo que ya exista uno con la misma clave de idempotencia
+     *
+     * @return El evento guardado, o el existente con esa clave
+     */
+    public EventoGamificacion guardar(EventoGamificacion evento) {
+        EntityManager em = crearEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            EventoGamificacion resultado = esPostgreSQL() ? insertarSiNoExiste(em, evento) : persistirSiNoExiste(em, evento);
+            if (resultado != evento) {
+                System.out.println("ℹ️ Evento " + evento.getClaveIdempotencia() + " ya registrado, se ignora");
+            }
+            tx.commit();
+            return resultado;
+        } catch (Exception e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            System.err.println("❌ Error al guardar evento de gamificación: " + e.getMessage());
+            throw new RuntimeException("Error al guardar evento de gamificación", e);
+        } finally {
+            em.close();
+        }
+    }
+
+    private static EventoGamificacion insertarSiNoExiste(EntityManager em, EventoGamificacion evento) {
+        List<?> insertado = em.createNativeQuery(INSERT_POSTGRESQL)
+            .setParameter("tipo", evento.getTipo())
+            .setParameter("clave", evento.getClaveIdempotencia())
+            .setParameter("usuarioId", evento.getUsuarioId())
+            .setParameter("habitoId", evento.getHabitoId())
+            .setParameter("fecha", evento.getFecha())
+            .setParameter("estado", evento.getEstado())
+            .setParameter("puntos", evento.getPuntos())
+            .getResultList();
+        if (insertado.isEmpty()) {
+            return buscarPorClave(em, evento.getClaveIdempotencia());
+        }
+        // Copia gestionada con lo que escribió la sentencia (id y creado_en)
+        return em.find(EventoGamificacion.class, ((Number) insertado.get(0)).longValue());
+    }
+
+    /**
+     * Consulta previa y persist (H2 en los tests); la restricción única sigue impidiendo un duplicado
+     */
+    private static EventoGamificacion persistirSiNoExiste(EntityManager em, EventoGamificacion evento) {
+        EventoGamificacion existente = buscarPorClave(em, evento.getClaveIdempotencia());
+        if (existente != null) {
+            return existente;
+        }
+        em.persist(evento);
+        return evento;
+    }
+
+    private static EventoGamificacion buscarPorClave(EntityManager em, String clave) {
+        List<EventoGamificacion> existentes = em.createQuery(QUERY_POR_CLAVE, EventoGamificacion.class)
+            .setParameter("clave", clave)
+            .getResultList();
+        return existentes.isEmpty() ? null : existentes.get(0);
+    }
+
+    public Optional<EventoGamificacion> findById(Long id) {
+        EntityManager em = crearEntityManager();
+        try {
+            return Optional.ofNullable(em.find(EventoGamificacion.class, id));
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Ids de eventos pendientes que aún no agotaron sus intentos, en orden de llegada
+     */
+    public List<Long> findPendientes(int maxIntentos, int limite) {
+        EntityManager em = crearEntityManager();
+        try {
+            return em.createQuery(
+                    "SELECT e.id FROM EventoGamificacion e " +
+                    "WHERE e.procesadoEn IS NULL AND e.intentos < :maxIntentos ORDER BY e.id", Long.class)
+                .setParameter("maxIntentos", maxIntentos)
+                .setMaxResults(limite)
+                .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    public long contarPendientes() {
+        EntityManager em = crearEntityManager();
+        try {
+            return em.createQuery(
+                    "SELECT COUNT(e) FROM EventoGamificacion e WHERE e.procesadoEn IS NULL", Long.class)
+                .getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Aplica los puntos del evento y lo marca como procesado en una sola transacción
+     *
+     * @return El evento procesado ahora, o vacío si no existe (su transacción se revirtió) o
+     *         ya estaba procesado
+     */
+    public Optional<EventoGamificacion> procesar(Long id) {
+        EntityManager em = crearEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            EventoGamificacion evento = em.find(EventoGamificacion.class, id, LockModeType.PESSIMISTIC_WRITE);
+            if (evento == null || evento.isProcesado()) {
+                tx.commit();
+                return Optional.empty();
+            }
+            if (evento.getPuntos() > 0) {
+                em.createQuery("UPDATE Usuario u SET u.puntos = u.puntos + :puntos WHERE u.id = :id")
+                    .setParameter("puntos", evento.getPuntos())
+                    .setParameter("id", evento.getUsuarioId())
+                    .executeUpdate();
+            }
+            evento.setProcesadoEn(LocalDateTime.now());
+            evento.setUltimoError(null);
+            tx.commit();
+            return Optional.of(evento);
+        } catch (Exception e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw new RuntimeException("Error al procesar el evento de gamificación " + id, e);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Anota un procesamiento fallido; el evento sigue pendiente para el siguiente barrido
+     */
+    public void registrarFallo(Long id, String mensaje) {
+        EntityManager em = crearEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            EventoGamificacion evento = em.find(EventoGamificacion.class, id);
+            if (evento != null && !evento.isProcesado()) {
+                evento.setIntentos(evento.getIntentos() + 1);
+                evento.setUltimoError(mensaje != null && mensaje.length() > MAX_LONGITUD_ERROR
+                    ? mensaje.substring(0, MAX_LONGITUD_ERROR) : mensaje);
+            }
+            tx.commit();
+        } catch (Exception e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            System.err.println("❌ Error al anotar el fallo del evento " + id + ": " + e.getMessage());
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -1,66 +1,231 @@
 package com.sistema_seguimiento.dao;
 
+import com.sistema_seguimiento.model.CheckInHabito;
 import com.sistema_seguimiento.model.Habito;
+import com.sistema_seguimiento.model.PaginaRegistros;
 import com.sistema_seguimiento.model.RegistroHabito;
+import com.sistema_seguimiento.model.ResultadoCheckIn;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.TypedQuery;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * DAO para gestión de Hábitos
  *
  * Proporciona operaciones CRUD y consultas específicas para la gestión
  * de hábitos, registros de hábitos y estadísticas.
+ *
+ * Las columnas de racha (racha_actual, racha_maxima, fecha_ultima_racha) y el
+ * calendario de cumplimiento se mantienen en la misma transacción que cada
+ * escritura de registros, igual que el resumen diario del usuario (ResumenDiarioDAO)
+ * del que se leen las estadísticas agregadas.
  */
-public class HabitoDAO {
+public class HabitoDAO extends BaseDAO {
+
+    /**
+     * Días cumplidos de un hábito (completado y veces_realizado >= meta_diaria), en orden ascendente
+     */
+    static final String QUERY_DIAS_CUMPLIDOS =
+        "SELECT DISTINCT r.fecha FROM RegistroHabito r " +
+        "WHERE r.habito.id = :habitoId AND r.completado = true " +
+        "AND r.vecesRealizado >= r.habito.metaDiaria " +
+        "ORDER BY r.fecha";
+
+    /**
+     * Registros escritos entre flush en un lote de check-ins (igual que hibernate.jdbc.batch_size)
+     */
+    static final int TAMANO_LOTE = 50;
+
+    /**
+     * Días de registros que trae cada hábito en los listados (hoy incluido)
+     */
+    public static final int DIAS_VENTANA = 30;
+
+    /**
+     * Registros de la ventana de varios hábitos en una sola consulta
+     */
+    static final String QUERY_REGISTROS_VENTANA =
+        "SELECT r FROM RegistroHabito r " +
+        "WHERE r.habito.id IN :habitoIds AND r.fecha >= :desde " +
+        "ORDER BY r.fecha DESC, r.id DESC";
+
+    /**
+     * Registros de un hábito del usuario; findHistorial añade el cursor y el orden
+     */
+    static final String QUERY_HISTORIAL =
+        "SELECT r FROM RegistroHabito r " +
+        "WHERE r.habito.id = :habitoId AND r.habito.usuarioId = :usuarioId ";
+
+    /**
+     * Upsert del registro del día en PostgreSQL: inserta el registro o, si ya existe uno para
+     * (habito_id, fecha_registro), le suma una vez más, en un solo viaje a la BD.
+     *
+     * - El id sale de la secuencia de la entidad: con pooled-lo cada nextval es el inicio de un
+     *   bloque que Hibernate no usa.
+     * - usuario_id se rellena aquí porque la sentencia no pasa por RegistroHabito.onCreate.
+     * - Devuelve veces_realizado tras escribir, si la fila es nueva (xmax = 0), el completado
+     *   previo (previo lee la fila antes de la sentencia; el hábito está bloqueado, así que
+     *   ningún otro check-in del hábito la cambia entre medias) y el id del registro.
+     */
+    static final String UPSERT_POSTGRESQL =
+        "WITH previo AS (" +
+        "  SELECT completado FROM registro_habito " +
+        "  WHERE habito_id = :habitoId AND fecha_registro = :fecha) " +
+        "INSERT INTO registro_habito AS r " +
+        "  (id, habito_id, usuario_id, fecha_registro, completado, veces_realizado, notas, estado_animo) " +
+        "VALUES (nextval('registro_habito_seq'), :habitoId, CAST(:usuarioId AS INTEGER), :fecha, " +
+        "  true, 1, CAST(:notas AS TEXT), 'neutral') " +
+        "ON CONFLICT (habito_id, fecha_registro) DO UPDATE SET " +
+        "  veces_realizado = COALESCE(r.veces_realizado, 0) + 1, " +
+        "  completado = true, " +
+        "  notas = COALESCE(EXCLUDED.notas, r.notas) " +
+        "RETURNING r.veces_realizado, (r.xmax = 0), (SELECT completado FROM previo), r.id";
+
+    /**
+     * Hábitos por transacción en construirCalendariosPendientes
+     */
+    static final int LOTE_CALENDARIOS = 200;
+
+    private final ResumenDiarioDAO resumenDiarioDAO;
+
+    public HabitoDAO() {
+        this(null);
+    }
+
+    public HabitoDAO(EntityManagerFactory emf) {
+        super(emf);
+        this.resumenDiarioDAO = new ResumenDiarioDAO(emf);
+    }
 
     public List<Habito> findByUsuarioId(Integer usuarioId) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        return findByUsuarioId(usuarioId, DIAS_VENTANA);
+    }
+
+    /**
+     * Hábitos activos del usuario con solo los registros de los últimos dias días (hoy incluido)
+     *
+     * En lugar de LEFT JOIN FETCH de todo el historial: una consulta de hábitos y otra con los
+     * registros de la ventana de todos ellos, así memoria y respuesta no crecen con la
+     * antigüedad del usuario. Racha y porcentajes salen de las columnas mantenidas y del
+     * calendario, no de la lista. Los hábitos se devuelven desacoplados del EntityManager para
+     * que la lista recortada no se tome por la colección mapeada; el historial anterior se
+     * pide por páginas con findHistorial.
+     */
+    public List<Habito> findByUsuarioId(Integer usuarioId, int dias) {
+        return findConVentana(usuarioId, "h.fechaCreacion DESC", dias);
+    }
+
+    public Optional<Habito> findById(Integer id) {
+        EntityManager em = crearEntityManager();
         try {
-            TypedQuery<Habito> query = em.createQuery(
-                "SELECT DISTINCT h FROM Habito h " +
-                "LEFT JOIN FETCH h.registros " +
-                "WHERE h.usuarioId = :usuarioId AND h.activo = true " +
-                "ORDER BY h.fechaCreacion DESC", 
-                Habito.class);
-            query.setParameter("usuarioId", usuarioId);
-            return query.getResultList();
+            // Sin calendario (backfill pendiente) la racha sale de la colección registros completa
+            return Optional.ofNullable(em.find(Habito.class, id));
         } finally {
             em.close();
         }
     }
 
-    public Optional<Habito> findById(Integer id) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+    public List<Habito> findHabitosActivos(Integer usuarioId) {
+        return findConVentana(usuarioId, "h.nombre", DIAS_VENTANA);
+    }
+
+    private List<Habito> findConVentana(Integer usuarioId, String orden, int dias) {
+        EntityManager em = crearEntityManager();
         try {
-            Habito habito = em.find(Habito.class, id);
-            return Optional.ofNullable(habito);
+            List<Habito> habitos = em.createQuery(
+                "SELECT h FROM Habito h " +
+                "WHERE h.usuarioId = :usuarioId AND h.activo = true " +
+                "ORDER BY " + orden,
+                Habito.class)
+                .setParameter("usuarioId", usuarioId)
+                .getResultList();
+            if (habitos.isEmpty()) {
+                return habitos;
+            }
+
+            LocalDate desde = LocalDate.now().minusDays(dias - 1L);
+            List<Integer> ids = habitos.stream().map(Habito::getId).collect(Collectors.toList());
+            Map<Integer, List<RegistroHabito>> porHabito = new HashMap<>();
+            for (RegistroHabito registro : em.createQuery(QUERY_REGISTROS_VENTANA, RegistroHabito.class)
+                    .setParameter("habitoIds", ids)
+                    .setParameter("desde", desde)
+                    .getResultList()) {
+                porHabito.computeIfAbsent(registro.getHabito().getId(), id -> new ArrayList<>()).add(registro);
+            }
+
+            for (Habito habito : habitos) {
+                em.detach(habito);
+                habito.setRegistros(porHabito.getOrDefault(habito.getId(), new ArrayList<>()));
+                habito.setVentanaRegistrosDesde(desde);
+                if (habito.getCalendario() == null) {
+                    // Backfill pendiente (ver construirCalendariosPendientes): sin calendario la racha
+                    // recorrería solo la ventana, así que se calcula en la copia desacoplada, sin escribir
+                    habito.recalcularDesde(em.createQuery(QUERY_DIAS_CUMPLIDOS, LocalDate.class)
+                        .setParameter("habitoId", habito.getId())
+                        .getResultList());
+                }
+            }
+            return habitos;
         } finally {
             em.close();
         }
     }
 
-    public List<Habito> findHabitosActivos(Integer usuarioId) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+    /**
+     * Página del historial de un hábito del usuario, de lo más reciente a lo más antiguo
+     *
+     * Paginación por cursor (fecha, id): cada página empieza justo después del último
+     * registro de la anterior, sin OFFSET, así que el coste no depende de lo lejos que se
+     * haya paginado. Con cursor null empieza por el registro más reciente.
+     *
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public PaginaRegistros findHistorial(Integer habitoId, Integer usuarioId, String cursor, int limite) {
+        EntityManager em = crearEntityManager();
         try {
-            TypedQuery<Habito> query = em.createQuery(
-                "SELECT DISTINCT h FROM Habito h " +
-                "LEFT JOIN FETCH h.registros " +
-                "WHERE h.usuarioId = :usuarioId AND h.activo = true " +
-                "ORDER BY h.nombre", 
-                Habito.class);
-            query.setParameter("usuarioId", usuarioId);
-            return query.getResultList();
+            TypedQuery<RegistroHabito> query;
+            if (cursor == null) {
+                query = em.createQuery(QUERY_HISTORIAL + "ORDER BY r.fecha DESC, r.id DESC", RegistroHabito.class);
+            } else {
+                query = em.createQuery(QUERY_HISTORIAL +
+                    "AND (r.fecha < :fecha OR (r.fecha = :fecha AND r.id < :id)) " +
+                    "ORDER BY r.fecha DESC, r.id DESC", RegistroHabito.class);
+                query.setParameter("fecha", PaginaRegistros.fechaDeCursor(cursor));
+                query.setParameter("id", PaginaRegistros.idDeCursor(cursor));
+            }
+            // Una fila de más para saber si hay otra página sin hacer un COUNT
+            List<RegistroHabito> filas = query
+                .setParameter("habitoId", habitoId)
+                .setParameter("usuarioId", usuarioId)
+                .setMaxResults(limite + 1)
+                .getResultList();
+
+            if (filas.size() <= limite) {
+                return new PaginaRegistros(filas, null);
+            }
+            List<RegistroHabito> pagina = new ArrayList<>(filas.subList(0, limite));
+            return new PaginaRegistros(pagina, PaginaRegistros.aCursor(pagina.get(limite - 1)));
         } finally {
             em.close();
         }
     }
 
     public Habito save(Habito habito) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         EntityTransaction tx = em.getTransaction();
         try {
             tx.begin();
@@ -69,10 +234,39 @@ public class HabitoDAO {
             System.out.println("💾 Guardando hábito: " + habito.getNombre());
             
             if (habito.getId() == null) {
+                if (habito.getCalendario() == null && habito.getRegistros().isEmpty()) {
+                    // Calendario vacío desde el alta: las lecturas nunca tienen que construirlo
+                    habito.recalcularDesde(List.of());
+                }
                 em.persist(habito);
+                // Un hábito más previsto hoy
+                ResumenDiarioDAO.sincronizar(em, usuarioDe(habito), List.of(LocalDate.now()));
                 System.out.println("✅ Hábito persistido con ID: " + habito.getId());
             } else {
+                // Racha y calendario los mantiene el DAO: conservar los de la BD, no los de la copia desconectada
+                // (la meta se lee sin flush: con el contexto por petición 'habito' puede ser la instancia gestionada ya modificada)
+                List<Object[]> guardado = em.createQuery(
+                        "SELECT h.metaDiaria, h.activo FROM Habito h WHERE h.id = :id", Object[].class)
+                    .setParameter("id", habito.getId())
+                    .setFlushMode(FlushModeType.COMMIT)
+                    .getResultList();
+                boolean metaCambiada = !guardado.isEmpty()
+                    && !Objects.equals(guardado.get(0)[0], habito.getMetaDiaria());
+                boolean activoCambiado = !guardado.isEmpty()
+                    && !Objects.equals(guardado.get(0)[1], habito.getActivo());
+                Habito actual = em.find(Habito.class, habito.getId());
+                if (actual != null && actual != habito) {
+                    habito.aplicarRacha(actual.getRacha());
+                    habito.setCalendario(actual.getCalendario());
+                }
                 habito = em.merge(habito);
+                if (metaCambiada) {
+                    recalcularRacha(em, habito);
+                    // La meta nueva rige desde hoy: los días pasados se quedan con la que tenían
+                    ResumenDiarioDAO.sincronizarDesde(em, usuarioDe(habito), LocalDate.now());
+                } else if (activoCambiado) {
+                    ResumenDiarioDAO.sincronizar(em, usuarioDe(habito), List.of(LocalDate.now()));
+                }
                 System.out.println("✅ Hábito actualizado con ID: " + habito.getId());
             }
             
@@ -93,7 +287,7 @@ public class HabitoDAO {
     }
 
     public void delete(Integer id) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         EntityTransaction tx = em.getTransaction();
         try {
             tx.begin();
@@ -101,6 +295,7 @@ public class HabitoDAO {
             if (habito != null) {
                 habito.setActivo(false); // Soft delete
                 em.merge(habito);
+                ResumenDiarioDAO.sincronizar(em, usuarioDe(habito), List.of(LocalDate.now()));
             }
             tx.commit();
         } catch (Exception e) {
@@ -114,7 +309,7 @@ public class HabitoDAO {
     }
 
     public RegistroHabito findRegistroByFecha(Integer habitoId, LocalDate fecha) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         try {
             TypedQuery<RegistroHabito> query = em.createQuery(
                 "SELECT r FROM RegistroHabito r WHERE r.habito.id = :habitoId AND r.fecha = :fecha", 
@@ -129,15 +324,56 @@ public class HabitoDAO {
     }
 
     public RegistroHabito saveRegistro(RegistroHabito registro) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         EntityTransaction tx = em.getTransaction();
         try {
             tx.begin();
+            
+            // Estado previo del registro para saber cómo cambia la racha
+            LocalDate fechaAnterior = null;
+            boolean cumpliaAntes = false;
+            boolean completadoAntes = false;
+            if (registro.getId() == null && registro.getHabito() != null && registro.getHabito().getId() != null) {
+                // Un registro por hábito y día (restricción única): el del formulario sustituye al existente
+                em.createQuery(
+                        "SELECT r.id FROM RegistroHabito r WHERE r.habito.id = :habitoId AND r.fecha = :fecha",
+                        Integer.class)
+                    .setParameter("habitoId", registro.getHabito().getId())
+                    .setParameter("fecha", registro.getFecha())
+                    .getResultStream()
+                    .findFirst()
+                    .ifPresent(registro::setId);
+            }
+            if (registro.getId() != null) {
+                RegistroHabito previo = em.find(RegistroHabito.class, registro.getId());
+                if (previo != null) {
+                    fechaAnterior = previo.getFecha();
+                    cumpliaAntes = previo.cumpleMeta(previo.getHabito().getMetaDiaria());
+                    completadoAntes = Boolean.TRUE.equals(previo.getCompletado());
+                }
+            }
+            
             if (registro.getId() == null) {
                 em.persist(registro);
             } else {
                 registro = em.merge(registro);
             }
+            
+            if (registro.getHabito() != null && registro.getHabito().getId() != null) {
+                Habito habito = em.find(Habito.class, registro.getHabito().getId());
+                if (habito != null) {
+                    actualizarRacha(em, habito, registro, fechaAnterior, cumpliaAntes);
+                    actualizarContadorCompletados(em, habito,
+                        deltaCompletado(completadoAntes, registro.getCompletado()));
+                    Set<LocalDate> dias = new LinkedHashSet<>();
+                    dias.add(registro.getFecha());
+                    if (fechaAnterior != null) {
+                        dias.add(fechaAnterior);
+                    }
+                    ResumenDiarioDAO.sincronizar(em, usuarioDe(habito), dias);
+                }
+            }
+            
             tx.commit();
             return registro;
         } catch (Exception e) {
@@ -150,48 +386,221 @@ public class HabitoDAO {
         }
     }
 
-    public void registrarCompletado(Integer habitoId, LocalDate fecha, String observacion) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+    /**
+     * Registra un lote de check-ins del usuario en una sola transacción
+     *
+     * - Carga los hábitos y los registros existentes del rango con dos consultas
+     * - Crea o actualiza cada registro (habito, fecha) en orden, con flush cada TAMANO_LOTE
+     *   para que Hibernate agrupe las sentencias en lotes JDBC
+     * - Recalcula racha y calendario una vez por hábito afectado
+     * - Suma los puntos de los registros nuevos con un único UPDATE atómico; las
+     *   actualizaciones no suman, así reenviar un lote no duplica puntos
+     *
+     * Los elementos de hábitos que no existen o no son del usuario se rechazan sin
+     * afectar al resto. Si falla la transacción no se aplica ningún elemento.
+     *
+     * @param usuarioId Usuario dueño de los hábitos
+     * @param checkIns Check-ins ya validados, por su posición en la petición
+     * @return Resultado de cada elemento, ordenado por posición
+     * @throws RuntimeException si falla la transacción
+     */
+    public List<ResultadoCheckIn> registrarLote(Integer usuarioId, Map<Integer, CheckInHabito> checkIns) {
+        List<ResultadoCheckIn> resultados = new ArrayList<>();
+        if (checkIns == null || checkIns.isEmpty()) {
+            return resultados;
+        }
+
+        EntityManager em = crearEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+
+            Set<Integer> habitoIds = checkIns.values().stream()
+                .map(CheckInHabito::getHabitoId)
+                .collect(Collectors.toSet());
+            LocalDate desde = checkIns.values().stream().map(CheckInHabito::getFecha)
+                .min(Comparator.naturalOrder()).orElseThrow();
+            LocalDate hasta = checkIns.values().stream().map(CheckInHabito::getFecha)
+                .max(Comparator.naturalOrder()).orElseThrow();
+
+            Map<Integer, Habito> habitos = em.createQuery(
+                    "SELECT h FROM Habito h WHERE h.id IN :ids AND h.usuarioId = :usuarioId", Habito.class)
+                .setParameter("ids", habitoIds)
+                .setParameter("usuarioId", usuarioId)
+                .getResultStream()
+                .collect(Collectors.toMap(Habito::getId, h -> h));
+
+            Map<String, RegistroHabito> existentes = new HashMap<>();
+            if (!habitos.isEmpty()) {
+                em.createQuery(
+                        "SELECT r FROM RegistroHabito r WHERE r.habito.id IN :ids " +
+                        "AND r.fecha BETWEEN :desde AND :hasta ORDER BY r.id", RegistroHabito.class)
+                    .setParameter("ids", habitos.keySet())
+                    .setParameter("desde", desde)
+                    .setParameter("hasta", hasta)
+                    .getResultStream()
+                    .forEach(r -> existentes.putIfAbsent(claveRegistro(r.getHabito().getId(), r.getFecha()), r));
+            }
+
+            // Orden (hábito, fecha): las sentencias iguales quedan contiguas y se agrupan
+            List<Map.Entry<Integer, CheckInHabito>> ordenados = new ArrayList<>(checkIns.entrySet());
+            ordenados.sort(Comparator
+                .comparing((Map.Entry<Integer, CheckInHabito> e) -> e.getValue().getHabitoId())
+                .thenComparing(e -> e.getValue().getFecha()));
+
+            Set<Habito> afectados = new LinkedHashSet<>();
+            Set<LocalDate> diasAfectados = new LinkedHashSet<>();
+            int puntos = 0;
+            int completados = 0;
+            int escritos = 0;
+            for (Map.Entry<Integer, CheckInHabito> entrada : ordenados) {
+                CheckInHabito checkIn = entrada.getValue();
+                Habito habito = habitos.get(checkIn.getHabitoId());
+                if (habito == null) {
+                    resultados.add(ResultadoCheckIn.rechazado(entrada.getKey(), checkIn, "Hábito no encontrado"));
+                    continue;
+                }
+
+                String clave = claveRegistro(habito.getId(), checkIn.getFecha());
+                RegistroHabito registro = existentes.get(clave);
+                boolean nuevo = registro == null;
+                if (nuevo) {
+                    registro = new RegistroHabito(habito, checkIn.getFecha(), false, null);
+                }
+                boolean completadoAntes = Boolean.TRUE.equals(registro.getCompletado());
+                registro.setVecesRealizado(checkIn.getVecesRealizado());
+                registro.setNotas(checkIn.getNotas());
+                registro.setCompletado(checkIn.esCompletado(habito.getMetaDiaria()));
+                completados += deltaCompletado(completadoAntes, registro.getCompletado());
+
+                if (nuevo) {
+                    em.persist(registro);
+                    existentes.put(clave, registro);
+                    puntos += checkIn.getPuntos();
+                    resultados.add(ResultadoCheckIn.creado(entrada.getKey(), checkIn));
+                } else {
+                    resultados.add(ResultadoCheckIn.actualizado(entrada.getKey(), checkIn));
+                }
+                afectados.add(habito);
+                diasAfectados.add(checkIn.getFecha());
+
+                if (++escritos % TAMANO_LOTE == 0) {
+                    em.flush();
+                }
+            }
+
+            em.flush();
+            for (Habito habito : afectados) {
+                recalcularRacha(em, habito);
+            }
+
+            if (puntos > 0 || completados != 0) {
+                // Un solo UPDATE para puntos y contador de completados (null + n sigue siendo null)
+                em.createQuery("UPDATE Usuario u SET u.puntos = u.puntos + :puntos, " +
+                               "u.habitosCompletados = u.habitosCompletados + :completados WHERE u.id = :id")
+                    .setParameter("puntos", puntos)
+                    .setParameter("completados", (long) completados)
+                    .setParameter("id", usuarioId)
+                    .executeUpdate();
+            }
+            ResumenDiarioDAO.sincronizar(em, usuarioId, diasAfectados);
+
+            tx.commit();
+            System.out.println("✅ Lote de check-ins: " + escritos + " registros escritos, " +
+                               puntos + " puntos para usuario " + usuarioId);
+
+            resultados.sort(Comparator.comparingInt(ResultadoCheckIn::getIndice));
+            return resultados;
+        } catch (Exception e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw new RuntimeException("Error al registrar lote de check-ins", e);
+        } finally {
+            em.close();
+        }
+    }
+
+    private static String claveRegistro(Integer habitoId, LocalDate fecha) {
+        return habitoId + "|" + fecha;
+    }
+
+    /**
+     * Suma un cumplimiento al registro del día del hábito (lo crea si no existe)
+     *
+     * El hábito se bloquea (SELECT ... FOR UPDATE) para que los check-ins concurrentes del mismo
+     * hábito no pierdan actualizaciones de la racha ni del calendario. En PostgreSQL el registro
+     * se escribe con un upsert en una sola sentencia (UPSERT_POSTGRESQL); en otras BD (H2 en los
+     * tests) con la consulta previa e INSERT o UPDATE, seguros con el hábito bloqueado. La
+     * restricción única (habito_id, fecha_registro) impide en cualquier caso un segundo registro
+     * del mismo día.
+     *
+     * @return El registro del día tal como queda escrito (id y veces realizado tras sumar)
+     */
+    public RegistroHabito registrarCompletado(Integer habitoId, LocalDate fecha, String observacion) {
+        EntityManager em = crearEntityManager();
         EntityTransaction tx = em.getTransaction();
         try {
             tx.begin();
             
-            Habito habito = em.find(Habito.class, habitoId);
+            Habito habito = em.find(Habito.class, habitoId, LockModeType.PESSIMISTIC_WRITE);
             if (habito == null) {
                 throw new IllegalArgumentException("Hábito no encontrado");
             }
+            String notas = observacion != null && !observacion.trim().isEmpty() ? observacion : null;
 
-            // Buscar registro existente
-            TypedQuery<RegistroHabito> query = em.createQuery(
-                "SELECT r FROM RegistroHabito r WHERE r.habito.id = :habitoId AND r.fecha = :fecha", 
-                RegistroHabito.class);
-            query.setParameter("habitoId", habitoId);
-            query.setParameter("fecha", fecha);
-            
-            List<RegistroHabito> existentes = query.getResultList();
             RegistroHabito registro;
-            
-            if (existentes.isEmpty()) {
-                // Crear nuevo registro - ✅ Actualizado a nueva estructura
-                registro = new RegistroHabito();
-                registro.setHabito(habito);
-                registro.setFecha(fecha);
-                registro.setCompletado(true);  // ✅ Boolean true
-                registro.setVecesRealizado(1);  // ✅ Nuevo campo
-                registro.setNotas(observacion);  // ✅ Cambiado a setNotas
-                em.persist(registro);
+            boolean cumpliaAntes;
+            boolean completadoAntes;
+            if (esPostgreSQL()) {
+                Object[] fila = (Object[]) em.createNativeQuery(UPSERT_POSTGRESQL)
+                    .setParameter("habitoId", habitoId)
+                    .setParameter("usuarioId", usuarioDe(habito))
+                    .setParameter("fecha", fecha)
+                    .setParameter("notas", notas)
+                    .getSingleResult();
+                int veces = ((Number) fila[0]).intValue();
+                boolean insertado = Boolean.TRUE.equals(fila[1]);
+                completadoAntes = !insertado && Boolean.TRUE.equals(fila[2]);
+                cumpliaAntes = completadoAntes && habito.getMetaDiaria() != null
+                    && veces - 1 >= habito.getMetaDiaria();
+                // Copia sin gestionar con el estado escrito: solo para calcular la racha
+                registro = new RegistroHabito(habito, fecha, true, notas);
+                registro.setId(((Number) fila[3]).intValue());
+                registro.setVecesRealizado(veces);
             } else {
-                // Incrementar existente - ✅ Actualizado
-                registro = existentes.get(0);
-                registro.setVecesRealizado(registro.getVecesRealizado() + 1);  // ✅ Incrementar veces_realizado
-                registro.setCompletado(true);  // ✅ Marcar como completado
-                if (observacion != null && !observacion.trim().isEmpty()) {
-                    registro.setNotas(observacion);  // ✅ Cambiado a setNotas
+                List<RegistroHabito> existentes = em.createQuery(
+                        "SELECT r FROM RegistroHabito r WHERE r.habito.id = :habitoId AND r.fecha = :fecha",
+                        RegistroHabito.class)
+                    .setParameter("habitoId", habitoId)
+                    .setParameter("fecha", fecha)
+                    .getResultList();
+                cumpliaAntes = !existentes.isEmpty()
+                    && existentes.get(0).cumpleMeta(habito.getMetaDiaria());
+                completadoAntes = !existentes.isEmpty()
+                    && Boolean.TRUE.equals(existentes.get(0).getCompletado());
+
+                if (existentes.isEmpty()) {
+                    registro = new RegistroHabito(habito, fecha, true, notas);
+                    registro.setVecesRealizado(1);
+                    em.persist(registro);
+                } else {
+                    registro = existentes.get(0);
+                    registro.setVecesRealizado(
+                        (registro.getVecesRealizado() != null ? registro.getVecesRealizado() : 0) + 1);
+                    registro.setCompletado(true);
+                    if (notas != null) {
+                        registro.setNotas(notas);
+                    }
                 }
-                em.merge(registro);
             }
             
+            actualizarRacha(em, habito, registro, fecha, cumpliaAntes);
+            actualizarContadorCompletados(em, habito, deltaCompletado(completadoAntes, true));
+            ResumenDiarioDAO.sincronizar(em, usuarioDe(habito), List.of(fecha));
+            
             tx.commit();
+            return registro;
         } catch (Exception e) {
             if (tx.isActive()) {
                 tx.rollback();
@@ -203,7 +612,7 @@ public class HabitoDAO {
     }
 
     public List<RegistroHabito> findRegistrosByRango(Integer habitoId, LocalDate fechaInicio, LocalDate fechaFin) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         try {
             TypedQuery<RegistroHabito> query = em.createQuery(
                 "SELECT r FROM RegistroHabito r WHERE r.habito.id = :habitoId AND r.fecha BETWEEN :inicio AND :fin ORDER BY r.fecha DESC", 
@@ -218,10 +627,11 @@ public class HabitoDAO {
     }
 
     public List<RegistroHabito> findRegistrosDeHoy(Integer usuarioId) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         try {
+            // usuario_id está copiado en registro_habito: índice (usuario_id, fecha_registro) sin unir con habito
             TypedQuery<RegistroHabito> query = em.createQuery(
-                "SELECT r FROM RegistroHabito r WHERE r.habito.usuarioId = :usuarioId AND r.fecha = :hoy", 
+                "SELECT r FROM RegistroHabito r WHERE r.usuarioId = :usuarioId AND r.fecha = :hoy", 
                 RegistroHabito.class);
             query.setParameter("usuarioId", usuarioId);
             query.setParameter("hoy", LocalDate.now());
@@ -231,73 +641,135 @@ public class HabitoDAO {
         }
     }
 
+    /**
+     * Hábitos del usuario que hoy alcanzan su meta diaria (del resumen diario)
+     */
     public Long countHabitosCompletadosHoy(Integer usuarioId) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
-        try {
-            TypedQuery<Long> query = em.createQuery(
-                "SELECT COUNT(r) FROM RegistroHabito r WHERE r.habito.usuarioId = :usuarioId AND r.fecha = :hoy AND r.completado >= r.habito.metaDiaria", 
-                Long.class);
-            query.setParameter("usuarioId", usuarioId);
-            query.setParameter("hoy", LocalDate.now());
-            return query.getSingleResult();
-        } finally {
-            em.close();
-        }
+        return resumenDiarioDAO.findDia(usuarioId, LocalDate.now())
+            .map(dia -> (long) dia.getHabitosCumplidos())
+            .orElse(0L);
     }
 
+    /**
+     * Porcentaje de hábitos cumplidos en los últimos 7 días, hoy incluido (del resumen diario)
+     */
     public Double getPorcentajeCompletadoSemana(Integer usuarioId) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
-        try {
-            LocalDate hoy = LocalDate.now();
-            LocalDate inicioSemana = hoy.minusDays(6); // Últimos 7 días
-
-            // Total de hábitos activos * 7 días
-            TypedQuery<Long> queryTotal = em.createQuery(
-                "SELECT COUNT(h) FROM Habito h WHERE h.usuarioId = :usuarioId AND h.activo = true", 
-                Long.class);
-            queryTotal.setParameter("usuarioId", usuarioId);
-            Long habitosActivos = queryTotal.getSingleResult();
-            
-            if (habitosActivos == 0) return 0.0;
-
-            // Hábitos completados en la semana
-            TypedQuery<Long> queryCompletados = em.createQuery(
-                "SELECT COUNT(r) FROM RegistroHabito r WHERE r.habito.usuarioId = :usuarioId AND r.fecha BETWEEN :inicio AND :fin AND r.completado >= r.habito.metaDiaria", 
-                Long.class);
-            queryCompletados.setParameter("usuarioId", usuarioId);
-            queryCompletados.setParameter("inicio", inicioSemana);
-            queryCompletados.setParameter("fin", hoy);
-            Long completados = queryCompletados.getSingleResult();
-
-            return (completados * 100.0) / (habitosActivos * 7);
-        } finally {
-            em.close();
-        }
+        LocalDate hoy = LocalDate.now();
+        return resumenDiarioDAO.porcentajeCumplimiento(usuarioId, hoy.minusDays(6), hoy);
     }
 
     /**
-     * Cuenta el número total de días en que un usuario ha cumplido
-     * la meta diaria para CUALQUIERA de sus hábitos activos.
+     * Cuenta el número total de días en que un usuario ha completado
+     * al menos un registro de CUALQUIERA de sus hábitos (del resumen diario).
      * @param usuarioId ID del usuario
      * @return Número total de días con hábitos cumplidos
      */
     public long countTotalHabitosCumplidosPorUsuario(Integer usuarioId) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
         try {
-            TypedQuery<Long> query = em.createQuery(
-                    "SELECT COUNT(DISTINCT r.fecha) FROM RegistroHabito r " +
-                            "WHERE r.habito.usuarioId = :usuarioId " +
-                            "AND r.habito.activo = true " +
-                            "AND r.completado = true", // Asumiendo que 'completado' refleja si la meta se cumplió ese día
-                    Long.class);
-            query.setParameter("usuarioId", usuarioId);
-            Long count = query.getSingleResult();
-            return count != null ? count : 0L;
+            return resumenDiarioDAO.contarDiasConCompletados(usuarioId);
         } catch (Exception e) {
             System.err.println("Error contando hábitos cumplidos para usuario " + usuarioId + ": " + e.getMessage());
             return 0L; // Devolver 0 en caso de error
-        } finally {
-            em.close();
         }
     }
+
+    /**
+     * Actualiza la racha del hábito tras guardar un registro, dentro de la transacción activa.
+     *
+     * El caso normal (un día pasa a estar cumplido en la punta de la racha) se resuelve en O(1).
+     * Los registros atrasados, las correcciones que quitan el cumplimiento y los cambios
+     * de fecha recalculan la racha desde el historial con una sola consulta.
+     *
+     * @param fechaAnterior Fecha que tenía el registro antes de guardarlo (null si es nuevo)
+     * @param cumpliaAntes Si el registro cumplía la meta antes de guardarlo
+     */
+    private void actualizarRacha(EntityManager em, Habito habito, RegistroHabito registro,
+                                 LocalDate fechaAnterior, boolean cumpliaAntes) {
+        boolean cumpleAhora = registro.cumpleMeta(habito.getMetaDiaria());
+        boolean mismaFecha = fechaAnterior == null || fechaAnterior.equals(registro.getFecha());
+
+        if (mismaFecha && cumpliaAntes == cumpleAhora) {
+            return; // El cumplimiento del día no cambió
+        }
+        if (mismaFecha && cumpleAhora && habito.registrarDiaCumplido(registro.getFecha())) {
+            return;
+        }
+        recalcularRacha(em, habito);
+    }
+
+    /**
+     * Construye y guarda el calendario de los hábitos creados antes de que existiera la columna,
+     * por lotes de LOTE_CALENDARIOS en transacciones propias. Se ejecuta al arrancar
+     * (EntityManagerUtil): las lecturas no escriben. Si falla, se reintenta en el siguiente
+     * arranque y mientras tanto findByUsuarioId calcula el calendario en memoria.
+     *
+     * @return Hábitos con el calendario construido en esta llamada
+     */
+    public int construirCalendariosPendientes() {
+        int construidos = 0;
+        while (true) {
+            EntityManager em = crearEntityManager();
+            EntityTransaction tx = em.getTransaction();
+            try {
+                tx.begin();
+                List<Habito> pendientes = em.createQuery(
+                        "SELECT h FROM Habito h WHERE h.calendarioDesde IS NULL ORDER BY h.id", Habito.class)
+                    .setMaxResults(LOTE_CALENDARIOS)
+                    .getResultList();
+                for (Habito habito : pendientes) {
+                    recalcularRacha(em, habito);
+                }
+                tx.commit();
+                construidos += pendientes.size();
+                if (pendientes.size() < LOTE_CALENDARIOS) {
+                    break;
+                }
+            } catch (Exception e) {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                System.err.println("❌ Error al construir calendarios de cumplimiento: " + e.getMessage());
+                break;
+            } finally {
+                em.close();
+            }
+        }
+        if (construidos > 0) {
+            System.out.println("✅ Calendario de cumplimiento construido para " + construidos + " hábitos");
+        }
+        return construidos;
+    }
+
+    /**
+     * Suma delta a usuario.habitos_completados con un UPDATE atómico en la transacción en curso.
+     * Mientras el contador del usuario sea null (sin inicializar) sigue siendo null.
+     */
+    private void actualizarContadorCompletados(EntityManager em, Habito habito, int delta) {
+        if (delta == 0 || habito.getUsuarioId() == null) {
+            return;
+        }
+        em.createQuery("UPDATE Usuario u SET u.habitosCompletados = u.habitosCompletados + :delta WHERE u.id = :id")
+            .setParameter("delta", (long) delta)
+            .setParameter("id", Integer.valueOf(habito.getUsuarioId()))
+            .executeUpdate();
+    }
+
+    private static Integer usuarioDe(Habito habito) {
+        return habito.getUsuarioId() != null ? Integer.valueOf(habito.getUsuarioId()) : null;
+    }
+
+    private static int deltaCompletado(boolean antes, Boolean ahora) {
+        return (Boolean.TRUE.equals(ahora) ? 1 : 0) - (antes ? 1 : 0);
+    }
+
+    /**
+     * Recalcula la racha y el calendario de cumplimiento del hábito desde sus días cumplidos
+     */
+    private void recalcularRacha(EntityManager em, Habito habito) {
+        em.flush();
+        List<LocalDate> dias = em.createQuery(QUERY_DIAS_CUMPLIDOS, LocalDate.class)
+            .setParameter("habitoId", habito.getId())
+            .getResultList();
+        habito.recalcularDesde(dias);
+    }
 }
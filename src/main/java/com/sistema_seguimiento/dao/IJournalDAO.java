@@ -1,7 +1,11 @@
 package com.sistema_seguimiento.dao;
 
 import com.sistema_seguimiento.model.JournalEntry;
+import com.sistema_seguimiento.model.PaginaBusquedaDiario;
+import com.sistema_seguimiento.model.PaginaDiario;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Interfaz para el DAO de Journal
@@ -27,4 +31,45 @@ public interface IJournalDAO {
      * @return Lista de entradas ordenadas por fecha (DESC)
      */
     List<JournalEntry> getJournalEntriesByUser(Integer userId);
+    
+    /**
+     * Página de extractos del diario de un usuario, paginada por cursor (createdAt, id)
+     * 
+     * @param userId ID del usuario
+     * @param cursor siguienteCursor de la página anterior, o null para empezar por la más reciente
+     * @param limite Entradas por página
+     * @param largoExtracto Caracteres de contenido por entrada
+     * @return Página ordenada por fecha (DESC)
+     */
+    PaginaDiario findJournalPage(Integer userId, String cursor, int limite, int largoExtracto);
+    
+    /**
+     * Obtiene una entrada completa del usuario
+     * 
+     * @param userId ID del usuario
+     * @param entryId ID de la entrada
+     * @return La entrada, o vacío si no existe o pertenece a otro usuario
+     */
+    Optional<JournalEntry> findJournalEntry(Integer userId, Integer entryId);
+    
+    /**
+     * Entrega una a una todas las entradas de un usuario, por fecha (ASC), sin tenerlas
+     * todas en memoria
+     * 
+     * @param userId ID del usuario
+     * @param destino Recibe cada entrada
+     * @return Número de entradas entregadas
+     */
+    long exportJournalEntries(Integer userId, Consumer<JournalEntry> destino);
+    
+    /**
+     * Búsqueda de texto completo en las entradas de un usuario
+     * 
+     * @param userId ID del usuario
+     * @param consulta Palabras a buscar (deben aparecer todas)
+     * @param pagina Página, empezando en 1
+     * @param tamano Resultados por página
+     * @return Coincidencias de la página por relevancia, con fragmento resaltado y total
+     */
+    PaginaBusquedaDiario searchJournalEntries(Integer userId, String consulta, int pagina, int tamano);
 }
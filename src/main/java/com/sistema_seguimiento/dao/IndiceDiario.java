@@ -0,0 +1,386 @@
+package com.sistema_seguimiento.dao;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Índice invertido en memoria de las entradas de diario, para bases de datos sin búsqueda de
+ * texto completo (H2 en tests y desarrollo); en PostgreSQL JournalDAO usa tsvector + GIN.
+ *
+ * - Uno por EntityManagerFactory y, dentro, uno por usuario que se construye desde la BD la
+ *   primera vez que el usuario busca; después JournalDAO.storeJournalEntry añade cada entrada
+ *   nueva tras el commit, sin volver a leer el diario.
+ * - Como mucho MAX_USUARIOS índices de usuario (se desaloja el usado hace más tiempo) y cada
+ *   uno caduca TTL después de construirse, como CacheHabitos. La construcción se hace fuera
+ *   del candado; si mientras tanto se añadió una entrada del usuario, el índice se usa para
+ *   esa búsqueda pero no se guarda (versión por usuario repartida en VERSIONES contadores).
+ * - Términos: minúsculas sin tildes, sin palabras vacías y de al menos dos caracteres. Sin
+ *   lematización: "correr" no encuentra "corrí" (PostgreSQL sí, con el diccionario spanish).
+ * - Las búsquedas exigen todos los términos y ordenan por BM25 (la frecuencia de un término
+ *   cuenta menos en entradas largas y los términos raros pesan más).
+ * - Solo guarda ids, fechas y frecuencias; el texto para los fragmentos se lee de la BD.
+ */
+final class IndiceDiario {
+
+    static final int LARGO_FRAGMENTO = 200;
+    static final int MAX_USUARIOS = 500;
+    static final Duration TTL = Duration.ofMinutes(30);
+    private static final int VERSIONES = 64;
+    private static final int CONTEXTO_PREVIO = 60;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final String CON_TILDE = "áàäâéèëêíìïîóòöôúùüû";
+    private static final String SIN_TILDE = "aaaaeeeeiiiioooouuuu";
+
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+        "de", "la", "que", "el", "en", "los", "se", "del", "las", "un", "por", "con", "no", "una",
+        "su", "para", "es", "al", "lo", "como", "mas", "pero", "sus", "le", "ha", "me", "si", "sin",
+        "sobre", "este", "esta", "ya", "entre", "cuando", "todo", "ser", "son", "fue", "muy",
+        "hasta", "desde", "mi", "yo", "te", "tu", "nos", "les", "era", "hay", "y", "o", "a");
+
+    private static final Map<EntityManagerFactory, IndiceDiario> POR_FACTORIA =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final LinkedHashMap<Integer, Cargado> usuarios = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Cargado> mayor) {
+            return size() > MAX_USUARIOS;
+        }
+    };
+    private final AtomicLongArray versiones = new AtomicLongArray(VERSIONES);
+    private final AtomicLong cargas = new AtomicLong();
+
+    private IndiceDiario() {
+    }
+
+    static IndiceDiario para(EntityManagerFactory emf) {
+        return POR_FACTORIA.computeIfAbsent(emf, f -> new IndiceDiario());
+    }
+
+    /**
+     * Índice del usuario, construido con las filas (id, createdAt, content) de cargar si aún no existe
+     */
+    IndiceUsuario usuario(Integer userId, Supplier<List<Object[]>> cargar) {
+        long ahora = System.nanoTime();
+        synchronized (usuarios) {
+            Cargado cargado = usuarios.get(userId);
+            if (cargado != null && ahora - cargado.cargadoNanos < TTL.toNanos()) {
+                return cargado.indice;
+            }
+        }
+
+        long version = versiones.get(version(userId));
+        cargas.incrementAndGet();
+        IndiceUsuario indice = new IndiceUsuario();
+        for (Object[] fila : cargar.get()) {
+            indice.agregar((Integer) fila[0], (LocalDateTime) fila[1], (String) fila[2]);
+        }
+        synchronized (usuarios) {
+            if (versiones.get(version(userId)) != version) {
+                return indice;
+            }
+            // Otra búsqueda pudo guardar el suyo mientras tanto: se queda el que ya está
+            Cargado cargado = usuarios.get(userId);
+            if (cargado != null && ahora - cargado.cargadoNanos < TTL.toNanos()) {
+                return cargado.indice;
+            }
+            usuarios.put(userId, new Cargado(indice, ahora));
+            return indice;
+        }
+    }
+
+    /**
+     * Añade una entrada recién guardada; si el usuario aún no tiene índice no hace nada (la
+     * entrada ya estará en la BD cuando se construya)
+     */
+    void agregar(Integer userId, Integer entradaId, LocalDateTime createdAt, String contenido) {
+        Cargado cargado;
+        synchronized (usuarios) {
+            versiones.incrementAndGet(version(userId));
+            cargado = usuarios.get(userId);
+        }
+        if (cargado != null) {
+            cargado.indice.agregar(entradaId, createdAt, contenido);
+        }
+    }
+
+    /**
+     * Usuarios con índice en memoria
+     */
+    int getUsuarios() {
+        synchronized (usuarios) {
+            return usuarios.size();
+        }
+    }
+
+    /**
+     * Veces que se ha construido un índice de usuario desde la BD
+     */
+    long getCargas() {
+        return cargas.get();
+    }
+
+    /**
+     * Términos indexables del texto, en orden y con repeticiones
+     */
+    static List<String> terminos(String texto) {
+        List<String> terminos = new ArrayList<>();
+        for (Token token : tokens(texto)) {
+            if (esIndexable(token.termino)) {
+                terminos.add(token.termino);
+            }
+        }
+        return terminos;
+    }
+
+    /**
+     * Fragmento de hasta LARGO_FRAGMENTO caracteres alrededor del primer término buscado,
+     * escapado para HTML y con los términos entre <mark> y </mark>
+     */
+    static String fragmento(String contenido, Set<String> buscados) {
+        List<Token> tokens = tokens(contenido);
+        int primero = 0;
+        for (Token token : tokens) {
+            if (buscados.contains(token.termino)) {
+                primero = token.inicio;
+                break;
+            }
+        }
+
+        // Cortes en espacios para no partir palabras
+        int inicio = 0;
+        if (primero > CONTEXTO_PREVIO) {
+            inicio = primero - CONTEXTO_PREVIO;
+            while (inicio < primero && !Character.isWhitespace(contenido.charAt(inicio - 1))) {
+                inicio++;
+            }
+        }
+        int fin = Math.min(contenido.length(), inicio + LARGO_FRAGMENTO);
+        if (fin < contenido.length()) {
+            int corte = fin;
+            while (corte > primero && !Character.isWhitespace(contenido.charAt(corte))) {
+                corte--;
+            }
+            if (corte > primero) {
+                fin = corte;
+            }
+        }
+
+        StringBuilder fragmento = new StringBuilder(fin - inicio + 32);
+        if (inicio > 0) {
+            fragmento.append('…');
+        }
+        int posicion = inicio;
+        for (Token token : tokens) {
+            if (token.inicio < inicio || token.fin > fin || !buscados.contains(token.termino)) {
+                continue;
+            }
+            fragmento.append(escaparHtml(contenido.substring(posicion, token.inicio)))
+                .append("<mark>").append(escaparHtml(contenido.substring(token.inicio, token.fin))).append("</mark>");
+            posicion = token.fin;
+        }
+        fragmento.append(escaparHtml(contenido.substring(posicion, fin)));
+        if (fin < contenido.length()) {
+            fragmento.append('…');
+        }
+        return fragmento.toString();
+    }
+
+    static String escaparHtml(String texto) {
+        StringBuilder escapado = new StringBuilder(texto.length());
+        for (char c : texto.toCharArray()) {
+            switch (c) {
+                case '&': escapado.append("&amp;"); break;
+                case '<': escapado.append("&lt;"); break;
+                case '>': escapado.append("&gt;"); break;
+                case '"': escapado.append("&quot;"); break;
+                case '\'': escapado.append("&#39;"); break;
+                default: escapado.append(c);
+            }
+        }
+        return escapado.toString();
+    }
+
+    private static boolean esIndexable(String termino) {
+        return termino.length() >= 2 && !PALABRAS_VACIAS.contains(termino);
+    }
+
+    private static List<Token> tokens(String texto) {
+        List<Token> tokens = new ArrayList<>();
+        if (texto == null) {
+            return tokens;
+        }
+        int i = 0;
+        while (i < texto.length()) {
+            if (!Character.isLetterOrDigit(texto.charAt(i))) {
+                i++;
+                continue;
+            }
+            int inicio = i;
+            StringBuilder termino = new StringBuilder();
+            while (i < texto.length() && Character.isLetterOrDigit(texto.charAt(i))) {
+                termino.append(normalizar(texto.charAt(i)));
+                i++;
+            }
+            tokens.add(new Token(inicio, i, termino.toString()));
+        }
+        return tokens;
+    }
+
+    private static char normalizar(char c) {
+        char minuscula = Character.toLowerCase(c);
+        int tilde = CON_TILDE.indexOf(minuscula);
+        return tilde >= 0 ? SIN_TILDE.charAt(tilde) : minuscula;
+    }
+
+    private static int version(Integer userId) {
+        return Math.floorMod(userId.hashCode(), VERSIONES);
+    }
+
+    private static final class Cargado {
+        final IndiceUsuario indice;
+        final long cargadoNanos;
+
+        Cargado(IndiceUsuario indice, long cargadoNanos) {
+            this.indice = indice;
+            this.cargadoNanos = cargadoNanos;
+        }
+    }
+
+    private static final class Token {
+        final int inicio;
+        final int fin;
+        final String termino;
+
+        Token(int inicio, int fin, String termino) {
+            this.inicio = inicio;
+            this.fin = fin;
+            this.termino = termino;
+        }
+    }
+
+    /**
+     * Entrada encontrada con su puntuación BM25
+     */
+    static final class Puntuada {
+        final Integer entradaId;
+        final LocalDateTime createdAt;
+        final double puntuacion;
+
+        Puntuada(Integer entradaId, LocalDateTime createdAt, double puntuacion) {
+            this.entradaId = entradaId;
+            this.createdAt = createdAt;
+            this.puntuacion = puntuacion;
+        }
+    }
+
+    /**
+     * Índice de las entradas de un usuario: término → (entrada → frecuencia)
+     */
+    static final class IndiceUsuario {
+
+        private static final Comparator<Puntuada> RELEVANCIA = Comparator
+            .comparingDouble((Puntuada p) -> p.puntuacion).reversed()
+            .thenComparing(p -> p.createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(p -> p.entradaId, Comparator.reverseOrder());
+
+        private final Map<String, Map<Integer, Integer>> frecuencias = new HashMap<>();
+        private final Map<Integer, Entrada> entradas = new HashMap<>();
+        private long terminosTotales;
+
+        synchronized void agregar(Integer entradaId, LocalDateTime createdAt, String contenido) {
+            if (entradaId == null || entradas.containsKey(entradaId)) {
+                return;
+            }
+            List<String> terminos = terminos(contenido);
+            entradas.put(entradaId, new Entrada(createdAt, terminos.size()));
+            terminosTotales += terminos.size();
+            for (String termino : terminos) {
+                frecuencias.computeIfAbsent(termino, t -> new HashMap<>()).merge(entradaId, 1, Integer::sum);
+            }
+        }
+
+        /**
+         * Quita una entrada que ya no está en la BD (p. ej. guardada en una transacción revertida)
+         */
+        synchronized void quitar(Integer entradaId) {
+            Entrada entrada = entradas.remove(entradaId);
+            if (entrada == null) {
+                return;
+            }
+            terminosTotales -= entrada.largo;
+            frecuencias.values().removeIf(porEntrada -> {
+                porEntrada.remove(entradaId);
+                return porEntrada.isEmpty();
+            });
+        }
+
+        /**
+         * Entradas que contienen todos los términos, de la más relevante a la menos (a igual
+         * puntuación, la más reciente primero)
+         */
+        synchronized List<Puntuada> buscar(Set<String> terminos) {
+            List<Map<Integer, Integer>> listas = new ArrayList<>(terminos.size());
+            for (String termino : terminos) {
+                Map<Integer, Integer> porEntrada = frecuencias.get(termino);
+                if (porEntrada == null) {
+                    return List.of();
+                }
+                listas.add(porEntrada);
+            }
+            if (listas.isEmpty()) {
+                return List.of();
+            }
+            // Intersección empezando por el término más raro
+            listas.sort(Comparator.comparingInt(Map::size));
+
+            int n = entradas.size();
+            double largoMedio = n == 0 ? 1 : Math.max(1, (double) terminosTotales / n);
+            List<Puntuada> encontradas = new ArrayList<>();
+            for (Integer entradaId : listas.get(0).keySet()) {
+                double puntuacion = 0;
+                boolean todas = true;
+                Entrada entrada = entradas.get(entradaId);
+                for (Map<Integer, Integer> porEntrada : listas) {
+                    Integer tf = porEntrada.get(entradaId);
+                    if (tf == null) {
+                        todas = false;
+                        break;
+                    }
+                    double idf = Math.log(1 + (n - porEntrada.size() + 0.5) / (porEntrada.size() + 0.5));
+                    puntuacion += idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * entrada.largo / largoMedio));
+                }
+                if (todas) {
+                    encontradas.add(new Puntuada(entradaId, entrada.createdAt, puntuacion));
+                }
+            }
+            encontradas.sort(RELEVANCIA);
+            return encontradas;
+        }
+
+        private static final class Entrada {
+            final LocalDateTime createdAt;
+            final int largo;
+
+            Entrada(LocalDateTime createdAt, int largo) {
+                this.createdAt = createdAt;
+                this.largo = largo;
+            }
+        }
+    }
+}
@@ -1,20 +1,80 @@
 package com.sistema_seguimiento.dao;
 
+import com.sistema_seguimiento.model.CoincidenciaDiario;
 import com.sistema_seguimiento.model.JournalEntry;
+import com.sistema_seguimiento.model.PaginaBusquedaDiario;
+import com.sistema_seguimiento.model.PaginaDiario;
+import com.sistema_seguimiento.model.ResumenEntradaDiario;
 import com.sistema_seguimiento.model.Usuario;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.TypedQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * DAO para gestionar entradas de diario (Journal)
  * (Refactorizado con Patrón DAO Consolidado)
  * Implementa IJournalDAO para facilitar el testing con mocks.
+ *
+ * Búsqueda de texto completo (searchJournalEntries): en PostgreSQL con la columna generada
+ * contenido_tsv y su índice GIN (MigracionBusquedaDiario); en el resto con IndiceDiario,
+ * que storeJournalEntry mantiene al día tras cada commit.
  * @version 2.0 - Refactor 4
  */
 public class JournalDAO extends BaseDAO implements IJournalDAO {
 
+    /**
+     * Filas que el driver trae de cada vez al exportar
+     */
+    static final int TAMANO_LOTE_EXPORTACION = 100;
+
+    static final String QUERY_RESUMEN =
+        "SELECT new com.sistema_seguimiento.model.ResumenEntradaDiario(" +
+        "  j.id, j.createdAt, SUBSTRING(j.content, 1, :largo), LENGTH(j.content)) " +
+        "FROM JournalEntry j WHERE j.usuario.id = :userId ";
+
+    static final String QUERY_EXPORTACION =
+        "SELECT j.id, j.createdAt, j.content FROM JournalEntry j " +
+        "WHERE j.usuario.id = :userId ORDER BY j.createdAt, j.id";
+
+    // Marcas de ts_headline: caracteres de control que no aparecen al escapar el texto para HTML
+    private static final char INICIO_MARCA = '\u0002';
+    private static final char FIN_MARCA = '\u0003';
+
+    /**
+     * Una página de coincidencias ordenadas por ts_rank_cd; el total sale de la ventana y
+     * ts_headline solo se calcula para las filas de la página
+     */
+    static final String BUSQUEDA_POSTGRESQL =
+        "SELECT p.id, p.created_at, p.rango, p.total, " +
+        "       ts_headline('spanish', j.content, p.consulta, " +
+        "         'StartSel=' || chr(2) || ', StopSel=' || chr(3) || " +
+        "         ', MaxWords=35, MinWords=15, MaxFragments=2, FragmentDelimiter=\" … \"') " +
+        "FROM (SELECT j.id, j.created_at, ts_rank_cd(j.contenido_tsv, q) AS rango, " +
+        "             COUNT(*) OVER () AS total, q AS consulta " +
+        "      FROM journal_entries j, websearch_to_tsquery('spanish', :consulta) q " +
+        "      WHERE j.user_id = :userId AND j.contenido_tsv @@ q " +
+        "      ORDER BY rango DESC, j.created_at DESC, j.id DESC " +
+        "      LIMIT :limite OFFSET :desde) p " +
+        "JOIN journal_entries j ON j.id = p.id " +
+        "ORDER BY p.rango DESC, p.created_at DESC, p.id DESC";
+
+    static final String CONTAR_POSTGRESQL =
+        "SELECT COUNT(*) FROM journal_entries j " +
+        "WHERE j.user_id = :userId AND j.contenido_tsv @@ websearch_to_tsquery('spanish', :consulta)";
+
     public JournalDAO() {
         super();
     }
@@ -38,6 +98,14 @@ public class JournalDAO extends BaseDAO implements IJournalDAO {
             }
             em.persist(entry);
         }, "Error al guardar JournalEntry");
+
+        if (!esPostgreSQL()) {
+            // Solo si la transacción de la petición se confirma: una entrada revertida no se indexa
+            IndiceDiario indice = IndiceDiario.para(getEntityManagerFactory());
+            Integer userId = entry.getUserId();
+            ContextoPersistencia.trasConfirmar(() ->
+                indice.agregar(userId, entry.getId(), entry.getCreatedAt(), entry.getContent()));
+        }
         
         return entry; // Devuelve la entidad (ahora con ID)
     }
@@ -57,4 +125,186 @@ public class JournalDAO extends BaseDAO implements IJournalDAO {
             return query.getResultList();
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Página del diario del usuario, de lo más reciente a lo más antiguo, con solo un extracto
+     * de cada entrada
+     *
+     * Paginación por cursor (createdAt, id) sobre idx_journal_entries_user_created: cada página
+     * empieza justo después de la última entrada de la anterior, sin OFFSET. Con cursor null
+     * empieza por la entrada más reciente.
+     *
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    @Override
+    public PaginaDiario findJournalPage(Integer userId, String cursor, int limite, int largoExtracto) {
+        if (limite < 1 || largoExtracto < 1) {
+            throw new IllegalArgumentException("El límite y el largo del extracto deben ser positivos");
+        }
+        LocalDateTime fecha = cursor != null ? PaginaDiario.fechaDeCursor(cursor) : null;
+        int id = cursor != null ? PaginaDiario.idDeCursor(cursor) : 0;
+
+        List<ResumenEntradaDiario> filas = executeQuery(em -> {
+            TypedQuery<ResumenEntradaDiario> query;
+            if (cursor == null) {
+                query = em.createQuery(QUERY_RESUMEN + "ORDER BY j.createdAt DESC, j.id DESC", ResumenEntradaDiario.class);
+            } else {
+                query = em.createQuery(QUERY_RESUMEN +
+                    "AND (j.createdAt < :fecha OR (j.createdAt = :fecha AND j.id < :id)) " +
+                    "ORDER BY j.createdAt DESC, j.id DESC", ResumenEntradaDiario.class);
+                query.setParameter("fecha", fecha);
+                query.setParameter("id", id);
+            }
+            // Una fila de más para saber si hay otra página sin hacer un COUNT
+            return query
+                .setParameter("userId", userId)
+                .setParameter("largo", largoExtracto)
+                .setMaxResults(limite + 1)
+                .getResultList();
+        });
+
+        if (filas.size() <= limite) {
+            return new PaginaDiario(filas, null);
+        }
+        List<ResumenEntradaDiario> pagina = new ArrayList<>(filas.subList(0, limite));
+        return new PaginaDiario(pagina, PaginaDiario.aCursor(pagina.get(limite - 1)));
+    }
+
+    /**
+     * Entrada completa del usuario (vacío si no existe o es de otro usuario)
+     */
+    @Override
+    public Optional<JournalEntry> findJournalEntry(Integer userId, Integer entryId) {
+        return executeQuery(em -> em.createQuery(
+                "SELECT j FROM JournalEntry j WHERE j.id = :id AND j.usuario.id = :userId", JournalEntry.class)
+            .setParameter("id", entryId)
+            .setParameter("userId", userId)
+            .getResultStream()
+            .findFirst());
+    }
+
+    /**
+     * Recorre todas las entradas del usuario de la más antigua a la más reciente sin cargarlas
+     * en memoria: cursor de solo avance con TAMANO_LOTE_EXPORTACION filas por viaje y filas
+     * proyectadas (no entidades gestionadas), así que el contexto de persistencia no crece.
+     * Dentro de una transacción porque PostgreSQL solo respeta el fetch size sin autocommit.
+     *
+     * @param destino Recibe cada entrada (una instancia nueva, no gestionada); si lanza, la
+     *                exportación se corta
+     * @return Entradas entregadas
+     */
+    @Override
+    public long exportJournalEntries(Integer userId, Consumer<JournalEntry> destino) {
+        long[] entregadas = {0};
+        executeWithTransaction(em -> {
+            try (ScrollableResults<Object[]> filas = em.unwrap(Session.class)
+                    .createQuery(QUERY_EXPORTACION, Object[].class)
+                    .setParameter("userId", userId)
+                    .setFetchSize(TAMANO_LOTE_EXPORTACION)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (filas.next()) {
+                    Object[] fila = filas.get();
+                    JournalEntry entrada = new JournalEntry(userId, (String) fila[2], (LocalDateTime) fila[1]);
+                    entrada.setId((Integer) fila[0]);
+                    destino.accept(entrada);
+                    entregadas[0]++;
+                }
+            }
+        }, "Error al exportar el diario");
+        return entregadas[0];
+    }
+
+    /**
+     * Búsqueda de texto completo en las entradas del usuario: todas las palabras de la consulta,
+     * de la entrada más relevante a la menos, con un fragmento resaltado de cada una
+     */
+    @Override
+    public PaginaBusquedaDiario searchJournalEntries(Integer userId, String consulta, int pagina, int tamano) {
+        if (pagina < 1 || tamano < 1) {
+            throw new IllegalArgumentException("La página y el tamaño deben ser positivos");
+        }
+        if (userId == null || consulta == null || consulta.isBlank()) {
+            return PaginaBusquedaDiario.vacia(pagina, tamano);
+        }
+        return esPostgreSQL()
+            ? buscarPostgreSQL(userId, consulta, pagina, tamano)
+            : buscarEnIndice(userId, consulta, pagina, tamano);
+    }
+
+    private PaginaBusquedaDiario buscarPostgreSQL(Integer userId, String consulta, int pagina, int tamano) {
+        List<?> filas = executeQuery(em -> em.createNativeQuery(BUSQUEDA_POSTGRESQL)
+            .setParameter("consulta", consulta)
+            .setParameter("userId", userId)
+            .setParameter("limite", tamano)
+            .setParameter("desde", (pagina - 1) * tamano)
+            .getResultList());
+
+        if (filas.isEmpty()) {
+            // Más allá de la última página la ventana no devuelve el total
+            long total = pagina == 1 ? 0 : executeQuery(em -> ((Number) em.createNativeQuery(CONTAR_POSTGRESQL)
+                .setParameter("userId", userId)
+                .setParameter("consulta", consulta)
+                .getSingleResult()).longValue());
+            return new PaginaBusquedaDiario(List.of(), total, pagina, tamano);
+        }
+
+        List<CoincidenciaDiario> coincidencias = new ArrayList<>(filas.size());
+        for (Object fila : filas) {
+            Object[] columnas = (Object[]) fila;
+            String fragmento = IndiceDiario.escaparHtml((String) columnas[4])
+                .replace(String.valueOf(INICIO_MARCA), "<mark>")
+                .replace(String.valueOf(FIN_MARCA), "</mark>");
+            coincidencias.add(new CoincidenciaDiario(((Number) columnas[0]).intValue(), aFecha(columnas[1]),
+                ((Number) columnas[2]).doubleValue(), fragmento));
+        }
+        long total = ((Number) ((Object[]) filas.get(0))[3]).longValue();
+        return new PaginaBusquedaDiario(coincidencias, total, pagina, tamano);
+    }
+
+    private PaginaBusquedaDiario buscarEnIndice(Integer userId, String consulta, int pagina, int tamano) {
+        Set<String> terminos = new LinkedHashSet<>(IndiceDiario.terminos(consulta));
+        if (terminos.isEmpty()) {
+            return PaginaBusquedaDiario.vacia(pagina, tamano);
+        }
+        IndiceDiario.IndiceUsuario indice = IndiceDiario.para(getEntityManagerFactory()).usuario(userId, () -> executeQuery(em -> em.createQuery(
+                "SELECT j.id, j.createdAt, j.content FROM JournalEntry j WHERE j.usuario.id = :userId", Object[].class)
+            .setParameter("userId", userId)
+            .getResultList()));
+
+        List<IndiceDiario.Puntuada> encontradas = indice.buscar(terminos);
+        int desde = (int) Math.min((long) (pagina - 1) * tamano, encontradas.size());
+        List<IndiceDiario.Puntuada> enPagina = encontradas.subList(desde, Math.min(desde + tamano, encontradas.size()));
+        if (enPagina.isEmpty()) {
+            return new PaginaBusquedaDiario(List.of(), encontradas.size(), pagina, tamano);
+        }
+
+        // El texto de la página en una sola consulta, solo para los fragmentos
+        List<Integer> ids = enPagina.stream().map(p -> p.entradaId).toList();
+        Map<Integer, String> contenidos = new HashMap<>();
+        executeQuery(em -> em.createQuery(
+                "SELECT j.id, j.content FROM JournalEntry j WHERE j.id IN :ids AND j.usuario.id = :userId", Object[].class)
+            .setParameter("ids", ids)
+            .setParameter("userId", userId)
+            .getResultList())
+            .forEach(fila -> contenidos.put((Integer) fila[0], (String) fila[1]));
+
+        List<CoincidenciaDiario> coincidencias = new ArrayList<>(enPagina.size());
+        int descartadas = 0;
+        for (IndiceDiario.Puntuada encontrada : enPagina) {
+            String contenido = contenidos.get(encontrada.entradaId);
+            if (contenido == null) {
+                indice.quitar(encontrada.entradaId);
+                descartadas++;
+                continue;
+            }
+            coincidencias.add(new CoincidenciaDiario(encontrada.entradaId, encontrada.createdAt,
+                encontrada.puntuacion, IndiceDiario.fragmento(contenido, terminos)));
+        }
+        return new PaginaBusquedaDiario(coincidencias, encontradas.size() - descartadas, pagina, tamano);
+    }
+
+    private static LocalDateTime aFecha(Object valor) {
+        return valor instanceof Timestamp ? ((Timestamp) valor).toLocalDateTime() : (LocalDateTime) valor;
+    }
+}
@@ -0,0 +1,199 @@
+package com.sistema_seguimiento.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Límite de EntityManagers abiertos a la vez (acceso a la BD acotado con un semáforo)
+ *
+ * Con hilos virtuales puede haber miles de peticiones en curso; sin límite todas se quedarían
+ * esperando dentro de HikariCP hasta su connectionTimeout. Con el límite activo cada
+ * EntityManager que se crea a través de ContextoPersistencia toma un permiso y lo devuelve al
+ * cerrarse (el compartido de una petición lo devuelve al cerrar el contexto); el resto espera
+ * en el semáforo, que es justo (FIFO) y aparca los hilos virtuales sin ocupar un hilo de
+ * plataforma.
+ *
+ * Un EntityManager puede retener su conexión hasta que termina, así que el número de permisos
+ * debe coincidir con el máximo del pool. Sin configurar (por defecto) no hay límite y los
+ * EntityManagers se crean sin envolver.
+ *
+ * Cada EntityManager que abre una conexión cuenta contra el semáforo, también uno anidado en
+ * una petición que ya tiene el suyo. Los DAOs no abren EntityManagers anidados: con el
+ * contexto de la petición abierto reciben su EntityManager compartido (una conexión, un
+ * permiso).
+ */
+public final class LimiteConexiones {
+
+    private static volatile Semaphore permisos;
+    private static volatile int maximo;
+    private static volatile long esperaMaximaMillis;
+
+    /**
+     * El hilo ejecuta una lectura repartida (sinEsperarPermiso): no espera en el semáforo
+     */
+    private static final ThreadLocal<Boolean> SIN_ESPERA = new ThreadLocal<>();
+
+    private static final AtomicLong adquisiciones = new AtomicLong();
+    private static final AtomicLong rechazos = new AtomicLong();
+
+    private LimiteConexiones() {
+    }
+
+    /**
+     * @param maximoConcurrentes EntityManagers abiertos a la vez; 0 o menos quita el límite
+     * @param esperaMaxima Tiempo máximo esperando un permiso antes de fallar
+     */
+    public static synchronized void configurar(int maximoConcurrentes, long esperaMaxima) {
+        if (maximoConcurrentes > 0 && esperaMaxima <= 0) {
+            throw new IllegalArgumentException("La espera máxima debe ser positiva");
+        }
+        // Los permisos ya tomados se devuelven al semáforo del que salieron
+        permisos = maximoConcurrentes > 0 ? new Semaphore(maximoConcurrentes, true) : null;
+        maximo = Math.max(maximoConcurrentes, 0);
+        esperaMaximaMillis = esperaMaxima;
+        System.out.println(maximo > 0
+            ? "⚙️ Acceso a la BD limitado a " + maximo + " EntityManagers concurrentes (espera máx. " + esperaMaxima + " ms)"
+            : "⚙️ Acceso a la BD sin límite de concurrencia");
+    }
+
+    public static boolean estaActivo() {
+        return permisos != null;
+    }
+
+    /**
+     * Crea un EntityManager con un permiso; close() devuelve el permiso (una sola vez)
+     *
+     * @throws IllegalStateException si no hay permiso tras la espera máxima
+     */
+    static EntityManager crearEntityManager(EntityManagerFactory emf) {
+        Semaphore semaforo = adquirir();
+        if (semaforo == null) {
+            return emf.createEntityManager();
+        }
+        EntityManager real;
+        try {
+            real = emf.createEntityManager();
+        } catch (RuntimeException e) {
+            semaforo.release();
+            throw e;
+        }
+        AtomicBoolean liberado = new AtomicBoolean();
+        return (EntityManager) Proxy.newProxyInstance(
+            EntityManager.class.getClassLoader(),
+            new Class<?>[]{EntityManager.class},
+            (proxy, metodo, args) -> {
+                switch (metodo.getName()) {
+                    case "close":
+                        try {
+                            real.close();
+                        } finally {
+                            if (liberado.compareAndSet(false, true)) {
+                                semaforo.release();
+                            }
+                        }
+                        return null;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        try {
+                            return metodo.invoke(real, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                }
+            });
+    }
+
+    /**
+     * Toma un permiso si el límite está activo
+     *
+     * @return Semáforo al que hay que devolver el permiso, o null si no hay límite
+     * @throws IllegalStateException si no hay permiso tras la espera máxima (o en el acto, dentro
+     *         de sinEsperarPermiso)
+     */
+    static Semaphore adquirir() {
+        Semaphore semaforo = permisos;
+        if (semaforo == null) {
+            return null;
+        }
+        if (SIN_ESPERA.get() != null) {
+            if (!semaforo.tryAcquire()) {
+                rechazos.incrementAndGet();
+                throw new IllegalStateException("Sin acceso a la BD: no queda ningún permiso libre");
+            }
+            adquisiciones.incrementAndGet();
+            return semaforo;
+        }
+        try {
+            if (!semaforo.tryAcquire(esperaMaximaMillis, TimeUnit.MILLISECONDS)) {
+                rechazos.incrementAndGet();
+                throw new IllegalStateException("Sin acceso a la BD tras " + esperaMaximaMillis + " ms: "
+                    + semaforo.getQueueLength() + " peticiones en espera");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando acceso a la BD", e);
+        }
+        adquisiciones.incrementAndGet();
+        return semaforo;
+    }
+
+    static void liberar(Semaphore semaforo) {
+        if (semaforo != null) {
+            semaforo.release();
+        }
+    }
+
+    /**
+     * Envuelve una lectura que se ejecutará en otro hilo (CargaParalela): cada EntityManager que
+     * abra toma su propio permiso sin esperar, y si no queda ninguno libre la lectura falla en el
+     * acto (quien la lanzó usa su valor por defecto). Una petición que ya retiene su permiso no
+     * se queda así esperando los de sus propias lecturas.
+     *
+     * El permiso es del EntityManager, no de la petición: si la petición deja de esperar la
+     * lectura, el permiso sigue tomado hasta que la lectura cierra su EntityManager (y con él la
+     * conexión).
+     */
+    public static <T> Supplier<T> sinEsperarPermiso(Supplier<T> lectura) {
+        return () -> {
+            SIN_ESPERA.set(Boolean.TRUE);
+            try {
+                return lectura.get();
+            } finally {
+                SIN_ESPERA.remove();
+            }
+        };
+    }
+
+    public static int getMaximo() {
+        return maximo;
+    }
+
+    public static int getDisponibles() {
+        Semaphore semaforo = permisos;
+        return semaforo != null ? semaforo.availablePermits() : 0;
+    }
+
+    public static int getEnEspera() {
+        Semaphore semaforo = permisos;
+        return semaforo != null ? semaforo.getQueueLength() : 0;
+    }
+
+    public static long getAdquisiciones() {
+        return adquisiciones.get();
+    }
+
+    public static long getRechazos() {
+        return rechazos.get();
+    }
+}
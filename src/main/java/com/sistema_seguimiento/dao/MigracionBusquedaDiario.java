@@ -0,0 +1,57 @@
+package com.sistema_seguimiento.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+/**
+ * Crea la columna de búsqueda de texto completo del diario y su índice GIN
+ *
+ * journal_entries.contenido_tsv es una columna generada (to_tsvector con el diccionario spanish
+ * sobre content): PostgreSQL la mantiene en cada INSERT/UPDATE, así que la entidad no la mapea
+ * y Hibernate no la escribe. JournalDAO.searchJournalEntries la consulta con websearch_to_tsquery.
+ * Solo PostgreSQL (en H2 JournalDAO usa IndiceDiario); ejecutar de nuevo no cambia nada.
+ */
+public final class MigracionBusquedaDiario {
+
+    static final String CREAR_COLUMNA =
+        "ALTER TABLE journal_entries ADD COLUMN IF NOT EXISTS contenido_tsv tsvector " +
+        "GENERATED ALWAYS AS (to_tsvector('spanish', coalesce(content, ''))) STORED";
+
+    static final String CREAR_INDICE =
+        "CREATE INDEX IF NOT EXISTS idx_journal_entries_contenido_tsv " +
+        "ON journal_entries USING GIN (contenido_tsv)";
+
+    private MigracionBusquedaDiario() {
+    }
+
+    /**
+     * @return true si la columna y el índice existen tras la llamada
+     */
+    public static boolean aplicar(EntityManagerFactory emf) {
+        if (!(emf.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect() instanceof PostgreSQLDialect)) {
+            return false;
+        }
+
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            em.createNativeQuery(CREAR_COLUMNA).executeUpdate();
+            em.createNativeQuery(CREAR_INDICE).executeUpdate();
+            tx.commit();
+            System.out.println("✅ Índice de búsqueda del diario listo");
+            return true;
+        } catch (Exception e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            System.err.println("❌ Error al crear el índice de búsqueda del diario: " + e.getMessage());
+            return false;
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.Habito;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Deja un solo registro por hábito y día y crea la restricción única (habito_id, fecha_registro)
+ *
+ * Antes del upsert de HabitoDAO.registrarCompletado cada cumplimiento podía crear un registro
+ * nuevo del mismo día; hbm2ddl no puede crear la restricción mientras queden duplicados. Cada
+ * grupo duplicado se fusiona en su registro más antiguo (suma de veces_realizado, completado si
+ * alguno lo estaba) y se borran los demás. La fusión puede hacer que un día llegue a la meta,
+ * así que en la misma transacción se recalculan la racha y el calendario de los hábitos
+ * afectados y usuario.habitos_completados de sus usuarios; el resumen diario se reconstruye
+ * después. Solo PostgreSQL (H2 se crea de cero en los tests); sin duplicados y con la
+ * restricción creada, volver a ejecutar no cambia nada.
+ */
+public final class MigracionRegistroUnico {
+
+    static final String RESTRICCION = "uk_registro_habito_habito_fecha";
+
+    static final String USUARIOS_CON_DUPLICADOS =
+        "SELECT DISTINCT r.usuario_id FROM registro_habito r " +
+        "WHERE r.usuario_id IS NOT NULL AND EXISTS (" +
+        "  SELECT 1 FROM registro_habito o " +
+        "  WHERE o.habito_id = r.habito_id AND o.fecha_registro = r.fecha_registro AND o.id <> r.id)";
+
+    static final String HABITOS_CON_DUPLICADOS =
+        "SELECT DISTINCT habito_id FROM registro_habito " +
+        "GROUP BY habito_id, fecha_registro HAVING COUNT(*) > 1";
+
+    static final String FUSIONAR_DUPLICADOS =
+        "UPDATE registro_habito r SET " +
+        "  veces_realizado = g.veces, completado = g.completado, notas = COALESCE(r.notas, g.notas) " +
+        "FROM (SELECT MIN(id) AS id, SUM(COALESCE(veces_realizado, 0)) AS veces, " +
+        "        BOOL_OR(COALESCE(completado, false)) AS completado, MAX(notas) AS notas " +
+        "      FROM registro_habito GROUP BY habito_id, fecha_registro HAVING COUNT(*) > 1) g " +
+        "WHERE r.id = g.id";
+
+    static final String BORRAR_DUPLICADOS =
+        "DELETE FROM registro_habito r USING registro_habito o " +
+        "WHERE o.habito_id = r.habito_id AND o.fecha_registro = r.fecha_registro AND o.id < r.id";
+
+    static final String EXISTE_RESTRICCION =
+        "SELECT COUNT(*) FROM information_schema.table_constraints " +
+        "WHERE table_name = 'registro_habito' AND constraint_name = '" + RESTRICCION + "'";
+
+    static final String CREAR_RESTRICCION =
+        "ALTER TABLE registro_habito ADD CONSTRAINT " + RESTRICCION + " UNIQUE (habito_id, fecha_registro)";
+
+    // El índice de la restricción cubre las mismas columnas
+    static final String BORRAR_INDICE_ANTERIOR =
+        "DROP INDEX IF EXISTS idx_registro_habito_habito_fecha";
+
+    static final String RECALCULAR_COMPLETADOS =
+        "UPDATE usuario SET habitos_completados = (" +
+        "  SELECT COUNT(*) FROM registro_habito r WHERE r.usuario_id = usuario.id AND r.completado = true) " +
+        "WHERE id = :usuarioId";
+
+    private MigracionRegistroUnico() {
+    }
+
+    /**
+     * @return Número de registros duplicados borrados en esta llamada
+     * @throws jakarta.persistence.PersistenceException si falla la fusión o la creación de la
+     *         restricción (se revierte todo): sin la restricción el ON CONFLICT de
+     *         registrarCompletado fallaría en cada check-in, así que el arranque no debe seguir
+     */
+    public static int aplicar(EntityManagerFactory emf) {
+        if (!(emf.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect() instanceof PostgreSQLDialect)) {
+            return 0;
+        }
+
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        List<Integer> afectados;
+        int borrados;
+        try {
+            tx.begin();
+            afectados = ids(em, USUARIOS_CON_DUPLICADOS);
+            List<Integer> habitosAfectados = ids(em, HABITOS_CON_DUPLICADOS);
+            em.createNativeQuery(FUSIONAR_DUPLICADOS).executeUpdate();
+            borrados = em.createNativeQuery(BORRAR_DUPLICADOS).executeUpdate();
+
+            Number existe = (Number) em.createNativeQuery(EXISTE_RESTRICCION).getSingleResult();
+            if (existe.intValue() == 0) {
+                em.createNativeQuery(CREAR_RESTRICCION).executeUpdate();
+                System.out.println("✅ Restricción " + RESTRICCION + " creada");
+            }
+            em.createNativeQuery(BORRAR_INDICE_ANTERIOR).executeUpdate();
+
+            for (Integer habitoId : habitosAfectados) {
+                Habito habito = em.find(Habito.class, habitoId);
+                if (habito != null) {
+                    habito.recalcularDesde(em.createQuery(HabitoDAO.QUERY_DIAS_CUMPLIDOS, LocalDate.class)
+                        .setParameter("habitoId", habitoId)
+                        .getResultList());
+                }
+            }
+            for (Integer usuarioId : afectados) {
+                em.createNativeQuery(RECALCULAR_COMPLETADOS)
+                    .setParameter("usuarioId", usuarioId)
+                    .executeUpdate();
+            }
+            tx.commit();
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            System.err.println("❌ Error al fusionar registros duplicados de hábitos: " + e.getMessage());
+            throw e;
+        } finally {
+            em.close();
+        }
+
+        if (borrados > 0) {
+            System.out.println("✅ " + borrados + " registros duplicados fusionados ("
+                + afectados.size() + " usuarios)");
+            ResumenDiarioDAO resumenDAO = new ResumenDiarioDAO(emf);
+            afectados.forEach(resumenDAO::reconstruir);
+        }
+        return borrados;
+    }
+
+    private static List<Integer> ids(EntityManager em, String sql) {
+        return ((List<?>) em.createNativeQuery(sql).getResultList()).stream()
+            .map(id -> ((Number) id).intValue())
+            .toList();
+    }
+}
@@ -0,0 +1,48 @@
+package com.sistema_seguimiento.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+
+/**
+ * Rellena registro_habito.usuario_id en los registros creados antes de que existiera la columna
+ *
+ * RegistroHabito copia el usuario de su hábito al insertarse; las filas antiguas quedan con
+ * usuario_id NULL (hbm2ddl solo añade la columna) y no aparecerían en las consultas que
+ * filtran por registro_habito.usuario_id. Solo toca filas con NULL: volver a ejecutar no cambia nada.
+ */
+public final class MigracionRegistroUsuario {
+
+    static final String UPDATE_USUARIO =
+        "UPDATE registro_habito SET usuario_id = " +
+        "(SELECT h.usuario_id FROM habito h WHERE h.id = registro_habito.habito_id) " +
+        "WHERE usuario_id IS NULL";
+
+    private MigracionRegistroUsuario() {
+    }
+
+    /**
+     * @return Número de registros actualizados en esta llamada
+     */
+    public static int aplicar(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            int actualizados = em.createNativeQuery(UPDATE_USUARIO).executeUpdate();
+            tx.commit();
+            if (actualizados > 0) {
+                System.out.println("✅ usuario_id copiado en " + actualizados + " registros de hábitos");
+            }
+            return actualizados;
+        } catch (Exception e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            System.err.println("❌ Error al rellenar registro_habito.usuario_id: " + e.getMessage());
+            return 0;
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.sistema_seguimiento.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Migración de las columnas id IDENTITY/SERIAL a secuencias con optimizador pooled-lo
+ *
+ * Las entidades piden ids a secuencias con allocationSize = 50: una llamada a la secuencia
+ * reserva 50 ids en memoria y Hibernate puede agrupar los INSERT en lotes JDBC (con IDENTITY
+ * tenía que ejecutar cada INSERT por separado para conocer el id generado).
+ *
+ * Por cada tabla todavía no migrada (el DEFAULT de id no es nextval de su secuencia), en una
+ * transacción propia:
+ * 1. Quita IDENTITY de la columna id (o el DEFAULT del antiguo SERIAL)
+ * 2. Crea la secuencia con INCREMENT BY 50 si hbm2ddl no la creó ya
+ * 3. La sitúa en MAX(id) + 1: con pooled-lo el valor devuelto es el primer id del bloque
+ * 4. Pone DEFAULT nextval(secuencia) para que los INSERT hechos fuera de la aplicación
+ *    tomen ids de bloques distintos a los de Hibernate
+ *
+ * El DEFAULT final marca la tabla como migrada: volver a ejecutar no cambia nada. Si una tabla
+ * falla se revierte su transacción y se relanza el error: arrancar con una secuencia por debajo
+ * de MAX(id) haría fallar los INSERT con claves duplicadas. Solo se aplica sobre PostgreSQL; en
+ * H2 (tests) las tablas se crean ya con secuencias.
+ */
+public final class MigracionSecuencias {
+
+    /**
+     * Incremento de las secuencias: igual al allocationSize de las entidades
+     */
+    static final int INCREMENTO = 50;
+
+    /**
+     * Tabla → secuencia de su id
+     */
+    static final Map<String, String> SECUENCIAS;
+
+    static {
+        Map<String, String> secuencias = new LinkedHashMap<>();
+        secuencias.put("habito", "habito_seq");
+        secuencias.put("registro_habito", "registro_habito_seq");
+        secuencias.put("mood_entry", "mood_entry_seq");
+        secuencias.put("journal_entries", "journal_entries_seq");
+        secuencias.put("tarea_kanban", "tarea_kanban_seq");
+        secuencias.put("registro_progreso", "registro_progreso_seq");
+        secuencias.put("user_pets", "user_pets_seq");
+        secuencias.put("pomodoro", "pomodoro_seq");
+        SECUENCIAS = Collections.unmodifiableMap(secuencias);
+    }
+
+    private MigracionSecuencias() {
+    }
+
+    /**
+     * Migra las tablas pendientes de la unidad de persistencia
+     *
+     * @return Número de tablas migradas en esta llamada
+     * @throws org.hibernate.JDBCException si falla la migración de alguna tabla (las ya migradas
+     *         quedan confirmadas)
+     */
+    public static int aplicar(EntityManagerFactory emf) {
+        if (!(emf.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect() instanceof PostgreSQLDialect)) {
+            return 0;
+        }
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.unwrap(Session.class).doReturningWork(MigracionSecuencias::migrar);
+        } finally {
+            em.close();
+        }
+    }
+
+    private static int migrar(Connection conexion) throws SQLException {
+        boolean autoCommit = conexion.getAutoCommit();
+        conexion.setAutoCommit(false);
+        int migradas = 0;
+        try {
+            for (Map.Entry<String, String> entrada : SECUENCIAS.entrySet()) {
+                String tabla = entrada.getKey();
+                String secuencia = entrada.getValue();
+                try {
+                    if (migrarTabla(conexion, tabla, secuencia)) {
+                        conexion.commit();
+                        migradas++;
+                        System.out.println("✅ Tabla " + tabla + " migrada a la secuencia " + secuencia);
+                    } else {
+                        conexion.rollback();
+                    }
+                } catch (SQLException e) {
+                    conexion.rollback();
+                    System.err.println("❌ Error al migrar " + tabla + " a secuencia: " + e.getMessage());
+                    throw e;
+                }
+            }
+        } finally {
+            conexion.setAutoCommit(autoCommit);
+        }
+        return migradas;
+    }
+
+    private static boolean migrarTabla(Connection conexion, String tabla, String secuencia) throws SQLException {
+        String defaultMigrado = "nextval('" + secuencia + "'::regclass)";
+        String defaultActual;
+        boolean existe;
+        try (PreparedStatement consulta = conexion.prepareStatement(
+                "SELECT column_default FROM information_schema.columns " +
+                "WHERE table_schema = current_schema() AND table_name = ? AND column_name = 'id'")) {
+            consulta.setString(1, tabla);
+            try (ResultSet rs = consulta.executeQuery()) {
+                existe = rs.next();
+                defaultActual = existe ? rs.getString(1) : null;
+            }
+        }
+        if (!existe || defaultMigrado.equals(defaultActual)) {
+            return false;
+        }
+
+        try (Statement sql = conexion.createStatement()) {
+            // Nadie inserta mientras se calcula MAX(id)
+            sql.execute("LOCK TABLE " + tabla + " IN EXCLUSIVE MODE");
+            sql.execute("ALTER TABLE " + tabla + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+            sql.execute("ALTER TABLE " + tabla + " ALTER COLUMN id DROP DEFAULT");
+            sql.execute("CREATE SEQUENCE IF NOT EXISTS " + secuencia + " INCREMENT BY " + INCREMENTO);
+            sql.execute("ALTER SEQUENCE " + secuencia + " INCREMENT BY " + INCREMENTO + " OWNED BY " + tabla + ".id");
+            sql.execute("SELECT setval('" + secuencia + "', (SELECT COALESCE(MAX(id), 0) + 1 FROM " + tabla + "), false)");
+            sql.execute("ALTER TABLE " + tabla + " ALTER COLUMN id SET DEFAULT nextval('" + secuencia + "')");
+        }
+        return true;
+    }
+}
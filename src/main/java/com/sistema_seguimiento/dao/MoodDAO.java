@@ -1,11 +1,20 @@
 package com.sistema_seguimiento.dao;
 
+import com.sistema_seguimiento.model.DiaAnimo;
+import com.sistema_seguimiento.model.DistribucionAnimo;
+import com.sistema_seguimiento.model.EstadisticaPeriodo.Granularidad;
 import com.sistema_seguimiento.model.MoodEntry;
+import com.sistema_seguimiento.model.RecordatorioAnimo;
 import com.sistema_seguimiento.model.Usuario;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.TypedQuery;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * DAO para MoodEntry - Capa de acceso a datos (TDD Green Phase)
@@ -19,6 +28,45 @@ import java.time.LocalDate;
 
 public class MoodDAO extends BaseDAO {
 
+    /**
+     * Serie diaria del usuario: solo columnas del índice (usuario_id, fecha, estadoanimo)
+     */
+    static final String QUERY_SERIE =
+            "SELECT new com.sistema_seguimiento.model.DiaAnimo(m.date, m.mood) FROM MoodEntry m " +
+            "WHERE m.usuario.id = :userId AND m.date BETWEEN :desde AND :hasta " +
+            "ORDER BY m.date";
+
+    /**
+     * Periodo de cada fecha como número, calculado en la BD sin parámetros (así el GROUP BY
+     * repite exactamente la expresión del SELECT):
+     * - DIA: la propia fecha
+     * - SEMANA: semanas ISO desde 1970 (el 1 de enero de 1970 fue jueves: +3 días la hace empezar en lunes)
+     * - MES: año * 12 + mes
+     */
+    static final String PERIODO_SEMANA = "floor((extract(epoch from m.date) / 86400 + 3) / 7)";
+    static final String PERIODO_MES = "extract(year from m.date) * 12 + extract(month from m.date)";
+
+    /**
+     * Usuarios activos sin entrada en la fecha (anti-join sobre el índice de mood_entry), por
+     * páginas ordenadas por id: la siguiente página empieza tras el último id de la anterior
+     */
+    static final String QUERY_SIN_ENTRADA =
+            "SELECT u.id, u.nombre FROM Usuario u " +
+            "WHERE u.id > :despuesDe AND (u.activo IS NULL OR u.activo = true) " +
+            "AND NOT EXISTS (SELECT 1 FROM MoodEntry m WHERE m.usuario = u AND m.date = :fecha) " +
+            "ORDER BY u.id";
+
+    static final String QUERY_SIN_ENTRADA_ENTRE =
+            "SELECT u.id, u.nombre FROM Usuario u " +
+            "WHERE u.id IN :ids AND (u.activo IS NULL OR u.activo = true) " +
+            "AND NOT EXISTS (SELECT 1 FROM MoodEntry m WHERE m.usuario = u AND m.date = :fecha) " +
+            "ORDER BY u.id";
+
+    private static final String DISTRIBUCION =
+            "SELECT %1$s, m.mood, COUNT(m) FROM MoodEntry m " +
+            "WHERE m.usuario.id = :userId AND m.date BETWEEN :desde AND :hasta " +
+            "GROUP BY %1$s, m.mood";
+
     public MoodDAO() {
         super(); // Llama al constructor de BaseDAO
     }
@@ -86,7 +134,7 @@ public class MoodDAO extends BaseDAO {
      * @return La entrada almacenada
      */
     public MoodEntry storeMoodRecord(MoodEntry moodEntry) {
-        EntityManager em = emf.createEntityManager();
+        EntityManager em = crearEntityManager();
         try {
             em.getTransaction().begin();
             
@@ -118,7 +166,7 @@ public class MoodDAO extends BaseDAO {
      * @return La entrada actualizada
      */
     public MoodEntry update(MoodEntry moodEntry) {
-        EntityManager em = emf.createEntityManager();
+        EntityManager em = crearEntityManager();
         try {
             em.getTransaction().begin();
             MoodEntry merged = em.merge(moodEntry);
@@ -135,4 +183,121 @@ public class MoodDAO extends BaseDAO {
             em.close();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Estados de ánimo del usuario entre dos fechas (ambas incluidas), ordenados por fecha
+     *
+     * @throws IllegalArgumentException si falta algún parámetro o desde es posterior a hasta
+     */
+    public List<DiaAnimo> findEntre(Integer userId, LocalDate desde, LocalDate hasta) {
+        validarRango(userId, desde, hasta);
+        return executeQuery(em -> em.createQuery(QUERY_SERIE, DiaAnimo.class)
+                .setParameter("userId", userId)
+                .setParameter("desde", desde)
+                .setParameter("hasta", hasta)
+                .getResultList());
+    }
+
+    /**
+     * Registros por estado de ánimo entre dos fechas, un punto por día, semana (ISO) o mes
+     *
+     * El conteo por (periodo, estado) se agrupa en la BD con una sola consulta; en memoria solo
+     * se reparten las filas en los periodos, recortados al rango como en EstadisticasHabitoDAO.
+     *
+     * @throws IllegalArgumentException si falta algún parámetro o desde es posterior a hasta
+     */
+    public List<DistribucionAnimo> distribucion(Integer userId, LocalDate desde, LocalDate hasta,
+                                                Granularidad granularidad) {
+        if (granularidad == null) {
+            throw new IllegalArgumentException("La granularidad es obligatoria");
+        }
+        validarRango(userId, desde, hasta);
+
+        String periodo = granularidad == Granularidad.SEMANA ? PERIODO_SEMANA
+                : granularidad == Granularidad.MES ? PERIODO_MES : "m.date";
+        List<Object[]> filas = executeQuery(em -> em.createQuery(String.format(DISTRIBUCION, periodo), Object[].class)
+                .setParameter("userId", userId)
+                .setParameter("desde", desde)
+                .setParameter("hasta", hasta)
+                .getResultList());
+
+        Map<LocalDate, Map<String, Long>> porPeriodo = new HashMap<>();
+        for (Object[] fila : filas) {
+            porPeriodo.computeIfAbsent(inicioDePeriodo(granularidad, fila[0]), inicio -> new HashMap<>())
+                    .merge((String) fila[1], ((Number) fila[2]).longValue(), Long::sum);
+        }
+
+        List<DistribucionAnimo> serie = new ArrayList<>();
+        for (LocalDate inicio = granularidad.inicioDe(desde); !inicio.isAfter(hasta); inicio = granularidad.siguiente(inicio)) {
+            LocalDate fin = granularidad.siguiente(inicio).minusDays(1);
+            serie.add(new DistribucionAnimo(inicio.isBefore(desde) ? desde : inicio, fin.isAfter(hasta) ? hasta : fin,
+                    porPeriodo.getOrDefault(inicio, Map.of())));
+        }
+        return serie;
+    }
+
+    private static LocalDate inicioDePeriodo(Granularidad granularidad, Object periodo) {
+        switch (granularidad) {
+            case SEMANA:
+                return LocalDate.ofEpochDay(((Number) periodo).longValue() * 7 - 3);
+            case MES:
+                long mes = ((Number) periodo).longValue() - 1;
+                return LocalDate.of((int) (mes / 12), (int) (mes % 12) + 1, 1);
+            default:
+                return (LocalDate) periodo;
+        }
+    }
+
+    private static void validarRango(Integer userId, LocalDate desde, LocalDate hasta) {
+        if (userId == null || desde == null || hasta == null) {
+            throw new IllegalArgumentException("userId, desde y hasta son obligatorios");
+        }
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+        }
+    }
+
+    /**
+     * Página de usuarios activos sin entrada de estado de ánimo en la fecha
+     *
+     * @param despuesDe Último id de la página anterior (0 para la primera)
+     * @param limite Usuarios por página; una página más corta es la última
+     */
+    public List<RecordatorioAnimo> findUsuariosSinEntrada(LocalDate fecha, int despuesDe, int limite) {
+        if (fecha == null || limite <= 0) {
+            throw new IllegalArgumentException("La fecha es obligatoria y el límite debe ser positivo");
+        }
+        return executeQuery(em -> {
+            List<Object[]> filas = em.createQuery(QUERY_SIN_ENTRADA, Object[].class)
+                    .setParameter("despuesDe", despuesDe)
+                    .setParameter("fecha", fecha)
+                    .setMaxResults(limite)
+                    .getResultList();
+            return recordatorios(filas, fecha);
+        });
+    }
+
+    /**
+     * De los usuarios indicados, los que siguen activos y sin entrada de estado de ánimo en la fecha
+     */
+    public List<RecordatorioAnimo> findUsuariosSinEntrada(LocalDate fecha, Collection<Integer> usuarioIds) {
+        if (fecha == null || usuarioIds == null) {
+            throw new IllegalArgumentException("La fecha y los usuarios son obligatorios");
+        }
+        if (usuarioIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return executeQuery(em -> recordatorios(em.createQuery(QUERY_SIN_ENTRADA_ENTRE, Object[].class)
+                .setParameter("ids", usuarioIds)
+                .setParameter("fecha", fecha)
+                .getResultList(), fecha));
+    }
+
+    private static List<RecordatorioAnimo> recordatorios(List<Object[]> filas, LocalDate fecha) {
+        List<RecordatorioAnimo> pagina = new ArrayList<>(filas.size());
+        for (Object[] fila : filas) {
+            pagina.add(new RecordatorioAnimo((Integer) fila[0], (String) fila[1], fecha));
+        }
+        return pagina;
+    }
+}
@@ -5,22 +5,37 @@ import com.sistema_seguimiento.model.PetType;
 import com.sistema_seguimiento.model.UserPet;
 import com.sistema_seguimiento.model.Usuario;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityTransaction;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.Optional;
 
 /**
  * DAO para gestión de Mascotas (Pet) y la relación Usuario-Mascota (UserPet)
  */
-public class PetDAO {
+public class PetDAO extends BaseDAO {
+
+    /**
+     * Región de caché de consultas para findPetByType (ver ehcache.xml)
+     */
+    static final String REGION_PET_POR_TIPO = "query.pet-por-tipo";
+
+    public PetDAO() {
+        this(null);
+    }
+
+    public PetDAO(EntityManagerFactory emf) {
+        super(emf);
+    }
 
     // ===== Operaciones sobre Pet =====
 
     public Pet savePet(Pet pet) {
         if (pet == null) throw new IllegalArgumentException("pet no puede ser null");
-        EntityManager em = EntityManagerUtil.getEntityManager(); // Obtener EM
+        EntityManager em = crearEntityManager(); // Obtener EM
         EntityTransaction tx = null; // Inicializar transacción a null
         try {
             tx = em.getTransaction(); // Obtener transacción
@@ -43,7 +58,7 @@ public class PetDAO {
     }
 
     public Optional<Pet> findPetById(Long id) {
-        EntityManager em = EntityManagerUtil.getEntityManager(); // Obtener EM
+        EntityManager em = crearEntityManager(); // Obtener EM
         try {
             Pet pet = em.find(Pet.class, id); // Buscar por ID
             return Optional.ofNullable(pet); // Devolver Optional
@@ -53,12 +68,15 @@ public class PetDAO {
     }
 
     public Optional<Pet> findPetByType(PetType type) {
-        EntityManager em = EntityManagerUtil.getEntityManager(); // Obtener EM
+        EntityManager em = crearEntityManager(); // Obtener EM
         try {
             TypedQuery<Pet> q = em.createQuery("SELECT p FROM Pet p WHERE p.type = :t", Pet.class);
             q.setParameter("t", type);
             q.setMaxResults(1);
-            return q.getResultStream().findFirst();
+            // Plantillas casi inmutables: resultado en caché de consultas, entidades en la región "pet"
+            q.setHint(HibernateHints.HINT_CACHEABLE, true);
+            q.setHint(HibernateHints.HINT_CACHE_REGION, REGION_PET_POR_TIPO);
+            return q.getResultList().stream().findFirst();
         } catch (Exception e) {
             System.err.println("Error buscando Pet plantilla por tipo " + type + ": " + e.getMessage());
             return Optional.empty(); // Devolver vacío en caso de error
@@ -84,7 +102,7 @@ public class PetDAO {
 
     public UserPet saveUserPet(UserPet userPet) {
         if (userPet == null) throw new IllegalArgumentException("userPet no puede ser null");
-        EntityManager em = EntityManagerUtil.getEntityManager(); // Obtener EM
+        EntityManager em = crearEntityManager(); // Obtener EM
         EntityTransaction tx = null;
         try {
             tx = em.getTransaction();
@@ -113,7 +131,7 @@ public class PetDAO {
      */
     public UserPet saveNewPet(Long usuarioId, PetType petType) {
         if (usuarioId == null || petType == null) throw new IllegalArgumentException("usuarioId/petType no pueden ser null");
-        EntityManager em = EntityManagerUtil.getEntityManager(); // Obtener EM
+        EntityManager em = crearEntityManager(); // Obtener EM
         EntityTransaction tx = null;
         try {
             tx = em.getTransaction();
@@ -176,7 +194,7 @@ public class PetDAO {
      */
     public boolean updatePetState(Long usuarioId, PetType newState) {
         if (usuarioId == null || newState == null) throw new IllegalArgumentException("usuarioId/newState no pueden ser null");
-        EntityManager em = EntityManagerUtil.getEntityManager(); // Obtener EM
+        EntityManager em = crearEntityManager(); // Obtener EM
         EntityTransaction tx = null;
         try {
             tx = em.getTransaction();
@@ -199,7 +217,7 @@ public class PetDAO {
             } else {
                 // No se encontró mascota activa, no hay nada que actualizar.
                 System.out.println("No se encontró mascota activa para usuario ID: " + usuarioId + " para actualizar estado.");
-                if (tx.isActive()) tx.rollback(); // Hacer rollback si no se hizo nada
+                tx.commit(); // No se modificó nada; rollback marcaría toda la transacción de la petición
                 return false; // Indicar que no se actualizó
             }
         } catch (Exception e) {
@@ -228,7 +246,7 @@ public class PetDAO {
             System.err.println("getCurrentUserPet llamado con usuarioId null.");
             return Optional.empty();
         }
-        EntityManager em = EntityManagerUtil.getEntityManager(); // Obtener EM
+        EntityManager em = crearEntityManager(); // Obtener EM
         try {
             // Query para encontrar la UserPet activa, ordenada por fecha de desbloqueo descendente para obtener la más reciente si hubiera varias (aunque la lógica de saveNewPet debería prevenirlo)
             TypedQuery<UserPet> query = em.createQuery(
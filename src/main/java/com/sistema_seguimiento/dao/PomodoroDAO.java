@@ -0,0 +1,80 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.Pomodoro;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * DAO de las sesiones Pomodoro
+ *
+ * Lo usa PomodoroServicio para escribir en lote (write-behind) el estado de las sesiones que
+ * han cambiado de fase; el temporizador en curso vive en memoria y no se escribe por minuto.
+ */
+public class PomodoroDAO extends BaseDAO {
+
+    public PomodoroDAO() {
+        this(null);
+    }
+
+    public PomodoroDAO(EntityManagerFactory emf) {
+        super(emf);
+    }
+
+    /**
+     * Inserta (sin id) o actualiza (con id) todas las sesiones en una sola transacción
+     *
+     * @return Ids de las sesiones, en el mismo orden
+     */
+    public List<Integer> guardarLote(List<Pomodoro> sesiones) {
+        List<Integer> ids = new ArrayList<>(sesiones.size());
+        if (sesiones.isEmpty()) {
+            return ids;
+        }
+
+        EntityManager em = crearEntityManager();
+        EntityTransaction transaction = null;
+
+        try {
+            transaction = em.getTransaction();
+            transaction.begin();
+
+            List<Pomodoro> guardadas = new ArrayList<>(sesiones.size());
+            for (Pomodoro sesion : sesiones) {
+                if (sesion.getId() == null) {
+                    em.persist(sesion);
+                    guardadas.add(sesion);
+                } else {
+                    guardadas.add(em.merge(sesion));
+                }
+            }
+            em.flush();
+            guardadas.forEach(sesion -> ids.add(sesion.getId()));
+
+            transaction.commit();
+            return ids;
+
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            System.err.println("✗ Error al guardar sesiones Pomodoro en lote: " + e.getMessage());
+            throw new RuntimeException("Error al guardar sesiones Pomodoro en lote", e);
+        } finally {
+            em.close();
+        }
+    }
+
+    public Optional<Pomodoro> findById(Integer id) {
+        EntityManager em = crearEntityManager();
+        try {
+            return Optional.ofNullable(em.find(Pomodoro.class, id));
+        } finally {
+            em.close();
+        }
+    }
+}
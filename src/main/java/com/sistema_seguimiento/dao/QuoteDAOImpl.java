@@ -2,7 +2,9 @@ package com.sistema_seguimiento.dao;
 
 import com.sistema_seguimiento.model.FraseMotivacional;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,7 +14,20 @@ import java.util.stream.Collectors;
  * Implementación del DAO para frases motivacionales
  * Carga las frases desde la base de datos
  */
-public class QuoteDAOImpl implements QuoteDAO {
+public class QuoteDAOImpl extends BaseDAO implements QuoteDAO {
+    
+    /**
+     * Región de caché de consultas para las frases activas (ver ehcache.xml)
+     */
+    static final String REGION_FRASES_ACTIVAS = "query.frases-activas";
+
+    public QuoteDAOImpl() {
+        this(null);
+    }
+    
+    public QuoteDAOImpl(EntityManagerFactory emf) {
+        super(emf);
+    }
     
     /**
      * Obtiene todas las frases activas desde la base de datos
@@ -20,12 +35,14 @@ public class QuoteDAOImpl implements QuoteDAO {
      */
     @Override
     public List<String> getQuotes() {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         try {
             TypedQuery<FraseMotivacional> query = em.createQuery(
                 "SELECT f FROM FraseMotivacional f WHERE f.activa = true ORDER BY f.orden ASC",
                 FraseMotivacional.class
             );
+            query.setHint(HibernateHints.HINT_CACHEABLE, true);
+            query.setHint(HibernateHints.HINT_CACHE_REGION, REGION_FRASES_ACTIVAS);
             
             List<FraseMotivacional> frases = query.getResultList();
             
@@ -55,7 +72,7 @@ public class QuoteDAOImpl implements QuoteDAO {
      * @return Lista de FraseMotivacional
      */
     public List<FraseMotivacional> getAllFrases() {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         try {
             TypedQuery<FraseMotivacional> query = em.createQuery(
                 "SELECT f FROM FraseMotivacional f WHERE f.activa = true ORDER BY f.orden ASC",
@@ -0,0 +1,132 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.CalendarioCumplimiento;
+import com.sistema_seguimiento.model.Habito;
+import com.sistema_seguimiento.model.Racha;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verificación masiva de las rachas y calendarios de cumplimiento mantenidos
+ * incrementalmente por HabitoDAO.
+ *
+ * Recorre los hábitos por páginas de id, recalcula cada página con una sola consulta
+ * de días cumplidos y compara con las columnas guardadas. También sirve para construir
+ * el calendario de los hábitos que todavía no lo tienen.
+ */
+public class RachaDAO extends BaseDAO {
+
+    static final int TAMANO_PAGINA = 500;
+
+    public RachaDAO(EntityManagerFactory emf) {
+        super(emf);
+    }
+
+    public RachaDAO() {
+        super();
+    }
+
+    /**
+     * Compara la racha y el calendario guardados de todos los hábitos con los calculados desde el historial.
+     *
+     * @param corregir Si es true, sobrescribe las rachas y calendarios inconsistentes
+     * @return Resumen con hábitos revisados, inconsistentes y corregidos
+     */
+    public ResultadoVerificacion verificarConsistencia(boolean corregir) {
+        ResultadoVerificacion resultado = new ResultadoVerificacion();
+        int[] ultimoId = {0};
+        boolean[] hayMas = {true};
+
+        while (hayMas[0]) {
+            executeWithTransaction(em -> {
+                List<Habito> pagina = em.createQuery(
+                        "SELECT h FROM Habito h WHERE h.id > :ultimoId ORDER BY h.id", Habito.class)
+                    .setParameter("ultimoId", ultimoId[0])
+                    .setMaxResults(TAMANO_PAGINA)
+                    .getResultList();
+
+                if (pagina.isEmpty()) {
+                    hayMas[0] = false;
+                    return;
+                }
+                ultimoId[0] = pagina.get(pagina.size() - 1).getId();
+                hayMas[0] = pagina.size() == TAMANO_PAGINA;
+
+                Map<Integer, List<LocalDate>> diasPorHabito = cargarDiasCumplidos(em, pagina);
+                for (Habito habito : pagina) {
+                    resultado.revisados++;
+                    List<LocalDate> dias = diasPorHabito.getOrDefault(habito.getId(), new ArrayList<>());
+                    Racha esperada = Racha.desdeFechas(dias);
+                    CalendarioCumplimiento calendarioEsperado =
+                        CalendarioCumplimiento.desdeFechas(habito.getFechaInicio(), dias);
+                    if (!esperada.equals(habito.getRacha()) || !calendarioEsperado.equals(habito.getCalendario())) {
+                        resultado.inconsistentes++;
+                        System.out.println("⚠️ Racha inconsistente en hábito " + habito.getId()
+                            + ": guardada=" + habito.getRacha() + " esperada=" + esperada);
+                        if (corregir) {
+                            habito.recalcularDesde(dias);
+                            resultado.corregidos++;
+                        }
+                    }
+                }
+            }, "Error al verificar rachas");
+        }
+
+        System.out.println("✅ Verificación de rachas: " + resultado);
+        return resultado;
+    }
+
+    private Map<Integer, List<LocalDate>> cargarDiasCumplidos(EntityManager em, List<Habito> pagina) {
+        List<Integer> ids = new ArrayList<>(pagina.size());
+        for (Habito habito : pagina) {
+            ids.add(habito.getId());
+        }
+
+        List<Object[]> filas = em.createQuery(
+                "SELECT DISTINCT r.habito.id, r.fecha FROM RegistroHabito r " +
+                "WHERE r.habito.id IN :ids AND r.completado = true " +
+                "AND r.vecesRealizado >= r.habito.metaDiaria " +
+                "ORDER BY r.habito.id, r.fecha", Object[].class)
+            .setParameter("ids", ids)
+            .getResultList();
+
+        Map<Integer, List<LocalDate>> diasPorHabito = new HashMap<>();
+        for (Object[] fila : filas) {
+            diasPorHabito.computeIfAbsent((Integer) fila[0], k -> new ArrayList<>())
+                .add((LocalDate) fila[1]);
+        }
+        return diasPorHabito;
+    }
+
+    /**
+     * Resumen de una verificación de rachas
+     */
+    public static class ResultadoVerificacion {
+        private int revisados;
+        private int inconsistentes;
+        private int corregidos;
+
+        public int getRevisados() {
+            return revisados;
+        }
+
+        public int getInconsistentes() {
+            return inconsistentes;
+        }
+
+        public int getCorregidos() {
+            return corregidos;
+        }
+
+        @Override
+        public String toString() {
+            return "revisados=" + revisados + ", inconsistentes=" + inconsistentes + ", corregidos=" + corregidos;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.Habito;
+import com.sistema_seguimiento.model.ResumenDiario;
+import com.sistema_seguimiento.model.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.TypedQuery;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * DAO del resumen diario por usuario (tabla resumen_diario_usuario)
+ *
+ * - Mantenimiento incremental: HabitoDAO llama a sincronizar dentro de la transacción de
+ *   cada escritura con los días afectados; el día se recalcula desde sus registros con una
+ *   consulta agrupada (un día tiene pocos registros y se leen por (usuario_id, fecha_registro)).
+ * - Reconstrucción: reconstruir(usuarioId) y reconstruirTodo() recalculan todos los días
+ *   desde registro_habito; al arrancar se reconstruye si la tabla está vacía y hay registros.
+ *
+ * sincronizar bloquea la fila del usuario (SELECT ... FOR UPDATE) antes de recalcular: dos
+ * escrituras del mismo usuario no pueden calcular el mismo día a la vez y perder un registro.
+ *
+ * Los hábitos previstos de cada día son los que estaban activos ese día (entre su fecha de
+ * inicio y la de desactivación), no los activos hoy: activar o desactivar un hábito no cambia
+ * los días pasados.
+ */
+public class ResumenDiarioDAO extends BaseDAO {
+
+    private static final String CUMPLE_META = "r.completado = true AND r.vecesRealizado >= h.metaDiaria";
+
+    /**
+     * Agregados por día de los registros de un usuario; sincronizar añade el filtro de días
+     */
+    static final String QUERY_AGREGADOS =
+        "SELECT r.fecha, " +
+        "COUNT(DISTINCT CASE WHEN " + CUMPLE_META + " THEN h.id END), " +
+        "SUM(CASE WHEN r.completado = true THEN 1 ELSE 0 END), " +
+        "SUM(COALESCE(r.vecesRealizado, 0)), " +
+        "SUM(CASE WHEN " + CUMPLE_META + " THEN " + ResumenDiario.PUNTOS_CUMPLIDO +
+        " WHEN r.vecesRealizado > 0 THEN " + ResumenDiario.PUNTOS_PARCIAL + " ELSE 0 END) " +
+        "FROM RegistroHabito r JOIN r.habito h " +
+        "WHERE r.usuarioId = :usuarioId ";
+
+    static final String QUERY_HABITOS =
+        "SELECT h FROM Habito h WHERE h.usuarioId = :usuarioId";
+
+    public ResumenDiarioDAO() {
+        this(null);
+    }
+
+    public ResumenDiarioDAO(EntityManagerFactory emf) {
+        super(emf);
+    }
+
+    public Optional<ResumenDiario> findDia(Integer usuarioId, LocalDate fecha) {
+        EntityManager em = crearEntityManager();
+        try {
+            return Optional.ofNullable(em.find(ResumenDiario.class, new ResumenDiario.Clave(usuarioId, fecha)));
+        } finally {
+            em.close();
+        }
+    }
+
+    public List<ResumenDiario> findEntre(Integer usuarioId, LocalDate desde, LocalDate hasta) {
+        EntityManager em = crearEntityManager();
+        try {
+            return em.createQuery(
+                    "SELECT rd FROM ResumenDiario rd WHERE rd.usuarioId = :usuarioId " +
+                    "AND rd.fecha BETWEEN :desde AND :hasta ORDER BY rd.fecha", ResumenDiario.class)
+                .setParameter("usuarioId", usuarioId)
+                .setParameter("desde", desde)
+                .setParameter("hasta", hasta)
+                .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Porcentaje de hábitos cumplidos entre dos fechas (ambas incluidas)
+     *
+     * Cada día con resumen aporta sus hábitos previstos; los días sin registros aportan los
+     * hábitos que estaban activos ese día (solo entonces se leen los hábitos).
+     */
+    public double porcentajeCumplimiento(Integer usuarioId, LocalDate desde, LocalDate hasta) {
+        EntityManager em = crearEntityManager();
+        try {
+            List<ResumenDiario> dias = em.createQuery(
+                    "SELECT rd FROM ResumenDiario rd WHERE rd.usuarioId = :usuarioId " +
+                    "AND rd.fecha BETWEEN :desde AND :hasta", ResumenDiario.class)
+                .setParameter("usuarioId", usuarioId)
+                .setParameter("desde", desde)
+                .setParameter("hasta", hasta)
+                .getResultList();
+
+            long cumplidos = 0;
+            long previstos = 0;
+            for (ResumenDiario dia : dias) {
+                cumplidos += dia.getHabitosCumplidos();
+                previstos += dia.getHabitosPrevistos();
+            }
+            if (dias.size() < hasta.toEpochDay() - desde.toEpochDay() + 1) {
+                Set<LocalDate> conResumen = new HashSet<>();
+                dias.forEach(dia -> conResumen.add(dia.getFecha()));
+                List<Habito> habitos = habitosDe(em, usuarioId);
+                for (LocalDate dia = desde; !dia.isAfter(hasta); dia = dia.plusDays(1)) {
+                    if (!conResumen.contains(dia)) {
+                        previstos += previstosEl(habitos, dia);
+                    }
+                }
+            }
+            return previstos > 0 ? cumplidos * 100.0 / previstos : 0.0;
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Días en los que el usuario completó al menos un registro
+     */
+    public long contarDiasConCompletados(Integer usuarioId) {
+        EntityManager em = crearEntityManager();
+        try {
+            return em.createQuery(
+                    "SELECT COUNT(rd) FROM ResumenDiario rd " +
+                    "WHERE rd.usuarioId = :usuarioId AND rd.registrosCompletados > 0", Long.class)
+                .setParameter("usuarioId", usuarioId)
+                .getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Recalcula todos los días del usuario desde registro_habito
+     *
+     * @return Días con resumen tras la reconstrucción
+     */
+    public int reconstruir(Integer usuarioId) {
+        EntityManager em = crearEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            int dias = sincronizar(em, usuarioId, null);
+            tx.commit();
+            return dias;
+        } catch (Exception e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw new RuntimeException("Error al reconstruir el resumen diario del usuario " + usuarioId, e);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Reconstruye el resumen de todos los usuarios con registros o con resumen, uno por
+     * transacción (un fallo deja a ese usuario como estaba y sigue con el resto)
+     *
+     * @return Días con resumen tras la reconstrucción
+     */
+    public int reconstruirTodo() {
+        Set<Integer> usuarios = new LinkedHashSet<>();
+        EntityManager em = crearEntityManager();
+        try {
+            usuarios.addAll(em.createQuery(
+                    "SELECT DISTINCT r.usuarioId FROM RegistroHabito r WHERE r.usuarioId IS NOT NULL", Integer.class)
+                .getResultList());
+            usuarios.addAll(em.createQuery("SELECT DISTINCT rd.usuarioId FROM ResumenDiario rd", Integer.class)
+                .getResultList());
+        } finally {
+            em.close();
+        }
+
+        int dias = 0;
+        for (Integer usuarioId : usuarios) {
+            try {
+                dias += reconstruir(usuarioId);
+            } catch (RuntimeException e) {
+                System.err.println("❌ " + e.getMessage() + ": " + e.getCause().getMessage());
+            }
+        }
+        System.out.println("✅ Resumen diario reconstruido: " + usuarios.size() + " usuarios, " + dias + " días");
+        return dias;
+    }
+
+    /**
+     * Reconstruye todo si la tabla de resúmenes está vacía y ya hay registros (primer arranque
+     * con la tabla nueva); en cualquier otro caso no hace nada
+     */
+    public int reconstruirSiVacio() {
+        EntityManager em = crearEntityManager();
+        boolean vacio;
+        try {
+            vacio = em.createQuery("SELECT rd.usuarioId FROM ResumenDiario rd", Integer.class)
+                        .setMaxResults(1).getResultList().isEmpty()
+                && !em.createQuery("SELECT r.id FROM RegistroHabito r", Integer.class)
+                        .setMaxResults(1).getResultList().isEmpty();
+        } finally {
+            em.close();
+        }
+        return vacio ? reconstruirTodo() : 0;
+    }
+
+    /**
+     * Recalcula los días indicados del usuario dentro de la transacción activa
+     *
+     * @param fechas Días a recalcular; null recalcula todos los días del usuario
+     * @return Días con resumen entre los recalculados
+     */
+    static int sincronizar(EntityManager em, Integer usuarioId, Collection<LocalDate> fechas) {
+        if (fechas != null && fechas.isEmpty()) {
+            return 0;
+        }
+        return recalcular(em, usuarioId, fechas, null);
+    }
+
+    /**
+     * Recalcula los días del usuario a partir de una fecha (incluida) dentro de la transacción
+     * activa; los anteriores se quedan como estaban (p. ej. al cambiar la meta de un hábito)
+     *
+     * @return Días con resumen entre los recalculados
+     */
+    static int sincronizarDesde(EntityManager em, Integer usuarioId, LocalDate desde) {
+        return recalcular(em, usuarioId, null, desde);
+    }
+
+    private static int recalcular(EntityManager em, Integer usuarioId, Collection<LocalDate> fechas, LocalDate desde) {
+        if (usuarioId == null) {
+            return 0;
+        }
+        em.find(Usuario.class, usuarioId, LockModeType.PESSIMISTIC_WRITE);
+        em.flush();
+
+        String filtroRegistros = fechas != null ? "AND r.fecha IN :fechas " : desde != null ? "AND r.fecha >= :desde " : "";
+        String filtroResumen = fechas != null ? " AND rd.fecha IN :fechas" : desde != null ? " AND rd.fecha >= :desde" : "";
+        TypedQuery<Object[]> agregados = em.createQuery(
+            QUERY_AGREGADOS + filtroRegistros + "GROUP BY r.fecha", Object[].class);
+        TypedQuery<ResumenDiario> existentes = em.createQuery(
+            "SELECT rd FROM ResumenDiario rd WHERE rd.usuarioId = :usuarioId" + filtroResumen, ResumenDiario.class);
+        agregados.setParameter("usuarioId", usuarioId);
+        existentes.setParameter("usuarioId", usuarioId);
+        if (fechas != null) {
+            agregados.setParameter("fechas", fechas);
+            existentes.setParameter("fechas", fechas);
+        } else if (desde != null) {
+            agregados.setParameter("desde", desde);
+            existentes.setParameter("desde", desde);
+        }
+
+        Map<LocalDate, Object[]> porFecha = new HashMap<>();
+        for (Object[] fila : agregados.getResultList()) {
+            porFecha.put((LocalDate) fila[0], fila);
+        }
+        List<Habito> habitos = porFecha.isEmpty() ? List.of() : habitosDe(em, usuarioId);
+
+        int conResumen = porFecha.size();
+        for (ResumenDiario dia : existentes.getResultList()) {
+            Object[] fila = porFecha.remove(dia.getFecha());
+            if (fila == null) {
+                em.remove(dia); // Ya no quedan registros ese día
+            } else {
+                aplicar(dia, fila, habitos);
+            }
+        }
+        for (Object[] fila : porFecha.values()) {
+            ResumenDiario dia = new ResumenDiario(usuarioId, (LocalDate) fila[0]);
+            aplicar(dia, fila, habitos);
+            em.persist(dia);
+        }
+        return conResumen;
+    }
+
+    private static List<Habito> habitosDe(EntityManager em, Integer usuarioId) {
+        return em.createQuery(QUERY_HABITOS, Habito.class)
+            .setParameter("usuarioId", usuarioId)
+            .getResultList();
+    }
+
+    private static int previstosEl(List<Habito> habitos, LocalDate dia) {
+        int previstos = 0;
+        for (Habito habito : habitos) {
+            if (habito.isPrevistoEl(dia)) {
+                previstos++;
+            }
+        }
+        return previstos;
+    }
+
+    private static void aplicar(ResumenDiario dia, Object[] fila, List<Habito> habitos) {
+        int cumplidos = ((Number) fila[1]).intValue();
+        // Un día cumplido fuera de las fechas de su hábito también estaba previsto
+        dia.setHabitosPrevistos(Math.max(previstosEl(habitos, dia.getFecha()), cumplidos));
+        dia.setHabitosCumplidos(cumplidos);
+        dia.setRegistrosCompletados(fila[2] != null ? ((Number) fila[2]).intValue() : 0);
+        dia.setVecesTotal(fila[3] != null ? ((Number) fila[3]).longValue() : 0L);
+        dia.setPuntos(fila[4] != null ? ((Number) fila[4]).longValue() : 0L);
+    }
+}
@@ -1,13 +1,17 @@
 package com.sistema_seguimiento.dao;
 
+import com.sistema_seguimiento.model.PanelMascotas;
 import com.sistema_seguimiento.model.Pet;
 import com.sistema_seguimiento.model.PetType;
 import com.sistema_seguimiento.model.UserPet;
 import com.sistema_seguimiento.model.Usuario;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.TypedQuery;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,7 +19,66 @@ import java.util.Optional;
  * DAO específico para gestionar UserPets con lógica de negocio adicional
  * Complementa el PetDAO existente con operaciones específicas para las mascotas de usuarios
  */
-public class UserPetDAO {
+public class UserPetDAO extends BaseDAO {
+
+    /**
+     * Panel de mascotas en una consulta: contador del usuario + historial de mascotas con su Pet.
+     * Usuario sin mascotas = una fila con mascota null.
+     */
+    static final String QUERY_PANEL =
+        "SELECT u.habitosCompletados, up FROM Usuario u " +
+        "LEFT JOIN UserPet up ON up.usuario.id = u.id " +
+        "LEFT JOIN FETCH up.pet " +
+        "WHERE u.id = :usuarioId " +
+        "ORDER BY up.unlockedAt DESC";
+
+    public UserPetDAO() {
+        this(null);
+    }
+
+    public UserPetDAO(EntityManagerFactory emf) {
+        super(emf);
+    }
+
+    /**
+     * Carga la mascota activa, el historial y los hábitos completados del usuario en una consulta.
+     * El contador se lee de usuario.habitos_completados; solo la primera vez para usuarios
+     * anteriores a la columna se calcula con COUNT y se guarda.
+     */
+    public PanelMascotas cargarPanel(Integer usuarioId) {
+        if (usuarioId == null) return PanelMascotas.VACIO;
+
+        EntityManager em = crearEntityManager();
+        try {
+            List<Object[]> filas = em.createQuery(QUERY_PANEL, Object[].class)
+                .setParameter("usuarioId", usuarioId)
+                .getResultList();
+            if (filas.isEmpty()) {
+                return PanelMascotas.VACIO;
+            }
+
+            Long contador = (Long) filas.get(0)[0];
+            if (contador == null) {
+                contador = inicializarContador(em, usuarioId);
+            }
+
+            List<UserPet> mascotas = new ArrayList<>(filas.size());
+            UserPet activa = null;
+            for (Object[] fila : filas) {
+                UserPet userPet = (UserPet) fila[1];
+                if (userPet == null) {
+                    continue;
+                }
+                mascotas.add(userPet);
+                if (activa == null && userPet.isActive()) {
+                    activa = userPet;
+                }
+            }
+            return new PanelMascotas(activa, mascotas, contador);
+        } finally {
+            em.close();
+        }
+    }
 
     /**
      * Obtiene la mascota activa del usuario
@@ -23,7 +86,7 @@ public class UserPetDAO {
     public Optional<UserPet> findActiveUserPet(Integer usuarioId) {
         if (usuarioId == null) return Optional.empty();
         
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         try {
             TypedQuery<UserPet> query = em.createQuery(
                 "SELECT up FROM UserPet up " +
@@ -48,7 +111,7 @@ public class UserPetDAO {
      * Obtiene todas las mascotas del usuario (activas e inactivas)
      */
     public List<UserPet> findAllUserPets(Integer usuarioId) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         try {
             TypedQuery<UserPet> query = em.createQuery(
                 "SELECT up FROM UserPet up " +
@@ -66,18 +129,19 @@ public class UserPetDAO {
     /**
      * Cuenta cuántos hábitos ha completado el usuario
      * @param usuarioId ID del usuario
-     * @return Total de hábitos cumplidos
+     * @return Total de hábitos cumplidos (contador mantenido, sin COUNT sobre el historial)
      */
     public long countCompletedHabits(Integer usuarioId) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         try {
-            TypedQuery<Long> query = em.createQuery(
-                "SELECT COUNT(rh) FROM RegistroHabito rh " +
-                "JOIN rh.habito h " +
-                "WHERE h.usuarioId = :usuarioId AND rh.completado = true",
-                Long.class);
-            query.setParameter("usuarioId", usuarioId);
-            return query.getSingleResult();
+            List<Long> contador = em.createQuery(
+                    "SELECT u.habitosCompletados FROM Usuario u WHERE u.id = :usuarioId", Long.class)
+                .setParameter("usuarioId", usuarioId)
+                .getResultList();
+            if (contador.isEmpty()) {
+                return 0L;
+            }
+            return contador.get(0) != null ? contador.get(0) : inicializarContador(em, usuarioId);
         } catch (Exception e) {
             System.err.println("Error al contar hábitos completados: " + e.getMessage());
             return 0L;
@@ -86,11 +150,49 @@ public class UserPetDAO {
         }
     }
 
+    /**
+     * Calcula y guarda usuario.habitos_completados para un usuario que aún no lo tiene,
+     * sumando los registros completados del resumen diario (sin recorrer registro_habito).
+     *
+     * Bloquea la fila del usuario antes de sumar: un check-in que ya la actualizó termina antes,
+     * y los siguientes esperan y suman sobre el contador ya inicializado. La suma y la escritura
+     * van en un solo UPDATE que solo escribe si sigue en null.
+     */
+    private long inicializarContador(EntityManager em, Integer usuarioId) {
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            em.createQuery("SELECT u.id FROM Usuario u WHERE u.id = :usuarioId")
+                .setParameter("usuarioId", usuarioId)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+            int inicializados = em.createQuery("UPDATE Usuario u SET u.habitosCompletados = (" +
+                           "SELECT COALESCE(SUM(rd.registrosCompletados), 0) FROM ResumenDiario rd " +
+                           "WHERE rd.usuarioId = u.id) " +
+                           "WHERE u.id = :usuarioId AND u.habitosCompletados IS NULL")
+                .setParameter("usuarioId", usuarioId)
+                .executeUpdate();
+            Long total = em.createQuery(
+                    "SELECT u.habitosCompletados FROM Usuario u WHERE u.id = :usuarioId", Long.class)
+                .setParameter("usuarioId", usuarioId)
+                .getSingleResult();
+            tx.commit();
+            if (inicializados > 0) {
+                System.out.println("✅ Contador de hábitos completados inicializado para usuario " + usuarioId + ": " + total);
+            }
+            return total != null ? total : 0L;
+        } catch (Exception e) {
+            if (tx.isActive()) tx.rollback();
+            System.err.println("Error al inicializar contador de hábitos completados: " + e.getMessage());
+            return 0L;
+        }
+    }
+
     /**
      * Crea una nueva mascota para el usuario y desactiva la anterior
      */
     public UserPet createUserPet(Integer usuarioId, PetType petType) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         EntityTransaction tx = em.getTransaction();
         
         try {
@@ -141,7 +243,7 @@ public class UserPetDAO {
      * Actualiza el estado de la mascota activa del usuario
      */
     public boolean updatePetState(Integer usuarioId, PetType newState) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         EntityTransaction tx = em.getTransaction();
         
         try {
@@ -181,7 +283,7 @@ public class UserPetDAO {
      * Verifica si el usuario ya tiene una mascota de cierto tipo
      */
     public boolean hasPetType(Integer usuarioId, PetType petType) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         try {
             TypedQuery<Long> query = em.createQuery(
                 "SELECT COUNT(up) FROM UserPet up " +
@@ -247,7 +349,7 @@ public class UserPetDAO {
      * Guarda o actualiza un UserPet
      */
     public UserPet save(UserPet userPet) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         EntityTransaction tx = em.getTransaction();
         
         try {
@@ -2,23 +2,33 @@ package com.sistema_seguimiento.dao;
 
 import com.sistema_seguimiento.model.Usuario;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityTransaction;
 import jakarta.persistence.TypedQuery;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * DAO con JPA para gestión de Usuarios compatible con Supabase
  * Usa EntityManager para operaciones de base de datos
  */
-public class UsuarioDAOJPA {
+public class UsuarioDAOJPA extends BaseDAO {
+
+    public UsuarioDAOJPA() {
+        this(null);
+    }
+    
+    public UsuarioDAOJPA(EntityManagerFactory emf) {
+        super(emf);
+    }
     
     /**
      * Guardar un nuevo usuario
      */
     public Usuario save(Usuario usuario) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         EntityTransaction transaction = null;
         
         try {
@@ -46,7 +56,7 @@ public class UsuarioDAOJPA {
      * Buscar usuario por ID
      */
     public Optional<Usuario> findById(Integer id) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         
         try {
             Usuario usuario = em.find(Usuario.class, id);
@@ -63,7 +73,7 @@ public class UsuarioDAOJPA {
      * Buscar usuario por correo
      */
     public Optional<Usuario> findByCorreo(String correo) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         
         try {
             TypedQuery<Usuario> query = em.createQuery(
@@ -87,7 +97,7 @@ public class UsuarioDAOJPA {
      * Obtener todos los usuarios
      */
     public List<Usuario> findAll() {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         
         try {
             TypedQuery<Usuario> query = em.createQuery(
@@ -107,7 +117,7 @@ public class UsuarioDAOJPA {
      * Actualizar usuario existente
      */
     public Usuario update(Usuario usuario) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         EntityTransaction transaction = null;
         
         try {
@@ -135,7 +145,7 @@ public class UsuarioDAOJPA {
      * Eliminar usuario por ID
      */
     public boolean delete(Integer id) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         EntityTransaction transaction = null;
         
         try {
@@ -183,7 +193,7 @@ public class UsuarioDAOJPA {
      * Verificar si existe un usuario con el correo dado
      */
     public boolean existsByCorreo(String correo) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         
         try {
             Long count = em.createQuery(
@@ -207,7 +217,7 @@ public class UsuarioDAOJPA {
      * Buscar usuarios por nombre (búsqueda parcial)
      */
     public List<Usuario> searchByNombre(String nombreParcial) {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         
         try {
             TypedQuery<Usuario> query = em.createQuery(
@@ -230,7 +240,7 @@ public class UsuarioDAOJPA {
      * Contar total de usuarios
      */
     public long count() {
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         
         try {
             return em.createQuery("SELECT COUNT(u) FROM Usuario u", Long.class)
@@ -251,44 +261,102 @@ public class UsuarioDAOJPA {
      * @return true si se agregaron los puntos, false si no
      */
     public boolean addPoints(Integer usuarioId, int puntos) {
+        return sumarPuntos(usuarioId, puntos) != null;
+    }
+    
+    /**
+     * Suma puntos con un UPDATE atómico (puntos = puntos + n) en lugar de leer, sumar y guardar
+     * la entidad: dos registros simultáneos del mismo usuario no pierden puntos.
+     * 
+     * @param usuarioId ID del usuario
+     * @param puntos Cantidad de puntos a agregar (debe ser positivo)
+     * @return Total de puntos tras la suma, o null si el usuario no existe o hubo error
+     */
+    public Integer sumarPuntos(Integer usuarioId, int puntos) {
         // Validar entrada
         if (usuarioId == null || puntos <= 0) {
-            return false;
+            return null;
         }
         
-        EntityManager em = EntityManagerUtil.getEntityManager();
+        EntityManager em = crearEntityManager();
         EntityTransaction transaction = null;
         
         try {
             transaction = em.getTransaction();
             transaction.begin();
             
-            // Buscar usuario
-            Usuario usuario = em.find(Usuario.class, usuarioId);
+            int filas = em.createQuery("UPDATE Usuario u SET u.puntos = u.puntos + :puntos WHERE u.id = :id")
+                    .setParameter("puntos", puntos)
+                    .setParameter("id", usuarioId)
+                    .executeUpdate();
             
-            if (usuario == null) {
-                transaction.rollback();
-                return false;
+            if (filas == 0) {
+                transaction.commit();
+                System.err.println("✗ Usuario " + usuarioId + " no encontrado al agregar puntos");
+                return null;
             }
             
-            // Agregar puntos
-            Integer puntosActuales = usuario.getPuntos();
-            usuario.setPuntos(puntosActuales + puntos);
-            
-            // Guardar cambios
-            em.merge(usuario);
+            // La fila queda bloqueada por el UPDATE hasta el commit: este total es exactamente el nuestro
+            Integer total = em.createQuery("SELECT u.puntos FROM Usuario u WHERE u.id = :id", Integer.class)
+                    .setParameter("id", usuarioId)
+                    .getSingleResult();
             transaction.commit();
             
             System.out.println("✓ Agregados " + puntos + " puntos al usuario " + usuarioId + 
-                             ". Total: " + usuario.getPuntos());
-            return true;
+                             ". Total: " + total);
+            return total;
             
         } catch (Exception e) {
             if (transaction != null && transaction.isActive()) {
                 transaction.rollback();
             }
             System.err.println("✗ Error al agregar puntos: " + e.getMessage());
-            return false;
+            return null;
+        } finally {
+            em.close();
+        }
+    }
+    
+    /**
+     * Suma los puntos acumulados de varios usuarios en una sola transacción
+     * (un UPDATE atómico por usuario). Lo usa AcumuladorPuntos al vaciar su buffer.
+     * 
+     * @param puntosPorUsuario Puntos a sumar por ID de usuario
+     * @return Número de usuarios actualizados
+     * @throws RuntimeException si falla la transacción (no se aplica ningún punto)
+     */
+    public int sumarPuntosEnLote(Map<Integer, Long> puntosPorUsuario) {
+        if (puntosPorUsuario == null || puntosPorUsuario.isEmpty()) {
+            return 0;
+        }
+        
+        EntityManager em = crearEntityManager();
+        EntityTransaction transaction = null;
+        
+        try {
+            transaction = em.getTransaction();
+            transaction.begin();
+            
+            int actualizados = 0;
+            for (Map.Entry<Integer, Long> entrada : puntosPorUsuario.entrySet()) {
+                if (entrada.getValue() == null || entrada.getValue() <= 0) {
+                    continue;
+                }
+                actualizados += em.createQuery("UPDATE Usuario u SET u.puntos = u.puntos + :puntos WHERE u.id = :id")
+                        .setParameter("puntos", entrada.getValue().intValue())
+                        .setParameter("id", entrada.getKey())
+                        .executeUpdate();
+            }
+            
+            transaction.commit();
+            return actualizados;
+            
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            System.err.println("✗ Error al agregar puntos en lote: " + e.getMessage());
+            throw new RuntimeException("Error al agregar puntos en lote", e);
         } finally {
             em.close();
         }
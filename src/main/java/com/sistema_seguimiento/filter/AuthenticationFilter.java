@@ -12,7 +12,7 @@ import java.io.IOException;
  * Filtro de autenticación para proteger páginas que requieren login
  * Redirige a login si el usuario no está autenticado
  */
-@WebFilter(filterName = "AuthenticationFilter", urlPatterns = {
+@WebFilter(filterName = "AuthenticationFilter", asyncSupported = true, urlPatterns = {
     "/index.jsp",
     "/controlador-objetivos",
     "/controlador-habitos",
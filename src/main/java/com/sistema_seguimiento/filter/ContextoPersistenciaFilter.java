@@ -0,0 +1,149 @@
+package com.sistema_seguimiento.filter;
+
+import com.sistema_seguimiento.dao.ContextoPersistencia;
+import com.sistema_seguimiento.dao.EntityManagerUtil;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.*;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.util.logging.Logger;
+
+/**
+ * Filtro que abre un EntityManager por petición (ver ContextoPersistencia)
+ *
+ * Todos los DAOs llamados durante la petición comparten el mismo EntityManager y la misma
+ * transacción, que se confirma una sola vez:
+ * - antes de un sendRedirect, para que la página de destino ya vea los cambios
+ * - antes de pasar a la vista (forward/include), que ya no escribe en la BD
+ * - al terminar la petición en cualquier otro caso
+ * Si la petición lanza una excepción se hace rollback. Si algún DAO dejó la transacción
+ * marcada para rollback la respuesta es un error 500, no la página de éxito.
+ */
+@WebFilter(filterName = "ContextoPersistenciaFilter", asyncSupported = true, urlPatterns = {
+    "/controlador-objetivos",
+    "/planificar",
+    "/controlador-habitos",
+    "/controlador-kanban",
+    "/mascotas-virtuales",
+    "/mood-tracker",
+    "/journal",
+    "/frases-motivacion",
+    "/login",
+    "/registro"
+})
+public class ContextoPersistenciaFilter implements Filter {
+
+    private static final Logger logger = Logger.getLogger(ContextoPersistenciaFilter.class.getName());
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        System.out.println("✓ ContextoPersistenciaFilter inicializado");
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        EntityManagerFactory emf;
+        try {
+            emf = EntityManagerUtil.getEntityManagerFactory();
+        } catch (IllegalStateException e) {
+            // Sin BD disponible cada DAO reportará su propio error
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ContextoPersistencia.abrir(emf);
+        boolean exito = false;
+        try {
+            chain.doFilter(new ConfirmarAntesDeVista((HttpServletRequest) request),
+                new ConfirmarAntesDeRedirigir((HttpServletResponse) response));
+            exito = true;
+        } finally {
+            try {
+                ContextoPersistencia.cerrar(exito);
+            } catch (RuntimeException e) {
+                logger.severe(String.format("[PERSISTENCIA] Error al confirmar la transacción de la petición: %s", e.getMessage()));
+                if (exito) {
+                    throw new ServletException("Error al confirmar la transacción de la petición", e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    /**
+     * Confirma la transacción de la petición antes de enviar la redirección al navegador
+     */
+    private static class ConfirmarAntesDeRedirigir extends HttpServletResponseWrapper {
+
+        ConfirmarAntesDeRedirigir(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            try {
+                ContextoPersistencia.confirmar();
+            } catch (RuntimeException e) {
+                logger.severe(String.format("[PERSISTENCIA] Error al confirmar antes de redirigir a %s: %s", location, e.getMessage()));
+                sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                return;
+            }
+            super.sendRedirect(location);
+        }
+    }
+
+    /**
+     * Confirma la transacción de la petición antes de pasar a la vista y deja sus entidades de
+     * solo lectura (ver ContextoPersistencia.confirmarAntesDeVista)
+     */
+    private static class ConfirmarAntesDeVista extends HttpServletRequestWrapper {
+
+        ConfirmarAntesDeVista(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public RequestDispatcher getRequestDispatcher(String path) {
+            RequestDispatcher destino = super.getRequestDispatcher(path);
+            if (destino == null) {
+                return null;
+            }
+            return new RequestDispatcher() {
+                @Override
+                public void forward(ServletRequest request, ServletResponse response) throws ServletException, IOException {
+                    if (confirmar(path, response)) {
+                        destino.forward(request, response);
+                    }
+                }
+
+                @Override
+                public void include(ServletRequest request, ServletResponse response) throws ServletException, IOException {
+                    if (confirmar(path, response)) {
+                        destino.include(request, response);
+                    }
+                }
+            };
+        }
+
+        private static boolean confirmar(String path, ServletResponse response) throws IOException {
+            try {
+                ContextoPersistencia.confirmarAntesDeVista();
+                return true;
+            } catch (RuntimeException e) {
+                logger.severe(String.format("[PERSISTENCIA] Error al confirmar antes de mostrar %s: %s", path, e.getMessage()));
+                ((HttpServletResponse) response).sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.sistema_seguimiento.filter;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Logger;
+
+/**
+ * Filtro que atiende la petición en un hilo virtual (modo sistema.hilosVirtuales)
+ *
+ * Pasa la petición a modo asíncrono y ejecuta el resto de la cadena (filtros, servlet, JSP y
+ * todas las llamadas a los DAOs) en el ejecutor de hilos virtuales que publica
+ * AplicacionListener. El hilo del contenedor queda libre en cuanto empieza la petición; los
+ * hilos virtuales que esperan a la BD no ocupan hilos de plataforma, y LimiteConexiones evita
+ * que desborden el pool.
+ *
+ * Se declara en web.xml para que vaya antes que los filtros anotados: ContextoPersistenciaFilter
+ * tiene que abrir su contexto (ThreadLocal) en el hilo virtual. Los servlets y filtros de estas
+ * rutas declaran asyncSupported; si algún componente no lo admite, o el modo está desactivado,
+ * la petición sigue en el hilo del contenedor como siempre.
+ */
+public class HilosVirtualesFilter implements Filter {
+
+    private static final Logger logger = Logger.getLogger(HilosVirtualesFilter.class.getName());
+
+    /**
+     * Atributo del ServletContext donde AplicacionListener publica el ejecutor de hilos virtuales
+     */
+    public static final String ATRIBUTO_CONTEXTO = "ejecutorHilosVirtuales";
+
+    private ServletContext contexto;
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        contexto = filterConfig.getServletContext();
+        System.out.println("✓ HilosVirtualesFilter inicializado");
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        Object atributo = contexto.getAttribute(ATRIBUTO_CONTEXTO);
+        if (!(atributo instanceof ExecutorService) || !request.isAsyncSupported() || request.isAsyncStarted()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        AsyncContext async = request.startAsync(request, response);
+        // Sin timeout del contenedor: la duración la acotan los timeouts de la BD y del semáforo
+        async.setTimeout(0);
+        try {
+            ((ExecutorService) atributo).execute(() -> atender(async, chain));
+        } catch (RejectedExecutionException e) {
+            // Ejecutor detenido (la aplicación se está parando): se atiende en este hilo
+            atender(async, chain);
+        }
+    }
+
+    private void atender(AsyncContext async, FilterChain chain) {
+        try {
+            chain.doFilter(async.getRequest(), async.getResponse());
+        } catch (Exception e) {
+            logger.severe(String.format("[HILOS-VIRTUALES] Error atendiendo la petición: %s", e.getMessage()));
+            HttpServletResponse response = (HttpServletResponse) async.getResponse();
+            if (!response.isCommitted()) {
+                try {
+                    response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                } catch (IOException | IllegalStateException ignorada) {
+                    // El cliente ya no está: no hay a quién responder
+                }
+            }
+        } finally {
+            async.complete();
+        }
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
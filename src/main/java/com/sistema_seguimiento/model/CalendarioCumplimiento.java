@@ -0,0 +1,229 @@
+package com.sistema_seguimiento.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+/**
+ * Índice compacto de días cumplidos de un hábito: un bit por día desde una fecha base.
+ *
+ * - "¿se cumplió el día X?" es un acceso a bit
+ * - contar días cumplidos en un rango es popcount sobre palabras de 64 días
+ * - la racha que termina en un día se obtiene recorriendo palabras hacia atrás
+ *
+ * Un año de historial ocupa 6 palabras (48 bytes) en lugar de 365 entidades RegistroHabito.
+ */
+public class CalendarioCumplimiento {
+
+    private static final long[] SIN_PALABRAS = new long[0];
+
+    private LocalDate desde;
+    private long[] palabras;
+
+    public CalendarioCumplimiento(LocalDate desde) {
+        this(desde, SIN_PALABRAS);
+    }
+
+    private CalendarioCumplimiento(LocalDate desde, long[] palabras) {
+        if (desde == null) {
+            throw new IllegalArgumentException("La fecha base del calendario es obligatoria");
+        }
+        this.desde = desde;
+        this.palabras = palabras;
+    }
+
+    /**
+     * Construye el calendario a partir de los días cumplidos.
+     * La base es la menor entre fechaBase y el primer día cumplido, para admitir registros
+     * anteriores a la fecha de inicio del hábito.
+     *
+     * @param fechaBase Fecha preferida como base (normalmente fechaInicio), puede ser null
+     * @param diasCumplidos Días en que se cumplió la meta, en cualquier orden
+     */
+    public static CalendarioCumplimiento desdeFechas(LocalDate fechaBase, Iterable<LocalDate> diasCumplidos) {
+        LocalDate base = fechaBase;
+        for (LocalDate dia : diasCumplidos) {
+            if (dia != null && (base == null || dia.isBefore(base))) {
+                base = dia;
+            }
+        }
+        CalendarioCumplimiento calendario = new CalendarioCumplimiento(base != null ? base : LocalDate.now());
+        for (LocalDate dia : diasCumplidos) {
+            if (dia != null) {
+                calendario.marcar(dia);
+            }
+        }
+        return calendario;
+    }
+
+    /**
+     * Reconstruye el calendario desde su forma persistida (palabras de 64 bits little-endian)
+     */
+    public static CalendarioCumplimiento desdeBytes(LocalDate desde, byte[] datos) {
+        if (datos == null || datos.length == 0) {
+            return new CalendarioCumplimiento(desde);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(datos).order(ByteOrder.LITTLE_ENDIAN);
+        long[] palabras = new long[datos.length / Long.BYTES];
+        for (int i = 0; i < palabras.length; i++) {
+            palabras[i] = buffer.getLong();
+        }
+        return new CalendarioCumplimiento(desde, palabras);
+    }
+
+    /**
+     * Forma persistida, sin palabras vacías al final
+     */
+    public byte[] toBytes() {
+        int usadas = palabrasUsadas();
+        ByteBuffer buffer = ByteBuffer.allocate(usadas * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < usadas; i++) {
+            buffer.putLong(palabras[i]);
+        }
+        return buffer.array();
+    }
+
+    public boolean estaCumplido(LocalDate fecha) {
+        long indice = indice(fecha);
+        if (indice < 0 || indice >= (long) palabras.length * 64) {
+            return false;
+        }
+        return (palabras[(int) (indice >>> 6)] & (1L << indice)) != 0;
+    }
+
+    public void marcar(LocalDate fecha) {
+        if (fecha.isBefore(desde)) {
+            rebasar(fecha);
+        }
+        int indice = (int) indice(fecha);
+        asegurarCapacidad(indice);
+        palabras[indice >>> 6] |= 1L << indice;
+    }
+
+    public void desmarcar(LocalDate fecha) {
+        long indice = indice(fecha);
+        if (indice >= 0 && indice < (long) palabras.length * 64) {
+            palabras[(int) (indice >>> 6)] &= ~(1L << indice);
+        }
+    }
+
+    /**
+     * Días cumplidos entre dos fechas, ambas incluidas
+     */
+    public int contarEntre(LocalDate inicio, LocalDate fin) {
+        long primero = Math.max(0, indice(inicio));
+        long ultimo = Math.min((long) palabras.length * 64 - 1, indice(fin));
+        if (primero > ultimo) {
+            return 0;
+        }
+
+        int palabraInicio = (int) (primero >>> 6);
+        int palabraFin = (int) (ultimo >>> 6);
+        int total = 0;
+        for (int i = palabraInicio; i <= palabraFin; i++) {
+            long palabra = palabras[i];
+            if (i == palabraInicio) {
+                palabra &= -1L << primero;
+            }
+            if (i == palabraFin) {
+                palabra &= -1L >>> (63 - (ultimo & 63));
+            }
+            total += Long.bitCount(palabra);
+        }
+        return total;
+    }
+
+    /**
+     * Longitud de la racha de días cumplidos que termina en la fecha indicada (0 si ese día no se cumplió)
+     */
+    public int rachaHasta(LocalDate fecha) {
+        if (!estaCumplido(fecha)) {
+            return 0;
+        }
+
+        int indice = (int) indice(fecha);
+        int palabra = indice >>> 6;
+        int bit = indice & 63;
+
+        // Unos consecutivos desde el bit del día hacia atrás dentro de su palabra
+        int unos = Long.numberOfLeadingZeros(~(palabras[palabra] << (63 - bit)));
+        if (unos <= bit) {
+            return unos;
+        }
+
+        int racha = bit + 1;
+        for (int i = palabra - 1; i >= 0; i--) {
+            if (palabras[i] == -1L) {
+                racha += 64;
+            } else {
+                return racha + Long.numberOfLeadingZeros(~palabras[i]);
+            }
+        }
+        return racha;
+    }
+
+    public LocalDate getDesde() {
+        return desde;
+    }
+
+    private long indice(LocalDate fecha) {
+        return ChronoUnit.DAYS.between(desde, fecha);
+    }
+
+    private int palabrasUsadas() {
+        int usadas = palabras.length;
+        while (usadas > 0 && palabras[usadas - 1] == 0) {
+            usadas--;
+        }
+        return usadas;
+    }
+
+    private void asegurarCapacidad(int indice) {
+        int necesarias = (indice >>> 6) + 1;
+        if (necesarias > palabras.length) {
+            palabras = Arrays.copyOf(palabras, Math.max(necesarias, palabras.length * 2));
+        }
+    }
+
+    /**
+     * Mueve la base a una fecha anterior desplazando todos los bits (registros atrasados)
+     */
+    private void rebasar(LocalDate nuevaBase) {
+        int desplazamiento = (int) ChronoUnit.DAYS.between(nuevaBase, desde);
+        int desplazamientoPalabras = desplazamiento >>> 6;
+        int desplazamientoBits = desplazamiento & 63;
+
+        long[] nuevas = new long[palabrasUsadas() + desplazamientoPalabras + 1];
+        for (int i = 0; i < palabrasUsadas(); i++) {
+            nuevas[i + desplazamientoPalabras] |= palabras[i] << desplazamientoBits;
+            if (desplazamientoBits != 0) {
+                nuevas[i + desplazamientoPalabras + 1] |= palabras[i] >>> (64 - desplazamientoBits);
+            }
+        }
+        palabras = nuevas;
+        desde = nuevaBase;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CalendarioCumplimiento)) return false;
+        CalendarioCumplimiento otro = (CalendarioCumplimiento) o;
+        return desde.equals(otro.desde) && Arrays.equals(toBytes(), otro.toBytes());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * desde.hashCode() + Arrays.hashCode(toBytes());
+    }
+
+    @Override
+    public String toString() {
+        return "CalendarioCumplimiento{" +
+                "desde=" + desde +
+                ", palabras=" + palabrasUsadas() +
+                '}';
+    }
+}
@@ -0,0 +1,68 @@
+package com.sistema_seguimiento.model;
+
+import java.time.LocalDate;
+
+/**
+ * Un registro de cumplimiento dentro de una sincronización por lotes
+ * (habitoId, fecha, veces, notas, estado) más los puntos que otorga si se crea.
+ */
+public final class CheckInHabito {
+
+    private final Integer habitoId;
+    private final LocalDate fecha;
+    private final Integer vecesRealizado;
+    private final String notas;
+    private final String estado;
+    private final int puntos;
+
+    public CheckInHabito(Integer habitoId, LocalDate fecha, Integer vecesRealizado,
+                         String notas, String estado, int puntos) {
+        this.habitoId = habitoId;
+        this.fecha = fecha;
+        this.vecesRealizado = vecesRealizado;
+        this.notas = notas;
+        this.estado = estado;
+        this.puntos = puntos;
+    }
+
+    public Integer getHabitoId() {
+        return habitoId;
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public Integer getVecesRealizado() {
+        return vecesRealizado;
+    }
+
+    public String getNotas() {
+        return notas;
+    }
+
+    /**
+     * CUMPLIDO, PARCIAL, NO_CUMPLIDO o null
+     */
+    public String getEstado() {
+        return estado;
+    }
+
+    public int getPuntos() {
+        return puntos;
+    }
+
+    /**
+     * Mismo criterio que el registro individual: CUMPLIDO o veces >= meta
+     */
+    public boolean esCompletado(Integer metaDiaria) {
+        int meta = metaDiaria != null && metaDiaria > 0 ? metaDiaria : 1;
+        return "CUMPLIDO".equals(estado) || (vecesRealizado != null && vecesRealizado >= meta);
+    }
+
+    @Override
+    public String toString() {
+        return "CheckInHabito{habitoId=" + habitoId + ", fecha=" + fecha +
+               ", veces=" + vecesRealizado + ", estado=" + estado + "}";
+    }
+}
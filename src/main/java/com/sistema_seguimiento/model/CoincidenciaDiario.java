@@ -0,0 +1,39 @@
+package com.sistema_seguimiento.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada de diario que coincide con una búsqueda, con su puntuación y un fragmento resaltado
+ *
+ * El fragmento ya viene escapado para HTML; los términos encontrados van entre <mark> y </mark>.
+ */
+public final class CoincidenciaDiario {
+
+    private final Integer entradaId;
+    private final LocalDateTime createdAt;
+    private final double puntuacion;
+    private final String fragmento;
+
+    public CoincidenciaDiario(Integer entradaId, LocalDateTime createdAt, double puntuacion, String fragmento) {
+        this.entradaId = entradaId;
+        this.createdAt = createdAt;
+        this.puntuacion = puntuacion;
+        this.fragmento = fragmento;
+    }
+
+    public Integer getEntradaId() {
+        return entradaId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public double getPuntuacion() {
+        return puntuacion;
+    }
+
+    public String getFragmento() {
+        return fragmento;
+    }
+}
@@ -0,0 +1,33 @@
+package com.sistema_seguimiento.model;
+
+import java.time.LocalDate;
+
+/**
+ * Estado de ánimo de un usuario en un día (un punto de la serie de MoodDAO.findEntre)
+ *
+ * Solo lleva las columnas del índice (usuario_id, fecha, estadoanimo): la serie se lee sin
+ * tocar la tabla ni las notas.
+ */
+public final class DiaAnimo {
+
+    private final LocalDate fecha;
+    private final String estado;
+
+    public DiaAnimo(LocalDate fecha, String estado) {
+        this.fecha = fecha;
+        this.estado = estado;
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    @Override
+    public String toString() {
+        return "DiaAnimo{" + fecha + "=" + estado + "}";
+    }
+}
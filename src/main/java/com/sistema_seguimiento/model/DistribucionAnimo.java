@@ -0,0 +1,73 @@
+package com.sistema_seguimiento.model;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Registros de estado de ánimo por estado en un periodo (un punto de MoodDAO.distribucion)
+ *
+ * Como en EstadisticaPeriodo, los periodos se recortan al rango pedido y un periodo sin
+ * registros tiene conteos vacíos.
+ */
+public final class DistribucionAnimo {
+
+    private final LocalDate inicio;
+    private final LocalDate fin;
+    private final Map<String, Long> conteos;
+    private final long total;
+
+    public DistribucionAnimo(LocalDate inicio, LocalDate fin, Map<String, Long> conteos) {
+        this.inicio = inicio;
+        this.fin = fin;
+        this.conteos = Collections.unmodifiableMap(new TreeMap<>(conteos));
+        this.total = conteos.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public LocalDate getInicio() {
+        return inicio;
+    }
+
+    public LocalDate getFin() {
+        return fin;
+    }
+
+    /**
+     * Registros por estado, ordenados por estado
+     */
+    public Map<String, Long> getConteos() {
+        return conteos;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Estado más registrado del periodo (en empate, el primero por orden), o null si no hay registros
+     */
+    public String getPredominante() {
+        String predominante = null;
+        long maximo = 0;
+        for (Map.Entry<String, Long> conteo : conteos.entrySet()) {
+            if (conteo.getValue() > maximo) {
+                predominante = conteo.getKey();
+                maximo = conteo.getValue();
+            }
+        }
+        return predominante;
+    }
+
+    /**
+     * Porcentaje de registros del periodo con ese estado (0 si no hay registros)
+     */
+    public double getPorcentaje(String estado) {
+        return total > 0 ? conteos.getOrDefault(estado, 0L) * 100.0 / total : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return "DistribucionAnimo{" + inicio + ".." + fin + ", " + conteos + "}";
+    }
+}
@@ -0,0 +1,129 @@
+package com.sistema_seguimiento.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Punto de control de la tarea de recordatorios de estado de ánimo de un día
+ *
+ * TareaRecordatoriosAnimo lo guarda tras despachar cada página de usuarios: si la ejecución se
+ * corta, la siguiente retoma desde ultimoUsuarioId. Una ejecución terminada no se repite; no
+ * se termina mientras queden envíos fallidos por reintentar.
+ *
+ * - ultimoUsuarioId: último usuario de la última página despachada (null: aún ninguna)
+ * - enviados / fallidos / paginas: acumulados de todas las ejecuciones del día
+ * - pendientes: usuarios cuyo último envío falló, se reintentan en la siguiente ejecución
+ */
+@Entity
+@Table(name = "ejecucion_recordatorio")
+public class EjecucionRecordatorio {
+
+    @Id
+    @Column(name = "fecha")
+    private LocalDate fecha;
+
+    @Column(name = "ultimo_usuario_id")
+    private Integer ultimoUsuarioId;
+
+    @Column(name = "enviados", nullable = false)
+    private long enviados;
+
+    @Column(name = "fallidos", nullable = false)
+    private long fallidos;
+
+    @Column(name = "paginas", nullable = false)
+    private int paginas;
+
+    @Column(name = "iniciada_en", nullable = false)
+    private LocalDateTime iniciadaEn;
+
+    @Column(name = "terminada_en")
+    private LocalDateTime terminadaEn;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "ejecucion_recordatorio_pendiente", joinColumns = @JoinColumn(name = "fecha"))
+    @Column(name = "usuario_id")
+    private Set<Integer> pendientes = new LinkedHashSet<>();
+
+    public EjecucionRecordatorio() {
+    }
+
+    public EjecucionRecordatorio(LocalDate fecha) {
+        this.fecha = fecha;
+        this.iniciadaEn = LocalDateTime.now();
+    }
+
+    /**
+     * Registra una página despachada: a partir de aquí se retoma tras ultimoUsuarioId
+     *
+     * @param fallidos Usuarios de la página cuyo envío falló; quedan pendientes de reintento
+     */
+    public void avanzar(Integer ultimoUsuarioId, long enviados, Collection<Integer> fallidos) {
+        this.ultimoUsuarioId = ultimoUsuarioId;
+        this.enviados += enviados;
+        this.fallidos += fallidos.size();
+        this.pendientes.addAll(fallidos);
+        this.paginas++;
+    }
+
+    /**
+     * Registra el reintento de los pendientes: solo siguen pendientes los que han vuelto a fallar
+     * (los que ya registraron su ánimo o se desactivaron no se reintentan)
+     */
+    public void reintentar(long enviados, Collection<Integer> fallidos) {
+        this.enviados += enviados;
+        this.fallidos += fallidos.size();
+        this.pendientes.clear();
+        this.pendientes.addAll(fallidos);
+    }
+
+    /**
+     * @throws IllegalStateException si quedan envíos fallidos por reintentar
+     */
+    public void terminar() {
+        if (!pendientes.isEmpty()) {
+            throw new IllegalStateException("Quedan " + pendientes.size() + " recordatorios fallidos por reintentar");
+        }
+        this.terminadaEn = LocalDateTime.now();
+    }
+
+    public boolean isTerminada() {
+        return terminadaEn != null;
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public Integer getUltimoUsuarioId() {
+        return ultimoUsuarioId;
+    }
+
+    public long getEnviados() {
+        return enviados;
+    }
+
+    public long getFallidos() {
+        return fallidos;
+    }
+
+    public int getPaginas() {
+        return paginas;
+    }
+
+    public LocalDateTime getIniciadaEn() {
+        return iniciadaEn;
+    }
+
+    public LocalDateTime getTerminadaEn() {
+        return terminadaEn;
+    }
+
+    public Set<Integer> getPendientes() {
+        return pendientes;
+    }
+}
@@ -0,0 +1,96 @@
+package com.sistema_seguimiento.model;
+
+import java.time.LocalDate;
+
+/**
+ * Cumplimiento de los hábitos de un usuario en un periodo (un punto de la serie)
+ *
+ * - habitos: hábitos previstos en algún día del periodo
+ * - diasPosibles: suma, por día, de los hábitos previstos ese día (entre su inicio y su
+ *   desactivación), o de los cumplidos si son más
+ * - diasCumplidos: pares (hábito, día) con un registro completado que alcanza la meta diaria
+ *
+ * Los periodos de una serie se recortan al rango pedido: la primera semana o el primer
+ * mes pueden tener menos días que el resto.
+ */
+public final class EstadisticaPeriodo {
+
+    public enum Granularidad {
+        DIA, SEMANA, MES;
+
+        /**
+         * Primer día del periodo que contiene la fecha (semanas ISO, de lunes a domingo)
+         */
+        public LocalDate inicioDe(LocalDate fecha) {
+            switch (this) {
+                case SEMANA:
+                    return fecha.minusDays(fecha.getDayOfWeek().getValue() - 1L);
+                case MES:
+                    return fecha.withDayOfMonth(1);
+                default:
+                    return fecha;
+            }
+        }
+
+        /**
+         * Primer día del periodo siguiente
+         */
+        public LocalDate siguiente(LocalDate inicio) {
+            switch (this) {
+                case SEMANA:
+                    return inicio.plusWeeks(1);
+                case MES:
+                    return inicio.plusMonths(1);
+                default:
+                    return inicio.plusDays(1);
+            }
+        }
+    }
+
+    private final LocalDate inicio;
+    private final LocalDate fin;
+    private final int habitos;
+    private final long diasPosibles;
+    private final long diasCumplidos;
+
+    public EstadisticaPeriodo(LocalDate inicio, LocalDate fin, int habitos, long diasPosibles, long diasCumplidos) {
+        this.inicio = inicio;
+        this.fin = fin;
+        this.habitos = habitos;
+        this.diasPosibles = diasPosibles;
+        this.diasCumplidos = diasCumplidos;
+    }
+
+    public LocalDate getInicio() {
+        return inicio;
+    }
+
+    public LocalDate getFin() {
+        return fin;
+    }
+
+    public int getHabitos() {
+        return habitos;
+    }
+
+    public long getDiasPosibles() {
+        return diasPosibles;
+    }
+
+    public long getDiasCumplidos() {
+        return diasCumplidos;
+    }
+
+    /**
+     * Porcentaje de días cumplidos sobre los posibles (0 si no había hábitos previstos)
+     */
+    public double getPorcentaje() {
+        return diasPosibles > 0 ? diasCumplidos * 100.0 / diasPosibles : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return "EstadisticaPeriodo{" + inicio + ".." + fin + ", habitos=" + habitos +
+               ", cumplidos=" + diasCumplidos + "/" + diasPosibles + "}";
+    }
+}
@@ -0,0 +1,163 @@
+package com.sistema_seguimiento.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Evento de gamificación pendiente de procesar (tabla outbox evento_gamificacion)
+ *
+ * Se inserta en la misma transacción que el registro que lo origina, así que existe si y
+ * solo si el registro se guardó. PipelineGamificacion lo procesa en segundo plano: suma los
+ * puntos y marca procesadoEn en una sola transacción, de modo que reprocesar un evento ya
+ * procesado no vuelve a sumar nada.
+ *
+ * - claveIdempotencia: identifica el hecho que originó el evento; publicar dos veces la misma
+ *   clave deja un solo evento
+ * - procesadoEn: null mientras el evento esté pendiente
+ * - intentos / ultimoError: procesamientos fallidos (se reintenta hasta un máximo)
+ */
+@Entity
+@Table(name = "evento_gamificacion",
+    uniqueConstraints = @UniqueConstraint(name = "uk_evento_gamificacion_clave", columnNames = "clave_idempotencia"),
+    // Barrido de pendientes en orden de llegada
+    indexes = @Index(name = "idx_evento_gamificacion_pendiente", columnList = "procesado_en, id"))
+public class EventoGamificacion {
+
+    public static final String HABITO_REGISTRADO = "HABITO_REGISTRADO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evento_gamificacion_seq")
+    @SequenceGenerator(name = "evento_gamificacion_seq", sequenceName = "evento_gamificacion_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "tipo", nullable = false, length = 40)
+    private String tipo;
+
+    @Column(name = "clave_idempotencia", nullable = false, length = 120)
+    private String claveIdempotencia;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Integer usuarioId;
+
+    @Column(name = "habito_id")
+    private Integer habitoId;
+
+    @Column(name = "fecha")
+    private LocalDate fecha;
+
+    @Column(name = "estado", length = 20)
+    private String estado;
+
+    @Column(name = "puntos", nullable = false)
+    private int puntos;
+
+    @Column(name = "creado_en", nullable = false)
+    private LocalDateTime creadoEn;
+
+    @Column(name = "procesado_en")
+    private LocalDateTime procesadoEn;
+
+    @Column(name = "intentos", nullable = false)
+    private int intentos;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    public EventoGamificacion() {
+    }
+
+    /**
+     * Evento HabitoRegistrado: un registro de cumplimiento guardado con su estado y sus puntos
+     */
+    public static EventoGamificacion habitoRegistrado(String claveIdempotencia, Integer usuarioId, Integer habitoId,
+                                                      LocalDate fecha, String estado, int puntos) {
+        EventoGamificacion evento = new EventoGamificacion();
+        evento.tipo = HABITO_REGISTRADO;
+        evento.claveIdempotencia = claveIdempotencia;
+        evento.usuarioId = usuarioId;
+        evento.habitoId = habitoId;
+        evento.fecha = fecha;
+        evento.estado = estado != null && estado.length() > 20 ? estado.substring(0, 20) : estado;
+        evento.puntos = Math.max(puntos, 0);
+        return evento;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (creadoEn == null) {
+            creadoEn = LocalDateTime.now();
+        }
+    }
+
+    public boolean isProcesado() {
+        return procesadoEn != null;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public String getClaveIdempotencia() {
+        return claveIdempotencia;
+    }
+
+    public Integer getUsuarioId() {
+        return usuarioId;
+    }
+
+    public Integer getHabitoId() {
+        return habitoId;
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    public int getPuntos() {
+        return puntos;
+    }
+
+    public LocalDateTime getCreadoEn() {
+        return creadoEn;
+    }
+
+    public LocalDateTime getProcesadoEn() {
+        return procesadoEn;
+    }
+
+    public void setProcesadoEn(LocalDateTime procesadoEn) {
+        this.procesadoEn = procesadoEn;
+    }
+
+    public int getIntentos() {
+        return intentos;
+    }
+
+    public void setIntentos(int intentos) {
+        this.intentos = intentos;
+    }
+
+    public String getUltimoError() {
+        return ultimoError;
+    }
+
+    public void setUltimoError(String ultimoError) {
+        this.ultimoError = ultimoError;
+    }
+
+    @Override
+    public String toString() {
+        return "EventoGamificacion{id=" + id + ", tipo=" + tipo + ", clave=" + claveIdempotencia +
+               ", usuarioId=" + usuarioId + ", puntos=" + puntos + ", procesado=" + isProcesado() +
+               ", intentos=" + intentos + "}";
+    }
+}
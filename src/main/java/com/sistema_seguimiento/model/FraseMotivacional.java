@@ -1,9 +1,13 @@
 package com.sistema_seguimiento.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "frase")
 @Table(name = "frases_motivacionales")
 public class FraseMotivacional {
     
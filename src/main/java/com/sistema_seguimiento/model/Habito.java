@@ -1,17 +1,27 @@
 package com.sistema_seguimiento.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Entity
-@Table(name = "habito")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "habito")
+@Table(name = "habito", indexes = {
+    @Index(name = "idx_habito_usuario_activo", columnList = "usuario_id, activo")
+})
 public class Habito {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "habito_seq")
+    @SequenceGenerator(name = "habito_seq", sequenceName = "habito_seq", allocationSize = 50)
     private Integer id;
     
     @Column(name = "nombre", nullable = false, length = 200)
@@ -45,14 +55,32 @@ public class Habito {
     @Column(name = "racha_maxima")
     private Integer rachaMaxima;
     
+    @Column(name = "fecha_ultima_racha")
+    private LocalDate fechaUltimaRacha; // Último día cumplido de la racha mantenida incrementalmente
+    
+    @Column(name = "calendario_desde")
+    private LocalDate calendarioDesde;
+    
+    @Column(name = "calendario_cumplimiento")
+    private byte[] calendarioCumplimiento; // Un bit por día cumplido desde calendario_desde
+    
+    @Transient
+    private CalendarioCumplimiento calendario;
+    
     @Column(name = "activo")
     private Boolean activo = true;
     
+    @Column(name = "fecha_desactivacion")
+    private LocalDate fechaDesactivacion; // Día en que dejó de estar activo (null si activo o desactivado antes de existir la columna)
+    
     @Column(name = "estado_animo")
     private String estadoAnimo = "neutral";  // ✅ NUEVO: feliz, triste, neutral, etc.
     
     @OneToMany(mappedBy = "habito", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<RegistroHabito> registros = new ArrayList<>();
+    
+    @Transient
+    private LocalDate ventanaRegistrosDesde; // Si no es null, registros solo trae los días desde esta fecha
 
     // Enum para la frecuencia del hábito
     public enum FrecuenciaHabito {
@@ -168,6 +196,30 @@ public class Habito {
         this.rachaMaxima = rachaMaxima;
     }
     
+    public LocalDate getFechaUltimaRacha() {
+        return fechaUltimaRacha;
+    }
+
+    public void setFechaUltimaRacha(LocalDate fechaUltimaRacha) {
+        this.fechaUltimaRacha = fechaUltimaRacha;
+    }
+    
+    /**
+     * Calendario de días cumplidos, o null si el hábito aún no lo tiene construido
+     */
+    public CalendarioCumplimiento getCalendario() {
+        if (calendario == null && calendarioDesde != null) {
+            calendario = CalendarioCumplimiento.desdeBytes(calendarioDesde, calendarioCumplimiento);
+        }
+        return calendario;
+    }
+
+    public void setCalendario(CalendarioCumplimiento calendario) {
+        this.calendario = calendario;
+        this.calendarioDesde = calendario != null ? calendario.getDesde() : null;
+        this.calendarioCumplimiento = calendario != null ? calendario.toBytes() : null;
+    }
+    
     public String getEstadoAnimo() {  // ✅ NUEVO getter
         return estadoAnimo;
     }
@@ -180,10 +232,57 @@ public class Habito {
         return activo;
     }
 
+    /**
+     * Al desactivarse guarda el día (deja de estar previsto desde entonces); al reactivarse lo borra
+     */
     public void setActivo(Boolean activo) {
+        if (Boolean.FALSE.equals(activo) && !Boolean.FALSE.equals(this.activo)) {
+            this.fechaDesactivacion = LocalDate.now();
+        } else if (Boolean.TRUE.equals(activo)) {
+            this.fechaDesactivacion = null;
+        }
         this.activo = activo;
     }
 
+    public LocalDate getFechaDesactivacion() {
+        return fechaDesactivacion;
+    }
+
+    public void setFechaDesactivacion(LocalDate fechaDesactivacion) {
+        this.fechaDesactivacion = fechaDesactivacion;
+    }
+
+    /**
+     * Primer día en que el hábito está previsto: fecha de inicio, o de creación si no la tiene
+     */
+    public LocalDate getPrevistoDesde() {
+        if (fechaInicio != null) {
+            return fechaInicio;
+        }
+        return fechaCreacion != null ? fechaCreacion.toLocalDate() : null;
+    }
+
+    /**
+     * Último día en que el hábito está previsto: el anterior a su desactivación, o null si
+     * sigue activo (o se desactivó sin fecha conocida)
+     */
+    public LocalDate getPrevistoHasta() {
+        return fechaDesactivacion != null ? fechaDesactivacion.minusDays(1) : null;
+    }
+
+    /**
+     * Si el hábito estaba previsto un día: entre su inicio y su desactivación. Los desactivados
+     * sin fecha conocida no están previstos ningún día.
+     */
+    public boolean isPrevistoEl(LocalDate dia) {
+        if (Boolean.FALSE.equals(activo) && fechaDesactivacion == null) {
+            return false;
+        }
+        LocalDate desde = getPrevistoDesde();
+        LocalDate hasta = getPrevistoHasta();
+        return (desde == null || !dia.isBefore(desde)) && (hasta == null || !dia.isAfter(hasta));
+    }
+
     public List<RegistroHabito> getRegistros() {
         return registros;
     }
@@ -192,6 +291,18 @@ public class Habito {
         this.registros = registros;
     }
     
+    /**
+     * Primer día incluido en registros cuando el hábito se cargó con ventana
+     * (ver HabitoDAO.findByUsuarioId), o null si registros es el historial completo
+     */
+    public LocalDate getVentanaRegistrosDesde() {
+        return ventanaRegistrosDesde;
+    }
+    
+    public void setVentanaRegistrosDesde(LocalDate ventanaRegistrosDesde) {
+        this.ventanaRegistrosDesde = ventanaRegistrosDesde;
+    }
+    
     // Métodos de utilidad
     
     /**
@@ -206,43 +317,133 @@ public class Habito {
     
     /**
      * Método para calcular racha actual según el diagrama
+     * 
+     * Usa las columnas racha_actual/fecha_ultima_racha que HabitoDAO mantiene en cada escritura.
+     * Si el hábito aún no tiene racha mantenida (filas antiguas), recorre el historial.
      */
     public int calcularRachaActual() {
+        LocalDate hoy = LocalDate.now();
+        if (fechaUltimaRacha != null && !fechaUltimaRacha.isAfter(hoy)) {
+            return getRacha().vigenteAl(hoy);
+        }
         return getDiasConsecutivos();
     }
     
     public boolean tieneMetaDelDia(LocalDate fecha) {
         if (metaDiaria == null) return false;
+        CalendarioCumplimiento cal = getCalendario();
+        if (cal != null) {
+            return cal.estaCumplido(fecha);
+        }
         return registros.stream()
-                .anyMatch(r -> r.getFecha().equals(fecha) 
-                    && r.getCompletado() != null 
-                    && r.getCompletado()  // ✅ Boolean
-                    && r.getVecesRealizado() != null 
-                    && r.getVecesRealizado() >= metaDiaria);  // ✅ Usar vecesRealizado
+                .anyMatch(r -> r.getFecha().equals(fecha) && r.cumpleMeta(metaDiaria));
     }
 
     public int getDiasConsecutivos() {
+        if (metaDiaria == null) return 0;
+        
+        CalendarioCumplimiento cal = getCalendario();
+        if (cal != null) {
+            return cal.rachaHasta(LocalDate.now());
+        }
+        
+        // Un solo recorrido de los registros en lugar de uno por cada día de la racha
+        Set<LocalDate> diasCumplidos = new HashSet<>();
+        for (RegistroHabito r : registros) {
+            if (r.cumpleMeta(metaDiaria)) {
+                diasCumplidos.add(r.getFecha());
+            }
+        }
+        
         int dias = 0;
         LocalDate fecha = LocalDate.now();
         
-        while (tieneMetaDelDia(fecha)) {
+        while (diasCumplidos.contains(fecha)) {
             dias++;
             fecha = fecha.minusDays(1);
         }
         
         return dias;
     }
+    
+    /**
+     * Estado de racha persistido (racha_actual, racha_maxima, fecha_ultima_racha)
+     */
+    public Racha getRacha() {
+        return new Racha(
+                rachaActual != null ? rachaActual : 0,
+                rachaMaxima != null ? rachaMaxima : 0,
+                fechaUltimaRacha);
+    }
+    
+    /**
+     * Sobrescribe las columnas de racha con un valor recalculado desde el historial
+     */
+    public void aplicarRacha(Racha racha) {
+        this.rachaActual = racha.getActual();
+        this.rachaMaxima = racha.getMaxima();
+        this.fechaUltimaRacha = racha.getFechaUltima();
+    }
+    
+    /**
+     * Reconstruye racha y calendario a partir de todos los días cumplidos del historial
+     * 
+     * @param diasCumplidos Días cumplidos en orden ascendente
+     */
+    public void recalcularDesde(List<LocalDate> diasCumplidos) {
+        aplicarRacha(Racha.desdeFechas(diasCumplidos));
+        setCalendario(CalendarioCumplimiento.desdeFechas(fechaInicio, diasCumplidos));
+    }
+    
+    /**
+     * Actualiza la racha en O(1) cuando un día pasa a estar cumplido.
+     * 
+     * Solo resuelve los casos que no necesitan historial: el mismo día ya contado,
+     * el día siguiente a la racha o un día posterior que la reinicia.
+     * 
+     * @param fecha Día que acaba de cumplir la meta
+     * @return false si el día es anterior a la racha (registro atrasado) o el hábito
+     *         no tiene racha mantenida; en ese caso hay que recalcular desde el historial
+     */
+    public boolean registrarDiaCumplido(LocalDate fecha) {
+        CalendarioCumplimiento cal = getCalendario();
+        if (fecha == null || fechaUltimaRacha == null || cal == null || fecha.isBefore(fechaUltimaRacha)) {
+            return false;
+        }
+        
+        Racha racha = getRacha();
+        if (fecha.equals(fechaUltimaRacha)) {
+            return true;
+        }
+        
+        int actual = fecha.equals(fechaUltimaRacha.plusDays(1)) ? racha.getActual() + 1 : 1;
+        aplicarRacha(new Racha(actual, Math.max(racha.getMaxima(), actual), fecha));
+        cal.marcar(fecha);
+        setCalendario(cal);
+        return true;
+    }
 
-    public double getPorcentajeCompletado(LocalDate desde, LocalDate hasta) {
-        if (metaDiaria == null) return 0.0;
-        long totalDias = desde.datesUntil(hasta.plusDays(1)).count();
-        long diasCompletados = registros.stream()
+    /**
+     * Días en que se cumplió la meta entre dos fechas (ambas incluidas)
+     */
+    public int contarDiasCumplidos(LocalDate desde, LocalDate hasta) {
+        if (metaDiaria == null) return 0;
+        CalendarioCumplimiento cal = getCalendario();
+        if (cal != null) {
+            return cal.contarEntre(desde, hasta);
+        }
+        return (int) registros.stream()
                 .filter(r -> !r.getFecha().isBefore(desde) && !r.getFecha().isAfter(hasta))
-                .filter(r -> r.getCompletado() != null 
-                    && r.getCompletado()  // ✅ Boolean
-                    && r.getVecesRealizado() != null 
-                    && r.getVecesRealizado() >= metaDiaria)  // ✅ Usar vecesRealizado
+                .filter(r -> r.cumpleMeta(metaDiaria))
+                .map(RegistroHabito::getFecha)
+                .distinct()
                 .count();
+    }
+
+    public double getPorcentajeCompletado(LocalDate desde, LocalDate hasta) {
+        if (metaDiaria == null) return 0.0;
+        long totalDias = ChronoUnit.DAYS.between(desde, hasta) + 1;
+        long diasCompletados = contarDiasCumplidos(desde, hasta);
         
         return totalDias > 0 ? (diasCompletados * 100.0) / totalDias : 0.0;
     }
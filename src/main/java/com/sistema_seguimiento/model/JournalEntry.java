@@ -4,10 +4,14 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "journal_entries")
+@Table(name = "journal_entries", indexes = {
+    // Listado paginado por cursor (created_at, id) de un usuario sin ordenar en memoria
+    @Index(name = "idx_journal_entries_user_created", columnList = "user_id, created_at, id")
+})
 public class JournalEntry {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "journal_entries_seq")
+    @SequenceGenerator(name = "journal_entries_seq", sequenceName = "journal_entries_seq", allocationSize = 50)
     private Integer id;
 
     @Transient // No guardar este campo en la BD
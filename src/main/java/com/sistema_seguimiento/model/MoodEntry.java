@@ -15,11 +15,15 @@ import java.time.LocalDate;
  * @version 1.0 - Fase Verde TDD
  */
 @Entity
-@Table(name = "mood_entry")
+@Table(name = "mood_entry", indexes = {
+    // Series por rango de fechas: (usuario, fecha) con el estado incluido, sin leer la tabla
+    @Index(name = "idx_mood_entry_usuario_fecha", columnList = "usuario_id, fecha, estadoanimo")
+})
 public class MoodEntry {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mood_entry_seq")
+    @SequenceGenerator(name = "mood_entry_seq", sequenceName = "mood_entry_seq", allocationSize = 50)
     private Integer id;
 
     @Transient // @Transient significa: No guardar este campo en la BD
@@ -0,0 +1,48 @@
+package com.sistema_seguimiento.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Página de resultados de una búsqueda en el diario, de la coincidencia más relevante a la menos
+ *
+ * total es el número de entradas que coinciden en todas las páginas; pagina empieza en 1.
+ */
+public final class PaginaBusquedaDiario {
+
+    private final List<CoincidenciaDiario> coincidencias;
+    private final long total;
+    private final int pagina;
+    private final int tamano;
+
+    public PaginaBusquedaDiario(List<CoincidenciaDiario> coincidencias, long total, int pagina, int tamano) {
+        this.coincidencias = Collections.unmodifiableList(coincidencias);
+        this.total = total;
+        this.pagina = pagina;
+        this.tamano = tamano;
+    }
+
+    public static PaginaBusquedaDiario vacia(int pagina, int tamano) {
+        return new PaginaBusquedaDiario(List.of(), 0, pagina, tamano);
+    }
+
+    public List<CoincidenciaDiario> getCoincidencias() {
+        return coincidencias;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public int getPagina() {
+        return pagina;
+    }
+
+    public int getTamano() {
+        return tamano;
+    }
+
+    public boolean tieneMas() {
+        return (long) pagina * tamano < total;
+    }
+}
@@ -0,0 +1,71 @@
+package com.sistema_seguimiento.model;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Página del diario de un usuario, de la entrada más reciente a la más antigua
+ *
+ * El cursor es la posición (createdAt, id) de la última entrada devuelta; la página siguiente
+ * empieza estrictamente después de ella. siguienteCursor es null cuando no quedan entradas.
+ * Formato del cursor: createdAt en ISO-8601, "_" e id (ver aCursor / fechaDeCursor / idDeCursor).
+ */
+public final class PaginaDiario {
+
+    private static final char SEPARADOR = '_';
+
+    private final List<ResumenEntradaDiario> entradas;
+    private final String siguienteCursor;
+
+    public PaginaDiario(List<ResumenEntradaDiario> entradas, String siguienteCursor) {
+        this.entradas = Collections.unmodifiableList(entradas);
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    public List<ResumenEntradaDiario> getEntradas() {
+        return entradas;
+    }
+
+    public String getSiguienteCursor() {
+        return siguienteCursor;
+    }
+
+    public boolean tieneMas() {
+        return siguienteCursor != null;
+    }
+
+    public static String aCursor(ResumenEntradaDiario entrada) {
+        return entrada.getCreatedAt().toString() + SEPARADOR + entrada.getId();
+    }
+
+    /**
+     * @throws IllegalArgumentException si el cursor no tiene el formato esperado
+     */
+    public static LocalDateTime fechaDeCursor(String cursor) {
+        try {
+            return LocalDateTime.parse(cursor.substring(0, separador(cursor)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException si el cursor no tiene el formato esperado
+     */
+    public static int idDeCursor(String cursor) {
+        try {
+            return Integer.parseInt(cursor.substring(separador(cursor) + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+    }
+
+    private static int separador(String cursor) {
+        int posicion = cursor.indexOf(SEPARADOR);
+        if (posicion < 0) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+        return posicion;
+    }
+}
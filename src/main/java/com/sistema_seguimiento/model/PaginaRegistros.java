@@ -0,0 +1,78 @@
+package com.sistema_seguimiento.model;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Página del historial de un hábito, de la fecha más reciente a la más antigua
+ *
+ * El cursor es la posición (fecha, id) del último registro devuelto; la página siguiente
+ * empieza estrictamente después de él. siguienteCursor es null cuando no quedan registros.
+ * Formato del cursor: "yyyy-MM-dd_id" (ver aCursor / fechaDeCursor / idDeCursor).
+ */
+public final class PaginaRegistros {
+
+    private static final char SEPARADOR = '_';
+
+    private final List<RegistroHabito> registros;
+    private final String siguienteCursor;
+
+    public PaginaRegistros(List<RegistroHabito> registros, String siguienteCursor) {
+        this.registros = Collections.unmodifiableList(registros);
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    public List<RegistroHabito> getRegistros() {
+        return registros;
+    }
+
+    public String getSiguienteCursor() {
+        return siguienteCursor;
+    }
+
+    public boolean tieneMas() {
+        return siguienteCursor != null;
+    }
+
+    /**
+     * Cursor que apunta justo antes de la fecha indicada (todos los registros anteriores a ella)
+     */
+    public static String cursorAntesDe(LocalDate fecha) {
+        return fecha.toString() + SEPARADOR + 0;
+    }
+
+    public static String aCursor(RegistroHabito registro) {
+        return registro.getFecha().toString() + SEPARADOR + registro.getId();
+    }
+
+    /**
+     * @throws IllegalArgumentException si el cursor no tiene el formato esperado
+     */
+    public static LocalDate fechaDeCursor(String cursor) {
+        try {
+            return LocalDate.parse(cursor.substring(0, separador(cursor)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException si el cursor no tiene el formato esperado
+     */
+    public static int idDeCursor(String cursor) {
+        try {
+            return Integer.parseInt(cursor.substring(separador(cursor) + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+    }
+
+    private static int separador(String cursor) {
+        int posicion = cursor.indexOf(SEPARADOR);
+        if (posicion < 0) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+        return posicion;
+    }
+}
@@ -0,0 +1,48 @@
+package com.sistema_seguimiento.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Datos de la página de mascotas virtuales, leídos de una vez (ver UserPetDAO.cargarPanel)
+ *
+ * - mascotaActiva: la activa más reciente, o null
+ * - mascotas: historial completo, de la más reciente a la más antigua
+ * - habitosCompletados: contador mantenido en usuario.habitos_completados
+ */
+public final class PanelMascotas {
+
+    public static final PanelMascotas VACIO = new PanelMascotas(null, Collections.emptyList(), 0);
+
+    private final UserPet mascotaActiva;
+    private final List<UserPet> mascotas;
+    private final long habitosCompletados;
+
+    public PanelMascotas(UserPet mascotaActiva, List<UserPet> mascotas, long habitosCompletados) {
+        this.mascotaActiva = mascotaActiva;
+        this.mascotas = Collections.unmodifiableList(mascotas);
+        this.habitosCompletados = habitosCompletados;
+    }
+
+    public UserPet getMascotaActiva() {
+        return mascotaActiva;
+    }
+
+    public boolean tieneMascotaActiva() {
+        return mascotaActiva != null;
+    }
+
+    public List<UserPet> getMascotas() {
+        return mascotas;
+    }
+
+    public long getHabitosCompletados() {
+        return habitosCompletados;
+    }
+
+    @Override
+    public String toString() {
+        return "PanelMascotas{activa=" + (mascotaActiva != null ? mascotaActiva.getState() : null) +
+               ", mascotas=" + mascotas.size() + ", habitosCompletados=" + habitosCompletados + "}";
+    }
+}
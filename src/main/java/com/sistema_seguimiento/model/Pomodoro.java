@@ -49,7 +49,8 @@ public class Pomodoro {
     
     // Atributos
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pomodoro_seq")
+    @SequenceGenerator(name = "pomodoro_seq", sequenceName = "pomodoro_seq", allocationSize = 50)
     private Integer id;
     
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,90 @@
+package com.sistema_seguimiento.model;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Valor inmutable con el estado de racha de un hábito
+ *
+ * - actual: longitud de la racha que termina en fechaUltima
+ * - maxima: racha más larga de todo el historial
+ * - fechaUltima: último día en que se cumplió la meta (null si nunca)
+ */
+public final class Racha {
+
+    public static final Racha VACIA = new Racha(0, 0, null);
+
+    private final int actual;
+    private final int maxima;
+    private final LocalDate fechaUltima;
+
+    public Racha(int actual, int maxima, LocalDate fechaUltima) {
+        this.actual = actual;
+        this.maxima = maxima;
+        this.fechaUltima = fechaUltima;
+    }
+
+    /**
+     * Reconstruye la racha a partir de los días cumplidos en orden ascendente.
+     * Las fechas repetidas se ignoran. Recorre el historial una sola vez.
+     *
+     * @param fechasAscendentes días en que se cumplió la meta, ordenados
+     * @return Racha calculada
+     */
+    public static Racha desdeFechas(Iterable<LocalDate> fechasAscendentes) {
+        int actual = 0;
+        int maxima = 0;
+        LocalDate ultima = null;
+        for (LocalDate fecha : fechasAscendentes) {
+            if (fecha == null || fecha.equals(ultima)) {
+                continue;
+            }
+            actual = (ultima != null && fecha.equals(ultima.plusDays(1))) ? actual + 1 : 1;
+            maxima = Math.max(maxima, actual);
+            ultima = fecha;
+        }
+        return ultima == null ? VACIA : new Racha(actual, maxima, ultima);
+    }
+
+    /**
+     * Racha vigente a la fecha indicada: solo cuenta si el último día cumplido es esa fecha
+     * (misma regla que el recorrido día a día de Habito.getDiasConsecutivos()).
+     */
+    public int vigenteAl(LocalDate hoy) {
+        return hoy.equals(fechaUltima) ? actual : 0;
+    }
+
+    public int getActual() {
+        return actual;
+    }
+
+    public int getMaxima() {
+        return maxima;
+    }
+
+    public LocalDate getFechaUltima() {
+        return fechaUltima;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Racha)) return false;
+        Racha otra = (Racha) o;
+        return actual == otra.actual && maxima == otra.maxima && Objects.equals(fechaUltima, otra.fechaUltima);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(actual, maxima, fechaUltima);
+    }
+
+    @Override
+    public String toString() {
+        return "Racha{" +
+                "actual=" + actual +
+                ", maxima=" + maxima +
+                ", fechaUltima=" + fechaUltima +
+                '}';
+    }
+}
@@ -0,0 +1,53 @@
+package com.sistema_seguimiento.model;
+
+import java.time.LocalDate;
+
+/**
+ * Recordatorio de registrar el estado de ánimo para un usuario sin entrada en la fecha
+ *
+ * MoodDAO.findUsuariosSinEntrada lo devuelve sin mensaje; TareaRecordatoriosAnimo le pone el
+ * texto (conMensaje) antes de entregarlo al destino.
+ */
+public final class RecordatorioAnimo {
+
+    private final Integer usuarioId;
+    private final String nombre;
+    private final LocalDate fecha;
+    private final String mensaje;
+
+    public RecordatorioAnimo(Integer usuarioId, String nombre, LocalDate fecha) {
+        this(usuarioId, nombre, fecha, null);
+    }
+
+    private RecordatorioAnimo(Integer usuarioId, String nombre, LocalDate fecha, String mensaje) {
+        this.usuarioId = usuarioId;
+        this.nombre = nombre;
+        this.fecha = fecha;
+        this.mensaje = mensaje;
+    }
+
+    public RecordatorioAnimo conMensaje(String mensaje) {
+        return new RecordatorioAnimo(usuarioId, nombre, fecha, mensaje);
+    }
+
+    public Integer getUsuarioId() {
+        return usuarioId;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    @Override
+    public String toString() {
+        return "RecordatorioAnimo{usuario=" + usuarioId + ", fecha=" + fecha + "}";
+    }
+}
@@ -4,17 +4,28 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "registro_habito")
+@Table(name = "registro_habito", uniqueConstraints = {
+    // Un registro por hábito y día (upsert de HabitoDAO.registrarCompletado). Su índice sirve también
+    // para los registros de un hábito por rango de fechas (rachas, historial, estadísticas por hábito)
+    @UniqueConstraint(name = "uk_registro_habito_habito_fecha", columnNames = {"habito_id", "fecha_registro"})
+}, indexes = {
+    // Registros de un usuario por fecha sin pasar por habito (estadísticas, registros de hoy)
+    @Index(name = "idx_registro_habito_usuario_fecha", columnList = "usuario_id, fecha_registro")
+})
 public class RegistroHabito {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "registro_habito_seq")
+    @SequenceGenerator(name = "registro_habito_seq", sequenceName = "registro_habito_seq", allocationSize = 50)
     private Integer id;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "habito_id", nullable = false)
     private Habito habito;
     
+    @Column(name = "usuario_id", updatable = false)
+    private Integer usuarioId; // Copia de habito.usuario_id, se rellena al insertar (un merge no la pisa)
+
     @Column(name = "fecha_registro", nullable = false)  // ✅ Corregido: fecha_registro
     private LocalDate fecha;
     
@@ -50,6 +61,13 @@ public class RegistroHabito {
         this.estadoAnimo = "neutral";  // ✅ Default
     }
 
+    @PrePersist
+    protected void onCreate() {
+        if (this.usuarioId == null && this.habito != null && this.habito.getUsuarioId() != null) {
+            this.usuarioId = Integer.valueOf(this.habito.getUsuarioId());
+        }
+    }
+
     // Getters y Setters
     public Integer getId() {
         return id;
@@ -67,6 +85,14 @@ public class RegistroHabito {
         this.habito = habito;
     }
 
+    public Integer getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(Integer usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
     public LocalDate getFecha() {
         return fecha;
     }
@@ -115,6 +141,17 @@ public class RegistroHabito {
         this.estadoAnimo = estadoAnimo;
     }
 
+    /**
+     * Indica si este registro cumple la meta diaria del hábito
+     * (completado y con al menos metaDiaria repeticiones)
+     */
+    public boolean cumpleMeta(Integer metaDiaria) {
+        return metaDiaria != null
+                && Boolean.TRUE.equals(completado)
+                && vecesRealizado != null
+                && vecesRealizado >= metaDiaria;
+    }
+
     @Override
     public String toString() {
         return "RegistroHabito{" +
@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 public class RegistroProgreso {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "registro_progreso_seq")
+    @SequenceGenerator(name = "registro_progreso_seq", sequenceName = "registro_progreso_seq", allocationSize = 50)
     private Integer id;
     
     @ManyToOne(fetch = FetchType.LAZY)
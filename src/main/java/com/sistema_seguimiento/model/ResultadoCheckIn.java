@@ -0,0 +1,83 @@
+package com.sistema_seguimiento.model;
+
+import java.time.LocalDate;
+
+/**
+ * Resultado de un elemento de un lote de check-ins, en la posición en que llegó
+ */
+public final class ResultadoCheckIn {
+
+    public enum Estado {
+        CREADO,
+        ACTUALIZADO,
+        RECHAZADO
+    }
+
+    private final int indice;
+    private final Integer habitoId;
+    private final LocalDate fecha;
+    private final Estado estado;
+    private final String mensaje;
+    private final int puntos;
+
+    private ResultadoCheckIn(int indice, Integer habitoId, LocalDate fecha, Estado estado, String mensaje, int puntos) {
+        this.indice = indice;
+        this.habitoId = habitoId;
+        this.fecha = fecha;
+        this.estado = estado;
+        this.mensaje = mensaje;
+        this.puntos = puntos;
+    }
+
+    public static ResultadoCheckIn creado(int indice, CheckInHabito checkIn) {
+        return new ResultadoCheckIn(indice, checkIn.getHabitoId(), checkIn.getFecha(), Estado.CREADO, null, checkIn.getPuntos());
+    }
+
+    public static ResultadoCheckIn actualizado(int indice, CheckInHabito checkIn) {
+        return new ResultadoCheckIn(indice, checkIn.getHabitoId(), checkIn.getFecha(), Estado.ACTUALIZADO, null, 0);
+    }
+
+    public static ResultadoCheckIn rechazado(int indice, CheckInHabito checkIn, String mensaje) {
+        return new ResultadoCheckIn(indice,
+                checkIn != null ? checkIn.getHabitoId() : null,
+                checkIn != null ? checkIn.getFecha() : null,
+                Estado.RECHAZADO, mensaje, 0);
+    }
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public Integer getHabitoId() {
+        return habitoId;
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    /**
+     * Puntos otorgados por este elemento (solo los registros nuevos suman puntos)
+     */
+    public int getPuntos() {
+        return puntos;
+    }
+
+    public boolean isAceptado() {
+        return estado != Estado.RECHAZADO;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoCheckIn{indice=" + indice + ", habitoId=" + habitoId + ", fecha=" + fecha +
+               ", estado=" + estado + (mensaje != null ? ", mensaje=" + mensaje : "") + "}";
+    }
+}
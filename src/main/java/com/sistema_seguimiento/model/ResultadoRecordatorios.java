@@ -0,0 +1,80 @@
+package com.sistema_seguimiento.model;
+
+import java.time.LocalDate;
+
+/**
+ * Métricas de una ejecución de TareaRecordatoriosAnimo
+ *
+ * - enviados / fallidos / paginas: solo de esta ejecución (los acumulados del día están en
+ *   EjecucionRecordatorio)
+ * - reanudada: la ejecución retomó un punto de control de una ejecución anterior cortada
+ * - omitida: el día ya estaba terminado y no se envió nada
+ * - completa: el día quedó terminado: se recorrieron todos los usuarios y no quedan envíos
+ *   fallidos por reintentar (false si se detuvo a medias o algún envío falló)
+ */
+public final class ResultadoRecordatorios {
+
+    private final LocalDate fecha;
+    private final long enviados;
+    private final long fallidos;
+    private final int paginas;
+    private final boolean reanudada;
+    private final boolean omitida;
+    private final boolean completa;
+    private final long duracionMillis;
+
+    public ResultadoRecordatorios(LocalDate fecha, long enviados, long fallidos, int paginas,
+                                  boolean reanudada, boolean omitida, boolean completa, long duracionMillis) {
+        this.fecha = fecha;
+        this.enviados = enviados;
+        this.fallidos = fallidos;
+        this.paginas = paginas;
+        this.reanudada = reanudada;
+        this.omitida = omitida;
+        this.completa = completa;
+        this.duracionMillis = duracionMillis;
+    }
+
+    public static ResultadoRecordatorios omitida(LocalDate fecha) {
+        return new ResultadoRecordatorios(fecha, 0, 0, 0, false, true, true, 0);
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public long getEnviados() {
+        return enviados;
+    }
+
+    public long getFallidos() {
+        return fallidos;
+    }
+
+    public int getPaginas() {
+        return paginas;
+    }
+
+    public boolean isReanudada() {
+        return reanudada;
+    }
+
+    public boolean isOmitida() {
+        return omitida;
+    }
+
+    public boolean isCompleta() {
+        return completa;
+    }
+
+    public long getDuracionMillis() {
+        return duracionMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoRecordatorios{" + fecha + ", enviados=" + enviados + ", fallidos=" + fallidos +
+               ", paginas=" + paginas + ", reanudada=" + reanudada + ", omitida=" + omitida +
+               ", completa=" + completa + ", " + duracionMillis + "ms}";
+    }
+}
@@ -0,0 +1,148 @@
+package com.sistema_seguimiento.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Resumen materializado de un día de un usuario (una fila por usuario y día con registros)
+ *
+ * Lo mantiene ResumenDiarioDAO en la misma transacción que cada escritura de registros y se
+ * puede reconstruir desde registro_habito. Las estadísticas agregadas (hábitos cumplidos hoy,
+ * porcentaje semanal, progreso de mascotas) se leen de aquí en lugar de recorrer los registros.
+ *
+ * - habitosPrevistos: hábitos activos del usuario la última vez que se recalculó el día
+ * - habitosCumplidos: hábitos con un registro completado que alcanza la meta diaria
+ * - registrosCompletados: registros con completado = true (el contador de las mascotas)
+ * - vecesTotal: suma de veces_realizado
+ * - puntos: puntos que valen los registros del día (PUNTOS_CUMPLIDO / PUNTOS_PARCIAL)
+ */
+@Entity
+@Table(name = "resumen_diario_usuario")
+@IdClass(ResumenDiario.Clave.class)
+public class ResumenDiario {
+
+    /**
+     * Puntos por registro, con las mismas reglas que PointsService
+     */
+    public static final int PUNTOS_CUMPLIDO = 10;
+    public static final int PUNTOS_PARCIAL = 5;
+
+    @Id
+    @Column(name = "usuario_id")
+    private Integer usuarioId;
+
+    @Id
+    @Column(name = "fecha")
+    private LocalDate fecha;
+
+    @Column(name = "habitos_previstos", nullable = false)
+    private int habitosPrevistos;
+
+    @Column(name = "habitos_cumplidos", nullable = false)
+    private int habitosCumplidos;
+
+    @Column(name = "registros_completados", nullable = false)
+    private int registrosCompletados;
+
+    @Column(name = "veces_total", nullable = false)
+    private long vecesTotal;
+
+    @Column(name = "puntos", nullable = false)
+    private long puntos;
+
+    public ResumenDiario() {
+    }
+
+    public ResumenDiario(Integer usuarioId, LocalDate fecha) {
+        this.usuarioId = usuarioId;
+        this.fecha = fecha;
+    }
+
+    public Integer getUsuarioId() {
+        return usuarioId;
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public int getHabitosPrevistos() {
+        return habitosPrevistos;
+    }
+
+    public void setHabitosPrevistos(int habitosPrevistos) {
+        this.habitosPrevistos = habitosPrevistos;
+    }
+
+    public int getHabitosCumplidos() {
+        return habitosCumplidos;
+    }
+
+    public void setHabitosCumplidos(int habitosCumplidos) {
+        this.habitosCumplidos = habitosCumplidos;
+    }
+
+    public int getRegistrosCompletados() {
+        return registrosCompletados;
+    }
+
+    public void setRegistrosCompletados(int registrosCompletados) {
+        this.registrosCompletados = registrosCompletados;
+    }
+
+    public long getVecesTotal() {
+        return vecesTotal;
+    }
+
+    public void setVecesTotal(long vecesTotal) {
+        this.vecesTotal = vecesTotal;
+    }
+
+    public long getPuntos() {
+        return puntos;
+    }
+
+    public void setPuntos(long puntos) {
+        this.puntos = puntos;
+    }
+
+    @Override
+    public String toString() {
+        return "ResumenDiario{usuarioId=" + usuarioId + ", fecha=" + fecha +
+               ", cumplidos=" + habitosCumplidos + "/" + habitosPrevistos +
+               ", completados=" + registrosCompletados + ", veces=" + vecesTotal + ", puntos=" + puntos + "}";
+    }
+
+    /**
+     * Clave (usuario_id, fecha)
+     */
+    public static class Clave implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Integer usuarioId;
+        private LocalDate fecha;
+
+        public Clave() {
+        }
+
+        public Clave(Integer usuarioId, LocalDate fecha) {
+            this.usuarioId = usuarioId;
+            this.fecha = fecha;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Clave)) return false;
+            Clave otra = (Clave) o;
+            return Objects.equals(usuarioId, otra.usuarioId) && Objects.equals(fecha, otra.fecha);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(usuarioId, fecha);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.sistema_seguimiento.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada de diario sin el texto completo: solo los primeros caracteres, para listados
+ *
+ * El extracto se recorta en la consulta (SUBSTRING), así que el contenido completo no sale de la BD.
+ */
+public final class ResumenEntradaDiario {
+
+    private final Integer id;
+    private final LocalDateTime createdAt;
+    private final String extracto;
+    private final int largo;
+
+    /**
+     * @param largo Caracteres del contenido completo
+     */
+    public ResumenEntradaDiario(Integer id, LocalDateTime createdAt, String extracto, Integer largo) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.extracto = extracto != null ? extracto : "";
+        this.largo = largo != null ? largo : this.extracto.length();
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getExtracto() {
+        return extracto;
+    }
+
+    public int getLargo() {
+        return largo;
+    }
+
+    /**
+     * Indica si el contenido completo es más largo que el extracto
+     */
+    public boolean isRecortado() {
+        return largo > extracto.length();
+    }
+}
@@ -0,0 +1,183 @@
+package com.sistema_seguimiento.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tarjeta de un hábito en la vista de seguimiento, calculada en el servidor
+ *
+ * Se construye una vez por hábito (ver desde) y vistaSeguimiento.jsp solo la pinta.
+ * Es inmutable para poder guardarla en caché y compartirla entre peticiones del usuario.
+ *
+ * - cumplidos / total: registros de la ventana que alcanzan la meta / registros de la ventana
+ *   (desde ventanaDesde; la vista los rotula así, no como totales)
+ * - diasCumplidosTotal: días cumplidos de toda la vida del hábito, desde el calendario
+ * - racha: racha vigente hoy (columnas mantenidas o calendario)
+ * - porcentaje30: días cumplidos de los últimos 30 días, desde el calendario
+ * - ultimosRegistros: los registros más recientes, ya clasificados para pintar
+ */
+public final class ResumenHabito {
+
+    /**
+     * Registros recientes que se incluyen en cada resumen
+     */
+    public static final int ULTIMOS_REGISTROS = 30;
+
+    public enum EstadoDia {
+        CUMPLIDO, PARCIAL, NO_CUMPLIDO
+    }
+
+    /**
+     * Un registro ya resuelto: fecha, veces y si alcanzó la meta
+     */
+    public static final class Dia {
+        private final LocalDate fecha;
+        private final int vecesRealizado;
+        private final EstadoDia estado;
+
+        Dia(LocalDate fecha, int vecesRealizado, EstadoDia estado) {
+            this.fecha = fecha;
+            this.vecesRealizado = vecesRealizado;
+            this.estado = estado;
+        }
+
+        public LocalDate getFecha() {
+            return fecha;
+        }
+
+        public int getVecesRealizado() {
+            return vecesRealizado;
+        }
+
+        public EstadoDia getEstado() {
+            return estado;
+        }
+    }
+
+    private final Integer habitoId;
+    private final String nombre;
+    private final int metaDiaria;
+    private final int cumplidos;
+    private final int total;
+    private final int diasCumplidosTotal;
+    private final int racha;
+    private final double porcentaje30;
+    private final boolean cumplidoHoy;
+    private final LocalDate ventanaDesde;
+    private final List<Dia> ultimosRegistros;
+
+    private ResumenHabito(Habito habito, int cumplidos, int total, int diasCumplidosTotal, int racha,
+                          double porcentaje30, boolean cumplidoHoy, List<Dia> ultimosRegistros) {
+        this.habitoId = habito.getId();
+        this.nombre = habito.getNombre();
+        this.metaDiaria = habito.getMetaDiaria() != null ? habito.getMetaDiaria() : 0;
+        this.cumplidos = cumplidos;
+        this.total = total;
+        this.diasCumplidosTotal = diasCumplidosTotal;
+        this.racha = racha;
+        this.porcentaje30 = porcentaje30;
+        this.cumplidoHoy = cumplidoHoy;
+        this.ventanaDesde = habito.getVentanaRegistrosDesde();
+        this.ultimosRegistros = Collections.unmodifiableList(ultimosRegistros);
+    }
+
+    /**
+     * Resumen de un hábito en un solo recorrido de sus registros cargados
+     *
+     * Los registros se esperan de más reciente a más antiguo, como los deja
+     * HabitoDAO.findByUsuarioId; la racha y el porcentaje no recorren registros.
+     */
+    public static ResumenHabito desde(Habito habito, LocalDate hoy) {
+        Integer meta = habito.getMetaDiaria();
+        List<RegistroHabito> registros = habito.getRegistros() != null ? habito.getRegistros() : Collections.emptyList();
+        List<Dia> ultimos = new ArrayList<>(Math.min(registros.size(), ULTIMOS_REGISTROS));
+        int cumplidos = 0;
+        boolean cumplidoHoy = false;
+
+        for (RegistroHabito registro : registros) {
+            int veces = registro.getVecesRealizado() != null ? registro.getVecesRealizado() : 0;
+            EstadoDia estado;
+            if (meta != null && veces >= meta) {
+                estado = EstadoDia.CUMPLIDO;
+                cumplidos++;
+                cumplidoHoy |= hoy.equals(registro.getFecha());
+            } else if (veces > 0) {
+                estado = EstadoDia.PARCIAL;
+            } else {
+                estado = EstadoDia.NO_CUMPLIDO;
+            }
+            if (ultimos.size() < ULTIMOS_REGISTROS) {
+                ultimos.add(new Dia(registro.getFecha(), veces, estado));
+            }
+        }
+
+        return new ResumenHabito(habito, cumplidos, registros.size(), diasCumplidosTotal(habito, hoy),
+            habito.calcularRachaActual(), habito.getPorcentajeCompletado(hoy.minusDays(29), hoy), cumplidoHoy, ultimos);
+    }
+
+    /**
+     * Días cumplidos hasta hoy según el calendario; sin calendario, los de los registros
+     * cargados (el historial completo, porque la lista recortada siempre trae calendario)
+     */
+    private static int diasCumplidosTotal(Habito habito, LocalDate hoy) {
+        CalendarioCumplimiento calendario = habito.getCalendario();
+        LocalDate desde = calendario != null ? calendario.getDesde() : LocalDate.MIN;
+        return habito.contarDiasCumplidos(desde, hoy);
+    }
+
+    public Integer getHabitoId() {
+        return habitoId;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public int getMetaDiaria() {
+        return metaDiaria;
+    }
+
+    public int getCumplidos() {
+        return cumplidos;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getDiasCumplidosTotal() {
+        return diasCumplidosTotal;
+    }
+
+    /**
+     * Porcentaje entero de registros cumplidos de la ventana (barra de progreso)
+     */
+    public int getProgreso() {
+        return total > 0 ? cumplidos * 100 / total : 0;
+    }
+
+    public int getRacha() {
+        return racha;
+    }
+
+    public double getPorcentaje30() {
+        return porcentaje30;
+    }
+
+    public boolean isCumplidoHoy() {
+        return cumplidoHoy;
+    }
+
+    /**
+     * Primer día de los registros cargados, o null si se cargó el historial completo
+     */
+    public LocalDate getVentanaDesde() {
+        return ventanaDesde;
+    }
+
+    public List<Dia> getUltimosRegistros() {
+        return ultimosRegistros;
+    }
+}
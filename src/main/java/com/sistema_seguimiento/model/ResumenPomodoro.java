@@ -0,0 +1,63 @@
+package com.sistema_seguimiento.model;
+
+/**
+ * Estado de un temporizador Pomodoro en un instante, calculado por PomodoroServicio
+ *
+ * - estado: fase en curso (TRABAJO, DESCANSO_CORTO, DESCANSO_LARGO), PAUSADO o COMPLETADO
+ * - fase: fase en curso o, si está en pausa, la fase que se reanudará
+ * - segundosRestantes: lo que falta de la fase, calculado con el reloj monótono
+ * - porcentajeProgreso: avance de la fase (0-100)
+ */
+public final class ResumenPomodoro {
+
+    private final Integer usuarioId;
+    private final Pomodoro.EstadoPomodoro estado;
+    private final Pomodoro.EstadoPomodoro fase;
+    private final long segundosRestantes;
+    private final int pomodorosCompletados;
+    private final int porcentajeProgreso;
+
+    public ResumenPomodoro(Integer usuarioId, Pomodoro.EstadoPomodoro estado, Pomodoro.EstadoPomodoro fase,
+                           long segundosRestantes, int pomodorosCompletados, int porcentajeProgreso) {
+        this.usuarioId = usuarioId;
+        this.estado = estado;
+        this.fase = fase;
+        this.segundosRestantes = segundosRestantes;
+        this.pomodorosCompletados = pomodorosCompletados;
+        this.porcentajeProgreso = porcentajeProgreso;
+    }
+
+    public Integer getUsuarioId() {
+        return usuarioId;
+    }
+
+    public Pomodoro.EstadoPomodoro getEstado() {
+        return estado;
+    }
+
+    public Pomodoro.EstadoPomodoro getFase() {
+        return fase;
+    }
+
+    public long getSegundosRestantes() {
+        return segundosRestantes;
+    }
+
+    public int getPomodorosCompletados() {
+        return pomodorosCompletados;
+    }
+
+    public int getPorcentajeProgreso() {
+        return porcentajeProgreso;
+    }
+
+    public boolean isPausado() {
+        return estado == Pomodoro.EstadoPomodoro.PAUSADO;
+    }
+
+    @Override
+    public String toString() {
+        return "ResumenPomodoro{usuario=" + usuarioId + ", estado=" + estado
+                + ", restante=" + segundosRestantes + "s, completados=" + pomodorosCompletados + "}";
+    }
+}
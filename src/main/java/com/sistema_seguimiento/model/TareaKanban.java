@@ -17,7 +17,8 @@ public class TareaKanban {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tarea_kanban_seq")
+    @SequenceGenerator(name = "tarea_kanban_seq", sequenceName = "tarea_kanban_seq", allocationSize = 50)
     private Integer id;
     
     @Column(name = "objetivo_id", nullable = false)
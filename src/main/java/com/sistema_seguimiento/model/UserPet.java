@@ -12,7 +12,8 @@ import java.time.LocalDateTime;
 public class UserPet {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_pets_seq")
+    @SequenceGenerator(name = "user_pets_seq", sequenceName = "user_pets_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
@@ -1,6 +1,8 @@
 package com.sistema_seguimiento.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 /**
@@ -8,6 +10,8 @@ import java.time.LocalDateTime;
  * Entidad JPA compatible con Supabase/PostgreSQL
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuario")
 @Table(name = "usuario")
 public class Usuario {
     
@@ -33,6 +37,14 @@ public class Usuario {
     @Column(name = "puntos", nullable = false)
     private Integer puntos = 0;
     
+    /**
+     * Registros de hábito completados por el usuario. Lo mantiene HabitoDAO con UPDATE atómicos
+     * en cada escritura de registros (updatable = false: un merge del usuario de la sesión no
+     * lo pisa). null = aún sin calcular, usuarios anteriores a la columna (ver UserPetDAO)
+     */
+    @Column(name = "habitos_completados", updatable = false)
+    private Long habitosCompletados;
+    
     // Constructores
     public Usuario() {
         this.fechaRegistro = LocalDateTime.now();
@@ -57,6 +69,9 @@ public class Usuario {
         if (activo == null) {
             activo = true;
         }
+        if (habitosCompletados == null) {
+            habitosCompletados = 0L;
+        }
     }
     
     // Métodos de negocio
@@ -130,6 +145,14 @@ public class Usuario {
         this.puntos = puntos != null ? puntos : 0;
     }
     
+    public Long getHabitosCompletados() {
+        return habitosCompletados;
+    }
+    
+    public void setHabitosCompletados(Long habitosCompletados) {
+        this.habitosCompletados = habitosCompletados;
+    }
+    
     // Métodos adicionales para gestión de puntos (compatibilidad con tests)
     public void setUsername(String username) {
         this.nombre = username;
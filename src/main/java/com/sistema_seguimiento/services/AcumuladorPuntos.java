@@ -0,0 +1,204 @@
+package com.sistema_seguimiento.services;
+
+import com.sistema_seguimiento.dao.UsuarioDAOJPA;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Acumulador write-behind de puntos de gamificación
+ *
+ * Los puntos se suman en memoria por usuario (merge atómico en un ConcurrentHashMap) y se
+ * escriben a la BD en lote con UPDATE atómicos. Cada vaciado saca del mapa a los usuarios que
+ * escribe, así que el mapa solo contiene usuarios con puntos pendientes.
+ *
+ * Límites de durabilidad (configurables): como mucho se pierden los puntos sumados en el
+ * último intervalo de vaciado o las últimas maxOperacionesPendientes operaciones si el
+ * proceso muere sin pasar por detener().
+ */
+public class AcumuladorPuntos {
+
+    private static final Logger LOGGER = Logger.getLogger(AcumuladorPuntos.class.getName());
+
+    /**
+     * Atributo del ServletContext donde AplicacionListener publica el acumulador
+     */
+    public static final String ATRIBUTO_CONTEXTO = "acumuladorPuntos";
+
+    private final UsuarioDAOJPA usuarioDAO;
+    private final long intervaloMillis;
+    private final int maxOperacionesPendientes;
+
+    private final ConcurrentHashMap<Integer, Long> pendientes = new ConcurrentHashMap<>();
+    private final AtomicLong operacionesPendientes = new AtomicLong();
+    private final AtomicBoolean vaciadoSolicitado = new AtomicBoolean();
+    private final Object bloqueoVaciado = new Object();
+
+    private final AtomicLong vaciados = new AtomicLong();
+    private final AtomicLong puntosEscritos = new AtomicLong();
+    private final AtomicLong erroresVaciado = new AtomicLong();
+
+    private volatile ScheduledExecutorService programador;
+
+    /**
+     * @param usuarioDAO DAO con el que se escriben los lotes
+     * @param intervaloMillis Tiempo máximo que un punto permanece solo en memoria
+     * @param maxOperacionesPendientes Operaciones acumuladas que fuerzan un vaciado anticipado
+     */
+    public AcumuladorPuntos(UsuarioDAOJPA usuarioDAO, long intervaloMillis, int maxOperacionesPendientes) {
+        if (usuarioDAO == null) {
+            throw new IllegalArgumentException("usuarioDAO es obligatorio");
+        }
+        if (intervaloMillis <= 0 || maxOperacionesPendientes <= 0) {
+            throw new IllegalArgumentException("El intervalo y el máximo de operaciones deben ser positivos");
+        }
+        this.usuarioDAO = usuarioDAO;
+        this.intervaloMillis = intervaloMillis;
+        this.maxOperacionesPendientes = maxOperacionesPendientes;
+    }
+
+    /**
+     * Arranca el vaciado periódico en un hilo daemon
+     */
+    public synchronized void iniciar() {
+        if (programador != null) {
+            return;
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "acumulador-puntos");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(this::vaciarSinExcepciones,
+                intervaloMillis, intervaloMillis, TimeUnit.MILLISECONDS);
+        LOGGER.info(String.format("[PUNTOS] Acumulador iniciado: intervalo=%dms, maxPendientes=%d",
+                intervaloMillis, maxOperacionesPendientes));
+    }
+
+    /**
+     * Detiene el vaciado periódico y escribe lo pendiente
+     */
+    public synchronized void detener() {
+        ScheduledExecutorService actual = programador;
+        programador = null;
+        if (actual != null) {
+            actual.shutdown();
+            try {
+                actual.awaitTermination(intervaloMillis + 5000, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        vaciar();
+        LOGGER.info(String.format("[PUNTOS] Acumulador detenido: vaciados=%d, puntosEscritos=%d, errores=%d",
+                vaciados.get(), puntosEscritos.get(), erroresVaciado.get()));
+    }
+
+    /**
+     * Suma puntos en memoria. Si se alcanza el máximo de operaciones pendientes se pide un
+     * vaciado anticipado (en el hilo del acumulador, o aquí mismo si no está iniciado).
+     */
+    public void agregar(Integer usuarioId, int puntos) {
+        if (usuarioId == null || puntos <= 0) {
+            return;
+        }
+        pendientes.merge(usuarioId, (long) puntos, Long::sum);
+
+        if (operacionesPendientes.incrementAndGet() >= maxOperacionesPendientes
+                && vaciadoSolicitado.compareAndSet(false, true)) {
+            ScheduledExecutorService actual = programador;
+            try {
+                if (actual != null) {
+                    actual.execute(this::vaciarSinExcepciones);
+                    return;
+                }
+            } catch (RejectedExecutionException e) {
+                // Detenido entre medias: se vacía en este hilo
+            }
+            vaciarSinExcepciones();
+        }
+    }
+
+    /**
+     * Escribe en un solo lote los puntos acumulados hasta ahora
+     *
+     * Cada entrada se saca del mapa con remove(), atómico frente al merge() de agregar(): un
+     * agregar() concurrente queda en el lote actual o crea una entrada nueva para el siguiente,
+     * nunca se pierde.
+     * Si la BD falla, los puntos se devuelven al acumulador para el próximo intento.
+     *
+     * @return Usuarios actualizados
+     */
+    public int vaciar() {
+        synchronized (bloqueoVaciado) {
+            vaciadoSolicitado.set(false);
+            operacionesPendientes.set(0);
+
+            Map<Integer, Long> lote = new HashMap<>();
+            for (Integer usuarioId : pendientes.keySet()) {
+                Long puntos = pendientes.remove(usuarioId);
+                if (puntos != null && puntos > 0) {
+                    lote.put(usuarioId, puntos);
+                }
+            }
+            if (lote.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                int actualizados = usuarioDAO.sumarPuntosEnLote(lote);
+                vaciados.incrementAndGet();
+                lote.values().forEach(puntosEscritos::addAndGet);
+                return actualizados;
+            } catch (RuntimeException e) {
+                erroresVaciado.incrementAndGet();
+                lote.forEach((usuarioId, puntos) -> pendientes.merge(usuarioId, puntos, Long::sum));
+                LOGGER.warning(String.format("[PUNTOS] Error al vaciar %d usuarios, se reintentará: %s",
+                        lote.size(), e.getMessage()));
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Puntos de un usuario que aún no se han escrito en la BD
+     */
+    public long getPendientes(Integer usuarioId) {
+        return pendientes.getOrDefault(usuarioId, 0L);
+    }
+
+    /**
+     * Usuarios con puntos sin escribir (entradas del mapa en memoria)
+     */
+    public int getUsuariosPendientes() {
+        return pendientes.size();
+    }
+
+    public long getVaciados() {
+        return vaciados.get();
+    }
+
+    public long getPuntosEscritos() {
+        return puntosEscritos.get();
+    }
+
+    public long getErroresVaciado() {
+        return erroresVaciado.get();
+    }
+
+    private void vaciarSinExcepciones() {
+        try {
+            vaciar();
+        } catch (RuntimeException e) {
+            // Ya registrado; los puntos siguen pendientes
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.sistema_seguimiento.services;
+
+import java.time.Duration;
+
+/**
+ * Caché en memoria de lecturas de hábitos (lista de hábitos, registros de hoy, resúmenes...),
+ * agrupada por usuario; los servicios de hábitos la invalidan en cada escritura del usuario
+ */
+public class CacheHabitos extends CachePorUsuario {
+
+    /**
+     * Atributo del ServletContext donde AplicacionListener publica la caché de hábitos: una
+     * sola instancia para todos los servlets, así la escritura de uno invalida lo que leen los demás
+     */
+    public static final String ATRIBUTO_CONTEXTO = "cacheHabitos";
+
+    public CacheHabitos() {
+        super();
+    }
+
+    public CacheHabitos(int maxUsuarios, Duration ttl) {
+        super(maxUsuarios, ttl);
+    }
+}
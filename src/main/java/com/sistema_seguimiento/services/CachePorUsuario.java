@@ -0,0 +1,181 @@
+package com.sistema_seguimiento.services;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Caché en memoria de lecturas por usuario, con límite de usuarios y caducidad
+ *
+ * - Cada usuario tiene su propia entrada con sus valores; una clave nunca se busca fuera de la
+ *   entrada de su usuario.
+ * - Límite de tamaño: como mucho maxUsuarios entradas; al superarlo se desaloja la
+ *   usada hace más tiempo (LRU).
+ * - Límite de tiempo: cada valor caduca ttl después de cargarse, aunque no haya escrituras
+ *   (cubre cambios hechos por otros caminos, como otro nodo o un script).
+ * - invalidar(usuarioId) descarta todo lo del usuario; los servicios lo llaman en cada escritura.
+ *
+ * Las cargas se hacen fuera del candado. Si mientras se cargaba hubo una invalidación del
+ * mismo usuario, el valor se devuelve pero no se guarda (versión por usuario, repartida
+ * en VERSIONES contadores).
+ *
+ * Los valores se comparten entre peticiones: quien los recibe no debe modificarlos.
+ */
+public class CachePorUsuario {
+
+    public static final int MAX_USUARIOS_POR_DEFECTO = 1000;
+    public static final Duration TTL_POR_DEFECTO = Duration.ofMinutes(5);
+
+    private static final int VERSIONES = 64;
+
+    private final int maxUsuarios;
+    private final long ttlNanos;
+    private final LinkedHashMap<Integer, Map<String, Valor>> entradas;
+    private final AtomicLongArray versiones = new AtomicLongArray(VERSIONES);
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+    private final LongAdder expirados = new LongAdder();
+    private final LongAdder invalidaciones = new LongAdder();
+
+    public CachePorUsuario() {
+        this(MAX_USUARIOS_POR_DEFECTO, TTL_POR_DEFECTO);
+    }
+
+    public CachePorUsuario(int maxUsuarios, Duration ttl) {
+        if (maxUsuarios <= 0 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("maxUsuarios y ttl deben ser positivos");
+        }
+        this.maxUsuarios = maxUsuarios;
+        this.ttlNanos = ttl.toNanos();
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Map<String, Valor>> mayor) {
+                if (size() > CachePorUsuario.this.maxUsuarios) {
+                    desalojos.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Valor de la clave para el usuario; si no está o caducó lo carga y lo guarda
+     *
+     * Un valor null no se guarda. Las excepciones de la carga se propagan y tampoco se guarda nada.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T obtener(Integer usuarioId, String clave, Supplier<T> cargar) {
+        if (usuarioId == null) {
+            return cargar.get();
+        }
+        long ahora = System.nanoTime();
+        synchronized (entradas) {
+            Map<String, Valor> valores = entradas.get(usuarioId);
+            Valor valor = valores != null ? valores.get(clave) : null;
+            if (valor != null) {
+                if (ahora - valor.cargadoNanos < ttlNanos) {
+                    aciertos.increment();
+                    return (T) valor.dato;
+                }
+                valores.remove(clave);
+                expirados.increment();
+            }
+        }
+
+        fallos.increment();
+        long version = versiones.get(indice(usuarioId));
+        T dato = cargar.get();
+        if (dato != null) {
+            synchronized (entradas) {
+                if (versiones.get(indice(usuarioId)) == version) {
+                    entradas.computeIfAbsent(usuarioId, id -> new HashMap<>())
+                        .put(clave, new Valor(dato, ahora));
+                }
+            }
+        }
+        return dato;
+    }
+
+    /**
+     * Descarta todos los valores del usuario y los cálculos suyos que estén en curso
+     */
+    public void invalidar(Integer usuarioId) {
+        if (usuarioId == null) {
+            return;
+        }
+        synchronized (entradas) {
+            versiones.incrementAndGet(indice(usuarioId));
+            entradas.remove(usuarioId);
+        }
+        invalidaciones.increment();
+    }
+
+    public void limpiar() {
+        synchronized (entradas) {
+            for (int i = 0; i < VERSIONES; i++) {
+                versiones.incrementAndGet(i);
+            }
+            entradas.clear();
+        }
+    }
+
+    public int getUsuariosEnCache() {
+        synchronized (entradas) {
+            return entradas.size();
+        }
+    }
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    /**
+     * Usuarios desalojados por superar maxUsuarios
+     */
+    public long getDesalojos() {
+        return desalojos.sum();
+    }
+
+    /**
+     * Valores descartados por superar el ttl
+     */
+    public long getExpirados() {
+        return expirados.sum();
+    }
+
+    public long getInvalidaciones() {
+        return invalidaciones.sum();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{usuarios=" + getUsuariosEnCache() + ", aciertos=" + getAciertos() +
+               ", fallos=" + getFallos() + ", desalojos=" + getDesalojos() +
+               ", expirados=" + getExpirados() + ", invalidaciones=" + getInvalidaciones() + "}";
+    }
+
+    private static int indice(Integer usuarioId) {
+        return Math.floorMod(usuarioId, VERSIONES);
+    }
+
+    private static final class Valor {
+        private final Object dato;
+        private final long cargadoNanos;
+
+        private Valor(Object dato, long cargadoNanos) {
+            this.dato = dato;
+            this.cargadoNanos = cargadoNanos;
+        }
+    }
+}
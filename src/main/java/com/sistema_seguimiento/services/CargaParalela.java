@@ -0,0 +1,188 @@
+package com.sistema_seguimiento.services;
+
+import com.sistema_seguimiento.dao.LimiteConexiones;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Carga en paralelo de las lecturas independientes de una página, con un plazo por petición
+ *
+ * Cada lectura se lanza en el ejecutor propio de la carga (hilos virtuales: esperan a la BD
+ * sin ocupar hilos de plataforma) y la petición solo espera hasta el plazo. Lo que no llega a
+ * tiempo o falla se sustituye por su valor por defecto y la carga queda marcada como parcial,
+ * para que la vista se pinte con lo que sí llegó.
+ *
+ * Solo para lecturas independientes y de solo lectura de la capa de servicio (con su caché):
+ * corren fuera del hilo de la petición, no ven su contexto de persistencia (cada una usa su
+ * propio EntityManager) y no deben escribir. Con LimiteConexiones activo cada una toma su propio
+ * permiso sin esperar (LimiteConexiones.sinEsperarPermiso): si no queda ninguno libre se pinta
+ * con su valor por defecto. Una lectura vencida retiene su permiso hasta cerrar su conexión.
+ * Una sola lectura no se reparte: se hace directamente en la petición.
+ *
+ * Uso:
+ *   CargaParalela.Composicion carga = cargaParalela.iniciar();
+ *   CargaParalela.Parte<A> a = carga.agregar("a", () -> daoA.leer(id), porDefectoA);
+ *   CargaParalela.Parte<B> b = carga.agregar("b", () -> daoB.leer(id), porDefectoB);
+ *   a.get(); b.get(); carga.isParcial();
+ */
+public class CargaParalela {
+
+    private static final Logger LOGGER = Logger.getLogger(CargaParalela.class.getName());
+
+    /**
+     * Plazo por defecto de una página para reunir todas sus lecturas
+     */
+    public static final long PLAZO_POR_DEFECTO_MS = 3000;
+
+    private static final ExecutorService EJECUTOR_POR_DEFECTO =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("carga-paralela-", 0).factory());
+
+    private final ExecutorService ejecutor;
+    private final long plazoMillis;
+
+    public CargaParalela() {
+        this(EJECUTOR_POR_DEFECTO, PLAZO_POR_DEFECTO_MS);
+    }
+
+    /**
+     * @param ejecutor Ejecutor en el que se lanzan las lecturas
+     * @param plazoMillis Tiempo máximo que espera la petición desde iniciar()
+     */
+    public CargaParalela(ExecutorService ejecutor, long plazoMillis) {
+        if (ejecutor == null || plazoMillis <= 0) {
+            throw new IllegalArgumentException("El ejecutor es obligatorio y el plazo debe ser positivo");
+        }
+        this.ejecutor = ejecutor;
+        this.plazoMillis = plazoMillis;
+    }
+
+    /**
+     * Empieza la carga de una petición; el plazo corre desde aquí
+     */
+    public Composicion iniciar() {
+        return new Composicion(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(plazoMillis));
+    }
+
+    /**
+     * Lecturas de una petición que comparten el mismo plazo
+     */
+    public final class Composicion {
+
+        private final long limiteNanos;
+        private final List<Parte<?>> partes = new ArrayList<>();
+
+        private Composicion(long limiteNanos) {
+            this.limiteNanos = limiteNanos;
+        }
+
+        /**
+         * Lanza una lectura
+         *
+         * @param nombre Nombre para los logs
+         * @param porDefecto Valor que se usa si la lectura falla o no termina a tiempo
+         */
+        public <T> Parte<T> agregar(String nombre, Supplier<T> lectura, T porDefecto) {
+            Supplier<T> sinEspera = LimiteConexiones.sinEsperarPermiso(lectura);
+            Parte<T> parte = new Parte<>(nombre, ejecutor.submit(sinEspera::get), porDefecto, limiteNanos);
+            partes.add(parte);
+            return parte;
+        }
+
+        /**
+         * Espera a todas las lecturas hasta el plazo
+         *
+         * @return true si todas llegaron a tiempo y sin error
+         */
+        public boolean esperar() {
+            for (Parte<?> parte : partes) {
+                parte.get();
+            }
+            return !isParcial();
+        }
+
+        /**
+         * Alguna lectura ya resuelta terminó con su valor por defecto
+         */
+        public boolean isParcial() {
+            return partes.stream().anyMatch(parte -> parte.resuelta && !parte.completa);
+        }
+
+        public List<String> getPartesIncompletas() {
+            List<String> incompletas = new ArrayList<>();
+            for (Parte<?> parte : partes) {
+                if (parte.resuelta && !parte.completa) {
+                    incompletas.add(parte.nombre);
+                }
+            }
+            return incompletas;
+        }
+    }
+
+    /**
+     * Resultado de una lectura; get() espera como mucho hasta el plazo de la composición
+     */
+    public static final class Parte<T> {
+
+        private final String nombre;
+        private final Future<T> futuro;
+        private final T porDefecto;
+        private final long limiteNanos;
+
+        private T valor;
+        private boolean resuelta;
+        private boolean completa;
+
+        private Parte(String nombre, Future<T> futuro, T porDefecto, long limiteNanos) {
+            this.nombre = nombre;
+            this.futuro = futuro;
+            this.porDefecto = porDefecto;
+            this.limiteNanos = limiteNanos;
+        }
+
+        /**
+         * Valor leído, o el valor por defecto si la lectura falló o se pasó del plazo (en ese
+         * caso se cancela; una lectura JDBC en curso no atiende la interrupción y sigue hasta
+         * terminar, con su permiso)
+         */
+        public T get() {
+            if (resuelta) {
+                return valor;
+            }
+            resuelta = true;
+            try {
+                valor = futuro.get(Math.max(limiteNanos - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                completa = true;
+            } catch (TimeoutException e) {
+                futuro.cancel(true);
+                valor = porDefecto;
+                LOGGER.warning(String.format("[CARGA] '%s' no llegó a tiempo: se pinta sin ella", nombre));
+            } catch (ExecutionException | CancellationException e) {
+                valor = porDefecto;
+                Throwable causa = e.getCause() != null ? e.getCause() : e;
+                LOGGER.warning(String.format("[CARGA] '%s' falló: %s", nombre, causa.getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futuro.cancel(true);
+                valor = porDefecto;
+            }
+            return valor;
+        }
+
+        /**
+         * true si get() devolvió el valor leído (false antes de get() o con el valor por defecto)
+         */
+        public boolean isCompleta() {
+            return completa;
+        }
+    }
+}
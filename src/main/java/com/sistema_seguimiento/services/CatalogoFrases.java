@@ -0,0 +1,137 @@
+package com.sistema_seguimiento.services;
+
+import com.sistema_seguimiento.dao.QuoteDAO;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Catálogo compartido e inmutable de frases motivacionales
+ *
+ * Las frases se cargan una vez (AplicacionListener lo hace al arrancar) en un array que no se
+ * modifica nunca; cada recarga construye un array nuevo y lo publica con una sola escritura
+ * volatile. Pedir una frase es leer el array vigente: sin bloqueos ni acceso a la BD en el
+ * login.
+ *
+ * La recarga se hace en segundo plano cada intervalo (las frases solo cambian directamente en
+ * la BD: la aplicación no tiene camino de escritura). Si la fuente falla o no devuelve frases,
+ * se mantiene el catálogo anterior. Hasta la primera carga se usan las
+ * frases por defecto de QuoteService.
+ */
+public class CatalogoFrases {
+
+    private static final Logger LOGGER = Logger.getLogger(CatalogoFrases.class.getName());
+
+    /**
+     * Atributo del ServletContext donde AplicacionListener publica el catálogo
+     */
+    public static final String ATRIBUTO_CONTEXTO = "catalogoFrases";
+
+    private final QuoteDAO quoteDAO;
+
+    private volatile String[] frases;
+
+    private final AtomicLong recargas = new AtomicLong();
+    private final AtomicLong erroresRecarga = new AtomicLong();
+
+    private volatile ScheduledExecutorService programador;
+
+    /**
+     * @param quoteDAO Fuente de las frases
+     */
+    public CatalogoFrases(QuoteDAO quoteDAO) {
+        if (quoteDAO == null) {
+            throw new IllegalArgumentException("quoteDAO es obligatorio");
+        }
+        this.quoteDAO = quoteDAO;
+        this.frases = QuoteService.FRASES_POR_DEFECTO.toArray(new String[0]);
+    }
+
+    /**
+     * Lee las frases de la fuente y, si hay alguna, las publica en un catálogo nuevo
+     *
+     * @return true si el catálogo se reemplazó
+     */
+    public boolean recargar() {
+        List<String> leidas;
+        try {
+            leidas = quoteDAO.getQuotes();
+        } catch (RuntimeException e) {
+            erroresRecarga.incrementAndGet();
+            LOGGER.warning(String.format("[FRASES] No se pudo recargar el catálogo, se mantiene el anterior: %s",
+                    e.getMessage()));
+            return false;
+        }
+        String[] nuevas = leidas == null ? new String[0] : leidas.stream()
+                .filter(Objects::nonNull)
+                .toArray(String[]::new);
+        if (nuevas.length == 0) {
+            LOGGER.warning("[FRASES] La fuente no devolvió frases, se mantiene el catálogo anterior");
+            return false;
+        }
+        frases = nuevas;
+        recargas.incrementAndGet();
+        LOGGER.info(String.format("[FRASES] Catálogo cargado: %d frases", nuevas.length));
+        return true;
+    }
+
+    /**
+     * Arranca la recarga periódica en un hilo daemon (la primera, tras un intervalo: la carga
+     * inicial se hace con recargar() al arrancar)
+     */
+    public synchronized void iniciar(long intervaloMillis) {
+        if (intervaloMillis <= 0) {
+            throw new IllegalArgumentException("El intervalo de recarga debe ser positivo");
+        }
+        if (programador != null) {
+            return;
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "catalogo-frases");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(this::recargar, intervaloMillis, intervaloMillis, TimeUnit.MILLISECONDS);
+        LOGGER.info(String.format("[FRASES] Recarga del catálogo cada %d ms", intervaloMillis));
+    }
+
+    public synchronized void detener() {
+        ScheduledExecutorService actual = programador;
+        programador = null;
+        if (actual != null) {
+            actual.shutdownNow();
+        }
+    }
+
+    /**
+     * Frase en la posición indicada, rotando sobre el catálogo vigente
+     */
+    public String frase(int indice) {
+        String[] actuales = frases;
+        return actuales[Math.floorMod(indice, actuales.length)];
+    }
+
+    public int getTotal() {
+        return frases.length;
+    }
+
+    /**
+     * Copia del catálogo vigente
+     */
+    public List<String> getFrases() {
+        return List.of(frases);
+    }
+
+    public long getRecargas() {
+        return recargas.get();
+    }
+
+    public long getErroresRecarga() {
+        return erroresRecarga.get();
+    }
+}
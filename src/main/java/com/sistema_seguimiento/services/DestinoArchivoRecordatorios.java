@@ -0,0 +1,49 @@
+package com.sistema_seguimiento.services;
+
+import com.sistema_seguimiento.model.RecordatorioAnimo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Destino que añade cada recordatorio como una línea a un archivo local (outbox)
+ *
+ * Formato de línea: fecha, usuarioId y mensaje separados por tabuladores. Sirve para pruebas
+ * y para que otro proceso recoja los recordatorios del archivo y los entregue.
+ */
+public class DestinoArchivoRecordatorios implements DestinoRecordatorios {
+
+    private final Path archivo;
+
+    public DestinoArchivoRecordatorios(Path archivo) {
+        if (archivo == null) {
+            throw new IllegalArgumentException("El archivo es obligatorio");
+        }
+        this.archivo = archivo;
+    }
+
+    @Override
+    public synchronized void enviar(RecordatorioAnimo recordatorio) throws IOException {
+        String mensaje = recordatorio.getMensaje() != null
+            ? recordatorio.getMensaje().replace('\t', ' ').replace('\n', ' ').replace('\r', ' ')
+            : "";
+        String linea = recordatorio.getFecha() + "\t" + recordatorio.getUsuarioId() + "\t" + mensaje + "\n";
+        Files.writeString(archivo, linea, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Líneas escritas hasta ahora (vacío si el archivo aún no existe)
+     */
+    public synchronized List<String> leer() throws IOException {
+        return Files.exists(archivo) ? Files.readAllLines(archivo, StandardCharsets.UTF_8) : List.of();
+    }
+
+    public Path getArchivo() {
+        return archivo;
+    }
+}
@@ -0,0 +1,15 @@
+package com.sistema_seguimiento.services;
+
+import com.sistema_seguimiento.model.RecordatorioAnimo;
+
+/**
+ * Destino de los recordatorios de estado de ánimo de TareaRecordatoriosAnimo
+ *
+ * Se llama desde varios hilos trabajadores a la vez. Una excepción cuenta el recordatorio
+ * como fallido; la tarea sigue con los demás.
+ */
+@FunctionalInterface
+public interface DestinoRecordatorios {
+
+    void enviar(RecordatorioAnimo recordatorio) throws Exception;
+}
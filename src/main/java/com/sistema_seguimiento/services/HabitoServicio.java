@@ -1,16 +1,52 @@
 package com.sistema_seguimiento.services;
 
+import com.sistema_seguimiento.dao.ContextoPersistencia;
+import com.sistema_seguimiento.dao.EstadisticasHabitoDAO;
 import com.sistema_seguimiento.dao.HabitoDAO;
+import com.sistema_seguimiento.model.EstadisticaPeriodo;
+import com.sistema_seguimiento.model.CheckInHabito;
 import com.sistema_seguimiento.model.Habito;
+import com.sistema_seguimiento.model.PaginaRegistros;
 import com.sistema_seguimiento.model.RegistroHabito;
+import com.sistema_seguimiento.model.ResultadoCheckIn;
+import com.sistema_seguimiento.model.ResumenHabito;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class HabitoServicio implements Serializable {
     public HabitoDAO habitoDAO;
 
+    /**
+     * Lecturas por usuario (hábitos, registros de hoy, resúmenes); cada escritura de
+     * hábitos o registros invalida al usuario afectado. En la aplicación es la instancia que
+     * AplicacionListener publica en el ServletContext, compartida por todos los servlets
+     */
+    private CacheHabitos cacheHabitos = new CacheHabitos();
+
+    /**
+     * Series de cumplimiento; sin caché porque el rango lo elige el cliente
+     */
+    private EstadisticasHabitoDAO estadisticasHabitoDAO = new EstadisticasHabitoDAO();
+
+    /**
+     * Días máximos que puede abarcar una serie de cumplimiento (unos 3 años)
+     */
+    public static final int MAX_DIAS_SERIE = 1100;
+
+    private static final String CLAVE_HABITOS = "habitos";
+    private static final String CLAVE_REGISTROS_HOY = "registrosHoy:";
+    private static final String CLAVE_RESUMENES = "resumenes:";
+
     public HabitoDAO getHabitoDAO() {
         return habitoDAO;
     }
@@ -19,6 +55,22 @@ public class HabitoServicio implements Serializable {
         this.habitoDAO = habitoDAO;
     }
 
+    public CacheHabitos getCacheHabitos() {
+        return cacheHabitos;
+    }
+
+    public void setCacheHabitos(CacheHabitos cacheHabitos) {
+        this.cacheHabitos = cacheHabitos;
+    }
+
+    public EstadisticasHabitoDAO getEstadisticasHabitoDAO() {
+        return estadisticasHabitoDAO;
+    }
+
+    public void setEstadisticasHabitoDAO(EstadisticasHabitoDAO estadisticasHabitoDAO) {
+        this.estadisticasHabitoDAO = estadisticasHabitoDAO;
+    }
+
     public HabitoServicio() {
     }
 
@@ -27,6 +79,15 @@ public class HabitoServicio implements Serializable {
      * Basado en el diagrama de secuencia
      */
     public Habito registrarCumplimiento(Integer habitoId, LocalDate fecha, String observacion) {
+        RegistroHabito registro = registrarCheckIn(habitoId, fecha, observacion);
+        return registro != null ? registro.getHabito() : null;
+    }
+
+    /**
+     * Como registrarCumplimiento, pero devuelve el registro del día tal como queda escrito
+     * (id y veces realizado tras sumar), o null si no se pudo registrar
+     */
+    public RegistroHabito registrarCheckIn(Integer habitoId, LocalDate fecha, String observacion) {
         try {
             // 1) buscarHabito(habitoId)
             Habito habito = buscarHabito(habitoId);
@@ -35,29 +96,42 @@ public class HabitoServicio implements Serializable {
                 return null;
             }
 
-            // 2) crear(fechaActual, estado='CUMPLIDO') -> representado creando un RegistroHabito
-            System.out.println("[ControladorHabitos] Crear nuevo registro para habitoId=" + habitoId + " fecha=" + fecha);
-            RegistroHabito nuevoRegistro = crearNuevoRegistro(habito, fecha, observacion);
+            // 2) crear(fechaActual, estado='CUMPLIDO') -> upsert del registro del día: lo crea o suma
+            //    una vez más si ya existe (un registro por hábito y día)
+            System.out.println("[ControladorHabitos] Registrar cumplimiento para habitoId=" + habitoId + " fecha=" + fecha);
+            RegistroHabito registro = habitoDAO.registrarCompletado(habitoId, fecha, observacion);
 
-            // 3) si el registro fue guardado correctamente, se considera agregado al historial
-            if (nuevoRegistro != null && nuevoRegistro.getId() != null) {
-                System.out.println("[ControladorHabitos] Nuevo registro creado id=" + nuevoRegistro.getId());
-            } else {
-                // Fallback: intentar marcar como completado directamente en DAO si la creación de registro falla
-                System.out.println("[ControladorHabitos] No se pudo crear registro, llamando a registrarCompletado DAO como fallback");
-                habitoDAO.registrarCompletado(habitoId, fecha, observacion);
-            }
+            // 3) el registro queda en el historial: el resumen en caché del usuario ya no vale
+            invalidarUsuario(usuarioDe(habito));
 
             // 4) notificarÉxito() / actualizar vista (solo logging aquí)
             System.out.println("[ControladorHabitos] notificarExito() para habitoId=" + habitoId);
 
-            return habito;
+            return registro;
         } catch (Exception e) {
             e.printStackTrace();
             return null;
         }
     }
 
+    /**
+     * Registros por página del historial si no se indica límite, y máximo aceptado
+     */
+    public static final int LIMITE_HISTORIAL = 30;
+    public static final int MAX_LIMITE_HISTORIAL = 100;
+
+    /**
+     * Página del historial de un hábito del usuario (ver HabitoDAO.findHistorial)
+     *
+     * @param cursor siguienteCursor de la página anterior, o null para empezar por lo más reciente
+     * @param limite registros por página; null usa LIMITE_HISTORIAL y se acota a MAX_LIMITE_HISTORIAL
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public PaginaRegistros obtenerHistorial(Integer usuarioId, Integer habitoId, String cursor, Integer limite) {
+        int tamano = limite == null ? LIMITE_HISTORIAL : Math.max(1, Math.min(limite, MAX_LIMITE_HISTORIAL));
+        return habitoDAO.findHistorial(habitoId, usuarioId, cursor, tamano);
+    }
+
     /**
      * Obtener registros de un hábito en un rango de fechas
      */
@@ -70,7 +144,9 @@ public class HabitoServicio implements Serializable {
      */
     public List<RegistroHabito> obtenerRegistrosDeHoy(Integer usuarioId) {
         try {
-            return habitoDAO.findRegistrosDeHoy(usuarioId);
+            LocalDate hoy = LocalDate.now();
+            return cacheHabitos.obtener(usuarioId, CLAVE_REGISTROS_HOY + hoy,
+                () -> List.copyOf(habitoDAO.findRegistrosDeHoy(usuarioId)));
         } catch (Exception e) {
             e.printStackTrace();
             return new ArrayList<RegistroHabito>();
@@ -78,12 +154,30 @@ public class HabitoServicio implements Serializable {
     }
 
     /**
-     * Buscar hábito por ID
+     * Buscar hábito por ID, siempre en la BD
+     *
+     * Devuelve una instancia propia que se puede modificar y pasar a guardarHabito.
      */
     public Habito buscarHabito(Integer habitoId) {
         return habitoDAO.findById(habitoId).orElse(null);
     }
 
+    /**
+     * Buscar un hábito del usuario para mostrarlo; null si no existe o es de otro usuario
+     *
+     * Los activos salen de la lista en caché del usuario; el resto se busca en la BD.
+     * La instancia puede estar compartida: no se debe modificar (para editar, buscarHabito).
+     */
+    public Habito buscarHabito(Integer usuarioId, Integer habitoId) {
+        for (Habito habito : listarHabitosUsuario(usuarioId)) {
+            if (habito.getId().equals(habitoId)) {
+                return habito;
+            }
+        }
+        Habito habito = buscarHabito(habitoId);
+        return habito != null && Objects.equals(usuarioId, usuarioDe(habito)) ? habito : null;
+    }
+
     /**
      * Crear ficha de racha actual
      */
@@ -107,7 +201,7 @@ public class HabitoServicio implements Serializable {
             registro.setVecesRealizado(1);  // ✅ Nuevo campo
             registro.setNotas(observacion);  // ✅ Cambiado a notas
             // guarda y retorna el registro (equivale a agregarRegistro(nuevoRegistro) en el diagrama)
-            return habitoDAO.saveRegistro(registro);
+            return guardarRegistro(registro);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
@@ -115,11 +209,21 @@ public class HabitoServicio implements Serializable {
     }
 
     /**
-     * Obtener lista de hábitos del usuario
+     * Guardar un registro ya construido (alta o actualización) e invalidar el resumen del usuario
+     */
+    public RegistroHabito guardarRegistro(RegistroHabito registro) {
+        RegistroHabito guardado = habitoDAO.saveRegistro(registro);
+        invalidarUsuario(usuarioDe(registro.getHabito()));
+        return guardado;
+    }
+
+    /**
+     * Obtener lista de hábitos del usuario (compartida desde la caché: solo lectura)
      */
     public List<Habito> listarHabitosUsuario(Integer usuarioId) {
         try {
-            return habitoDAO.findByUsuarioId(usuarioId);
+            return cacheHabitos.obtener(usuarioId, CLAVE_HABITOS,
+                () -> List.copyOf(habitoDAO.findByUsuarioId(usuarioId)));
         } catch (Exception e) {
             e.printStackTrace();
             return new ArrayList<Habito>();
@@ -131,7 +235,9 @@ public class HabitoServicio implements Serializable {
      */
     public Habito guardarHabito(Habito habito) {
         try {
-            return habitoDAO.save(habito);
+            Habito guardado = habitoDAO.save(habito);
+            invalidarUsuario(usuarioDe(habito));
+            return guardado;
         } catch (Exception e) {
             e.printStackTrace();
             return null;
@@ -143,7 +249,9 @@ public class HabitoServicio implements Serializable {
      */
     public boolean eliminarHabito(Integer habitoId) {
         try {
+            Integer usuarioId = usuarioDe(habitoDAO.findById(habitoId).orElse(null));
             habitoDAO.delete(habitoId);
+            invalidarUsuario(usuarioId);
             return true;
         } catch (Exception e) {
             e.printStackTrace();
@@ -151,6 +259,48 @@ public class HabitoServicio implements Serializable {
         }
     }
 
+    /**
+     * Resumen por hábito para la vista de seguimiento, desde caché si no hubo escrituras
+     *
+     * Cada resumen se calcula en un recorrido de los registros de la ventana
+     * (ver ResumenHabito.desde); la racha y el porcentaje salen del calendario.
+     * La clave incluye el día porque racha y porcentaje dependen de hoy.
+     * Si la consulta falla devuelve una lista vacía y no la guarda.
+     */
+    public List<ResumenHabito> obtenerResumenSeguimiento(Integer usuarioId) {
+        LocalDate hoy = LocalDate.now();
+        try {
+            return cacheHabitos.obtener(usuarioId, CLAVE_RESUMENES + hoy,
+                () -> habitoDAO.findByUsuarioId(usuarioId).stream()
+                    .map(habito -> ResumenHabito.desde(habito, hoy))
+                    .collect(Collectors.toUnmodifiableList()));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Descarta lo cacheado del usuario ahora y otra vez al terminar la transacción de la
+     * petición, para no quedarse con lo leído por otra petición antes del commit
+     */
+    private void invalidarUsuario(Integer usuarioId) {
+        if (usuarioId == null) {
+            return;
+        }
+        cacheHabitos.invalidar(usuarioId);
+        if (ContextoPersistencia.estaAbierto()) {
+            ContextoPersistencia.alTerminar(() -> cacheHabitos.invalidar(usuarioId));
+        }
+    }
+
+    private static Integer usuarioDe(Habito habito) {
+        if (habito == null || habito.getUsuarioId() == null) {
+            return null;
+        }
+        return Integer.valueOf(habito.getUsuarioId());
+    }
+
     /**
      * Obtener estadísticas del usuario
      */
@@ -174,4 +324,73 @@ public class HabitoServicio implements Serializable {
             return 0.0;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Serie de cumplimiento de los hábitos activos del usuario por día, semana o mes, leída del
+     * resumen diario (resumen_diario_usuario) y no de los registros
+     *
+     * @throws IllegalArgumentException si el rango está invertido o supera MAX_DIAS_SERIE
+     */
+    public List<EstadisticaPeriodo> obtenerSerieCumplimiento(Integer usuarioId, LocalDate desde, LocalDate hasta,
+                                                             EstadisticaPeriodo.Granularidad granularidad) {
+        if (desde != null && hasta != null && hasta.toEpochDay() - desde.toEpochDay() >= MAX_DIAS_SERIE) {
+            throw new IllegalArgumentException("El rango no puede superar " + MAX_DIAS_SERIE + " días");
+        }
+        return estadisticasHabitoDAO.serieCumplimiento(usuarioId, desde, hasta, granularidad);
+    }
+
+    /**
+     * Registrar un lote de check-ins (sincronización de clientes móviles)
+     *
+     * Valida cada elemento y envía los válidos al DAO, que los escribe junto con los puntos
+     * en una sola transacción. Un elemento inválido se rechaza sin afectar al resto; un
+     * mismo (hábito, fecha) repetido en el lote se rechaza a partir de la segunda vez.
+     *
+     * @return Resultado de cada elemento en el orden recibido
+     * @throws RuntimeException si falla la transacción (ningún elemento queda registrado)
+     */
+    public List<ResultadoCheckIn> registrarLote(Integer usuarioId, List<CheckInHabito> checkIns) {
+        List<ResultadoCheckIn> resultados = new ArrayList<>();
+        Map<Integer, CheckInHabito> validos = new LinkedHashMap<>();
+        Set<String> vistos = new HashSet<>();
+        LocalDate hoy = LocalDate.now();
+
+        for (int i = 0; i < checkIns.size(); i++) {
+            CheckInHabito checkIn = checkIns.get(i);
+            String error = validarCheckIn(checkIn, hoy);
+            if (error == null && !vistos.add(checkIn.getHabitoId() + "|" + checkIn.getFecha())) {
+                error = "Hábito y fecha repetidos en el lote";
+            }
+            if (error != null) {
+                resultados.add(ResultadoCheckIn.rechazado(i, checkIn, error));
+            } else {
+                validos.put(i, checkIn);
+            }
+        }
+
+        resultados.addAll(habitoDAO.registrarLote(usuarioId, validos));
+        invalidarUsuario(usuarioId);
+        resultados.sort(Comparator.comparingInt(ResultadoCheckIn::getIndice));
+        return resultados;
+    }
+
+    private String validarCheckIn(CheckInHabito checkIn, LocalDate hoy) {
+        if (checkIn == null || checkIn.getHabitoId() == null) {
+            return "habitoId es obligatorio";
+        }
+        if (checkIn.getFecha() == null) {
+            return "fecha es obligatoria";
+        }
+        if (checkIn.getFecha().isAfter(hoy)) {
+            return "La fecha no puede ser futura";
+        }
+        if (checkIn.getVecesRealizado() == null || checkIn.getVecesRealizado() < 0) {
+            return "vecesRealizado debe ser un número positivo";
+        }
+        String estado = checkIn.getEstado();
+        if (estado != null && !estado.equals("CUMPLIDO") && !estado.equals("PARCIAL") && !estado.equals("NO_CUMPLIDO")) {
+            return "Estado desconocido: " + estado;
+        }
+        return null;
+    }
+}
@@ -1,7 +1,11 @@
 package com.sistema_seguimiento.services;
 
 import com.sistema_seguimiento.model.JournalEntry;
+import com.sistema_seguimiento.model.PaginaBusquedaDiario;
+import com.sistema_seguimiento.model.PaginaDiario;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Interfaz para el Servicio de Journal
@@ -29,6 +33,35 @@ public interface IJournalService {
      */
     List<JournalEntry> getJournalEntriesByUser(Integer userId);
     
+    /**
+     * Página de extractos del diario, de la entrada más reciente a la más antigua
+     * 
+     * @param userId ID del usuario
+     * @param cursor siguienteCursor de la página anterior, o null para la primera
+     * @param limite Entradas por página; null usa el valor por defecto y se limita a un máximo
+     * @return Página con el cursor de la siguiente
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    PaginaDiario getJournalPage(Integer userId, String cursor, Integer limite);
+    
+    /**
+     * Obtiene una entrada completa del usuario
+     * 
+     * @param userId ID del usuario
+     * @param entryId ID de la entrada
+     * @return La entrada, o vacío si no existe o es de otro usuario
+     */
+    Optional<JournalEntry> getJournalEntry(Integer userId, Integer entryId);
+    
+    /**
+     * Exporta todo el diario entrada a entrada, por fecha (ASC), sin cargarlo en memoria
+     * 
+     * @param userId ID del usuario
+     * @param destino Recibe cada entrada
+     * @return Número de entradas exportadas
+     */
+    long exportJournalEntries(Integer userId, Consumer<JournalEntry> destino);
+    
     /**
      * 🟢 FASE VERDE - Valida que una entrada de texto no esté vacía (T5 HU01)
      * 
@@ -42,4 +75,15 @@ public interface IJournalService {
      * @return true si el texto es válido (no vacío), false si es inválido
      */
     boolean validarEntrada(String texto);
+    
+    /**
+     * Busca en el diario del usuario (texto completo, paginado y ordenado por relevancia)
+     * 
+     * @param userId ID del usuario
+     * @param consulta Texto a buscar; vacío devuelve una página vacía
+     * @param pagina Página, empezando en 1 (menor se trata como 1)
+     * @param tamano Resultados por página (se limita a un máximo)
+     * @return Página de coincidencias con fragmentos resaltados
+     */
+    PaginaBusquedaDiario searchJournalEntries(Integer userId, String consulta, int pagina, int tamano);
 }
@@ -2,8 +2,12 @@ package com.sistema_seguimiento.services;
 
 import com.sistema_seguimiento.dao.IJournalDAO;
 import com.sistema_seguimiento.model.JournalEntry;
+import com.sistema_seguimiento.model.PaginaBusquedaDiario;
+import com.sistema_seguimiento.model.PaginaDiario;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Servicio de Journal - Lógica de negocio (Refactorización 1)
@@ -18,6 +22,13 @@ import java.util.List;
  */
 public class JournalService implements IJournalService {
     
+    public static final int LIMITE_DIARIO = 20;
+    public static final int MAX_LIMITE_DIARIO = 100;
+    public static final int LARGO_EXTRACTO = 300;
+    public static final int TAMANO_BUSQUEDA = 10;
+    public static final int MAX_TAMANO_BUSQUEDA = 50;
+    public static final int MAX_LARGO_CONSULTA = 200;
+    
     private IJournalDAO journalDAO;
     
     /**
@@ -71,6 +82,34 @@ public class JournalService implements IJournalService {
         return journalDAO.getJournalEntriesByUser(userId);
     }
     
+    /**
+     * Página del diario con extractos de LARGO_EXTRACTO caracteres (ver JournalDAO.findJournalPage)
+     * 
+     * @param userId ID del usuario
+     * @param cursor siguienteCursor de la página anterior, o null para la primera
+     * @param limite Entradas por página; null usa LIMITE_DIARIO y se acota a MAX_LIMITE_DIARIO
+     * @return Página con el cursor de la siguiente
+     */
+    @Override
+    public PaginaDiario getJournalPage(Integer userId, String cursor, Integer limite) {
+        int tamano = limite == null ? LIMITE_DIARIO : Math.max(1, Math.min(limite, MAX_LIMITE_DIARIO));
+        String desde = cursor != null && !cursor.isBlank() ? cursor.trim() : null;
+        return journalDAO.findJournalPage(userId, desde, tamano, LARGO_EXTRACTO);
+    }
+    
+    @Override
+    public Optional<JournalEntry> getJournalEntry(Integer userId, Integer entryId) {
+        if (userId == null || entryId == null) {
+            return Optional.empty();
+        }
+        return journalDAO.findJournalEntry(userId, entryId);
+    }
+    
+    @Override
+    public long exportJournalEntries(Integer userId, Consumer<JournalEntry> destino) {
+        return journalDAO.exportJournalEntries(userId, destino);
+    }
+    
     /**
      * 🟢 FASE VERDE - Valida que una entrada no esté vacía (T5 HU01)
      * 
@@ -98,4 +137,28 @@ public class JournalService implements IJournalService {
         // Validación 3: si pasa las validaciones, es válido
         return true;
     }
+    
+    /**
+     * Búsqueda en el diario con parámetros saneados: página mínima 1, tamaño entre 1 y
+     * MAX_TAMANO_BUSQUEDA y consulta recortada a MAX_LARGO_CONSULTA caracteres
+     * 
+     * @param userId ID del usuario
+     * @param consulta Texto a buscar
+     * @param pagina Página solicitada
+     * @param tamano Resultados por página
+     * @return Página de coincidencias (vacía si la consulta no tiene texto)
+     */
+    @Override
+    public PaginaBusquedaDiario searchJournalEntries(Integer userId, String consulta, int pagina, int tamano) {
+        int paginaValida = Math.max(1, pagina);
+        int tamanoValido = Math.max(1, Math.min(tamano, MAX_TAMANO_BUSQUEDA));
+        if (!validarEntrada(consulta)) {
+            return PaginaBusquedaDiario.vacia(paginaValida, tamanoValido);
+        }
+        String recortada = consulta.trim();
+        if (recortada.length() > MAX_LARGO_CONSULTA) {
+            recortada = recortada.substring(0, MAX_LARGO_CONSULTA);
+        }
+        return journalDAO.searchJournalEntries(userId, recortada, paginaValida, tamanoValido);
+    }
 }
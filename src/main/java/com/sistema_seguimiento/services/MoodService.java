@@ -1,9 +1,15 @@
 package com.sistema_seguimiento.services;
 
 import com.sistema_seguimiento.dao.MoodDAO;
+import com.sistema_seguimiento.model.DiaAnimo;
+import com.sistema_seguimiento.model.DistribucionAnimo;
+import com.sistema_seguimiento.model.EstadisticaPeriodo.Granularidad;
 import com.sistema_seguimiento.model.MoodEntry;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Servicio de Estado de Animo - Logica de negocio (TDD Green Phase)
@@ -13,6 +19,8 @@ import java.time.LocalDate;
  * Funcionalidades:
  * - checkDailyMoodRecord(): Verifica si el usuario registro su estado hoy
  * - isUpdateAllowed(): Determina si se permite actualizar una entrada (solo del dia actual)
+ * - obtenerEntradaDeHoy(): Entrada de hoy servida desde una caché por usuario
+ * - obtenerSerie() / obtenerDistribucion(): Historial de estados de ánimo para gráficas
  * 
  * Reglas de negocio:
  * - Enviar notificacion si usuario no ha registrado estado de animo del dia
@@ -23,8 +31,76 @@ import java.time.LocalDate;
  */
 public class MoodService {
 
+    /**
+     * Rango máximo de una serie (dos años): un año entero cabe con margen en una sola llamada
+     */
+    public static final int MAX_DIAS_SERIE = 731;
+
+    /**
+     * Atributo del ServletContext donde AplicacionListener publica la caché de la entrada de hoy:
+     * todos los MoodService de la aplicación la comparten, así guardar desde uno invalida a los demás
+     */
+    public static final String ATRIBUTO_CACHE_HOY = "cacheAnimoHoy";
+
     private final MoodDAO moodDAO;
     private final NotificationService notificationService;
+    // Entrada de hoy por usuario: la vista y el POST la consultan varias veces por petición
+    private CachePorUsuario cacheHoy = new CachePorUsuario();
+
+    public CachePorUsuario getCacheHoy() {
+        return cacheHoy;
+    }
+
+    public void setCacheHoy(CachePorUsuario cacheHoy) {
+        this.cacheHoy = cacheHoy;
+    }
+
+    /**
+     * Entrada de estado de ánimo de hoy del usuario, o null si aún no la registró
+     *
+     * Se guarda en la caché también cuando no hay entrada (clave con la fecha: al cambiar de
+     * día se consulta de nuevo). La entrada es compartida: quien la reciba no debe modificarla.
+     */
+    public MoodEntry obtenerEntradaDeHoy(Integer userId) {
+        validateUserId(userId);
+        Optional<MoodEntry> entrada = cacheHoy.obtener(userId, "animoHoy:" + LocalDate.now(),
+            () -> Optional.ofNullable(moodDAO.getTodayMoodEntry(userId)));
+        return entrada.orElse(null);
+    }
+
+    /**
+     * Descarta la entrada de hoy en caché; se llama tras guardar o actualizar el estado de ánimo
+     */
+    public void invalidarEntradaDeHoy(Integer userId) {
+        cacheHoy.invalidar(userId);
+    }
+
+    /**
+     * Estados de ánimo del usuario día a día entre dos fechas (ambas incluidas)
+     *
+     * @throws IllegalArgumentException si el rango no es válido o supera MAX_DIAS_SERIE
+     */
+    public List<DiaAnimo> obtenerSerie(Integer userId, LocalDate desde, LocalDate hasta) {
+        validarRangoSerie(desde, hasta);
+        return moodDAO.findEntre(userId, desde, hasta);
+    }
+
+    /**
+     * Distribución de estados de ánimo por día, semana o mes entre dos fechas
+     *
+     * @throws IllegalArgumentException si el rango no es válido o supera MAX_DIAS_SERIE
+     */
+    public List<DistribucionAnimo> obtenerDistribucion(Integer userId, LocalDate desde, LocalDate hasta,
+                                                       Granularidad granularidad) {
+        validarRangoSerie(desde, hasta);
+        return moodDAO.distribucion(userId, desde, hasta, granularidad);
+    }
+
+    private void validarRangoSerie(LocalDate desde, LocalDate hasta) {
+        if (desde != null && hasta != null && ChronoUnit.DAYS.between(desde, hasta) >= MAX_DIAS_SERIE) {
+            throw new IllegalArgumentException("El rango no puede superar " + MAX_DIAS_SERIE + " días");
+        }
+    }
     
     /**
      * Verifica si el usuario ha registrado su estado de ánimo hoy
@@ -1,15 +1,18 @@
 package com.sistema_seguimiento.services;
 
+import com.sistema_seguimiento.model.RecordatorioAnimo;
+
 /**
  * Servicio de Notificaciones (TDD Green Phase)
  * Maneja el envio de notificaciones recordatorias con logging
+ * Es también el destino por defecto de TareaRecordatoriosAnimo
  * @author Luis Guerrero
  * @version 1.0 - Nov 2025
  * 
  * @author Sistema Seguimiento Habitos
  * @version 1.0 - Fase Verde TDD
  */
-public class NotificationService {
+public class NotificationService implements DestinoRecordatorios {
     
     /**
      * Envía una notificación recordatoria para registrar el estado de ánimo
@@ -30,4 +33,12 @@ public class NotificationService {
     public String generateReminderMessage(String userName) {
         return "!Hola " + userName + ", no olvides registrar tu ánimo de hoy!";
     }
+
+    /**
+     * Envía un recordatorio de la tarea diaria (mismo canal que sendMoodReminderNotification)
+     */
+    @Override
+    public void enviar(RecordatorioAnimo recordatorio) {
+        sendMoodReminderNotification(recordatorio.getUsuarioId());
+    }
 }
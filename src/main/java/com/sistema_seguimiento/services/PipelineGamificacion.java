@@ -0,0 +1,334 @@
+package com.sistema_seguimiento.services;
+
+import com.sistema_seguimiento.dao.ContextoPersistencia;
+import com.sistema_seguimiento.dao.EventoGamificacionDAO;
+import com.sistema_seguimiento.dao.UserPetDAO;
+import com.sistema_seguimiento.model.EventoGamificacion;
+import com.sistema_seguimiento.model.PetType;
+import com.sistema_seguimiento.model.UserPet;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Pipeline asíncrono de gamificación: los eventos HabitoRegistrado se procesan fuera de la
+ * petición del check-in (puntos y desbloqueo/evolución de mascotas)
+ *
+ * - Outbox: publicar() guarda el evento en evento_gamificacion dentro de la transacción de la
+ *   petición y lo encola cuando esa transacción termina. La cola es solo un aviso; la fuente
+ *   de verdad es la tabla.
+ * - Contrapresión: la cola está acotada y publicar() nunca bloquea la petición. Si la cola
+ *   está llena el evento se queda pendiente en la tabla y lo recoge el barrido periódico
+ *   cuando los hilos trabajadores tienen hueco.
+ * - Al menos una vez: el barrido (también al arrancar) vuelve a encolar los pendientes, así
+ *   que un evento sobrevive a una caída entre el commit y su procesamiento. Los fallos se
+ *   reintentan hasta MAX_INTENTOS.
+ * - Idempotencia: la clave de idempotencia es única en la tabla y los puntos se suman en la
+ *   misma transacción que marca el evento como procesado; un evento repetido no suma nada.
+ *
+ * El contador de hábitos completados y el resumen diario no pasan por aquí: se actualizan en
+ * la transacción del registro, y el desbloqueo de mascotas los lee ya confirmados.
+ */
+public class PipelineGamificacion {
+
+    private static final Logger LOGGER = Logger.getLogger(PipelineGamificacion.class.getName());
+
+    /**
+     * Atributo del ServletContext donde AplicacionListener publica el pipeline
+     */
+    public static final String ATRIBUTO_CONTEXTO = "pipelineGamificacion";
+
+    /**
+     * Procesamientos fallidos tras los que un evento deja de reintentarse (queda en la tabla
+     * con su último error para revisarlo a mano)
+     */
+    public static final int MAX_INTENTOS = 5;
+
+    private static final long ESPERA_COLA_MILLIS = 200;
+    private static final int CANDADOS_USUARIO = 64;
+
+    private final EventoGamificacionDAO eventoDAO;
+    private final UserPetDAO userPetDAO;
+    private PetUnlockService petUnlockService = new PetUnlockService();
+    private final int hilos;
+    private final long intervaloBarridoMillis;
+
+    private final BlockingQueue<Long> cola;
+    private final Set<Long> encolados = ConcurrentHashMap.newKeySet();
+    private final Object[] candadosUsuario = new Object[CANDADOS_USUARIO];
+
+    private final AtomicLong publicados = new AtomicLong();
+    private final AtomicLong procesados = new AtomicLong();
+    private final AtomicLong duplicados = new AtomicLong();
+    private final AtomicLong fallidos = new AtomicLong();
+    private final AtomicLong desbordados = new AtomicLong();
+    private final AtomicLong mascotasDesbloqueadas = new AtomicLong();
+
+    private volatile boolean activo;
+    private ExecutorService trabajadores;
+    private ScheduledExecutorService barrido;
+
+    /**
+     * @param eventoDAO DAO de la tabla outbox
+     * @param userPetDAO DAO de mascotas para evaluar el desbloqueo tras cada evento
+     * @param capacidadCola Eventos encolados como máximo; el resto espera en la tabla
+     * @param hilos Hilos trabajadores
+     * @param intervaloBarridoMillis Cada cuánto se vuelven a encolar los eventos pendientes
+     */
+    public PipelineGamificacion(EventoGamificacionDAO eventoDAO, UserPetDAO userPetDAO,
+                                int capacidadCola, int hilos, long intervaloBarridoMillis) {
+        if (eventoDAO == null || userPetDAO == null) {
+            throw new IllegalArgumentException("eventoDAO y userPetDAO son obligatorios");
+        }
+        if (capacidadCola <= 0 || hilos <= 0 || intervaloBarridoMillis <= 0) {
+            throw new IllegalArgumentException("La capacidad, los hilos y el intervalo deben ser positivos");
+        }
+        this.eventoDAO = eventoDAO;
+        this.userPetDAO = userPetDAO;
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        this.hilos = hilos;
+        this.intervaloBarridoMillis = intervaloBarridoMillis;
+        for (int i = 0; i < CANDADOS_USUARIO; i++) {
+            candadosUsuario[i] = new Object();
+        }
+    }
+
+    public void setPetUnlockService(PetUnlockService petUnlockService) {
+        this.petUnlockService = petUnlockService;
+    }
+
+    /**
+     * Arranca los hilos trabajadores y el barrido periódico; el primer barrido es inmediato y
+     * recupera los eventos que quedaron pendientes en la ejecución anterior
+     */
+    public synchronized void iniciar() {
+        if (activo) {
+            return;
+        }
+        activo = true;
+        AtomicInteger numero = new AtomicInteger();
+        trabajadores = Executors.newFixedThreadPool(hilos, r -> {
+            Thread hilo = new Thread(r, "gamificacion-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        for (int i = 0; i < hilos; i++) {
+            trabajadores.execute(this::consumir);
+        }
+        barrido = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "gamificacion-barrido");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        barrido.scheduleWithFixedDelay(this::barrerSinExcepciones, 0, intervaloBarridoMillis, TimeUnit.MILLISECONDS);
+        LOGGER.info(String.format("[GAMIFICACION] Pipeline iniciado: hilos=%d, capacidad=%d, barrido=%dms",
+                hilos, cola.remainingCapacity(), intervaloBarridoMillis));
+    }
+
+    /**
+     * Detiene el barrido y los trabajadores tras el evento que estén procesando. Lo que quede
+     * en la cola sigue pendiente en la tabla y se procesa en el siguiente arranque.
+     */
+    public synchronized void detener() {
+        if (!activo) {
+            return;
+        }
+        activo = false;
+        barrido.shutdownNow();
+        trabajadores.shutdown();
+        try {
+            if (!trabajadores.awaitTermination(ESPERA_COLA_MILLIS + 5000, TimeUnit.MILLISECONDS)) {
+                trabajadores.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        cola.clear();
+        encolados.clear();
+        LOGGER.info(String.format("[GAMIFICACION] Pipeline detenido: procesados=%d, duplicados=%d, fallidos=%d, desbordados=%d",
+                procesados.get(), duplicados.get(), fallidos.get(), desbordados.get()));
+    }
+
+    /**
+     * Publica un HabitoRegistrado: lo guarda en la tabla outbox (en la transacción de la
+     * petición si la hay) y lo encola cuando esa transacción termine
+     *
+     * @param claveIdempotencia Identifica el registro que origina el evento; una clave ya
+     *                          publicada no genera otro evento
+     * @return El evento guardado, o el que ya existía con esa clave
+     */
+    public EventoGamificacion publicar(String claveIdempotencia, Integer usuarioId, Integer habitoId,
+                                       LocalDate fecha, String estado, int puntos) {
+        if (claveIdempotencia == null || claveIdempotencia.isBlank() || usuarioId == null) {
+            throw new IllegalArgumentException("claveIdempotencia y usuarioId son obligatorios");
+        }
+        EventoGamificacion evento = eventoDAO.guardar(
+            EventoGamificacion.habitoRegistrado(claveIdempotencia, usuarioId, habitoId, fecha, estado, puntos));
+        publicados.incrementAndGet();
+        if (!evento.isProcesado()) {
+            Long id = evento.getId();
+            // Tras el commit: encolar antes dejaría a un trabajador buscar un evento aún invisible
+            ContextoPersistencia.alTerminar(() -> encolar(id));
+        }
+        return evento;
+    }
+
+    /**
+     * Encola los eventos pendientes de la tabla que caben en la cola
+     *
+     * @return Eventos encolados
+     */
+    public int barrer() {
+        int hueco = cola.remainingCapacity();
+        if (hueco == 0) {
+            return 0;
+        }
+        int encoladosAhora = 0;
+        List<Long> pendientes = eventoDAO.findPendientes(MAX_INTENTOS, hueco);
+        for (Long id : pendientes) {
+            if (encolar(id)) {
+                encoladosAhora++;
+            }
+        }
+        if (encoladosAhora > 0) {
+            LOGGER.fine(String.format("[GAMIFICACION] Barrido: %d eventos pendientes encolados", encoladosAhora));
+        }
+        return encoladosAhora;
+    }
+
+    /**
+     * Procesa un evento: puntos y marca de procesado en una transacción, después la mascota
+     *
+     * @return true si el evento se procesó ahora; false si no existía, ya estaba procesado o falló
+     */
+    public boolean procesarEvento(Long id) {
+        Optional<EventoGamificacion> procesado;
+        try {
+            procesado = eventoDAO.procesar(id);
+        } catch (RuntimeException e) {
+            fallidos.incrementAndGet();
+            String causa = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            eventoDAO.registrarFallo(id, causa);
+            LOGGER.warning(String.format("[GAMIFICACION] Error al procesar evento %d, se reintentará: %s", id, causa));
+            return false;
+        }
+        if (procesado.isEmpty()) {
+            duplicados.incrementAndGet();
+            return false;
+        }
+        evaluarMascota(procesado.get().getUsuarioId());
+        procesados.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Desbloquea o evoluciona la mascota si el usuario alcanzó un hito (mismas reglas que la
+     * comprobación de ControladorMascotas). Los eventos de un mismo usuario se evalúan de uno
+     * en uno para no crear dos mascotas activas; un fallo aquí no afecta a los puntos y se
+     * corrige con el siguiente evento o al abrir la página de mascotas.
+     */
+    private void evaluarMascota(Integer usuarioId) {
+        synchronized (candadosUsuario[Math.floorMod(usuarioId, CANDADOS_USUARIO)]) {
+            try {
+                long total = userPetDAO.countCompletedHabits(usuarioId);
+                PetType tipo = petUnlockService.checkEvolution(usuarioId.longValue(), (int) total);
+                if (tipo == null) {
+                    return;
+                }
+                Optional<UserPet> activa = userPetDAO.findActiveUserPet(usuarioId);
+                if (activa.isEmpty() || activa.get().getState() != tipo) {
+                    userPetDAO.createUserPet(usuarioId, tipo);
+                    mascotasDesbloqueadas.incrementAndGet();
+                    LOGGER.info(String.format("[GAMIFICACION] Mascota %s desbloqueada para usuario %d", tipo, usuarioId));
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warning(String.format("[GAMIFICACION] Error al evaluar la mascota de usuario %d: %s",
+                        usuarioId, e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Encola un evento si no está ya en la cola y hay hueco; si no hay hueco queda pendiente
+     * en la tabla para el siguiente barrido
+     */
+    private boolean encolar(Long id) {
+        if (id == null || !encolados.add(id)) {
+            return false;
+        }
+        if (cola.offer(id)) {
+            return true;
+        }
+        encolados.remove(id);
+        desbordados.incrementAndGet();
+        return false;
+    }
+
+    private void consumir() {
+        while (activo) {
+            Long id;
+            try {
+                id = cola.poll(ESPERA_COLA_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (id == null) {
+                continue;
+            }
+            try {
+                procesarEvento(id);
+            } finally {
+                encolados.remove(id);
+            }
+        }
+    }
+
+    private void barrerSinExcepciones() {
+        try {
+            barrer();
+        } catch (RuntimeException e) {
+            LOGGER.warning(String.format("[GAMIFICACION] Error en el barrido de pendientes: %s", e.getMessage()));
+        }
+    }
+
+    public int getTamanoCola() {
+        return cola.size();
+    }
+
+    public long getPublicados() {
+        return publicados.get();
+    }
+
+    public long getProcesados() {
+        return procesados.get();
+    }
+
+    public long getDuplicados() {
+        return duplicados.get();
+    }
+
+    public long getFallidos() {
+        return fallidos.get();
+    }
+
+    public long getDesbordados() {
+        return desbordados.get();
+    }
+
+    public long getMascotasDesbloqueadas() {
+        return mascotasDesbloqueadas.get();
+    }
+}
@@ -1,5 +1,6 @@
 package com.sistema_seguimiento.services;
 
+import com.sistema_seguimiento.dao.ContextoPersistencia;
 import com.sistema_seguimiento.dao.UsuarioDAOJPA;
 import java.util.logging.Logger;
 
@@ -16,11 +17,31 @@ public class PointsService {
     private static final int PUNTOS_NO_CUMPLIDO = 0;
     
     private UsuarioDAOJPA usuarioDAO;
+    private AcumuladorPuntos acumuladorPuntos;
     
     public PointsService() {
         this.usuarioDAO = new UsuarioDAOJPA();
     }
     
+    /**
+     * Setters para inyección de dependencias
+     */
+    public void setUsuarioDAO(UsuarioDAOJPA usuarioDAO) {
+        this.usuarioDAO = usuarioDAO;
+    }
+    
+    /**
+     * Activa la escritura diferida: los puntos se acumulan en memoria y se escriben en lote.
+     * Con null se vuelve a escribir cada suma directamente en la BD.
+     *
+     * Con un contexto de persistencia abierto los puntos solo se acumulan si la transacción de
+     * la petición se confirma (ContextoPersistencia.trasConfirmar): el acumulador escribe fuera
+     * de ella y no se enteraría de un rollback.
+     */
+    public void setAcumuladorPuntos(AcumuladorPuntos acumuladorPuntos) {
+        this.acumuladorPuntos = acumuladorPuntos;
+    }
+    
     /**
      * 🟢 Calcula los puntos según el estado del hábito (CÓDIGO MÍNIMO)
      * 
@@ -86,6 +107,15 @@ public class PointsService {
     private void updateUserPoints(Integer usuarioId, int puntos) {
         if (puntos <= 0) return;
         
+        if (acumuladorPuntos != null) {
+            AcumuladorPuntos acumulador = acumuladorPuntos;
+            ContextoPersistencia.trasConfirmar(() -> {
+                acumulador.agregar(usuarioId, puntos);
+                LOGGER.fine("+" + puntos + " puntos pendientes para usuario " + usuarioId);
+            });
+            return;
+        }
+        
         boolean resultado = usuarioDAO.addPoints(usuarioId, puntos);
         if (resultado) {
             LOGGER.info("+" + puntos + " puntos a usuario " + usuarioId);
@@ -0,0 +1,431 @@
+package com.sistema_seguimiento.services;
+
+import com.sistema_seguimiento.dao.PomodoroDAO;
+import com.sistema_seguimiento.model.Pomodoro;
+import com.sistema_seguimiento.model.Pomodoro.EstadoPomodoro;
+import com.sistema_seguimiento.model.ResumenPomodoro;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Temporizadores Pomodoro con el servidor como referencia de tiempo
+ *
+ * Las sesiones activas viven en un registro en memoria por usuario (ConcurrentHashMap) y no
+ * hay ticks: cada sesión guarda el instante monótono (System.nanoTime) en que empezó su fase,
+ * y el tiempo restante se calcula al consultarla. Si la fase ya terminó, se avanza la máquina
+ * de estados de Pomodoro (pasarTiempo → realizarTransicion) tantas fases como hayan pasado.
+ * Cada sesión ocupa memoria constante (una entidad desacoplada y unos pocos campos).
+ *
+ * Solo se persisten los cambios de estado (inicio, cambio de fase, pausa, reanudación, fin) y
+ * en modo write-behind: las sesiones modificadas se marcan y un hilo daemon las escribe en
+ * lote cada intervalo, una fila por sesión con su último estado. Si el proceso muere sin
+ * pasar por detener() se pierden como mucho los cambios del último intervalo; el temporizador
+ * en sí no se puede recuperar (el reloj monótono no sobrevive a un reinicio).
+ *
+ * Las sesiones sin consultas durante la inactividad máxima se terminan en el mismo barrido.
+ */
+public class PomodoroServicio {
+
+    private static final Logger LOGGER = Logger.getLogger(PomodoroServicio.class.getName());
+
+    /**
+     * Atributo del ServletContext donde AplicacionListener publica el servicio
+     */
+    public static final String ATRIBUTO_CONTEXTO = "pomodoroServicio";
+
+    private final PomodoroDAO pomodoroDAO;
+    private final long intervaloMillis;
+    private final long inactividadMaximaNanos;
+    private final LongSupplier reloj;
+
+    private final ConcurrentHashMap<Integer, Sesion> sesiones = new ConcurrentHashMap<>();
+    private final Set<Sesion> pendientes = ConcurrentHashMap.newKeySet();
+    private final Object bloqueoVaciado = new Object();
+
+    private final AtomicLong transiciones = new AtomicLong();
+    private final AtomicLong vaciados = new AtomicLong();
+    private final AtomicLong filasEscritas = new AtomicLong();
+    private final AtomicLong erroresVaciado = new AtomicLong();
+
+    private volatile ScheduledExecutorService programador;
+
+    /**
+     * @param pomodoroDAO DAO con el que se escriben los lotes
+     * @param intervaloMillis Tiempo máximo que un cambio de estado permanece solo en memoria
+     * @param inactividadMaxima Tiempo sin consultas tras el que una sesión se termina
+     */
+    public PomodoroServicio(PomodoroDAO pomodoroDAO, long intervaloMillis, Duration inactividadMaxima) {
+        this(pomodoroDAO, intervaloMillis, inactividadMaxima, System::nanoTime);
+    }
+
+    /**
+     * Constructor con reloj monótono explícito (tests)
+     */
+    PomodoroServicio(PomodoroDAO pomodoroDAO, long intervaloMillis, Duration inactividadMaxima, LongSupplier reloj) {
+        if (pomodoroDAO == null) {
+            throw new IllegalArgumentException("pomodoroDAO es obligatorio");
+        }
+        if (intervaloMillis <= 0 || inactividadMaxima == null || inactividadMaxima.isNegative() || inactividadMaxima.isZero()) {
+            throw new IllegalArgumentException("El intervalo y la inactividad máxima deben ser positivos");
+        }
+        this.pomodoroDAO = pomodoroDAO;
+        this.intervaloMillis = intervaloMillis;
+        this.inactividadMaximaNanos = inactividadMaxima.toNanos();
+        this.reloj = reloj;
+    }
+
+    /**
+     * Arranca el barrido periódico (sesiones inactivas y escritura en lote) en un hilo daemon
+     */
+    public synchronized void iniciar() {
+        if (programador != null) {
+            return;
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "pomodoro-write-behind");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(this::barrerSinExcepciones,
+                intervaloMillis, intervaloMillis, TimeUnit.MILLISECONDS);
+        LOGGER.info(String.format("[POMODORO] Servicio iniciado: intervalo=%dms, inactividad=%ds",
+                intervaloMillis, TimeUnit.NANOSECONDS.toSeconds(inactividadMaximaNanos)));
+    }
+
+    /**
+     * Detiene el barrido y escribe los cambios pendientes; las sesiones activas quedan en la
+     * BD con su último estado
+     */
+    public synchronized void detener() {
+        ScheduledExecutorService actual = programador;
+        programador = null;
+        if (actual != null) {
+            actual.shutdown();
+            try {
+                actual.awaitTermination(intervaloMillis + 5000, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        vaciar();
+        LOGGER.info(String.format("[POMODORO] Servicio detenido: sesiones=%d, transiciones=%d, filasEscritas=%d, errores=%d",
+                sesiones.size(), transiciones.get(), filasEscritas.get(), erroresVaciado.get()));
+    }
+
+    /**
+     * Empieza una sesión (fase de trabajo) o devuelve la que el usuario ya tiene en curso
+     */
+    public ResumenPomodoro iniciarSesion(Integer usuarioId) {
+        if (usuarioId == null) {
+            throw new IllegalArgumentException("usuarioId es obligatorio");
+        }
+        while (true) {
+            long ahora = reloj.getAsLong();
+            Sesion sesion = sesiones.computeIfAbsent(usuarioId, id -> {
+                Sesion nueva = new Sesion(id, ahora);
+                pendientes.add(nueva);
+                return nueva;
+            });
+            synchronized (sesion) {
+                if (sesion.terminada) {
+                    // Terminada entre medias: ya no está en el registro, se crea otra
+                    continue;
+                }
+                sesion.ultimoAccesoNanos = ahora;
+                avanzar(sesion, ahora);
+                return resumen(sesion, ahora);
+            }
+        }
+    }
+
+    /**
+     * Estado actual de la sesión del usuario, avanzando las fases que hayan terminado
+     */
+    public Optional<ResumenPomodoro> consultar(Integer usuarioId) {
+        return operar(usuarioId, (sesion, ahora) -> {
+        });
+    }
+
+    /**
+     * Pausa la fase en curso conservando su tiempo restante
+     */
+    public Optional<ResumenPomodoro> pausar(Integer usuarioId) {
+        return operar(usuarioId, (sesion, ahora) -> {
+            Pomodoro pomodoro = sesion.pomodoro;
+            if (!pomodoro.estaActivo()) {
+                return;
+            }
+            sesion.restantePausaNanos = duracionFase(pomodoro) - (ahora - sesion.inicioFaseNanos);
+            sesion.faseEnPausa = pomodoro.getEstadoActual();
+            pomodoro.pausar();
+            pendientes.add(sesion);
+        });
+    }
+
+    /**
+     * Reanuda la fase pausada desde donde se quedó
+     */
+    public Optional<ResumenPomodoro> reanudar(Integer usuarioId) {
+        return operar(usuarioId, (sesion, ahora) -> {
+            Pomodoro pomodoro = sesion.pomodoro;
+            if (pomodoro.getEstadoActual() != EstadoPomodoro.PAUSADO) {
+                return;
+            }
+            // Pomodoro.reanudar() siempre vuelve a TRABAJO: se restaura la fase pausada
+            pomodoro.setEstadoActual(sesion.faseEnPausa);
+            sesion.inicioFaseNanos = ahora - (duracionFase(pomodoro) - sesion.restantePausaNanos);
+            sesion.faseEnPausa = null;
+            pendientes.add(sesion);
+        });
+    }
+
+    /**
+     * Termina la sesión y la saca del registro
+     *
+     * @return Estado final, o vacío si el usuario no tenía sesión
+     */
+    public Optional<ResumenPomodoro> terminar(Integer usuarioId) {
+        Sesion sesion = usuarioId != null ? sesiones.get(usuarioId) : null;
+        if (sesion == null) {
+            return Optional.empty();
+        }
+        long ahora = reloj.getAsLong();
+        synchronized (sesion) {
+            if (sesion.terminada) {
+                return Optional.empty();
+            }
+            avanzar(sesion, ahora);
+            terminarBloqueada(sesion);
+            return Optional.of(resumen(sesion, ahora));
+        }
+    }
+
+    /**
+     * Escribe en un solo lote el último estado de las sesiones modificadas
+     *
+     * @return Sesiones escritas
+     */
+    public int vaciar() {
+        synchronized (bloqueoVaciado) {
+            List<Sesion> lote = new ArrayList<>(pendientes.size());
+            List<Pomodoro> filas = new ArrayList<>(pendientes.size());
+            long ahora = reloj.getAsLong();
+            for (Sesion sesion : pendientes) {
+                pendientes.remove(sesion);
+                synchronized (sesion) {
+                    lote.add(sesion);
+                    filas.add(copiaParaGuardar(sesion, ahora));
+                }
+            }
+            if (lote.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                List<Integer> ids = pomodoroDAO.guardarLote(filas);
+                for (int i = 0; i < lote.size(); i++) {
+                    lote.get(i).id = ids.get(i);
+                }
+                vaciados.incrementAndGet();
+                filasEscritas.addAndGet(lote.size());
+                return lote.size();
+            } catch (RuntimeException e) {
+                erroresVaciado.incrementAndGet();
+                pendientes.addAll(lote);
+                LOGGER.warning(String.format("[POMODORO] Error al escribir %d sesiones, se reintentará: %s",
+                        lote.size(), e.getMessage()));
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Termina las sesiones sin consultas durante la inactividad máxima
+     *
+     * @return Sesiones terminadas
+     */
+    public int terminarInactivas() {
+        long ahora = reloj.getAsLong();
+        int terminadas = 0;
+        for (Sesion sesion : sesiones.values()) {
+            synchronized (sesion) {
+                if (!sesion.terminada && ahora - sesion.ultimoAccesoNanos > inactividadMaximaNanos) {
+                    avanzar(sesion, ahora);
+                    terminarBloqueada(sesion);
+                    terminadas++;
+                }
+            }
+        }
+        if (terminadas > 0) {
+            LOGGER.info(String.format("[POMODORO] %d sesiones inactivas terminadas", terminadas));
+        }
+        return terminadas;
+    }
+
+    public int getSesionesActivas() {
+        return sesiones.size();
+    }
+
+    public int getPendientes() {
+        return pendientes.size();
+    }
+
+    public long getTransiciones() {
+        return transiciones.get();
+    }
+
+    public long getVaciados() {
+        return vaciados.get();
+    }
+
+    public long getFilasEscritas() {
+        return filasEscritas.get();
+    }
+
+    public long getErroresVaciado() {
+        return erroresVaciado.get();
+    }
+
+    private interface Operacion {
+        void aplicar(Sesion sesion, long ahora);
+    }
+
+    private Optional<ResumenPomodoro> operar(Integer usuarioId, Operacion operacion) {
+        Sesion sesion = usuarioId != null ? sesiones.get(usuarioId) : null;
+        if (sesion == null) {
+            return Optional.empty();
+        }
+        long ahora = reloj.getAsLong();
+        synchronized (sesion) {
+            if (sesion.terminada) {
+                return Optional.empty();
+            }
+            sesion.ultimoAccesoNanos = ahora;
+            avanzar(sesion, ahora);
+            operacion.aplicar(sesion, ahora);
+            return Optional.of(resumen(sesion, ahora));
+        }
+    }
+
+    /**
+     * Pasa las fases que ya han terminado; cada una empieza justo donde acabó la anterior
+     */
+    private void avanzar(Sesion sesion, long ahora) {
+        Pomodoro pomodoro = sesion.pomodoro;
+        if (!pomodoro.estaActivo()) {
+            return;
+        }
+        long duracion = duracionFase(pomodoro);
+        while (ahora - sesion.inicioFaseNanos >= duracion) {
+            sesion.inicioFaseNanos += duracion;
+            pomodoro.pasarTiempo(pomodoro.getTiempoRestanteMinutos());
+            transiciones.incrementAndGet();
+            pendientes.add(sesion);
+            duracion = duracionFase(pomodoro);
+        }
+    }
+
+    private void terminarBloqueada(Sesion sesion) {
+        if (sesion.pomodoro.getEstadoActual() == EstadoPomodoro.PAUSADO) {
+            sesion.pomodoro.setEstadoActual(sesion.faseEnPausa);
+        }
+        sesion.restantePausaNanos = 0;
+        sesion.pomodoro.completar();
+        sesion.terminada = true;
+        sesiones.remove(sesion.usuarioId, sesion);
+        pendientes.add(sesion);
+    }
+
+    private void barrerSinExcepciones() {
+        try {
+            terminarInactivas();
+            vaciar();
+        } catch (RuntimeException e) {
+            // Ya registrado; los cambios siguen pendientes
+        }
+    }
+
+    /**
+     * Duración de la fase en curso: los minutos restantes del Pomodoro solo cambian al pasar
+     * de fase, así que equivalen a la duración completa de la fase
+     */
+    private static long duracionFase(Pomodoro pomodoro) {
+        return TimeUnit.MINUTES.toNanos(pomodoro.getTiempoRestanteMinutos());
+    }
+
+    private static long restanteNanos(Sesion sesion, long ahora) {
+        switch (sesion.pomodoro.getEstadoActual()) {
+            case PAUSADO:
+                return sesion.restantePausaNanos;
+            case COMPLETADO:
+                return 0;
+            default:
+                return Math.max(duracionFase(sesion.pomodoro) - (ahora - sesion.inicioFaseNanos), 0);
+        }
+    }
+
+    private static ResumenPomodoro resumen(Sesion sesion, long ahora) {
+        Pomodoro pomodoro = sesion.pomodoro;
+        EstadoPomodoro estado = pomodoro.getEstadoActual();
+        EstadoPomodoro fase = estado == EstadoPomodoro.PAUSADO ? sesion.faseEnPausa : estado;
+        long restante = restanteNanos(sesion, ahora);
+        long duracion = duracionFase(pomodoro);
+        int porcentaje = estado == EstadoPomodoro.COMPLETADO || duracion == 0
+                ? 0
+                : (int) ((duracion - restante) * 100 / duracion);
+        return new ResumenPomodoro(sesion.usuarioId, estado, fase,
+                TimeUnit.NANOSECONDS.toSeconds(restante), pomodoro.getPomodorosCompletados(), porcentaje);
+    }
+
+    /**
+     * Copia desacoplada del estado de la sesión: el lote se escribe fuera del bloqueo de la
+     * sesión sin que las peticiones modifiquen la entidad mientras tanto
+     */
+    private static Pomodoro copiaParaGuardar(Sesion sesion, long ahora) {
+        Pomodoro pomodoro = sesion.pomodoro;
+        long restanteSegundos = TimeUnit.NANOSECONDS.toSeconds(restanteNanos(sesion, ahora));
+
+        Pomodoro copia = new Pomodoro(String.valueOf(sesion.usuarioId));
+        copia.setId(sesion.id);
+        copia.setEstadoActual(pomodoro.getEstadoActual());
+        copia.setTiempoRestanteMinutos((int) ((restanteSegundos + 59) / 60));
+        copia.setTiempoRestanteSegundos((int) restanteSegundos);
+        copia.setPomodorosCompletados(pomodoro.getPomodorosCompletados());
+        copia.setInicioSesion(pomodoro.getInicioSesion());
+        copia.setUltimaActualizacion(pomodoro.getUltimaActualizacion());
+        return copia;
+    }
+
+    /**
+     * Temporizador de un usuario; sus campos se leen y modifican con la sesión bloqueada
+     */
+    private static final class Sesion {
+        private final Integer usuarioId;
+        private final Pomodoro pomodoro;
+        private long inicioFaseNanos;
+        private long restantePausaNanos;
+        private EstadoPomodoro faseEnPausa;
+        private long ultimoAccesoNanos;
+        private boolean terminada;
+        // Lo asigna el hilo de vaciado tras el primer INSERT
+        private volatile Integer id;
+
+        private Sesion(Integer usuarioId, long ahora) {
+            this.usuarioId = usuarioId;
+            this.pomodoro = new Pomodoro(String.valueOf(usuarioId));
+            this.inicioFaseNanos = ahora;
+            this.ultimoAccesoNanos = ahora;
+        }
+    }
+}
@@ -2,36 +2,61 @@ package com.sistema_seguimiento.services;
 
 import com.sistema_seguimiento.dao.QuoteDAO;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Servicio para proporcionar frases diarias motivacionales
  * Implementado siguiendo TDD - Fase VERDE
- * Soporta inyeccion de dependencias mediante QuoteDAO
+ * Soporta inyeccion de dependencias mediante QuoteDAO o un CatalogoFrases compartido
  */
 public class QuoteService {
     
-    private List<String> quotes;
-    private QuoteDAO quoteDAO;
+    /**
+     * Frases por defecto (sin fuente externa, o hasta que el catálogo se carga)
+     */
+    static final List<String> FRASES_POR_DEFECTO = List.of(
+        "El éxito es la suma de pequeños esfuerzos repetidos día tras día.",
+        "No cuentes los días, haz que los días cuenten.",
+        "La disciplina es el puente entre las metas y los logros.",
+        "Cada día es una nueva oportunidad para mejorar.",
+        "Los hábitos son la base del éxito a largo plazo.",
+        "La constancia es la clave del progreso.",
+        "Hoy es el día perfecto para comenzar.",
+        "Pequeños pasos cada día llevan a grandes cambios.",
+        "Tu futuro se crea con lo que haces hoy, no mañana.",
+        "La motivación te inicia, el hábito te mantiene.",
+        "Cree en ti mismo y todo será posible.",
+        "El único modo de hacer un gran trabajo es amar lo que haces.",
+        "No esperes el momento perfecto, toma el momento y hazlo perfecto.",
+        "El éxito no es el final, el fracaso no es fatal: es el coraje para continuar lo que cuenta.",
+        "Tu única limitación es la que te impones a ti mismo."
+    );
+    
+    private final CatalogoFrases catalogo;
     
     /**
      * Constructor sin parametros - Usa frases hardcodeadas
      * Mantiene compatibilidad con codigo existente
      */
     public QuoteService() {
-        this.quotes = new ArrayList<>();
-        this.quoteDAO = null;
-        initializeQuotes();
+        this.catalogo = new CatalogoFrases(() -> FRASES_POR_DEFECTO);
     }
     
     /**
      * Constructor con inyeccion de dependencias
-     * @param quoteDAO DAO para obtener las frases desde una fuente externa
+     * @param quoteDAO DAO para obtener las frases desde una fuente externa (se leen una vez)
      */
     public QuoteService(QuoteDAO quoteDAO) {
-        this.quoteDAO = quoteDAO;
-        this.quotes = quoteDAO.getQuotes();
+        this.catalogo = new CatalogoFrases(quoteDAO);
+        this.catalogo.recargar();
+    }
+    
+    /**
+     * Constructor con el catálogo compartido de la aplicación (ver AplicacionListener)
+     * @param catalogo Catálogo ya cargado; sus recargas se ven sin recrear el servicio
+     */
+    public QuoteService(CatalogoFrases catalogo) {
+        this.catalogo = catalogo;
     }
     
     /**
@@ -51,28 +76,13 @@ public class QuoteService {
      * @return Una frase motivacional correspondiente al día
      */
     public String getDailyQuoteForDay(int dayOfYear) {
-        int quoteIndex = dayOfYear % quotes.size();
-        return quotes.get(quoteIndex);
+        return catalogo.frase(dayOfYear);
     }
     
     /**
-     * Inicializa la lista de frases motivacionales
+     * Número de frases del catálogo vigente
      */
-    private void initializeQuotes() {
-        quotes.add("El éxito es la suma de pequeños esfuerzos repetidos día tras día.");
-        quotes.add("No cuentes los días, haz que los días cuenten.");
-        quotes.add("La disciplina es el puente entre las metas y los logros.");
-        quotes.add("Cada día es una nueva oportunidad para mejorar.");
-        quotes.add("Los hábitos son la base del éxito a largo plazo.");
-        quotes.add("La constancia es la clave del progreso.");
-        quotes.add("Hoy es el día perfecto para comenzar.");
-        quotes.add("Pequeños pasos cada día llevan a grandes cambios.");
-        quotes.add("Tu futuro se crea con lo que haces hoy, no mañana.");
-        quotes.add("La motivación te inicia, el hábito te mantiene.");
-        quotes.add("Cree en ti mismo y todo será posible.");
-        quotes.add("El único modo de hacer un gran trabajo es amar lo que haces.");
-        quotes.add("No esperes el momento perfecto, toma el momento y hazlo perfecto.");
-        quotes.add("El éxito no es el final, el fracaso no es fatal: es el coraje para continuar lo que cuenta.");
-        quotes.add("Tu única limitación es la que te impones a ti mismo.");
+    public int getTotalQuotes() {
+        return catalogo.getTotal();
     }
 }
@@ -0,0 +1,268 @@
+package com.sistema_seguimiento.services;
+
+import com.sistema_seguimiento.dao.EjecucionRecordatorioDAO;
+import com.sistema_seguimiento.dao.MoodDAO;
+import com.sistema_seguimiento.model.EjecucionRecordatorio;
+import com.sistema_seguimiento.model.RecordatorioAnimo;
+import com.sistema_seguimiento.model.ResultadoRecordatorios;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Tarea programada que recuerda registrar el estado de ánimo a todos los usuarios sin entrada del día
+ *
+ * - Una consulta por página: MoodDAO.findUsuariosSinEntrada (anti-join) recorre los usuarios
+ *   por id en páginas de tamanoPagina, sin cargar la lista completa ni consultar usuario a usuario.
+ * - Cada página se reparte entre un número fijo de hilos trabajadores; la siguiente página no
+ *   se pide hasta despachar la actual, así que como mucho hay una página en vuelo.
+ * - Límite de envíos por segundo común a todos los trabajadores (espaciado uniforme).
+ * - Punto de control por día (EjecucionRecordatorio) tras cada página: si la ejecución se
+ *   corta, la siguiente retoma tras el último usuario despachado. Los de la página cortada
+ *   pueden recibir el recordatorio dos veces (al menos una vez); un día terminado no se repite.
+ * - Los usuarios cuyo envío falla quedan pendientes en el punto de control y se reintentan al
+ *   principio de la siguiente ejecución (el siguiente intervalo). El día no se da por terminado
+ *   mientras queden pendientes; al cambiar de día los que sigan fallando se abandonan.
+ *
+ * iniciar() comprueba cada intervalo si ya pasó la hora del recordatorio y ejecuta el día si
+ * no está terminado (también tras un reinicio a media ejecución).
+ */
+public class TareaRecordatoriosAnimo {
+
+    private static final Logger LOGGER = Logger.getLogger(TareaRecordatoriosAnimo.class.getName());
+
+    /**
+     * Atributo del ServletContext donde AplicacionListener publica la tarea
+     */
+    public static final String ATRIBUTO_CONTEXTO = "tareaRecordatoriosAnimo";
+
+    private final MoodDAO moodDAO;
+    private final EjecucionRecordatorioDAO ejecucionDAO;
+    private final DestinoRecordatorios destino;
+    private final int hilos;
+    private final int tamanoPagina;
+    private final long intervaloEnvioNanos;
+    private NotificationService notificationService = new NotificationService();
+
+    private final Object candadoTasa = new Object();
+    private long siguienteEnvioNanos;
+
+    private volatile boolean activo;
+    private ScheduledExecutorService programador;
+
+    /**
+     * @param destino Dónde se entregan los recordatorios
+     * @param hilos Hilos trabajadores por ejecución
+     * @param tamanoPagina Usuarios por consulta y por punto de control
+     * @param maxPorSegundo Envíos por segundo como máximo (0 = sin límite)
+     */
+    public TareaRecordatoriosAnimo(MoodDAO moodDAO, EjecucionRecordatorioDAO ejecucionDAO, DestinoRecordatorios destino,
+                                   int hilos, int tamanoPagina, int maxPorSegundo) {
+        if (moodDAO == null || ejecucionDAO == null || destino == null) {
+            throw new IllegalArgumentException("moodDAO, ejecucionDAO y destino son obligatorios");
+        }
+        if (hilos <= 0 || tamanoPagina <= 0 || maxPorSegundo < 0) {
+            throw new IllegalArgumentException("Los hilos y el tamaño de página deben ser positivos y maxPorSegundo no negativo");
+        }
+        this.moodDAO = moodDAO;
+        this.ejecucionDAO = ejecucionDAO;
+        this.destino = destino;
+        this.hilos = hilos;
+        this.tamanoPagina = tamanoPagina;
+        this.intervaloEnvioNanos = maxPorSegundo > 0 ? TimeUnit.SECONDS.toNanos(1) / maxPorSegundo : 0;
+        this.siguienteEnvioNanos = System.nanoTime();
+    }
+
+    public void setNotificationService(NotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    /**
+     * Arranca la comprobación periódica: a partir de la hora indicada ejecuta el día en curso
+     */
+    public synchronized void iniciar(LocalTime hora, long intervaloMillis) {
+        if (activo) {
+            return;
+        }
+        if (hora == null || intervaloMillis <= 0) {
+            throw new IllegalArgumentException("La hora es obligatoria y el intervalo debe ser positivo");
+        }
+        activo = true;
+        programador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "recordatorios-programador");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                if (!LocalTime.now().isBefore(hora)) {
+                    ejecutar(LocalDate.now());
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warning(String.format("[RECORDATORIOS] Ejecución fallida, se reintenta en %dms: %s",
+                        intervaloMillis, e.getMessage()));
+            }
+        }, 0, intervaloMillis, TimeUnit.MILLISECONDS);
+        LOGGER.info(String.format("[RECORDATORIOS] Tarea iniciada: hora=%s, hilos=%d, pagina=%d",
+                hora, hilos, tamanoPagina));
+    }
+
+    /**
+     * Detiene la comprobación periódica e interrumpe la ejecución en curso; se retoma desde su
+     * último punto de control en el siguiente arranque
+     */
+    public synchronized void detener() {
+        if (!activo) {
+            return;
+        }
+        activo = false;
+        programador.shutdownNow();
+        try {
+            programador.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOGGER.info("[RECORDATORIOS] Tarea detenida");
+    }
+
+    /**
+     * Envía los recordatorios del día a los usuarios sin entrada, desde el punto de control
+     * guardado si lo hay
+     *
+     * @return Métricas de esta ejecución (omitida si el día ya estaba terminado)
+     */
+    public synchronized ResultadoRecordatorios ejecutar(LocalDate fecha) {
+        EjecucionRecordatorio ejecucion = ejecucionDAO.findByFecha(fecha).orElse(null);
+        if (ejecucion != null && ejecucion.isTerminada()) {
+            return ResultadoRecordatorios.omitida(fecha);
+        }
+        boolean reanudada = ejecucion != null && ejecucion.getUltimoUsuarioId() != null;
+        if (ejecucion == null) {
+            ejecucion = new EjecucionRecordatorio(fecha);
+        }
+
+        long inicio = System.nanoTime();
+        long enviados = 0;
+        long fallidos = 0;
+        int paginas = 0;
+        boolean completa = false;
+        AtomicInteger numero = new AtomicInteger();
+        ExecutorService trabajadores = Executors.newFixedThreadPool(hilos, r -> {
+            Thread hilo = new Thread(r, "recordatorios-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        try {
+            if (!ejecucion.getPendientes().isEmpty()) {
+                // Envíos fallidos de la ejecución anterior, antes de seguir con las páginas
+                List<RecordatorioAnimo> reintentos = moodDAO.findUsuariosSinEntrada(fecha, ejecucion.getPendientes());
+                List<Integer> fallidosReintento = despachar(reintentos, trabajadores);
+                long enviadosReintento = reintentos.size() - fallidosReintento.size();
+                ejecucion.reintentar(enviadosReintento, fallidosReintento);
+                ejecucion = ejecucionDAO.guardar(ejecucion);
+                enviados += enviadosReintento;
+                fallidos += fallidosReintento.size();
+            }
+
+            int despuesDe = reanudada ? ejecucion.getUltimoUsuarioId() : 0;
+            boolean recorrida = false;
+            while (!Thread.currentThread().isInterrupted()) {
+                List<RecordatorioAnimo> pagina = moodDAO.findUsuariosSinEntrada(fecha, despuesDe, tamanoPagina);
+                if (pagina.isEmpty()) {
+                    recorrida = true;
+                    break;
+                }
+
+                List<Integer> fallidosPagina = despachar(pagina, trabajadores);
+                long enviadosPagina = pagina.size() - fallidosPagina.size();
+                despuesDe = pagina.get(pagina.size() - 1).getUsuarioId();
+                ejecucion.avanzar(despuesDe, enviadosPagina, fallidosPagina);
+                ejecucion = ejecucionDAO.guardar(ejecucion);
+                enviados += enviadosPagina;
+                fallidos += fallidosPagina.size();
+                paginas++;
+                if (pagina.size() < tamanoPagina) {
+                    recorrida = true;
+                    break;
+                }
+            }
+            if (recorrida && ejecucion.getPendientes().isEmpty()) {
+                ejecucion.terminar();
+                ejecucionDAO.guardar(ejecucion);
+                completa = true;
+            } else if (recorrida) {
+                LOGGER.warning(String.format("[RECORDATORIOS] %s | %d envíos fallidos se reintentarán en la siguiente ejecución",
+                        fecha, ejecucion.getPendientes().size()));
+            }
+        } catch (InterruptedException e) {
+            // Detenida a media página: esa página no llega al punto de control y se repite al retomar
+            Thread.currentThread().interrupt();
+        } finally {
+            trabajadores.shutdownNow();
+        }
+
+        ResultadoRecordatorios resultado = new ResultadoRecordatorios(fecha, enviados, fallidos, paginas, reanudada,
+                false, completa, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        LOGGER.info(String.format("[RECORDATORIOS] %s | Enviados: %d | Fallidos: %d | Páginas: %d | Reanudada: %s | Completa: %s | %dms",
+                fecha, enviados, fallidos, paginas, reanudada, completa, resultado.getDuracionMillis()));
+        return resultado;
+    }
+
+    /**
+     * Reparte los recordatorios entre los trabajadores y espera a que terminen todos
+     *
+     * @return Ids de los usuarios cuyo envío falló
+     */
+    private List<Integer> despachar(List<RecordatorioAnimo> recordatorios, ExecutorService trabajadores)
+            throws InterruptedException {
+        List<Future<?>> envios = new ArrayList<>(recordatorios.size());
+        for (RecordatorioAnimo recordatorio : recordatorios) {
+            RecordatorioAnimo conMensaje = recordatorio.conMensaje(
+                    notificationService.generateReminderMessage(recordatorio.getNombre()));
+            envios.add(trabajadores.submit(() -> {
+                esperarTurno();
+                destino.enviar(conMensaje);
+                return null;
+            }));
+        }
+        List<Integer> fallidos = new ArrayList<>();
+        for (int i = 0; i < envios.size(); i++) {
+            try {
+                envios.get(i).get();
+            } catch (ExecutionException e) {
+                fallidos.add(recordatorios.get(i).getUsuarioId());
+                LOGGER.warning(String.format("[RECORDATORIOS] Envío fallido: %s", e.getCause()));
+            }
+        }
+        return fallidos;
+    }
+
+    /**
+     * Reserva el siguiente hueco del límite de envíos por segundo y espera hasta él
+     */
+    private void esperarTurno() throws InterruptedException {
+        if (intervaloEnvioNanos == 0) {
+            return;
+        }
+        long turno;
+        synchronized (candadoTasa) {
+            long ahora = System.nanoTime();
+            turno = ahora - siguienteEnvioNanos > 0 ? ahora : siguienteEnvioNanos;
+            siguienteEnvioNanos = turno + intervaloEnvioNanos;
+        }
+        long espera = turno - System.nanoTime();
+        if (espera > 0) {
+            TimeUnit.NANOSECONDS.sleep(espera);
+        }
+    }
+}
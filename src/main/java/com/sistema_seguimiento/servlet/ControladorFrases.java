@@ -1,5 +1,6 @@
 package com.sistema_seguimiento.servlet;
 
+import com.sistema_seguimiento.services.CatalogoFrases;
 import com.sistema_seguimiento.services.QuoteService;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -21,7 +22,11 @@ public class ControladorFrases extends HttpServlet {
     @Override
     public void init() throws ServletException {
         super.init();
-        quoteService = new QuoteService();
+        // Las frases se sirven del catálogo compartido que AplicacionListener mantiene en memoria
+        Object catalogo = getServletContext().getAttribute(CatalogoFrases.ATRIBUTO_CONTEXTO);
+        quoteService = catalogo instanceof CatalogoFrases
+            ? new QuoteService((CatalogoFrases) catalogo)
+            : new QuoteService();
         System.out.println("Controlador de Frases Motivacionales inicializado");
     }
     
@@ -43,7 +48,7 @@ public class ControladorFrases extends HttpServlet {
             if (indiceActual == null) {
                 indiceActual = 0;
             } else {
-                indiceActual = (indiceActual + 1) % 15; // Hay 15 frases
+                indiceActual = (indiceActual + 1) % quoteService.getTotalQuotes();
             }
             session.setAttribute("indiceFrase", indiceActual);
             
@@ -1,10 +1,19 @@
 package com.sistema_seguimiento.servlet;
 
+import com.sistema_seguimiento.dao.ContextoPersistencia;
 import com.sistema_seguimiento.dao.HabitoDAO;
+import com.sistema_seguimiento.model.CheckInHabito;
+import com.sistema_seguimiento.model.EstadisticaPeriodo;
 import com.sistema_seguimiento.model.Habito;
+import com.sistema_seguimiento.model.PaginaRegistros;
 import com.sistema_seguimiento.model.RegistroHabito;
+import com.sistema_seguimiento.model.ResultadoCheckIn;
+import com.sistema_seguimiento.model.ResumenHabito;
 import com.sistema_seguimiento.model.Usuario;
+import com.sistema_seguimiento.services.AcumuladorPuntos;
+import com.sistema_seguimiento.services.CacheHabitos;
 import com.sistema_seguimiento.services.HabitoServicio;
+import com.sistema_seguimiento.services.PipelineGamificacion;
 import com.sistema_seguimiento.services.PointsService;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -14,7 +23,10 @@ import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -42,17 +54,35 @@ import java.util.logging.Logger;
  * @author Sistema Seguimiento Habitos
  * @version 2.0 - Logging Profesional
  */
-@WebServlet("/controlador-habitos")
+@WebServlet(urlPatterns = "/controlador-habitos", asyncSupported = true)
 public class ControladorHabitos extends HttpServlet {
 
     private static final Logger logger = Logger.getLogger(ControladorHabitos.class.getName());
     private final HabitoServicio habitoServicio = new HabitoServicio();
     private PointsService pointsService = new PointsService();
+    private PipelineGamificacion pipelineGamificacion;
 
     @Override
     public void init() throws ServletException {
         super.init();
         habitoServicio.setHabitoDAO(new HabitoDAO());
+
+        Object cache = getServletContext().getAttribute(CacheHabitos.ATRIBUTO_CONTEXTO);
+        if (cache instanceof CacheHabitos) {
+            habitoServicio.setCacheHabitos((CacheHabitos) cache);
+        }
+
+        Object acumulador = getServletContext().getAttribute(AcumuladorPuntos.ATRIBUTO_CONTEXTO);
+        if (acumulador instanceof AcumuladorPuntos) {
+            pointsService.setAcumuladorPuntos((AcumuladorPuntos) acumulador);
+            logger.info("[PUNTOS] Escritura diferida de puntos activada");
+        }
+
+        Object pipeline = getServletContext().getAttribute(PipelineGamificacion.ATRIBUTO_CONTEXTO);
+        if (pipeline instanceof PipelineGamificacion) {
+            pipelineGamificacion = (PipelineGamificacion) pipeline;
+            logger.info("[PUNTOS] Puntos y mascotas procesados por el pipeline asíncrono de gamificación");
+        }
     }
     
     /**
@@ -65,6 +95,10 @@ public class ControladorHabitos extends HttpServlet {
     public void setPointsService(PointsService pointsService) {
         this.pointsService = pointsService;
     }
+
+    public void setPipelineGamificacion(PipelineGamificacion pipelineGamificacion) {
+        this.pipelineGamificacion = pipelineGamificacion;
+    }
     
     /**
      * Obtener el usuarioId de la sesión
@@ -204,6 +238,12 @@ public class ControladorHabitos extends HttpServlet {
             case "editar":
                 editarHabito(request, response, usuarioId);
                 break;
+            case "historial":
+                enviarHistorial(request, response, usuarioId);
+                break;
+            case "estadisticas":
+                enviarEstadisticas(request, response, usuarioId);
+                break;
             default:// Por defecto, listar hábitos
                 response.sendRedirect("controlador-habitos?action=list&usuarioId=" + usuarioId);
                 break;
@@ -217,9 +257,10 @@ public class ControladorHabitos extends HttpServlet {
         String habitoIdStr = request.getParameter("habitoId");
         if (habitoIdStr != null) {
             Integer habitoId = Integer.parseInt(habitoIdStr);
-            Habito habito = habitoServicio.buscarHabito(habitoId);
+            // Solo devuelve hábitos del usuario de la sesión
+            Habito habito = habitoServicio.buscarHabito(usuarioId, habitoId);
             
-            if (habito != null && habito.getUsuarioId().equals(usuarioId)) {
+            if (habito != null) {
                 request.setAttribute("habito", habito);
                 request.setAttribute("modoEdicion", true);
                 request.getRequestDispatcher("/WEB-INF/views/registroHabito.jsp").forward(request, response);
@@ -273,7 +314,7 @@ public class ControladorHabitos extends HttpServlet {
         if (habitoIdStr != null && !habitoIdStr.isEmpty()) {
             // Ver detalle de un hábito específico
             Integer habitoId = Integer.parseInt(habitoIdStr);
-            Habito habito = habitoServicio.buscarHabito(habitoId);
+            Habito habito = habitoServicio.buscarHabito(usuarioId, habitoId);
 
             if (habito != null) {
                 LocalDate hoy = LocalDate.now();
@@ -283,6 +324,9 @@ public class ControladorHabitos extends HttpServlet {
                 request.setAttribute("habito", habito);
                 request.setAttribute("registros", registros);
                 request.setAttribute("racha", habito.calcularRachaActual());
+                // Conteo de los últimos 30 días desde el calendario de cumplimiento (popcount, sin recorrer registros)
+                request.setAttribute("diasCumplidos30", habito.contarDiasCumplidos(hace30Dias, hoy));
+                request.setAttribute("porcentaje30", habito.getPorcentajeCompletado(hace30Dias, hoy));
                 request.getRequestDispatcher("/WEB-INF/views/vistaSeguimiento.jsp").forward(request, response);
 
             } else {
@@ -291,9 +335,10 @@ public class ControladorHabitos extends HttpServlet {
         } else {
             // Ver todos los habitos del usuario (vista de seguimiento general)
             logger.info(String.format("[SEGUIMIENTO] Cargando vista para usuario ID: %d", usuarioId));
-            List<Habito> habitos = habitoServicio.listarHabitosUsuario(usuarioId);
-            logger.info(String.format("[SEGUIMIENTO] Habitos encontrados: %d", habitos.size()));
-            request.setAttribute("habitos", habitos);
+            // Tarjetas ya calculadas (cumplidos, racha, últimos registros); la vista solo las pinta
+            List<ResumenHabito> resumenes = habitoServicio.obtenerResumenSeguimiento(usuarioId);
+            logger.info(String.format("[SEGUIMIENTO] Habitos encontrados: %d", resumenes.size()));
+            request.setAttribute("resumenes", resumenes);
             request.getRequestDispatcher("/WEB-INF/views/vistaSeguimiento.jsp").forward(request, response);
         }
     }
@@ -315,13 +360,14 @@ public class ControladorHabitos extends HttpServlet {
                 Integer habitoId = Integer.parseInt(habitoIdStr);
                 LocalDate fecha = fechaStr != null ? LocalDate.parse(fechaStr) : LocalDate.now();
                 
-                Habito habito = habitoServicio.registrarCumplimiento(habitoId, fecha, notas);
+                RegistroHabito registro = habitoServicio.registrarCheckIn(habitoId, fecha, notas);
                 
-                if (habito != null) {
+                if (registro != null) {
                     logger.info(String.format("[REGISTRO] Exitoso - Habito ID: %d", habitoId));
                     
                     // Agregar puntos al usuario segun el estado del habito
-                    pointsService.addPointsToUser(usuarioId, estadoStr);
+                    otorgarPuntos(usuarioId, habitoId, fecha, estadoStr,
+                        claveIdempotencia(request, usuarioId, registro, estadoStr));
                     
                     response.sendRedirect("controlador-habitos?action=view&usuarioId=" + usuarioId + "&success=true");
                 } else {
@@ -381,7 +427,7 @@ public class ControladorHabitos extends HttpServlet {
         
         if (habitoIdStr != null) {
             Integer habitoId = Integer.parseInt(habitoIdStr);
-            Habito habito = habitoServicio.buscarHabito(habitoId);
+            Habito habito = habitoServicio.buscarHabito(usuarioId, habitoId);
             
             if (habito != null) {
                 // Parsear veces realizado
@@ -420,12 +466,13 @@ public class ControladorHabitos extends HttpServlet {
                     habito.getNombre(), fecha, vecesRealizado, metaDiaria, registro.getCompletado(), estadoAnimo));
                 
                 // Guardar el registro
-                RegistroHabito registroGuardado = habitoServicio.getHabitoDAO().saveRegistro(registro);
+                RegistroHabito registroGuardado = habitoServicio.guardarRegistro(registro);
                 
                 if (registroGuardado != null) {
                     // Agregar puntos al usuario segun el estado
                     logger.info(String.format("[PUNTOS] Agregando puntos a usuario %d por estado: %s", usuarioId, estado));
-                    pointsService.addPointsToUser(usuarioId, estado);
+                    otorgarPuntos(usuarioId, habitoId, fecha, estado,
+                        claveIdempotencia(request, usuarioId, registroGuardado, estado));
                     
                     response.sendRedirect("controlador-habitos?action=view&usuarioId=" + usuarioId + "&success=true");
                 } else {
@@ -437,6 +484,291 @@ public class ControladorHabitos extends HttpServlet {
         }
     }
 
+    /**
+     * Puntos de un check-in ya guardado: con el pipeline de gamificación se publica un evento
+     * HabitoRegistrado en la transacción de la petición (puntos y mascota se procesan después,
+     * fuera de la petición); sin él se suman en el momento.
+     *
+     * @param claveIdempotencia Identifica el check-in; el pipeline no suma dos veces la misma clave
+     */
+    private void otorgarPuntos(Integer usuarioId, Integer habitoId, LocalDate fecha, String estado, String claveIdempotencia) {
+        if (pipelineGamificacion == null) {
+            pointsService.addPointsToUser(usuarioId, estado);
+            return;
+        }
+        int puntos = pointsService.calculatePoints(estado);
+        pipelineGamificacion.publicar(claveIdempotencia, usuarioId, habitoId, fecha,
+            estado != null ? estado.toUpperCase().trim() : null, puntos);
+        logger.info(String.format("[PUNTOS] Evento HabitoRegistrado publicado para usuario %d: %d puntos", usuarioId, puntos));
+    }
+
+    /**
+     * Longitud máxima del token de idempotencia del cliente (la clave completa cabe en 120)
+     */
+    static final int MAX_TOKEN_IDEMPOTENCIA = 80;
+
+    /**
+     * Clave de idempotencia de los puntos de un check-in
+     *
+     * - Con token del cliente (cabecera Idempotency-Key o campo idempotencyKey del formulario,
+     *   generado al pintarlo): reenviar el mismo envío no suma dos veces.
+     * - Sin token: (registro del día, veces realizado, estado) tal como quedó guardado. Cada
+     *   check-in que suma una vez más es otra clave, así que con el pipeline se puntúa igual
+     *   que sin él; solo se descarta el reenvío que deja el registro como estaba. Pasar de
+     *   PARCIAL a CUMPLIDO también suma, porque es otro hecho.
+     */
+    static String claveIdempotencia(HttpServletRequest request, Integer usuarioId, RegistroHabito registro,
+                                    String estado) {
+        String token = request.getHeader("Idempotency-Key");
+        if (token == null || token.isBlank()) {
+            token = request.getParameter("idempotencyKey");
+        }
+        if (token != null && !token.isBlank() && token.trim().length() <= MAX_TOKEN_IDEMPOTENCIA) {
+            return "peticion:" + usuarioId + ":" + token.trim();
+        }
+        String estadoNormalizado = estado != null && !estado.isBlank() ? estado.trim().toUpperCase() : "SIN_ESTADO";
+        return "registro:" + registro.getId() + ":" + registro.getVecesRealizado() + ":" + estadoNormalizado;
+    }
+
+    /**
+     * Máximo de check-ins aceptados en una sola petición de registrar-lote
+     */
+    static final int MAX_CHECKINS_LOTE = 200;
+
+    /**
+     * Registra varios check-ins en una sola petición (sincronización de clientes móviles)
+     *
+     * Parámetros paralelos, uno por elemento y en el mismo orden:
+     * habitoId, fecha (yyyy-MM-dd), vecesRealizado, notas, estado (CUMPLIDO, PARCIAL, NO_CUMPLIDO).
+     * notas y estado pueden enviarse vacíos. Todo el lote y sus puntos se escriben en una
+     * transacción; la respuesta es JSON con el resultado de cada elemento.
+     */
+    private void procesarRegistroLote(HttpServletRequest request, HttpServletResponse response, Integer usuarioId) throws IOException {
+        String[] habitoIds = request.getParameterValues("habitoId");
+        String[] fechas = request.getParameterValues("fecha");
+        String[] veces = request.getParameterValues("vecesRealizado");
+        String[] notas = request.getParameterValues("notas");
+        String[] estados = request.getParameterValues("estado");
+
+        int total = habitoIds != null ? habitoIds.length : 0;
+        if (total == 0 || total > MAX_CHECKINS_LOTE
+                || !mismaLongitud(total, fechas, veces) || !longitudOpcional(total, notas, estados)) {
+            logger.warning(String.format("[LOTE] Petición inválida de usuario %d: %d elementos", usuarioId, total));
+            RespuestaJson.escribirError(response, HttpServletResponse.SC_BAD_REQUEST,
+                "Se esperan entre 1 y " + MAX_CHECKINS_LOTE + " elementos con habitoId, fecha y vecesRealizado");
+            return;
+        }
+
+        List<CheckInHabito> checkIns = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            String estado = valorOpcional(estados, i);
+            if (estado != null) {
+                estado = estado.toUpperCase();
+            }
+            checkIns.add(new CheckInHabito(
+                parsearEntero(habitoIds[i]),
+                parsearFecha(fechas[i]),
+                parsearEntero(veces[i]),
+                valorOpcional(notas, i),
+                estado,
+                pointsService.calculatePoints(estado)));
+        }
+
+        List<ResultadoCheckIn> resultados;
+        try {
+            resultados = habitoServicio.registrarLote(usuarioId, checkIns);
+            // Confirmar antes de responder: el cliente solo ve "aceptado" si ya está en la BD
+            ContextoPersistencia.confirmar();
+        } catch (RuntimeException e) {
+            logger.severe(String.format("[LOTE] Error al registrar %d check-ins de usuario %d: %s", total, usuarioId, e.getMessage()));
+            RespuestaJson.escribirError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "No se pudo registrar el lote");
+            return;
+        }
+
+        long aceptados = resultados.stream().filter(ResultadoCheckIn::isAceptado).count();
+        int puntos = resultados.stream().mapToInt(ResultadoCheckIn::getPuntos).sum();
+        logger.info(String.format("[LOTE] Usuario %d | Elementos: %d | Aceptados: %d | Puntos: %d",
+            usuarioId, total, aceptados, puntos));
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        PrintWriter out = response.getWriter();
+        StringBuilder json = new StringBuilder();
+        json.append("{\"aceptados\":").append(aceptados)
+            .append(",\"rechazados\":").append(total - aceptados)
+            .append(",\"puntos\":").append(puntos)
+            .append(",\"resultados\":[");
+        for (int i = 0; i < resultados.size(); i++) {
+            ResultadoCheckIn resultado = resultados.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"indice\":").append(resultado.getIndice())
+                .append(",\"habitoId\":").append(resultado.getHabitoId())
+                .append(",\"fecha\":").append(resultado.getFecha() != null ? "\"" + resultado.getFecha() + "\"" : "null")
+                .append(",\"estado\":\"").append(resultado.getEstado()).append('"')
+                .append(",\"puntos\":").append(resultado.getPuntos());
+            if (resultado.getMensaje() != null) {
+                json.append(",\"mensaje\":\"").append(RespuestaJson.escapar(resultado.getMensaje())).append('"');
+            }
+            json.append('}');
+        }
+        json.append("]}");
+        out.print(json);
+        out.flush();
+    }
+
+    /**
+     * Página del historial de un hábito en JSON (GET action=historial)
+     *
+     * Parámetros: habitoId, cursor opcional (siguienteCursor de la respuesta anterior) y
+     * limite opcional. La vista de seguimiento solo trae los últimos días de cada hábito y
+     * pide lo anterior por aquí, página a página.
+     */
+    private void enviarHistorial(HttpServletRequest request, HttpServletResponse response, Integer usuarioId) throws IOException {
+        Integer habitoId = parsearEntero(request.getParameter("habitoId"));
+        if (habitoId == null) {
+            RespuestaJson.escribirError(response, HttpServletResponse.SC_BAD_REQUEST, "habitoId es obligatorio");
+            return;
+        }
+        String cursor = request.getParameter("cursor");
+        if (cursor != null && cursor.isBlank()) {
+            cursor = null;
+        }
+
+        PaginaRegistros pagina;
+        try {
+            pagina = habitoServicio.obtenerHistorial(usuarioId, habitoId, cursor, parsearEntero(request.getParameter("limite")));
+        } catch (IllegalArgumentException e) {
+            RespuestaJson.escribirError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        logger.info(String.format("[HISTORIAL] Usuario %d | Hábito %d | Registros: %d | Más: %b",
+            usuarioId, habitoId, pagina.getRegistros().size(), pagina.tieneMas()));
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        StringBuilder json = new StringBuilder();
+        json.append("{\"registros\":[");
+        List<RegistroHabito> registros = pagina.getRegistros();
+        for (int i = 0; i < registros.size(); i++) {
+            RegistroHabito registro = registros.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(registro.getId())
+                .append(",\"fecha\":\"").append(registro.getFecha()).append('"')
+                .append(",\"vecesRealizado\":").append(registro.getVecesRealizado() != null ? registro.getVecesRealizado() : 0)
+                .append(",\"completado\":").append(Boolean.TRUE.equals(registro.getCompletado()))
+                .append('}');
+        }
+        json.append("],\"siguienteCursor\":")
+            .append(pagina.tieneMas() ? "\"" + RespuestaJson.escapar(pagina.getSiguienteCursor()) + "\"" : "null")
+            .append('}');
+        PrintWriter out = response.getWriter();
+        out.print(json);
+        out.flush();
+    }
+
+    /**
+     * Serie de cumplimiento de los hábitos activos en JSON (GET action=estadisticas)
+     *
+     * Parámetros opcionales: granularidad (dia, semana o mes; semana por defecto) y el rango
+     * desde / hasta en formato yyyy-MM-dd (por defecto las últimas 12 semanas hasta hoy).
+     */
+    private void enviarEstadisticas(HttpServletRequest request, HttpServletResponse response, Integer usuarioId) throws IOException {
+        EstadisticaPeriodo.Granularidad granularidad;
+        String parametro = request.getParameter("granularidad");
+        try {
+            granularidad = parametro == null || parametro.isBlank()
+                ? EstadisticaPeriodo.Granularidad.SEMANA
+                : EstadisticaPeriodo.Granularidad.valueOf(parametro.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            RespuestaJson.escribirError(response, HttpServletResponse.SC_BAD_REQUEST, "granularidad debe ser dia, semana o mes");
+            return;
+        }
+        LocalDate hasta = request.getParameter("hasta") != null ? parsearFecha(request.getParameter("hasta")) : LocalDate.now();
+        LocalDate desde = request.getParameter("desde") != null ? parsearFecha(request.getParameter("desde"))
+            : (hasta != null ? hasta.minusWeeks(12).plusDays(1) : null);
+        if (desde == null || hasta == null) {
+            RespuestaJson.escribirError(response, HttpServletResponse.SC_BAD_REQUEST, "desde y hasta deben tener formato yyyy-MM-dd");
+            return;
+        }
+
+        List<EstadisticaPeriodo> serie;
+        try {
+            serie = habitoServicio.obtenerSerieCumplimiento(usuarioId, desde, hasta, granularidad);
+        } catch (IllegalArgumentException e) {
+            RespuestaJson.escribirError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        logger.info(String.format("[ESTADISTICAS] Usuario %d | %s..%s por %s | Puntos: %d",
+            usuarioId, desde, hasta, granularidad, serie.size()));
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        StringBuilder json = new StringBuilder();
+        json.append("{\"granularidad\":\"").append(granularidad.name().toLowerCase()).append("\",\"serie\":[");
+        for (int i = 0; i < serie.size(); i++) {
+            EstadisticaPeriodo periodo = serie.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"inicio\":\"").append(periodo.getInicio()).append('"')
+                .append(",\"fin\":\"").append(periodo.getFin()).append('"')
+                .append(",\"habitos\":").append(periodo.getHabitos())
+                .append(",\"diasPosibles\":").append(periodo.getDiasPosibles())
+                .append(",\"diasCumplidos\":").append(periodo.getDiasCumplidos())
+                .append(",\"porcentaje\":").append(Math.round(periodo.getPorcentaje() * 10) / 10.0)
+                .append('}');
+        }
+        json.append("]}");
+        PrintWriter out = response.getWriter();
+        out.print(json);
+        out.flush();
+    }
+
+    private boolean mismaLongitud(int total, String[]... valores) {
+        for (String[] valor : valores) {
+            if (valor == null || valor.length != total) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean longitudOpcional(int total, String[]... valores) {
+        for (String[] valor : valores) {
+            if (valor != null && valor.length != total) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String valorOpcional(String[] valores, int indice) {
+        if (valores == null || valores[indice] == null || valores[indice].isBlank()) {
+            return null;
+        }
+        return valores[indice].trim();
+    }
+
+    private Integer parsearEntero(String valor) {
+        try {
+            return valor != null ? Integer.valueOf(valor.trim()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private LocalDate parsearFecha(String valor) {
+        try {
+            return valor != null && !valor.isBlank() ? LocalDate.parse(valor.trim()) : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
     @Override
     protected void doPost(HttpServletRequest request, HttpServletResponse response) 
             throws ServletException, IOException {
@@ -600,6 +932,9 @@ public class ControladorHabitos extends HttpServlet {
             } else if ("registrar".equals(action)) {
                 procesarRegistroCumplimiento(request, response, usuarioId);
                 
+            } else if ("registrar-lote".equals(action)) {
+                procesarRegistroLote(request, response, usuarioId);
+                
             } else {
                 // Acción no reconocida, redirigir a GET
                 doGet(request, response);
@@ -2,6 +2,7 @@ package com.sistema_seguimiento.servlet;
 
 import com.sistema_seguimiento.dao.UsuarioDAOJPA;
 import com.sistema_seguimiento.model.Usuario;
+import com.sistema_seguimiento.services.CatalogoFrases;
 import com.sistema_seguimiento.services.QuoteService;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -27,7 +28,11 @@ public class ControladorLogin extends HttpServlet {
     public void init() throws ServletException {
         super.init();
         usuarioDAO = new UsuarioDAOJPA();
-        quoteService = new QuoteService();
+        // Catálogo compartido y precargado por AplicacionListener: el login no consulta la BD
+        Object catalogo = getServletContext().getAttribute(CatalogoFrases.ATRIBUTO_CONTEXTO);
+        quoteService = catalogo instanceof CatalogoFrases
+            ? new QuoteService((CatalogoFrases) catalogo)
+            : new QuoteService();
         
         // Crear usuario demo si no existe
         if (!usuarioDAO.findByCorreo("demo@ejemplo.com").isPresent()) {
@@ -123,7 +128,7 @@ public class ControladorLogin extends HttpServlet {
                 session.setAttribute("nombre", usuario.getNombre());
                 session.setAttribute("ultimaFechaLogin", fechaHoy);
                 
-                // Si es primer login del día, obtener frase diaria
+                // Si es primer login del día, obtener frase diaria (del catálogo en memoria)
                 if (esPrimerLoginDelDia) {
                     String fraseDiaria = quoteService.getDailyQuote();
                     session.setAttribute("mostrarFraseDiaria", true);
@@ -1,6 +1,7 @@
 package com.sistema_seguimiento.servlet;
 
 import com.sistema_seguimiento.dao.UserPetDAO;
+import com.sistema_seguimiento.model.PanelMascotas;
 import com.sistema_seguimiento.model.PetType;
 import com.sistema_seguimiento.model.UserPet;
 import com.sistema_seguimiento.model.Usuario;
@@ -20,7 +21,7 @@ import java.util.Optional;
  * Controlador para gestionar las mascotas virtuales del usuario
  * Maneja la visualización, desbloqueo y evolución de mascotas
  */
-@WebServlet(name = "ControladorMascotas", urlPatterns = {"/mascotas-virtuales"})
+@WebServlet(name = "ControladorMascotas", urlPatterns = {"/mascotas-virtuales"}, asyncSupported = true)
 public class ControladorMascotas extends HttpServlet {
 
     private UserPetDAO userPetDAO;
@@ -67,17 +68,13 @@ public class ControladorMascotas extends HttpServlet {
         try {
             System.out.println("🔍 Mostrando mascotas para usuario: " + usuarioId);
             
-            // Obtener mascota activa
-            Optional<UserPet> activePetOpt = userPetDAO.findActiveUserPet(usuarioId);
-            System.out.println("✅ Mascota activa: " + (activePetOpt.isPresent() ? "Sí" : "No"));
-            
-            // Obtener todas las mascotas del usuario
-            List<UserPet> allPets = userPetDAO.findAllUserPets(usuarioId);
-            System.out.println("✅ Total mascotas: " + allPets.size());
-            
-            // Contar hábitos completados
-            long habitosCompletados = userPetDAO.countCompletedHabits(usuarioId);
-            System.out.println("✅ Hábitos completados: " + habitosCompletados);
+            // Mascota activa, historial y hábitos completados en una sola consulta (en la petición:
+            // la primera vez inicializa el contador de hábitos completados)
+            PanelMascotas panel = userPetDAO.cargarPanel(usuarioId);
+            Optional<UserPet> activePetOpt = Optional.ofNullable(panel.getMascotaActiva());
+            List<UserPet> allPets = panel.getMascotas();
+            long habitosCompletados = panel.getHabitosCompletados();
+            System.out.println("✅ " + panel);
             
             // Calcular progreso hacia la siguiente evolución
             int progresoActual = (int) habitosCompletados;
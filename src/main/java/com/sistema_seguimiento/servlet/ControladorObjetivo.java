@@ -1,8 +1,13 @@
 package com.sistema_seguimiento.servlet;
 
+import com.sistema_seguimiento.dao.HabitoDAO;
 import com.sistema_seguimiento.dao.ObjetivoDAO;
 import com.sistema_seguimiento.model.Objetivo;
+import com.sistema_seguimiento.model.ResumenHabito;
 import com.sistema_seguimiento.model.Usuario;
+import com.sistema_seguimiento.services.CacheHabitos;
+import com.sistema_seguimiento.services.CargaParalela;
+import com.sistema_seguimiento.services.HabitoServicio;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -13,21 +18,43 @@ import jakarta.servlet.http.HttpSession;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Controlador de Objetivos
  */
-@WebServlet(urlPatterns = {"/controlador-objetivos", "/planificar"})
+@WebServlet(urlPatterns = {"/controlador-objetivos", "/planificar"}, asyncSupported = true)
 public class ControladorObjetivo extends HttpServlet {
     
     private ObjetivoDAO objetivoDAO;
+    private final HabitoServicio habitoServicio = new HabitoServicio();
+    private CargaParalela cargaParalela;
     
     @Override
     public void init() throws ServletException {
         super.init();
         objetivoDAO = new ObjetivoDAO();
+        habitoServicio.setHabitoDAO(new HabitoDAO());
+        // Misma caché de resúmenes que ControladorHabitos (la invalidan sus escrituras)
+        Object cache = getServletContext().getAttribute(CacheHabitos.ATRIBUTO_CONTEXTO);
+        if (cache instanceof CacheHabitos) {
+            habitoServicio.setCacheHabitos((CacheHabitos) cache);
+        }
+        cargaParalela = new CargaParalela();
+    }
+    
+    public void setObjetivoDAO(ObjetivoDAO objetivoDAO) {
+        this.objetivoDAO = objetivoDAO;
+    }
+    
+    public void setHabitoDAO(HabitoDAO habitoDAO) {
+        habitoServicio.setHabitoDAO(habitoDAO);
+    }
+    
+    public void setCargaParalela(CargaParalela cargaParalela) {
+        this.cargaParalela = cargaParalela;
     }
     
     /**
@@ -178,8 +205,17 @@ public class ControladorObjetivo extends HttpServlet {
     private void listarObjetivos(HttpServletRequest request, HttpServletResponse response, Integer usuarioId) 
             throws ServletException, IOException {
         
-        List<Objetivo> objetivos = objetivoDAO.findByUsuarioId(usuarioId);
-        request.setAttribute("objetivos", objetivos);
+        // Objetivos y resúmenes de hábitos son independientes: se piden a la vez y la vista
+        // se pinta con lo que haya llegado dentro del plazo
+        CargaParalela.Composicion carga = cargaParalela.iniciar();
+        CargaParalela.Parte<List<Objetivo>> objetivos = carga.agregar("objetivos",
+            () -> objetivoDAO.findByUsuarioId(usuarioId), Collections.emptyList());
+        CargaParalela.Parte<List<ResumenHabito>> resumenes = carga.agregar("resumenes",
+            () -> habitoServicio.obtenerResumenSeguimiento(usuarioId), Collections.emptyList());
+        
+        request.setAttribute("objetivos", objetivos.get());
+        request.setAttribute("resumenes", resumenes.get());
+        request.setAttribute("cargaParcial", carga.isParcial());
         request.getRequestDispatcher("/WEB-INF/views/vistaSeguimiento.jsp").forward(request, response);
     }
     
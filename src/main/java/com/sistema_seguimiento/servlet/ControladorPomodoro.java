@@ -0,0 +1,106 @@
+package com.sistema_seguimiento.servlet;
+
+import com.sistema_seguimiento.model.ResumenPomodoro;
+import com.sistema_seguimiento.model.Usuario;
+import com.sistema_seguimiento.services.PomodoroServicio;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Temporizador Pomodoro del usuario en sesión, en JSON
+ *
+ * - GET: estado actual de la sesión ({"activa":false} si no tiene ninguna)
+ * - POST action=iniciar | pausar | reanudar | terminar
+ *
+ * El temporizador lo lleva PomodoroServicio en memoria (instancia compartida publicada por
+ * AplicacionListener): el cliente solo consulta el tiempo restante, no lo calcula.
+ */
+@WebServlet(name = "ControladorPomodoro", urlPatterns = {"/pomodoro"})
+public class ControladorPomodoro extends HttpServlet {
+
+    private PomodoroServicio pomodoroServicio;
+
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        Object servicio = getServletContext().getAttribute(PomodoroServicio.ATRIBUTO_CONTEXTO);
+        if (!(servicio instanceof PomodoroServicio)) {
+            // Un servicio propio del servlet tendría otro registro de sesiones y otro hilo de escritura
+            throw new ServletException("PomodoroServicio no publicado en el ServletContext por AplicacionListener");
+        }
+        pomodoroServicio = (PomodoroServicio) servicio;
+    }
+
+    // Setter para inyección en pruebas
+    public void setPomodoroServicio(PomodoroServicio pomodoroServicio) {
+        this.pomodoroServicio = pomodoroServicio;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        Integer usuarioId = usuarioEnSesion(request, response);
+        if (usuarioId == null) {
+            return;
+        }
+        escribirResumen(response, pomodoroServicio.consultar(usuarioId));
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        Integer usuarioId = usuarioEnSesion(request, response);
+        if (usuarioId == null) {
+            return;
+        }
+
+        String action = request.getParameter("action");
+        Optional<ResumenPomodoro> resumen;
+        if ("iniciar".equals(action)) {
+            resumen = Optional.of(pomodoroServicio.iniciarSesion(usuarioId));
+        } else if ("pausar".equals(action)) {
+            resumen = pomodoroServicio.pausar(usuarioId);
+        } else if ("reanudar".equals(action)) {
+            resumen = pomodoroServicio.reanudar(usuarioId);
+        } else if ("terminar".equals(action)) {
+            resumen = pomodoroServicio.terminar(usuarioId);
+        } else {
+            RespuestaJson.escribirError(response, HttpServletResponse.SC_BAD_REQUEST, "action debe ser iniciar, pausar, reanudar o terminar");
+            return;
+        }
+        escribirResumen(response, resumen);
+    }
+
+    /**
+     * Id del usuario en sesión, o null tras responder 401 si no hay sesión
+     */
+    private Integer usuarioEnSesion(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        HttpSession session = request.getSession(false);
+        if (session == null || session.getAttribute("usuario") == null) {
+            RespuestaJson.escribirError(response, HttpServletResponse.SC_UNAUTHORIZED, "Sesión no iniciada");
+            return null;
+        }
+        return ((Usuario) session.getAttribute("usuario")).getId();
+    }
+
+    private void escribirResumen(HttpServletResponse response, Optional<ResumenPomodoro> resumen) throws IOException {
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        if (resumen.isEmpty()) {
+            response.getWriter().print("{\"activa\":false}");
+            return;
+        }
+        ResumenPomodoro r = resumen.get();
+        response.getWriter().print("{\"activa\":true,\"estado\":\"" + r.getEstado()
+                + "\",\"fase\":\"" + r.getFase()
+                + "\",\"segundosRestantes\":" + r.getSegundosRestantes()
+                + ",\"pomodorosCompletados\":" + r.getPomodorosCompletados()
+                + ",\"porcentajeProgreso\":" + r.getPorcentajeProgreso()
+                + ",\"pausado\":" + r.isPausado() + "}");
+    }
+}
@@ -1,9 +1,14 @@
 package com.sistema_seguimiento.servlet;
 
 import com.sistema_seguimiento.dao.IJournalDAO;
+import com.sistema_seguimiento.model.CoincidenciaDiario;
 import com.sistema_seguimiento.model.JournalEntry;
+import com.sistema_seguimiento.model.PaginaBusquedaDiario;
+import com.sistema_seguimiento.model.PaginaDiario;
+import com.sistema_seguimiento.model.ResumenEntradaDiario;
 import com.sistema_seguimiento.model.Usuario;
 import com.sistema_seguimiento.services.IJournalService;
+import com.sistema_seguimiento.services.JournalService;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -11,13 +16,21 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 
-@WebServlet("/journal")
+@WebServlet(urlPatterns = "/journal", asyncSupported = true)
 public class JournalController extends HttpServlet {
 
+    /**
+     * Entradas escritas entre cada vaciado de la respuesta al exportar
+     */
+    private static final int ENTRADAS_POR_ENVIO = 100;
+
     private IJournalDAO journalDAO;
     private IJournalService journalService;
 
@@ -47,6 +60,13 @@ public class JournalController extends HttpServlet {
      * Criterio de aceptación:
      * - Dado que el usuario accede al diario
      * - Entonces puede ver el formulario y el historial de entradas ordenadas DESC por fecha
+     * 
+     * El historial se pagina por cursor (parámetro cursor) y solo muestra un extracto de cada
+     * entrada. Otras acciones, en JSON:
+     * - action=buscar: búsqueda de texto completo (q, pagina, tamano)
+     * - action=pagina: siguiente página de extractos (cursor, limite)
+     * - action=entrada: una entrada completa (id)
+     * - action=exportar: todo el diario, escrito en la respuesta a medida que se lee
      */
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
@@ -62,12 +82,27 @@ public class JournalController extends HttpServlet {
         Usuario usuario = (Usuario) session.getAttribute("usuario");
         Integer userId = usuario.getId();
         
+        String action = req.getParameter("action");
+        if ("buscar".equals(action)) {
+            enviarBusqueda(req, resp, userId);
+            return;
+        }
+        if ("pagina".equals(action)) {
+            enviarPagina(req, resp, userId);
+            return;
+        }
+        if ("entrada".equals(action)) {
+            enviarEntrada(req, resp, userId);
+            return;
+        }
+        if ("exportar".equals(action)) {
+            exportar(resp, userId);
+            return;
+        }
+        
         try {
-            // Obtener historial de entradas del usuario (Escenario 3)
-            List<JournalEntry> entries = getJournalEntriesByUser(userId);
-            
-            // Pasar las entradas a la vista
-            req.setAttribute("journalEntries", entries);
+            // Historial de entradas del usuario por páginas (Escenario 3)
+            req.setAttribute("journalPage", servicio().getJournalPage(userId, req.getParameter("cursor"), null));
             
             // Redirigir a la vista del diario
             req.getRequestDispatcher("/WEB-INF/views/diarioPersonal.jsp").forward(req, resp);
@@ -115,8 +150,7 @@ public class JournalController extends HttpServlet {
             System.out.println("⚠️ [JOURNAL CONTROLLER] Contenido vacío o inválido - No se guarda entrada");
             
             // Cargar entradas existentes
-            List<JournalEntry> entries = getJournalEntriesByUser(userId);
-            req.setAttribute("journalEntries", entries);
+            req.setAttribute("journalPage", servicio().getJournalPage(userId, null, null));
             req.setAttribute("warningMessage", "No se puede guardar una entrada vacía. Por favor, escribe tus reflexiones.");
             req.getRequestDispatcher("/WEB-INF/views/diarioPersonal.jsp").forward(req, resp);
             return;
@@ -144,8 +178,7 @@ public class JournalController extends HttpServlet {
                 System.err.println("❌ [JOURNAL CONTROLLER] Error al guardar entrada: " + e.getMessage());
                 
                 // Cargar entradas existentes
-                List<JournalEntry> entries = getJournalEntriesByUser(userId);
-                req.setAttribute("journalEntries", entries);
+                req.setAttribute("journalPage", servicio().getJournalPage(userId, null, null));
                 req.setAttribute("errorMessage", "Ocurrió un error al guardar tu entrada. Por favor, intenta nuevamente.");
                 req.getRequestDispatcher("/WEB-INF/views/diarioPersonal.jsp").forward(req, resp);
             }
@@ -241,4 +274,163 @@ public class JournalController extends HttpServlet {
         
         return entries;
     }
+
+    /**
+     * Búsqueda en el diario en JSON (GET action=buscar&q=...&pagina=1&tamano=10)
+     * 
+     * Los fragmentos vienen escapados para HTML con los términos encontrados entre <mark>.
+     */
+    private void enviarBusqueda(HttpServletRequest req, HttpServletResponse resp, Integer userId) throws IOException {
+        String consulta = req.getParameter("q");
+        int pagina;
+        int tamano;
+        try {
+            pagina = req.getParameter("pagina") != null ? Integer.parseInt(req.getParameter("pagina")) : 1;
+            tamano = req.getParameter("tamano") != null
+                ? Integer.parseInt(req.getParameter("tamano")) : JournalService.TAMANO_BUSQUEDA;
+        } catch (NumberFormatException e) {
+            RespuestaJson.escribirError(resp, HttpServletResponse.SC_BAD_REQUEST, "pagina y tamano deben ser números enteros");
+            return;
+        }
+
+        PaginaBusquedaDiario resultado = servicio().searchJournalEntries(userId, consulta, pagina, tamano);
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        StringBuilder json = new StringBuilder();
+        json.append("{\"consulta\":\"").append(RespuestaJson.escapar(consulta != null ? consulta : ""))
+            .append("\",\"pagina\":").append(resultado.getPagina())
+            .append(",\"tamano\":").append(resultado.getTamano())
+            .append(",\"total\":").append(resultado.getTotal())
+            .append(",\"hayMas\":").append(resultado.tieneMas())
+            .append(",\"resultados\":[");
+        List<CoincidenciaDiario> coincidencias = resultado.getCoincidencias();
+        for (int i = 0; i < coincidencias.size(); i++) {
+            CoincidenciaDiario coincidencia = coincidencias.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(coincidencia.getEntradaId())
+                .append(",\"fecha\":\"").append(coincidencia.getCreatedAt())
+                .append("\",\"puntuacion\":").append(String.format(Locale.ROOT, "%.4f", coincidencia.getPuntuacion()))
+                .append(",\"fragmento\":\"").append(RespuestaJson.escapar(coincidencia.getFragmento())).append("\"}");
+        }
+        json.append("]}");
+        PrintWriter out = resp.getWriter();
+        out.print(json);
+        out.flush();
+    }
+
+    /**
+     * Página de extractos en JSON (GET action=pagina&cursor=...&limite=20), para "ver más"
+     */
+    private void enviarPagina(HttpServletRequest req, HttpServletResponse resp, Integer userId) throws IOException {
+        Integer limite;
+        PaginaDiario pagina;
+        try {
+            limite = req.getParameter("limite") != null ? Integer.valueOf(req.getParameter("limite")) : null;
+            pagina = servicio().getJournalPage(userId, req.getParameter("cursor"), limite);
+        } catch (IllegalArgumentException e) {
+            RespuestaJson.escribirError(resp, HttpServletResponse.SC_BAD_REQUEST, "limite debe ser un número entero y el cursor el de la página anterior");
+            return;
+        }
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        StringBuilder json = new StringBuilder();
+        json.append("{\"entradas\":[");
+        List<ResumenEntradaDiario> entradas = pagina.getEntradas();
+        for (int i = 0; i < entradas.size(); i++) {
+            ResumenEntradaDiario entrada = entradas.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(entrada.getId())
+                .append(",\"fecha\":\"").append(entrada.getCreatedAt())
+                .append("\",\"extracto\":\"").append(RespuestaJson.escapar(entrada.getExtracto()))
+                .append("\",\"recortado\":").append(entrada.isRecortado())
+                .append('}');
+        }
+        json.append("],\"siguienteCursor\":")
+            .append(pagina.tieneMas() ? "\"" + RespuestaJson.escapar(pagina.getSiguienteCursor()) + "\"" : "null")
+            .append('}');
+        PrintWriter out = resp.getWriter();
+        out.print(json);
+        out.flush();
+    }
+
+    /**
+     * Una entrada completa en JSON (GET action=entrada&id=...), para leer la que se muestra recortada
+     */
+    private void enviarEntrada(HttpServletRequest req, HttpServletResponse resp, Integer userId) throws IOException {
+        Integer id;
+        try {
+            id = Integer.valueOf(req.getParameter("id"));
+        } catch (NumberFormatException e) {
+            RespuestaJson.escribirError(resp, HttpServletResponse.SC_BAD_REQUEST, "id debe ser un número entero");
+            return;
+        }
+        Optional<JournalEntry> entrada = servicio().getJournalEntry(userId, id);
+        if (entrada.isEmpty()) {
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            resp.setContentType("application/json");
+            resp.setCharacterEncoding("UTF-8");
+            resp.getWriter().print("{\"error\":\"Entrada no encontrada\"}");
+            return;
+        }
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        PrintWriter out = resp.getWriter();
+        out.print(entradaJson(entrada.get()));
+        out.flush();
+    }
+
+    /**
+     * Exporta todo el diario como un array JSON descargable (GET action=exportar)
+     * 
+     * Cada entrada se escribe en cuanto se lee del cursor de la BD y la respuesta se vacía cada
+     * ENTRADAS_POR_ENVIO entradas, así que ni el servidor ni la respuesta tienen el diario
+     * completo en memoria. Si el cliente se desconecta la exportación se corta.
+     */
+    private void exportar(HttpServletResponse resp, Integer userId) throws IOException {
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        resp.setHeader("Content-Disposition", "attachment; filename=\"diario.json\"");
+        PrintWriter out = resp.getWriter();
+        out.print('[');
+        long[] escritas = {0};
+        try {
+            servicio().exportJournalEntries(userId, entrada -> {
+                if (escritas[0] > 0) {
+                    out.print(',');
+                }
+                out.print('\n');
+                out.print(entradaJson(entrada));
+                if (++escritas[0] % ENTRADAS_POR_ENVIO == 0) {
+                    out.flush();
+                    if (out.checkError()) {
+                        throw new IllegalStateException("El cliente cerró la conexión");
+                    }
+                }
+            });
+            out.print("\n]");
+            out.flush();
+            System.out.println("📤 [JOURNAL CONTROLLER] Diario exportado: " + escritas[0] + " entradas");
+        } catch (RuntimeException e) {
+            // La respuesta ya está enviada en parte: no se puede cambiar el estado
+            System.err.println("❌ [JOURNAL CONTROLLER] Exportación cortada tras " + escritas[0]
+                + " entradas: " + e.getMessage());
+        }
+    }
+
+    private static String entradaJson(JournalEntry entrada) {
+        return "{\"id\":" + entrada.getId()
+            + ",\"fecha\":\"" + entrada.getCreatedAt()
+            + "\",\"contenido\":\"" + RespuestaJson.escapar(entrada.getContent() != null ? entrada.getContent() : "") + "\"}";
+    }
+
+    private IJournalService servicio() {
+        return journalService != null ? journalService : new JournalService(journalDAO);
+    }
 }
@@ -1,8 +1,14 @@
 package com.sistema_seguimiento.servlet;
 
 import com.sistema_seguimiento.dao.MoodDAO;
+import com.sistema_seguimiento.model.DiaAnimo;
+import com.sistema_seguimiento.model.DistribucionAnimo;
+import com.sistema_seguimiento.model.EstadisticaPeriodo;
 import com.sistema_seguimiento.model.MoodEntry;
 import com.sistema_seguimiento.model.Usuario;
+import com.sistema_seguimiento.services.CachePorUsuario;
+import com.sistema_seguimiento.services.MoodService;
+import com.sistema_seguimiento.services.NotificationService;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -10,7 +16,11 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
 
 /**
  * MoodController - Controlador para el registro de estado de ánimo
@@ -21,25 +31,39 @@ import java.time.LocalDate;
  * - Escenario 1: Guardar estado de ánimo con confirmación
  * - Escenario 2: Notificación si no hay registro del día
  * - Escenario 3: Permitir cambiar estado del mismo día
+ * - Historial: serie y distribución de estados de ánimo en JSON (GET action=serie)
  * 
  * @author Sistema Seguimiento Habitos
  * @version 1.0
  */
-@WebServlet("/mood-tracker")
+@WebServlet(urlPatterns = "/mood-tracker", asyncSupported = true)
 public class MoodController extends HttpServlet {
 
     private MoodDAO moodDAO;
+    private MoodService moodService;
+    private CachePorUsuario cacheHoy;
 
     @Override
     public void init() throws ServletException {
         super.init();
+        // Caché compartida publicada por AplicacionListener: la invalidación de un POST la ven todos
+        Object cache = getServletContext().getAttribute(MoodService.ATRIBUTO_CACHE_HOY);
+        this.cacheHoy = cache instanceof CachePorUsuario ? (CachePorUsuario) cache : null;
         // Inicializar DAO (producción)
-        this.moodDAO = new MoodDAO();
+        setMoodDAO(new MoodDAO());
     }
 
     // Setter para inyección en pruebas
     public void setMoodDAO(MoodDAO moodDAO) {
         this.moodDAO = moodDAO;
+        this.moodService = new MoodService(moodDAO, new NotificationService());
+        if (cacheHoy != null) {
+            moodService.setCacheHoy(cacheHoy);
+        }
+    }
+
+    public void setMoodService(MoodService moodService) {
+        this.moodService = moodService;
     }
 
     /**
@@ -60,9 +84,14 @@ public class MoodController extends HttpServlet {
         Usuario usuario = (Usuario) session.getAttribute("usuario");
         Integer userId = usuario.getId();
         
+        if ("serie".equals(req.getParameter("action"))) {
+            enviarSerie(req, resp, userId);
+            return;
+        }
+        
         try {
             // Verificar si ya existe un registro de hoy
-            MoodEntry todayMood = moodDAO.getTodayMoodEntry(userId);
+            MoodEntry todayMood = moodService.obtenerEntradaDeHoy(userId);
             
             if (todayMood != null) {
                 // Ya existe registro de hoy - permitir edición (Escenario 3)
@@ -108,9 +137,11 @@ public class MoodController extends HttpServlet {
         String moodValue = req.getParameter("mood");
         String notes = req.getParameter("notes");
         
+        // Una sola consulta por petición (y normalmente ninguna: la sirve la caché del servicio)
+        MoodEntry todayMood = moodService.obtenerEntradaDeHoy(userId);
+        
         // Validar que se haya seleccionado un mood
         if (moodValue == null || moodValue.trim().isEmpty()) {
-            MoodEntry todayMood = moodDAO.getTodayMoodEntry(userId);
             if (todayMood != null) {
                 req.setAttribute("existingMood", todayMood);
                 req.setAttribute("canEdit", true);
@@ -122,12 +153,9 @@ public class MoodController extends HttpServlet {
         
         try {
             if ("save".equals(action)) {
-                // Verificar si ya existe un registro de hoy
-                MoodEntry existingMood = moodDAO.getTodayMoodEntry(userId);
-                
-                if (existingMood != null) {
+                if (todayMood != null) {
                     // Escenario 3: Actualizar registro existente del mismo día
-                    updateMoodSelection(existingMood, moodValue, notes, session, resp);
+                    updateMoodSelection(todayMood, moodValue, notes, session, resp);
                 } else {
                     // Escenario 1: Guardar nuevo registro
                     saveMoodSelection(userId, moodValue, notes, session, resp);
@@ -138,7 +166,6 @@ public class MoodController extends HttpServlet {
             System.err.println("❌ [MOOD CONTROLLER] Error al guardar mood: " + e.getMessage());
             e.printStackTrace();
             
-            MoodEntry todayMood = moodDAO.getTodayMoodEntry(userId);
             if (todayMood != null) {
                 req.setAttribute("existingMood", todayMood);
                 req.setAttribute("canEdit", true);
@@ -170,6 +197,7 @@ public class MoodController extends HttpServlet {
         
         // Guardar en BD
         MoodEntry savedMood = moodDAO.storeMoodRecord(newMood);
+        moodService.invalidarEntradaDeHoy(userId);
         
         System.out.println("✅ [MOOD CONTROLLER] Estado de ánimo guardado con ID: " + savedMood.getId());
         
@@ -204,12 +232,17 @@ public class MoodController extends HttpServlet {
             return;
         }
         
-        // Actualizar valores
-        existingMood.setMood(moodValue);
-        existingMood.setNotes(notes);
+        // Actualizar valores sobre una copia: la entrada de la caché es compartida
+        MoodEntry cambios = new MoodEntry();
+        cambios.setId(existingMood.getId());
+        cambios.setUsuario(existingMood.getUsuario());
+        cambios.setDate(existingMood.getDate());
+        cambios.setMood(moodValue);
+        cambios.setNotes(notes);
         
         // Actualizar en BD
-        MoodEntry updatedMood = moodDAO.update(existingMood);
+        MoodEntry updatedMood = moodDAO.update(cambios);
+        moodService.invalidarEntradaDeHoy(existingMood.getUserId());
         
         System.out.println("✅ [MOOD CONTROLLER] Estado de ánimo actualizado con ID: " + updatedMood.getId());
         
@@ -222,6 +255,78 @@ public class MoodController extends HttpServlet {
         resp.sendRedirect("mood-tracker");
     }
 
+    /**
+     * Historial de estados de ánimo en JSON para gráficas (GET action=serie)
+     *
+     * Parámetros opcionales: granularidad de la distribución (dia, semana o mes; semana por
+     * defecto) y el rango desde / hasta en formato yyyy-MM-dd (por defecto el último año hasta hoy).
+     * Devuelve los días con registro y la distribución por periodo en la misma respuesta.
+     */
+    private void enviarSerie(HttpServletRequest req, HttpServletResponse resp, Integer userId) throws IOException {
+        EstadisticaPeriodo.Granularidad granularidad;
+        LocalDate desde;
+        LocalDate hasta;
+        String parametro = req.getParameter("granularidad");
+        try {
+            granularidad = parametro == null || parametro.isBlank()
+                ? EstadisticaPeriodo.Granularidad.SEMANA
+                : EstadisticaPeriodo.Granularidad.valueOf(parametro.trim().toUpperCase());
+            hasta = req.getParameter("hasta") != null ? LocalDate.parse(req.getParameter("hasta")) : LocalDate.now();
+            desde = req.getParameter("desde") != null ? LocalDate.parse(req.getParameter("desde"))
+                : hasta.minusYears(1).plusDays(1);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            RespuestaJson.escribirError(resp, HttpServletResponse.SC_BAD_REQUEST, "granularidad debe ser dia, semana o mes y las fechas yyyy-MM-dd");
+            return;
+        }
+
+        List<DiaAnimo> dias;
+        List<DistribucionAnimo> distribucion;
+        try {
+            dias = moodService.obtenerSerie(userId, desde, hasta);
+            distribucion = moodService.obtenerDistribucion(userId, desde, hasta, granularidad);
+        } catch (IllegalArgumentException e) {
+            RespuestaJson.escribirError(resp, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        StringBuilder json = new StringBuilder();
+        json.append("{\"desde\":\"").append(desde).append("\",\"hasta\":\"").append(hasta)
+            .append("\",\"granularidad\":\"").append(granularidad.name().toLowerCase()).append("\",\"dias\":[");
+        for (int i = 0; i < dias.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"fecha\":\"").append(dias.get(i).getFecha())
+                .append("\",\"estado\":\"").append(RespuestaJson.escapar(dias.get(i).getEstado())).append("\"}");
+        }
+        json.append("],\"distribucion\":[");
+        for (int i = 0; i < distribucion.size(); i++) {
+            DistribucionAnimo periodo = distribucion.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"inicio\":\"").append(periodo.getInicio())
+                .append("\",\"fin\":\"").append(periodo.getFin())
+                .append("\",\"total\":").append(periodo.getTotal())
+                .append(",\"conteos\":{");
+            boolean primero = true;
+            for (Map.Entry<String, Long> conteo : periodo.getConteos().entrySet()) {
+                if (!primero) {
+                    json.append(',');
+                }
+                primero = false;
+                json.append('"').append(RespuestaJson.escapar(conteo.getKey())).append("\":").append(conteo.getValue());
+            }
+            json.append("}}");
+        }
+        json.append("]}");
+        PrintWriter out = resp.getWriter();
+        out.print(json);
+        out.flush();
+    }
+
     /**
      * Convierte el valor del mood en emoji para mensajes
      */
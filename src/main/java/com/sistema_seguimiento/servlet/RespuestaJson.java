@@ -0,0 +1,47 @@
+package com.sistema_seguimiento.servlet;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * Utilidades de las respuestas JSON escritas a mano por los controladores
+ */
+final class RespuestaJson {
+
+    private RespuestaJson() {
+    }
+
+    /**
+     * Responde {"error": mensaje} con el código de estado indicado
+     */
+    static void escribirError(HttpServletResponse response, int estado, String mensaje) throws IOException {
+        response.setStatus(estado);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().print("{\"error\":\"" + escapar(mensaje) + "\"}");
+    }
+
+    /**
+     * Escapa un texto para ponerlo entre comillas en un literal JSON
+     */
+    static String escapar(String texto) {
+        StringBuilder escapado = new StringBuilder(texto.length());
+        for (char c : texto.toCharArray()) {
+            switch (c) {
+                case '"': escapado.append("\\\""); break;
+                case '\\': escapado.append("\\\\"); break;
+                case '\n': escapado.append("\\n"); break;
+                case '\r': escapado.append("\\r"); break;
+                case '\t': escapado.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        escapado.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escapado.append(c);
+                    }
+            }
+        }
+        return escapado.toString();
+    }
+}
@@ -1,6 +1,7 @@
 <%@ page contentType="text/html;charset=UTF-8" language="java" %>
 <%@ page import="java.util.List" %>
-<%@ page import="com.sistema_seguimiento.model.JournalEntry" %>
+<%@ page import="com.sistema_seguimiento.model.PaginaDiario" %>
+<%@ page import="com.sistema_seguimiento.model.ResumenEntradaDiario" %>
 <%@ page import="java.time.format.DateTimeFormatter" %>
 <!DOCTYPE html>
 <html>
@@ -367,6 +368,28 @@
             word-wrap: break-word;
         }
         
+        .entry-more {
+            margin-top: 0.75rem;
+            background: none;
+            border: none;
+            color: #FFB84D;
+            font-weight: 600;
+            cursor: pointer;
+            padding: 0;
+        }
+        
+        .history-actions {
+            display: flex;
+            justify-content: space-between;
+            margin-top: 1.5rem;
+        }
+        
+        .history-actions a {
+            color: #FFB84D;
+            font-weight: 600;
+            text-decoration: none;
+        }
+        
         /* Mensajes de feedback */
         .message {
             padding: 1rem 1.5rem;
@@ -556,10 +579,11 @@
             <h2>Historial de Entradas</h2>
             
             <%
-                @SuppressWarnings("unchecked")
-                List<JournalEntry> entries = (List<JournalEntry>) request.getAttribute("journalEntries");
+                PaginaDiario journalPage = (PaginaDiario) request.getAttribute("journalPage");
+                List<ResumenEntradaDiario> entries = journalPage != null ? journalPage.getEntradas() : null;
+                boolean paginaSiguiente = request.getParameter("cursor") != null;
                 
-                if (entries == null || entries.isEmpty()) {
+                if (entries == null || (entries.isEmpty() && !paginaSiguiente)) {
             %>
                 <div class="empty-state">
                     <div class="empty-state-icon">📔</div>
@@ -572,7 +596,7 @@
                     DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
             %>
                 <div class="journal-entries">
-                    <% for (JournalEntry entry : entries) { %>
+                    <% for (ResumenEntradaDiario entry : entries) { %>
                         <div class="journal-entry">
                             <div class="entry-header">
                                 <span class="entry-date">
@@ -582,12 +606,27 @@
                                     🕐 <%= entry.getCreatedAt().format(timeFormatter) %>
                                 </span>
                             </div>
-                            <div class="entry-content">
-                                <%= entry.getContent() %>
-                            </div>
+                            <div class="entry-content" id="entry-<%= entry.getId() %>"><%= entry.getExtracto() %><%= entry.isRecortado() ? "…" : "" %></div>
+                            <% if (entry.isRecortado()) { %>
+                                <button type="button" class="entry-more" onclick="leerCompleta(<%= entry.getId() %>, this)">
+                                    Leer completa
+                                </button>
+                            <% } %>
                         </div>
                     <% } %>
                 </div>
+                <div class="history-actions">
+                    <% if (paginaSiguiente) { %>
+                        <a href="<%= request.getContextPath() %>/journal">⬅ Más recientes</a>
+                    <% } else { %>
+                        <a href="<%= request.getContextPath() %>/journal?action=exportar">📤 Exportar diario</a>
+                    <% } %>
+                    <% if (journalPage.tieneMas()) { %>
+                        <a href="<%= request.getContextPath() %>/journal?cursor=<%= java.net.URLEncoder.encode(journalPage.getSiguienteCursor(), "UTF-8") %>">
+                            Entradas anteriores ➡
+                        </a>
+                    <% } %>
+                </div>
             <%
                 }
             %>
@@ -595,6 +634,17 @@
     </div>
 
     <script>
+        // Las entradas largas se listan recortadas: el texto completo se pide al abrirlas
+        function leerCompleta(id, boton) {
+            fetch('<%= request.getContextPath() %>/journal?action=entrada&id=' + id)
+                .then(respuesta => respuesta.ok ? respuesta.json() : Promise.reject())
+                .then(entrada => {
+                    document.getElementById('entry-' + id).textContent = entrada.contenido;
+                    boton.remove();
+                })
+                .catch(() => { boton.textContent = 'No se pudo cargar la entrada'; });
+        }
+        
         // Contador de caracteres
         const contentTextarea = document.getElementById('content');
         const charCount = document.getElementById('charCount');
@@ -648,6 +648,8 @@
         
         <form action="controlador-habitos" method="post">
             <input type="hidden" name="action" value="registrar">
+            <!-- Identifica este envío: reenviar el formulario no vuelve a sumar puntos -->
+            <input type="hidden" name="idempotencyKey" value="<%= java.util.UUID.randomUUID() %>">
             <input type="hidden" id="habitoId" name="habitoId" required>
             
             <div class="registro-section">
@@ -1,7 +1,8 @@
 <%@ page contentType="text/html;charset=UTF-8" language="java" %>
 <%@ page import="java.util.List" %>
-<%@ page import="com.sistema_seguimiento.model.Habito" %>
-<%@ page import="com.sistema_seguimiento.model.RegistroHabito" %>
+<%@ page import="java.time.LocalDate" %>
+<%@ page import="com.sistema_seguimiento.model.PaginaRegistros" %>
+<%@ page import="com.sistema_seguimiento.model.ResumenHabito" %>
 <!DOCTYPE html>
 <html>
 <head>
@@ -245,6 +246,17 @@
             font-weight: 600;
         }
         
+        .btn-historial {
+            margin-top: 12px;
+            padding: 8px 16px;
+            border: none;
+            border-radius: 12px;
+            background: #E0E7FF;
+            color: #667eea;
+            font-weight: 600;
+            cursor: pointer;
+        }
+        
         .registro-cumplido {
             background: #A8E6CF;
             color: #555555;
@@ -431,78 +443,72 @@
         <div class="habitos-section">
             <h2>🎯 Mis Hábitos y Progreso</h2>
             
+            <% if (Boolean.TRUE.equals(request.getAttribute("cargaParcial"))) { %>
+            <div class="empty-state" style="padding: 1rem;">
+                <p>⏳ Parte de la información tardó demasiado en cargar. Recarga la página para verla completa.</p>
+            </div>
+            <% } %>
+            
             <%
-                List<Habito> habitos = (List<Habito>) request.getAttribute("habitos");
-                if (habitos != null && !habitos.isEmpty()) {
-                    for (Habito habito : habitos) {
-                        List<RegistroHabito> registros = habito.getRegistros();
-                        int totalRegistros = registros != null ? registros.size() : 0;
-                        int cumplidos = 0;
-                        
-                        if (registros != null && habito.getMetaDiaria() != null) {
-                            for (RegistroHabito r : registros) {
-                                // ✅ CORREGIDO: Usar vecesRealizado en vez de completado (que ahora es Boolean)
-                                if (r.getVecesRealizado() != null && r.getVecesRealizado() >= habito.getMetaDiaria()) {
-                                    cumplidos++;
-                                }
-                            }
-                        }
-                        
-                        int progreso = totalRegistros > 0 ? (cumplidos * 100 / totalRegistros) : 0;
-                        int rachaActual = habito.calcularRachaActual();
+                // Resúmenes calculados en ControladorHabitos.verSeguimiento: aquí solo se pintan
+                List<ResumenHabito> resumenes = (List<ResumenHabito>) request.getAttribute("resumenes");
+                if (resumenes != null && !resumenes.isEmpty()) {
+                    for (ResumenHabito resumen : resumenes) {
+                        // La lista trae solo los últimos días; lo anterior se pide por páginas (action=historial)
+                        LocalDate ventanaDesde = resumen.getVentanaDesde();
             %>
-            <div class="habito-card">
+            <div class="habito-card" data-racha="<%= resumen.getRacha() %>" data-cumplido-hoy="<%= resumen.isCumplidoHoy() %>">
                 <div class="card-actions">
-                    <button class="btn-icon btn-edit" data-id="<%= habito.getId() %>" title="Editar hábito">
+                    <button class="btn-icon btn-edit" data-id="<%= resumen.getHabitoId() %>" title="Editar hábito">
                         ✏️
                     </button>
-                    <button class="btn-icon btn-delete" data-id="<%= habito.getId() %>" data-nombre="<%= habito.getNombre() %>" title="Eliminar hábito">
+                    <button class="btn-icon btn-delete" data-id="<%= resumen.getHabitoId() %>" data-nombre="<%= resumen.getNombre() %>" title="Eliminar hábito">
                         🗑️
                     </button>
                 </div>
                 <div class="habito-header">
-                    <div class="habito-nombre"><%= habito.getNombre() %></div>
-                    <div class="habito-racha">🔥 Racha: <%= rachaActual %> días</div>
+                    <div class="habito-nombre"><%= resumen.getNombre() %></div>
+                    <div class="habito-racha">🔥 Racha: <%= resumen.getRacha() %> días</div>
                 </div>
                 
                 <div class="progress-bar-container">
-                    <div class="progress-bar" data-progreso="<%= progreso %>">
-                        <%= progreso %>% completado
+                    <div class="progress-bar" data-progreso="<%= resumen.getProgreso() %>">
+                        <%= resumen.getProgreso() %>% completado<%= ventanaDesde != null ? " desde " + ventanaDesde : "" %>
                     </div>
                 </div>
                 
                 <div style="color: #888888; font-size: 14px; margin-bottom: 10px;">
-                    <strong><%= cumplidos %></strong> de <strong><%= totalRegistros %></strong> registros cumplidos
+                    <strong><%= resumen.getCumplidos() %></strong> de <strong><%= resumen.getTotal() %></strong> registros cumplidos<%= ventanaDesde != null ? " desde " + ventanaDesde : "" %>
+                    · <strong><%= resumen.getDiasCumplidosTotal() %></strong> días cumplidos en total
                 </div>
                 
-                <% if (registros != null && !registros.isEmpty()) { %>
                 <details>
                     <summary style="cursor: pointer; color: #667eea; font-weight: 600;">
-                        Ver registros (<%= totalRegistros %>)
+                        Ver registros (<%= resumen.getTotal() %><%= ventanaDesde != null ? " recientes" : "" %>)
                     </summary>
                     <div class="registros-list">
-                        <% for (RegistroHabito registro : registros) { 
-                            String claseEstado = "";
-                            // ✅ CORREGIDO: Usar vecesRealizado en vez de completado (que ahora es Boolean)
-                            Integer vecesRealizado = registro.getVecesRealizado();
-                            Integer metaDiaria = habito.getMetaDiaria();
-                            
-                            if (vecesRealizado != null && metaDiaria != null && vecesRealizado >= metaDiaria) {
-                                claseEstado = "registro-cumplido";
-                            } else if (vecesRealizado != null && vecesRealizado > 0) {
-                                claseEstado = "registro-parcial";
-                            } else {
-                                claseEstado = "registro-no-cumplido";
+                        <% for (ResumenHabito.Dia dia : resumen.getUltimosRegistros()) {
+                            String claseEstado;
+                            switch (dia.getEstado()) {
+                                case CUMPLIDO: claseEstado = "registro-cumplido"; break;
+                                case PARCIAL: claseEstado = "registro-parcial"; break;
+                                default: claseEstado = "registro-no-cumplido";
                             }
                         %>
                         <div class="registro-item <%= claseEstado %>">
-                            <%= registro.getFecha() %><br>
-                            <%= vecesRealizado != null ? vecesRealizado : 0 %>/<%= metaDiaria != null ? metaDiaria : 0 %>
+                            <%= dia.getFecha() %><br>
+                            <%= dia.getVecesRealizado() %>/<%= resumen.getMetaDiaria() %>
                         </div>
                         <% } %>
                     </div>
+                    <% if (ventanaDesde != null) { %>
+                    <button type="button" class="btn-historial" data-habito-id="<%= resumen.getHabitoId() %>"
+                            data-meta="<%= resumen.getMetaDiaria() %>"
+                            data-cursor="<%= PaginaRegistros.cursorAntesDe(ventanaDesde) %>">
+                        Cargar registros anteriores
+                    </button>
+                    <% } %>
                 </details>
-                <% } %>
             </div>
             <%
                     }
@@ -553,6 +559,46 @@
             });
         });
         
+        // Historial anterior a la ventana: una página por clic, siguiendo el cursor de la respuesta
+        document.querySelectorAll('.btn-historial').forEach(btn => {
+            btn.addEventListener('click', function() {
+                const boton = this;
+                const meta = parseInt(boton.getAttribute('data-meta'));
+                const lista = boton.parentElement.querySelector('.registros-list');
+                const url = '${pageContext.request.contextPath}/controlador-habitos?action=historial&habitoId='
+                    + boton.getAttribute('data-habito-id') + '&cursor=' + encodeURIComponent(boton.getAttribute('data-cursor'));
+                boton.disabled = true;
+                fetch(url)
+                    .then(respuesta => respuesta.json())
+                    .then(pagina => {
+                        (pagina.registros || []).forEach(registro => {
+                            const item = document.createElement('div');
+                            let clase = 'registro-no-cumplido';
+                            if (meta > 0 && registro.vecesRealizado >= meta) {
+                                clase = 'registro-cumplido';
+                            } else if (registro.vecesRealizado > 0) {
+                                clase = 'registro-parcial';
+                            }
+                            item.className = 'registro-item ' + clase;
+                            item.appendChild(document.createTextNode(registro.fecha));
+                            item.appendChild(document.createElement('br'));
+                            item.appendChild(document.createTextNode(registro.vecesRealizado + '/' + meta));
+                            lista.appendChild(item);
+                        });
+                        if (pagina.siguienteCursor) {
+                            boton.setAttribute('data-cursor', pagina.siguienteCursor);
+                            boton.disabled = false;
+                        } else {
+                            boton.remove();
+                        }
+                    })
+                    .catch(error => {
+                        console.error('❌ Error al cargar historial:', error);
+                        boton.disabled = false;
+                    });
+            });
+        });
+        
         // Calcular estadísticas
         document.addEventListener('DOMContentLoaded', function() {
             // Aplicar el ancho de las barras de progreso
@@ -570,29 +616,16 @@
             let rachaMaxima = 0;
             let totalPorcentaje = 0;
             
-            // Obtener fecha de hoy en formato YYYY-MM-DD
-            const hoy = new Date().toISOString().split('T')[0];
-            
             habitosCards.forEach(card => {
-                // Obtener racha
-                const rachaText = card.querySelector('.habito-racha').textContent;
-                const racha = parseInt(rachaText.match(/\d+/)[0]);
+                const racha = parseInt(card.getAttribute('data-racha'));
                 if (racha > rachaMaxima) rachaMaxima = racha;
                 
-                // Obtener porcentaje
-                const progressBar = card.querySelector('.progress-bar');
-                const progreso = parseInt(progressBar.getAttribute('data-progreso'));
+                const progreso = parseInt(card.querySelector('.progress-bar').getAttribute('data-progreso'));
                 totalPorcentaje += progreso;
                 
-                // Verificar si hay un registro cumplido hoy
-                const registros = card.querySelectorAll('.registro-item.registro-cumplido');
-                registros.forEach(registro => {
-                    const textoFecha = registro.textContent.trim();
-                    // La fecha está en formato YYYY-MM-DD en el primer renglón
-                    if (textoFecha.includes(hoy)) {
-                        habitosCumplidosHoy++;
-                    }
-                });
+                if (card.getAttribute('data-cumplido-hoy') === 'true') {
+                    habitosCumplidosHoy++;
+                }
             });
             
             const promedioExito = totalHabitos > 0 ? Math.round(totalPorcentaje / totalHabitos) : 0;
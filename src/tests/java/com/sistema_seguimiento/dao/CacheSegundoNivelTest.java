@@ -0,0 +1,105 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.config.EstadisticasCache;
+import com.sistema_seguimiento.model.FraseMotivacional;
+import com.sistema_seguimiento.model.Pet;
+import com.sistema_seguimiento.model.PetType;
+import com.sistema_seguimiento.model.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Caché de segundo nivel (Ehcache vía JCache) sobre H2 con la configuración de ehcache.xml
+ */
+class CacheSegundoNivelTest {
+
+    private static EntityManagerFactory emf;
+
+    @BeforeAll
+    static void setupClass() {
+        emf = Persistence.createEntityManagerFactory("cache-test-unit");
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @Test
+    void given_usuarioGuardado_when_buscarPorIdEnOtroEntityManager_then_aciertoEnRegionUsuario() {
+        Usuario usuario = new Usuario("Cache " + System.nanoTime(), "cache" + System.nanoTime() + "@test.com", "pass");
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.persist(usuario);
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+
+        buscarUsuario(usuario.getId()); // Calienta la región
+        long aciertosAntes = aciertosRegionUsuario();
+        buscarUsuario(usuario.getId());
+        buscarUsuario(usuario.getId());
+
+        assertEquals(aciertosAntes + 2, aciertosRegionUsuario());
+    }
+
+    @Test
+    void given_plantillaPet_when_findPetByTypeDosVeces_then_segundaSaleDeCacheDeConsultas() {
+        PetDAO petDAO = new PetDAO(emf);
+        petDAO.savePet(new Pet(PetType.HUEVO, "Huevito", "Plantilla de prueba"));
+
+        long aciertosAntes = EstadisticasCache.de(emf).getAciertosConsultas();
+        assertTrue(petDAO.findPetByType(PetType.HUEVO).isPresent());
+        assertTrue(petDAO.findPetByType(PetType.HUEVO).isPresent());
+
+        EstadisticasCache estadisticas = EstadisticasCache.de(emf);
+        assertEquals(aciertosAntes + 1, estadisticas.getAciertosConsultas());
+        assertTrue(estadisticas.getRegiones().containsKey(PetDAO.REGION_PET_POR_TIPO));
+    }
+
+    @Test
+    void given_frasesActivas_when_getQuotesDosVeces_then_segundaSaleDeCacheDeConsultas() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            FraseMotivacional frase = new FraseMotivacional();
+            frase.setTexto("Frase cacheada");
+            em.persist(frase);
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+        QuoteDAOImpl quoteDAO = new QuoteDAOImpl(emf);
+
+        List<String> primera = quoteDAO.getQuotes();
+        long aciertosAntes = EstadisticasCache.de(emf).getAciertosConsultas();
+        List<String> segunda = quoteDAO.getQuotes();
+
+        assertEquals(primera, segunda);
+        assertEquals(aciertosAntes + 1, EstadisticasCache.de(emf).getAciertosConsultas());
+    }
+
+    private void buscarUsuario(Integer id) {
+        EntityManager lectura = emf.createEntityManager();
+        try {
+            assertNotNull(lectura.find(Usuario.class, id));
+        } finally {
+            lectura.close();
+        }
+    }
+
+    private long aciertosRegionUsuario() {
+        EstadisticasCache.Region region = EstadisticasCache.de(emf).getRegiones().get("usuario");
+        return region != null ? region.getAciertos() : 0;
+    }
+}
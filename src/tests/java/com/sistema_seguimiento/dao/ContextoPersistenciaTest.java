@@ -0,0 +1,182 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.Habito;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import jakarta.persistence.RollbackException;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EntityManager por petición: los DAOs comparten EntityManager y transacción
+ */
+class ContextoPersistenciaTest {
+
+    private static EntityManagerFactory emf;
+    private HabitoDAO habitoDAO;
+
+    @BeforeAll
+    static void setupClass() {
+        emf = Persistence.createEntityManagerFactory("test-persistence-unit");
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        habitoDAO = new HabitoDAO(emf);
+    }
+
+    @AfterEach
+    void cerrarContexto() {
+        ContextoPersistencia.cerrar(false);
+    }
+
+    @Test
+    void given_contextoAbierto_when_variosDAOs_then_compartenEntityManagerYConfirmanAlCerrar() {
+        ContextoPersistencia.abrir(emf);
+
+        Habito guardado = habitoDAO.save(nuevoHabito());
+        habitoDAO.registrarCompletado(guardado.getId(), LocalDate.now(), "en contexto");
+        Habito leido = habitoDAO.findById(guardado.getId()).orElseThrow();
+
+        // Caché de primer nivel compartida: misma instancia gestionada
+        assertSame(guardado, leido);
+        assertEquals(1, leido.getRachaActual());
+        assertNull(buscarFueraDelContexto(guardado.getId()), "Sin commit todavía");
+
+        ContextoPersistencia.cerrar(true);
+
+        assertNotNull(buscarFueraDelContexto(guardado.getId()));
+    }
+
+    @Test
+    void given_peticionConError_when_cerrar_then_rollbackDeTodosLosDAOs() {
+        ContextoPersistencia.abrir(emf);
+        Habito guardado = habitoDAO.save(nuevoHabito());
+
+        BaseDAO otroDAO = new BaseDAO(emf) { };
+        Habito otro = nuevoHabito();
+        otroDAO.executeWithTransaction(em -> em.persist(otro), "Error de prueba");
+
+        ContextoPersistencia.cerrar(false);
+
+        assertNull(buscarFueraDelContexto(guardado.getId()));
+        assertNull(buscarFueraDelContexto(otro.getId()));
+    }
+
+    @Test
+    void given_accionAlTerminar_when_cerrarContexto_then_seEjecutaDespuesDelCommit() {
+        List<String> acciones = new ArrayList<>();
+        ContextoPersistencia.alTerminar(() -> acciones.add("sin contexto"));
+        assertEquals(1, acciones.size(), "Sin contexto se ejecuta en el acto");
+
+        ContextoPersistencia.abrir(emf);
+        Habito guardado = habitoDAO.save(nuevoHabito());
+        ContextoPersistencia.alTerminar(() ->
+            acciones.add(buscarFueraDelContexto(guardado.getId()) != null ? "tras commit" : "antes del commit"));
+        assertEquals(1, acciones.size());
+
+        ContextoPersistencia.cerrar(true);
+
+        assertEquals(List.of("sin contexto", "tras commit"), acciones);
+    }
+
+    @Test
+    void given_accionTrasConfirmar_when_commitORollback_then_soloSeEjecutaTrasElCommit() {
+        List<String> acciones = new ArrayList<>();
+        ContextoPersistencia.trasConfirmar(() -> acciones.add("sin contexto"));
+        assertEquals(List.of("sin contexto"), acciones, "Sin contexto se ejecuta en el acto");
+
+        ContextoPersistencia.abrir(emf);
+        habitoDAO.save(nuevoHabito());
+        ContextoPersistencia.trasConfirmar(() -> acciones.add("revertida"));
+        ContextoPersistencia.alTerminar(() -> acciones.add("al terminar"));
+        ContextoPersistencia.cerrar(false);
+        assertEquals(List.of("sin contexto", "al terminar"), acciones, "Tras un rollback se descarta");
+
+        ContextoPersistencia.abrir(emf);
+        habitoDAO.save(nuevoHabito());
+        ContextoPersistencia.trasConfirmar(() -> acciones.add("confirmada"));
+        ContextoPersistencia.confirmar();
+        assertEquals(List.of("sin contexto", "al terminar", "confirmada"), acciones);
+    }
+
+    @Test
+    void given_confirmarAntesDeRedirigir_when_siguienteEscritura_then_abreTransaccionNueva() {
+        ContextoPersistencia.abrir(emf);
+        Habito primero = habitoDAO.save(nuevoHabito());
+
+        ContextoPersistencia.confirmar();
+        assertNotNull(buscarFueraDelContexto(primero.getId()));
+
+        Habito segundo = habitoDAO.save(nuevoHabito());
+        ContextoPersistencia.cerrar(false);
+
+        assertNotNull(buscarFueraDelContexto(primero.getId()));
+        assertNull(buscarFueraDelContexto(segundo.getId()));
+    }
+
+    @Test
+    void given_daoConErrorCapturado_when_confirmarAntesDeVista_then_lanzaRollbackSinGuardar() {
+        ContextoPersistencia.abrir(emf);
+        Habito guardado = habitoDAO.save(nuevoHabito());
+        BaseDAO otroDAO = new BaseDAO(emf) { };
+        // El servicio captura el error y sigue: la transacción queda marcada para rollback
+        assertThrows(RuntimeException.class, () -> otroDAO.executeWithTransaction(em -> {
+            throw new IllegalStateException("Fallo de prueba");
+        }, "Error de prueba"));
+
+        assertThrows(RollbackException.class, ContextoPersistencia::confirmarAntesDeVista);
+
+        assertNull(buscarFueraDelContexto(guardado.getId()));
+    }
+
+    @Test
+    void given_vista_when_modificarEntidadParaMostrarla_then_noSeEscribeEnLaBD() {
+        ContextoPersistencia.abrir(emf);
+        Habito guardado = habitoDAO.save(nuevoHabito());
+        String nombre = guardado.getNombre();
+
+        ContextoPersistencia.confirmarAntesDeVista();
+        guardado.setNombre(nombre.toUpperCase() + " (vista)");
+        Habito otro = habitoDAO.save(nuevoHabito());
+        ContextoPersistencia.cerrar(true);
+
+        assertEquals(nombre, buscarFueraDelContexto(guardado.getId()).getNombre());
+        assertNotNull(buscarFueraDelContexto(otro.getId()), "Las escrituras explícitas siguen funcionando");
+    }
+
+    @Test
+    void given_sinContexto_when_usarDAO_then_cadaOperacionConfirmaSola() {
+        assertFalse(ContextoPersistencia.estaAbierto());
+
+        Habito guardado = habitoDAO.save(nuevoHabito());
+
+        assertNotNull(buscarFueraDelContexto(guardado.getId()));
+    }
+
+    private Habito nuevoHabito() {
+        return new Habito("Contexto " + System.nanoTime(), "", Habito.FrecuenciaHabito.DIARIA, 1, 77);
+    }
+
+    private Habito buscarFueraDelContexto(Integer id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.find(Habito.class, id);
+        } finally {
+            em.close();
+        }
+    }
+}
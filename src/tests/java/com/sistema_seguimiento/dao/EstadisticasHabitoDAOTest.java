@@ -0,0 +1,232 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.EstadisticaPeriodo;
+import com.sistema_seguimiento.model.EstadisticaPeriodo.Granularidad;
+import com.sistema_seguimiento.model.Habito;
+import com.sistema_seguimiento.model.RegistroHabito;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Series de cumplimiento por día, semana y mes: dos consultas (hábitos y resumen diario, sin
+ * recorrer registro_habito) y el denominador acotado a los días en que cada hábito estaba previsto
+ */
+class EstadisticasHabitoDAOTest {
+
+    private static final LocalDate DESDE = LocalDate.of(2024, 6, 1); // sábado
+    private static final LocalDate HASTA = LocalDate.of(2024, 6, 30); // domingo
+
+    private static EntityManagerFactory emf;
+    private EstadisticasHabitoDAO estadisticasDAO;
+    private HabitoDAO habitoDAO;
+    private Integer usuarioId;
+
+    @BeforeAll
+    static void setupClass() {
+        emf = Persistence.createEntityManagerFactory("TestPU", Map.of("hibernate.generate_statistics", "true"));
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        estadisticasDAO = new EstadisticasHabitoDAO(emf);
+        habitoDAO = new HabitoDAO(emf);
+        usuarioId = UsuariosPrueba.crear(emf, "estadisticas");
+    }
+
+    @Test
+    void given_registrosDelMes_when_serieSemanal_then_dosConsultasYSemanasRecortadas() {
+        crearDatosDeJunio();
+        Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        List<EstadisticaPeriodo> serie = estadisticasDAO.serieCumplimiento(usuarioId, DESDE, HASTA, Granularidad.SEMANA);
+
+        assertEquals(2, estadisticas.getPrepareStatementCount());
+        assertTrue(Arrays.stream(estadisticas.getQueries()).noneMatch(q -> q.contains("RegistroHabito")),
+            "Los cumplidos salen del resumen diario");
+        assertEquals(5, serie.size());
+        EstadisticaPeriodo primera = serie.get(0);
+        assertEquals(DESDE, primera.getInicio());
+        assertEquals(LocalDate.of(2024, 6, 2), primera.getFin());
+        assertEquals(2, primera.getHabitos(), "El hábito inactivo sin fecha no está previsto");
+        assertEquals(4, primera.getDiasPosibles());
+        assertEquals(4, primera.getDiasCumplidos(), "Sus días cumplidos sí cuentan, como en el resumen diario");
+        assertEquals(11, serie.get(1).getDiasCumplidos(), "Registro por encima de la meta y registro sin meta no suman de más");
+        assertEquals(15, serie.get(1).getDiasPosibles(), "El 3 se cumplieron tres hábitos con dos previstos");
+        assertEquals(8, serie.get(2).getDiasCumplidos());
+        assertEquals(14, serie.get(2).getDiasPosibles());
+        assertEquals(7, serie.get(4).getDiasCumplidos());
+        assertEquals(50.0, serie.get(4).getPorcentaje(), 0.001);
+        assertEquals(HASTA, serie.get(4).getFin());
+    }
+
+    @Test
+    void given_registrosDelMes_when_serieDiariaYMensual_then_mismosTotales() {
+        crearDatosDeJunio();
+
+        List<EstadisticaPeriodo> dias = estadisticasDAO.serieCumplimiento(usuarioId, DESDE, HASTA, Granularidad.DIA);
+        List<EstadisticaPeriodo> meses = estadisticasDAO.serieCumplimiento(usuarioId, DESDE, HASTA, Granularidad.MES);
+
+        assertEquals(30, dias.size());
+        assertEquals(3, dias.get(2).getDiasCumplidos()); // 3 de junio
+        assertEquals(3, dias.get(2).getDiasPosibles());
+        assertEquals(2, dias.get(3).getDiasCumplidos()); // 4 de junio: Correr sin llegar a la meta
+        assertEquals(2, dias.get(9).getDiasCumplidos()); // 10 de junio
+        assertEquals(1, meses.size());
+        assertEquals(61, meses.get(0).getDiasPosibles());
+        assertEquals(37, meses.get(0).getDiasCumplidos());
+        assertEquals(37, dias.stream().mapToLong(EstadisticaPeriodo::getDiasCumplidos).sum());
+        assertEquals(61, dias.stream().mapToLong(EstadisticaPeriodo::getDiasPosibles).sum());
+    }
+
+    @Test
+    void given_sinHabitosOFechasInvertidas_when_serie_then_ceroOIllegalArgument() {
+        List<EstadisticaPeriodo> serie = estadisticasDAO.serieCumplimiento(usuarioId, DESDE, HASTA, Granularidad.MES);
+        assertEquals(0, serie.get(0).getHabitos());
+        assertEquals(0.0, serie.get(0).getPorcentaje());
+
+        assertThrows(IllegalArgumentException.class,
+            () -> estadisticasDAO.serieCumplimiento(usuarioId, HASTA, DESDE, Granularidad.DIA));
+    }
+
+    @Test
+    void given_habitoQueEmpiezaYOtroDesactivadoAMitadDeMes_when_serie_then_soloCuentanSusDiasPrevistos() {
+        // Leer todo junio (cumplido cada día), Nadar desde el 11 sin cumplir, Dejado hasta el 20 (cumplido)
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Habito leer = habito(em, "Leer", 1, true);
+            Habito nadar = habito(em, "Nadar", 1, true);
+            nadar.setFechaInicio(LocalDate.of(2024, 6, 11));
+            Habito dejado = habito(em, "Dejado", 1, false);
+            dejado.setFechaDesactivacion(LocalDate.of(2024, 6, 21));
+            for (LocalDate dia = DESDE; !dia.isAfter(HASTA); dia = dia.plusDays(1)) {
+                registro(em, leer, dia, 1);
+                if (dia.isBefore(LocalDate.of(2024, 6, 21))) {
+                    registro(em, dejado, dia, 1);
+                }
+            }
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+        new ResumenDiarioDAO(emf).reconstruir(usuarioId);
+
+        EstadisticaPeriodo mes = estadisticasDAO.totalCumplimiento(usuarioId, DESDE, HASTA);
+        assertEquals(3, mes.getHabitos());
+        assertEquals(30 + 20 + 20, mes.getDiasPosibles(), "Nadar solo desde el 11 y Dejado solo hasta el 20");
+        assertEquals(50, mes.getDiasCumplidos());
+
+        List<EstadisticaPeriodo> semanas = estadisticasDAO.serieCumplimiento(usuarioId, DESDE, HASTA, Granularidad.SEMANA);
+        assertEquals(2, semanas.get(0).getHabitos(), "Nadar aún no había empezado");
+        assertEquals(4, semanas.get(0).getDiasPosibles());
+        EstadisticaPeriodo ultima = semanas.get(4); // 24-30 de junio
+        assertEquals(2, ultima.getHabitos(), "Dejado ya no estaba previsto");
+        assertEquals(14, ultima.getDiasPosibles());
+        assertEquals(7, ultima.getDiasCumplidos());
+        assertEquals(50.0, ultima.getPorcentaje(), 0.001);
+    }
+
+    @Test
+    void given_registrosDeHoy_when_countHabitosCompletadosHoy_then_soloLosQueAlcanzanLaMeta() {
+        LocalDate hoy = LocalDate.now();
+        Habito leer = habitoDAO.save(new Habito("Leer", "", Habito.FrecuenciaHabito.DIARIA, 1, usuarioId));
+        Habito correr = habitoDAO.save(new Habito("Correr", "", Habito.FrecuenciaHabito.DIARIA, 2, usuarioId));
+        habitoDAO.registrarCompletado(leer.getId(), hoy, null);
+        habitoDAO.registrarCompletado(correr.getId(), hoy, null); // 1 de 2
+
+        assertEquals(1L, habitoDAO.countHabitosCompletadosHoy(usuarioId));
+        assertEquals(2, habitoDAO.findRegistrosDeHoy(usuarioId).size());
+    }
+
+    @Test
+    void given_registrosSinUsuario_when_migrar_then_copiaElUsuarioDelHabito() {
+        crearDatosDeJunio();
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.createNativeQuery("UPDATE registro_habito SET usuario_id = NULL WHERE usuario_id = :u")
+                .setParameter("u", usuarioId).executeUpdate();
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+
+        assertTrue(MigracionRegistroUsuario.aplicar(emf) >= 39);
+        assertEquals(0, MigracionRegistroUsuario.aplicar(emf));
+
+        em = emf.createEntityManager();
+        try {
+            List<RegistroHabito> registros = em.createQuery(
+                "SELECT r FROM RegistroHabito r WHERE r.habito.usuarioId = :u", RegistroHabito.class)
+                .setParameter("u", usuarioId).getResultList();
+            assertFalse(registros.isEmpty());
+            registros.forEach(r -> assertEquals(usuarioId, r.getUsuarioId()));
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Junio de 2024: Leer (meta 1) cumplido los 30 días, Correr (meta 2) cumplido el 3 y el 10
+     * (el 3 por encima de la meta) y a medias el 4, Viejo desactivado sin fecha conocida (no está
+     * previsto ningún día) cumplido del 1 al 5
+     */
+    private void crearDatosDeJunio() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Habito leer = habito(em, "Leer", 1, true);
+            Habito correr = habito(em, "Correr", 2, true);
+            Habito viejo = habito(em, "Viejo", 1, false);
+            viejo.setFechaDesactivacion(null);
+            for (LocalDate dia = DESDE; !dia.isAfter(HASTA); dia = dia.plusDays(1)) {
+                registro(em, leer, dia, 1);
+                if (dia.isBefore(LocalDate.of(2024, 6, 6))) {
+                    registro(em, viejo, dia, 1);
+                }
+            }
+            registro(em, correr, LocalDate.of(2024, 6, 3), 5);
+            registro(em, correr, LocalDate.of(2024, 6, 4), 1);
+            registro(em, correr, LocalDate.of(2024, 6, 10), 2);
+            registro(em, correr, LocalDate.of(2024, 7, 1), 2); // fuera del rango
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+        new ResumenDiarioDAO(emf).reconstruir(usuarioId);
+    }
+
+    private Habito habito(EntityManager em, String nombre, int meta, boolean activo) {
+        Habito habito = new Habito(nombre, "", Habito.FrecuenciaHabito.DIARIA, meta, usuarioId);
+        habito.setFechaInicio(DESDE);
+        habito.setActivo(activo);
+        em.persist(habito);
+        return habito;
+    }
+
+    private void registro(EntityManager em, Habito habito, LocalDate fecha, int veces) {
+        RegistroHabito registro = new RegistroHabito(habito, fecha, true, null);
+        registro.setVecesRealizado(veces);
+        em.persist(registro);
+    }
+
+}
@@ -0,0 +1,351 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.services.CargaParalela;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba de carga: modelo actual (pool fijo de hilos de plataforma, como los hilos del
+ * contenedor) frente a hilos virtuales con el acceso a la BD acotado por LimiteConexiones.
+ *
+ * Cada petición simulada espera fuera de la BD (red, render) y después hace una transacción
+ * que retiene la conexión un tiempo fijo, como un round-trip al pooler remoto. Se comparan
+ * throughput y p99 de la latencia medida desde que llega la petición.
+ *
+ * También con el contexto por petición: cada petición hace además una lectura anidada (otro
+ * DAO en el mismo hilo, que recibe el EntityManager compartido) y pinta la vista después de
+ * confirmar.
+ */
+class HilosVirtualesLoadTest {
+
+    private static final int PETICIONES = 320;
+    private static final int HILOS_PLATAFORMA = 8;
+    private static final int MAXIMO_POOL = 4;
+    private static final long ESPERA_FUERA_BD_MS = 30;
+    private static final long ESPERA_EN_BD_MS = 5;
+
+    private static EntityManagerFactory emf;
+    private final AtomicInteger enBD = new AtomicInteger();
+    private final AtomicInteger maximoEnBD = new AtomicInteger();
+
+    @BeforeAll
+    static void setupClass() {
+        emf = Persistence.createEntityManagerFactory("pool-test-unit");
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        LimiteConexiones.configurar(0, 0);
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @Test
+    void given_cargaConcurrente_when_hilosVirtualesConLimite_then_masThroughputYMenorP99() throws Exception {
+        LimiteConexiones.configurar(0, 0);
+        try (ExecutorService calentamiento = Executors.newFixedThreadPool(MAXIMO_POOL)) {
+            ejecutar(calentamiento, 20);
+        }
+
+        Resultado plataforma;
+        try (ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS_PLATAFORMA)) {
+            plataforma = ejecutar(ejecutor, PETICIONES);
+        }
+
+        LimiteConexiones.configurar(MAXIMO_POOL, 10_000);
+        long rechazosIniciales = LimiteConexiones.getRechazos();
+        maximoEnBD.set(0);
+        Resultado virtuales;
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            virtuales = ejecutar(ejecutor, PETICIONES);
+        }
+
+        System.out.println("📊 Plataforma (" + HILOS_PLATAFORMA + " hilos): " + plataforma);
+        System.out.println("📊 Virtuales (BD limitada a " + MAXIMO_POOL + "): " + virtuales);
+
+        assertEquals(0, LimiteConexiones.getRechazos() - rechazosIniciales);
+        assertTrue(maximoEnBD.get() <= MAXIMO_POOL, "El semáforo no deja más EntityManagers que conexiones");
+        assertEquals(MAXIMO_POOL, LimiteConexiones.getDisponibles(), "Todos los permisos devueltos");
+        assertTrue(virtuales.throughput() > plataforma.throughput());
+        assertTrue(virtuales.p99Ms < plataforma.p99Ms);
+    }
+
+    @Test
+    void given_limiteAgotado_when_esperaMaxima_then_fallaSinBloquear() {
+        LimiteConexiones.configurar(1, 50);
+        EntityManager ocupado = ContextoPersistencia.entityManagerPara(emf);
+        try {
+            IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> ContextoPersistencia.entityManagerPara(emf));
+            assertTrue(error.getMessage().contains("Sin acceso a la BD"));
+        } finally {
+            ocupado.close();
+            ocupado.close(); // Un segundo close no devuelve otro permiso
+        }
+        assertEquals(1, LimiteConexiones.getDisponibles());
+        LimiteConexiones.configurar(0, 0);
+    }
+
+    @Test
+    void given_peticionesConLecturaAnidada_when_limiteAgotado_then_unPermisoPorPeticionSinBloquearse() throws Exception {
+        LimiteConexiones.configurar(MAXIMO_POOL, 2_000);
+        long rechazosIniciales = LimiteConexiones.getRechazos();
+        long adquisicionesIniciales = LimiteConexiones.getAdquisiciones();
+
+        Resultado resultado;
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            resultado = ejecutar(ejecutor, PETICIONES, this::atenderPeticionConContexto);
+        }
+        System.out.println("📊 Con lectura anidada (BD limitada a " + MAXIMO_POOL + "): " + resultado);
+
+        assertEquals(0, LimiteConexiones.getRechazos() - rechazosIniciales, "Ninguna petición se queda sin permiso");
+        assertEquals(PETICIONES, LimiteConexiones.getAdquisiciones() - adquisicionesIniciales,
+            "La lectura anidada usa el EntityManager compartido y su permiso");
+        assertEquals(MAXIMO_POOL, LimiteConexiones.getDisponibles(), "Todos los permisos devueltos");
+        LimiteConexiones.configurar(0, 0);
+    }
+
+    @Test
+    void given_peticionConPermiso_when_abreOtroEntityManager_then_tomaOtroPermiso() {
+        LimiteConexiones.configurar(2, 50);
+        ContextoPersistencia.abrir(emf);
+        try {
+            ContextoPersistencia.entityManagerPara(emf).createQuery("SELECT COUNT(h) FROM Habito h", Long.class).getSingleResult();
+            assertEquals(1, LimiteConexiones.getDisponibles());
+
+            EntityManager propio = LimiteConexiones.crearEntityManager(emf);
+            try {
+                assertEquals(0, LimiteConexiones.getDisponibles(), "Otra conexión, otro permiso");
+                assertThrows(IllegalStateException.class, () -> LimiteConexiones.crearEntityManager(emf));
+            } finally {
+                propio.close();
+            }
+            assertEquals(1, LimiteConexiones.getDisponibles());
+        } finally {
+            ContextoPersistencia.cerrar(true);
+        }
+        assertEquals(2, LimiteConexiones.getDisponibles());
+        LimiteConexiones.configurar(0, 0);
+    }
+
+    @Test
+    void given_vistaPintandose_when_otraPeticionPideLaBD_then_elPermisoYaSeDevolvio() throws Exception {
+        LimiteConexiones.configurar(1, 200);
+        ContextoPersistencia.abrir(emf);
+        try {
+            ContextoPersistencia.entityManagerPara(emf).createQuery("SELECT COUNT(h) FROM Habito h", Long.class).getSingleResult();
+            assertEquals(0, LimiteConexiones.getDisponibles());
+
+            ContextoPersistencia.confirmarAntesDeVista();
+            assertEquals(1, LimiteConexiones.getDisponibles(), "Confirmar devuelve el permiso antes de pintar");
+            try (ExecutorService otra = Executors.newVirtualThreadPerTaskExecutor()) {
+                Future<Long> lectura = otra.submit(() -> {
+                    EntityManager em = ContextoPersistencia.entityManagerPara(emf);
+                    try {
+                        return em.createQuery("SELECT COUNT(h) FROM Habito h", Long.class).getSingleResult();
+                    } finally {
+                        em.close();
+                    }
+                });
+                assertNotNull(lectura.get(5, TimeUnit.SECONDS), "Otra petición lee mientras se pinta la vista");
+            }
+        } finally {
+            ContextoPersistencia.cerrar(true);
+        }
+        assertEquals(1, LimiteConexiones.getDisponibles());
+        LimiteConexiones.configurar(0, 0);
+    }
+
+    @Test
+    void given_peticionConElUnicoPermiso_when_repartirLecturas_then_valorPorDefectoSinEsperar() {
+        LimiteConexiones.configurar(1, 5_000);
+        ContextoPersistencia.abrir(emf);
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            ContextoPersistencia.entityManagerPara(emf).createQuery("SELECT COUNT(h) FROM Habito h", Long.class).getSingleResult();
+
+            long inicio = System.nanoTime();
+            CargaParalela.Composicion carga = new CargaParalela(ejecutor, 5_000).iniciar();
+            CargaParalela.Parte<Long> habitos = carga.agregar("habitos", this::contarHabitos, -1L);
+
+            assertFalse(carga.esperar());
+            assertEquals(-1L, habitos.get());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) < 1_000,
+                "La lectura no espera el permiso que retiene su propia petición");
+        } finally {
+            ContextoPersistencia.cerrar(true);
+        }
+        assertEquals(1, LimiteConexiones.getDisponibles());
+        LimiteConexiones.configurar(0, 0);
+    }
+
+    @Test
+    void given_lecturasRepartidas_when_hayPermisosLibres_then_cadaUnaTomaElSuyo() {
+        LimiteConexiones.configurar(3, 200);
+        long adquisicionesIniciales = LimiteConexiones.getAdquisiciones();
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CargaParalela.Composicion carga = new CargaParalela(ejecutor, 5_000).iniciar();
+            CargaParalela.Parte<Long> habitos = carga.agregar("habitos", this::contarHabitos, -1L);
+            CargaParalela.Parte<Long> otra = carga.agregar("otra", this::contarHabitos, -1L);
+
+            assertTrue(carga.esperar(), "Incompletas: " + carga.getPartesIncompletas());
+            assertTrue(habitos.get() >= 0 && otra.get() >= 0);
+        }
+        assertEquals(2, LimiteConexiones.getAdquisiciones() - adquisicionesIniciales);
+        assertEquals(3, LimiteConexiones.getDisponibles());
+        LimiteConexiones.configurar(0, 0);
+    }
+
+    @Test
+    void given_lecturaVencida_when_sigueEnLaBD_then_retieneSuPermisoHastaCerrar() throws Exception {
+        LimiteConexiones.configurar(2, 200);
+        CountDownLatch leyendo = new CountDownLatch(1);
+        CountDownLatch terminar = new CountDownLatch(1);
+        CountDownLatch cerrada = new CountDownLatch(1);
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CargaParalela.Composicion carga = new CargaParalela(ejecutor, 100).iniciar();
+            CargaParalela.Parte<Long> lenta = carga.agregar("lenta", () -> {
+                EntityManager em = ContextoPersistencia.entityManagerPara(emf);
+                try {
+                    leyendo.countDown();
+                    // Una lectura JDBC no atiende la cancelación: se simula sin interrupción
+                    boolean terminada = false;
+                    while (!terminada) {
+                        try {
+                            terminada = terminar.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            // Sigue leyendo
+                        }
+                    }
+                    return em.createQuery("SELECT COUNT(h) FROM Habito h", Long.class).getSingleResult();
+                } finally {
+                    em.close();
+                    cerrada.countDown();
+                }
+            }, -1L);
+
+            assertTrue(leyendo.await(5, TimeUnit.SECONDS));
+            assertEquals(-1L, lenta.get());
+            assertEquals(1, LimiteConexiones.getDisponibles(), "La lectura vencida conserva su permiso");
+
+            terminar.countDown();
+            assertTrue(cerrada.await(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2, LimiteConexiones.getDisponibles(), "Al cerrar su EntityManager lo devuelve");
+        LimiteConexiones.configurar(0, 0);
+    }
+
+    private Long contarHabitos() {
+        EntityManager em = ContextoPersistencia.entityManagerPara(emf);
+        try {
+            return em.createQuery("SELECT COUNT(h) FROM Habito h", Long.class).getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+
+    private Resultado ejecutar(ExecutorService ejecutor, int peticiones) throws Exception {
+        return ejecutar(ejecutor, peticiones, this::atenderPeticion);
+    }
+
+    private Resultado ejecutar(ExecutorService ejecutor, int peticiones, Peticion peticion) throws Exception {
+        List<Future<Long>> tareas = new ArrayList<>(peticiones);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < peticiones; i++) {
+            long llegada = System.nanoTime();
+            tareas.add(ejecutor.submit(() -> {
+                peticion.atender();
+                return System.nanoTime() - llegada;
+            }));
+        }
+        long[] latencias = new long[peticiones];
+        for (int i = 0; i < peticiones; i++) {
+            latencias[i] = tareas.get(i).get(60, TimeUnit.SECONDS);
+        }
+        long duracionNanos = System.nanoTime() - inicio;
+        Arrays.sort(latencias);
+        long p99 = latencias[(int) Math.ceil(peticiones * 0.99) - 1];
+        return new Resultado(peticiones, TimeUnit.NANOSECONDS.toMillis(duracionNanos), TimeUnit.NANOSECONDS.toMillis(p99));
+    }
+
+    private void atenderPeticion() throws InterruptedException {
+        Thread.sleep(ESPERA_FUERA_BD_MS);
+        EntityManager em = ContextoPersistencia.entityManagerPara(emf);
+        try {
+            maximoEnBD.accumulateAndGet(enBD.incrementAndGet(), Math::max);
+            em.getTransaction().begin();
+            em.createQuery("SELECT COUNT(h) FROM Habito h", Long.class).getSingleResult();
+            Thread.sleep(ESPERA_EN_BD_MS); // Conexión retenida, como un round-trip remoto
+            em.getTransaction().commit();
+        } finally {
+            enBD.decrementAndGet();
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    /**
+     * Petición con el contexto por petición: lectura con el EntityManager compartido, lectura
+     * anidada de otro DAO en el mismo hilo (pide su EntityManager y lo cierra) y vista pintada
+     * tras confirmar
+     */
+    private void atenderPeticionConContexto() throws InterruptedException {
+        Thread.sleep(ESPERA_FUERA_BD_MS);
+        ContextoPersistencia.abrir(emf);
+        boolean exito = false;
+        try {
+            ContextoPersistencia.entityManagerPara(emf).createQuery("SELECT COUNT(h) FROM Habito h", Long.class).getSingleResult();
+            EntityManager anidado = ContextoPersistencia.entityManagerPara(emf);
+            try {
+                anidado.createQuery("SELECT COUNT(h) FROM Habito h", Long.class).getSingleResult();
+                Thread.sleep(ESPERA_EN_BD_MS);
+            } finally {
+                anidado.close();
+            }
+            ContextoPersistencia.confirmarAntesDeVista();
+            Thread.sleep(ESPERA_FUERA_BD_MS); // Render de la vista sin permiso
+            exito = true;
+        } finally {
+            ContextoPersistencia.cerrar(exito);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Peticion {
+        void atender() throws Exception;
+    }
+
+    private static final class Resultado {
+        private final int peticiones;
+        private final long duracionMs;
+        private final long p99Ms;
+
+        private Resultado(int peticiones, long duracionMs, long p99Ms) {
+            this.peticiones = peticiones;
+            this.duracionMs = duracionMs;
+            this.p99Ms = p99Ms;
+        }
+
+        private double throughput() {
+            return peticiones * 1000.0 / Math.max(duracionMs, 1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d peticiones en %d ms (%.0f pet/s), p99=%d ms",
+                peticiones, duracionMs, throughput(), p99Ms);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.Habito;
+import com.sistema_seguimiento.model.PaginaRegistros;
+import com.sistema_seguimiento.model.RegistroHabito;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Listado de hábitos con ventana de registros y paginación por cursor del historial
+ */
+class HistorialVentanaTest {
+
+    private static final int DIAS_HISTORIAL = 100;
+
+    private static EntityManagerFactory emf;
+    private HabitoDAO habitoDAO;
+    private Integer usuarioId;
+
+    @BeforeAll
+    static void setupClass() {
+        emf = Persistence.createEntityManagerFactory("TestPU", Map.of("hibernate.generate_statistics", "true"));
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        habitoDAO = new HabitoDAO(emf);
+        usuarioId = UsuariosPrueba.crear(emf, "historial");
+    }
+
+    @Test
+    void given_historialLargo_when_findByUsuarioId_then_soloRegistrosDeLaVentana() {
+        crearHabitoConHistorial("Leer", DIAS_HISTORIAL);
+
+        List<Habito> habitos = habitoDAO.findByUsuarioId(usuarioId);
+
+        assertEquals(1, habitos.size());
+        Habito habito = habitos.get(0);
+        LocalDate desde = LocalDate.now().minusDays(HabitoDAO.DIAS_VENTANA - 1);
+        assertEquals(desde, habito.getVentanaRegistrosDesde());
+        assertEquals(HabitoDAO.DIAS_VENTANA, habito.getRegistros().size());
+        assertTrue(habito.getRegistros().stream().noneMatch(r -> r.getFecha().isBefore(desde)));
+        assertEquals(DIAS_HISTORIAL, habito.calcularRachaActual(), "La racha no se limita a la ventana");
+    }
+
+    @Test
+    void given_habitoSinCalendario_when_findByUsuarioId_then_noEscribeYElArranqueLoConstruye() {
+        Habito antiguo = crearHabitoConHistorial("Antiguo", 40);
+
+        assertEquals(40, habitoDAO.findByUsuarioId(usuarioId).get(0).calcularRachaActual());
+        assertNull(leerCalendarioDesde(antiguo.getId()), "La lectura no construye el calendario en la BD");
+
+        assertTrue(habitoDAO.construirCalendariosPendientes() >= 1);
+
+        assertEquals(LocalDate.now().minusDays(39), leerCalendarioDesde(antiguo.getId()));
+        assertEquals(0, habitoDAO.construirCalendariosPendientes());
+    }
+
+    @Test
+    void given_variosHabitos_when_findByUsuarioId_then_dosConsultas() {
+        crearHabitoConHistorial("Correr", 40);
+        crearHabitoConHistorial("Meditar", 40);
+        crearHabitoConHistorial("Beber agua", 40);
+        habitoDAO.construirCalendariosPendientes();
+        Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        List<Habito> habitos = habitoDAO.findByUsuarioId(usuarioId);
+
+        assertEquals(2, estadisticas.getPrepareStatementCount(), "Hábitos y registros de la ventana");
+        assertEquals(3, habitos.size());
+        habitos.forEach(h -> assertEquals(HabitoDAO.DIAS_VENTANA, h.getRegistros().size()));
+    }
+
+    @Test
+    void given_cursorDeLaVentana_when_paginarHistorial_then_recorreElRestoSinRepetir() {
+        Habito habito = crearHabitoConHistorial("Escribir", DIAS_HISTORIAL);
+        LocalDate desde = habitoDAO.findByUsuarioId(usuarioId).get(0).getVentanaRegistrosDesde();
+
+        String cursor = PaginaRegistros.cursorAntesDe(desde);
+        Set<LocalDate> vistos = new HashSet<>();
+        LocalDate anterior = desde;
+        int paginas = 0;
+        do {
+            PaginaRegistros pagina = habitoDAO.findHistorial(habito.getId(), usuarioId, cursor, 25);
+            for (RegistroHabito registro : pagina.getRegistros()) {
+                assertTrue(registro.getFecha().isBefore(anterior), "Orden descendente sin solaparse con la ventana");
+                assertTrue(vistos.add(registro.getFecha()));
+                anterior = registro.getFecha();
+            }
+            cursor = pagina.getSiguienteCursor();
+            paginas++;
+        } while (cursor != null);
+
+        assertEquals(DIAS_HISTORIAL - HabitoDAO.DIAS_VENTANA, vistos.size());
+        assertEquals(3, paginas);
+    }
+
+    @Test
+    void given_habitoDeOtroUsuario_when_findHistorial_then_paginaVacia() {
+        Habito habito = crearHabitoConHistorial("Ajeno", 10);
+
+        PaginaRegistros pagina = habitoDAO.findHistorial(habito.getId(), usuarioId + 1000, null, 30);
+
+        assertTrue(pagina.getRegistros().isEmpty());
+        assertFalse(pagina.tieneMas());
+    }
+
+    @Test
+    void given_cursorMalFormado_when_findHistorial_then_illegalArgument() {
+        Habito habito = crearHabitoConHistorial("Cursor", 5);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> habitoDAO.findHistorial(habito.getId(), usuarioId, "ayer", 30));
+    }
+
+    /**
+     * Registros de los últimos dias días insertados directamente, como las filas anteriores
+     * al calendario: sin backfill el listado calcula el calendario en memoria para no perder la racha
+     */
+    private Habito crearHabitoConHistorial(String nombre, int dias) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Habito habito = new Habito(nombre, "", Habito.FrecuenciaHabito.DIARIA, 1, usuarioId);
+            habito.setFechaInicio(LocalDate.now().minusDays(dias - 1));
+            em.persist(habito);
+            for (int i = 0; i < dias; i++) {
+                RegistroHabito registro = new RegistroHabito(habito, LocalDate.now().minusDays(i), true, null);
+                registro.setVecesRealizado(1);
+                em.persist(registro);
+            }
+            em.getTransaction().commit();
+            return habito;
+        } finally {
+            em.close();
+        }
+    }
+
+    private LocalDate leerCalendarioDesde(Integer habitoId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT h.calendarioDesde FROM Habito h WHERE h.id = :id", LocalDate.class)
+                .setParameter("id", habitoId)
+                .getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.Habito;
+import com.sistema_seguimiento.model.MoodEntry;
+import com.sistema_seguimiento.model.RegistroHabito;
+import com.sistema_seguimiento.model.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rendimiento de inserciones masivas de RegistroHabito y MoodEntry
+ *
+ * Compara los ids de secuencia pooled-lo con lotes JDBC (batch_size=50) contra una
+ * sentencia por fila (batch_size=0), que es lo que obligaba IDENTITY: Hibernate tenía
+ * que ejecutar cada INSERT para leer el id generado. Imprime filas/s de cada modo y
+ * comprueba el número de sentencias preparadas, que no depende del equipo.
+ */
+class InsercionMasivaBenchmarkTest {
+
+    private static final int FILAS = 2000;
+    private static final int REPETICIONES = 3;
+
+    private static EntityManagerFactory emfConLotes;
+    private static EntityManagerFactory emfSinLotes;
+
+    @BeforeAll
+    static void setupClass() {
+        emfConLotes = crearFactoria("bench_con_lotes", "50");
+        emfSinLotes = crearFactoria("bench_sin_lotes", "0");
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        emfConLotes.close();
+        emfSinLotes.close();
+    }
+
+    @Test
+    void given_secuenciasPooled_when_insertarRegistrosHabito_then_insertsEnLotes() {
+        comparar("RegistroHabito", InsercionMasivaBenchmarkTest::insertarRegistros);
+    }
+
+    @Test
+    void given_secuenciasPooled_when_insertarMoodEntries_then_insertsEnLotes() {
+        comparar("MoodEntry", InsercionMasivaBenchmarkTest::insertarMoods);
+    }
+
+    private void comparar(String entidad, BiConsumer<EntityManager, Integer> insercion) {
+        Resultado conLotes = medir(emfConLotes, insercion);
+        Resultado sinLotes = medir(emfSinLotes, insercion);
+
+        System.out.printf("📊 %s x%d: con lotes %.0f filas/s (%d sentencias), una por fila %.0f filas/s (%d sentencias)%n",
+                entidad, FILAS, conLotes.filasPorSegundo, conLotes.sentencias,
+                sinLotes.filasPorSegundo, sinLotes.sentencias);
+
+        // Con pooled-lo: FILAS/50 llamadas a la secuencia + FILAS/50 lotes de INSERT (+ datos previos)
+        assertTrue(conLotes.sentencias <= FILAS / 50 * 2 + 10,
+                "Demasiadas sentencias con lotes: " + conLotes.sentencias);
+        assertTrue(sinLotes.sentencias >= FILAS, "Sin lotes cada fila es una sentencia");
+    }
+
+    private Resultado medir(EntityManagerFactory emf, BiConsumer<EntityManager, Integer> insercion) {
+        Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        long mejorNanos = Long.MAX_VALUE;
+        long sentencias = 0;
+        for (int i = 0; i < REPETICIONES; i++) {
+            EntityManager em = emf.createEntityManager();
+            try {
+                em.getTransaction().begin();
+                Integer propietario = prepararDatos(em);
+                estadisticas.clear();
+
+                long inicio = System.nanoTime();
+                insercion.accept(em, propietario);
+                em.getTransaction().commit();
+                long nanos = System.nanoTime() - inicio;
+
+                // La primera vuelta calienta JIT y caché de sentencias
+                if (i > 0) {
+                    mejorNanos = Math.min(mejorNanos, nanos);
+                }
+                sentencias = estadisticas.getPrepareStatementCount();
+            } finally {
+                em.close();
+            }
+        }
+        return new Resultado(FILAS * 1_000_000_000.0 / mejorNanos, sentencias);
+    }
+
+    private static Integer prepararDatos(EntityManager em) {
+        Usuario usuario = UsuariosPrueba.nuevo("bench");
+        em.persist(usuario);
+
+        Habito habito = new Habito("Bench " + usuario.getUsername(), "", Habito.FrecuenciaHabito.DIARIA, 1, usuario.getId());
+        em.persist(habito);
+        em.flush();
+        return habito.getId();
+    }
+
+    private static void insertarRegistros(EntityManager em, Integer habitoId) {
+        Habito habito = em.find(Habito.class, habitoId);
+        LocalDate hoy = LocalDate.now();
+        for (int i = 0; i < FILAS; i++) {
+            RegistroHabito registro = new RegistroHabito(habito, hoy.minusDays(i), true, null);
+            registro.setVecesRealizado(1);
+            em.persist(registro);
+            if ((i + 1) % 50 == 0) {
+                em.flush();
+            }
+        }
+    }
+
+    private static void insertarMoods(EntityManager em, Integer habitoId) {
+        Usuario usuario = em.find(Usuario.class, em.find(Habito.class, habitoId).getUsuarioId());
+        LocalDate hoy = LocalDate.now();
+        for (int i = 0; i < FILAS; i++) {
+            MoodEntry mood = new MoodEntry(usuario.getId(), hoy.minusDays(i), "feliz", null);
+            mood.setUsuario(usuario);
+            em.persist(mood);
+            if ((i + 1) % 50 == 0) {
+                em.flush();
+            }
+        }
+    }
+
+    private static EntityManagerFactory crearFactoria(String baseDatos, String tamanoLote) {
+        Map<String, Object> propiedades = new HashMap<>();
+        propiedades.put("jakarta.persistence.jdbc.url", "jdbc:h2:mem:" + baseDatos + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+        propiedades.put("hibernate.jdbc.batch_size", tamanoLote);
+        propiedades.put("hibernate.order_inserts", "true");
+        propiedades.put("hibernate.show_sql", "false");
+        propiedades.put("hibernate.generate_statistics", "true");
+        return Persistence.createEntityManagerFactory("test-persistence-unit", propiedades);
+    }
+
+    private static final class Resultado {
+        private final double filasPorSegundo;
+        private final long sentencias;
+
+        private Resultado(double filasPorSegundo, long sentencias) {
+            this.filasPorSegundo = filasPorSegundo;
+            this.sentencias = sentencias;
+        }
+    }
+}
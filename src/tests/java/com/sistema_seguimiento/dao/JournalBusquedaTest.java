@@ -0,0 +1,170 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.CoincidenciaDiario;
+import com.sistema_seguimiento.model.JournalEntry;
+import com.sistema_seguimiento.model.PaginaBusquedaDiario;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Búsqueda de texto completo en el diario con el índice en memoria (H2): relevancia, páginas,
+ * fragmentos resaltados y entradas nuevas indexadas sin reconstruir el índice
+ */
+class JournalBusquedaTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2031, 3, 1, 20, 0);
+
+    private static EntityManagerFactory emf;
+    private JournalDAO journalDAO;
+    private Integer usuarioId;
+
+    @BeforeAll
+    static void setupClass() {
+        emf = Persistence.createEntityManagerFactory("test-persistence-unit");
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        journalDAO = new JournalDAO(emf);
+        usuarioId = UsuariosPrueba.crear(emf, "diario");
+    }
+
+    @Test
+    void given_variasEntradas_when_buscar_then_todasLasPalabrasYLaMasRelevantePrimero() {
+        guardar("Hoy salí a correr por el parque y después leí un rato", 0);
+        guardar("Correr, correr y correr: mi ánimo mejora cuando salgo a correr", 1);
+        guardar("Día tranquilo en casa, leí un libro", 2);
+        guardar("Quiero correr mañana si no llueve", 3);
+
+        PaginaBusquedaDiario resultado = journalDAO.searchJournalEntries(usuarioId, "correr", 1, 10);
+
+        assertEquals(3, resultado.getTotal());
+        assertTrue(resultado.getCoincidencias().get(0).getFragmento().startsWith("<mark>Correr</mark>, <mark>correr</mark>"),
+            "La entrada que más repite el término va primero");
+        assertFalse(resultado.tieneMas());
+
+        PaginaBusquedaDiario ambas = journalDAO.searchJournalEntries(usuarioId, "correr leí", 1, 10);
+        assertEquals(1, ambas.getTotal(), "Deben aparecer todas las palabras");
+
+        PaginaBusquedaDiario sinTildes = journalDAO.searchJournalEntries(usuarioId, "ANIMO", 1, 10);
+        assertEquals(1, sinTildes.getTotal(), "Sin distinguir mayúsculas ni tildes");
+        assertTrue(sinTildes.getCoincidencias().get(0).getFragmento().contains("<mark>ánimo</mark>"));
+
+        assertEquals(0, journalDAO.searchJournalEntries(usuarioId, "de la que", 1, 10).getTotal(),
+            "Solo palabras vacías: nada que buscar");
+        assertEquals(0, journalDAO.searchJournalEntries(usuarioId, "nadar", 1, 10).getTotal());
+    }
+
+    @Test
+    void given_muchasCoincidencias_when_paginar_then_sinRepetidosYMasRecientePrimeroAIgualPuntuacion() {
+        for (int i = 0; i < 25; i++) {
+            guardar("Meditación antes de dormir", i);
+        }
+
+        Set<Integer> vistos = new HashSet<>();
+        PaginaBusquedaDiario primera = journalDAO.searchJournalEntries(usuarioId, "meditacion", 1, 10);
+        PaginaBusquedaDiario segunda = journalDAO.searchJournalEntries(usuarioId, "meditacion", 2, 10);
+        PaginaBusquedaDiario tercera = journalDAO.searchJournalEntries(usuarioId, "meditacion", 3, 10);
+        PaginaBusquedaDiario cuarta = journalDAO.searchJournalEntries(usuarioId, "meditacion", 4, 10);
+
+        assertEquals(List.of(10, 10, 5, 0), List.of(primera.getCoincidencias().size(), segunda.getCoincidencias().size(),
+            tercera.getCoincidencias().size(), cuarta.getCoincidencias().size()));
+        assertEquals(25, cuarta.getTotal());
+        assertTrue(primera.tieneMas());
+        assertTrue(segunda.tieneMas());
+        assertFalse(tercera.tieneMas());
+        for (PaginaBusquedaDiario pagina : List.of(primera, segunda, tercera)) {
+            pagina.getCoincidencias().forEach(c -> assertTrue(vistos.add(c.getEntradaId()), "Sin repetidos entre páginas"));
+        }
+        assertEquals(BASE.plusHours(24), primera.getCoincidencias().get(0).getCreatedAt());
+        assertEquals(BASE, tercera.getCoincidencias().get(4).getCreatedAt());
+    }
+
+    @Test
+    void given_entradaLargaConHtml_when_buscar_then_fragmentoRecortadoEscapadoYResaltado() {
+        String relleno = "palabra ".repeat(40);
+        guardar(relleno + "<b>gratitud</b> por mi familia & amigos " + relleno, 0);
+
+        CoincidenciaDiario coincidencia = journalDAO.searchJournalEntries(usuarioId, "gratitud familia", 1, 10)
+            .getCoincidencias().get(0);
+
+        String fragmento = coincidencia.getFragmento();
+        assertTrue(fragmento.contains("&lt;b&gt;<mark>gratitud</mark>&lt;/b&gt; por mi <mark>familia</mark> &amp; amigos"),
+            fragmento);
+        assertTrue(fragmento.startsWith("…") && fragmento.endsWith("…"));
+        assertTrue(fragmento.length() < IndiceDiario.LARGO_FRAGMENTO + 80);
+        assertFalse(fragmento.contains("<b>"));
+    }
+
+    @Test
+    void given_indiceConstruido_when_guardarEntrada_then_seEncuentraSinReconstruir() {
+        guardar("Primera semana de yoga", 0);
+        assertEquals(1, journalDAO.searchJournalEntries(usuarioId, "yoga", 1, 10).getTotal());
+        long cargas = IndiceDiario.para(emf).getCargas();
+
+        JournalEntry nueva = guardar("Segunda semana de yoga, ya toco el suelo", 1);
+
+        PaginaBusquedaDiario resultado = journalDAO.searchJournalEntries(usuarioId, "yoga suelo", 1, 10);
+        assertEquals(1, resultado.getTotal());
+        assertEquals(nueva.getId(), resultado.getCoincidencias().get(0).getEntradaId());
+        assertEquals(cargas, IndiceDiario.para(emf).getCargas(), "La entrada nueva se añade al índice existente");
+
+        Integer otro = UsuariosPrueba.crear(emf, "diario");
+        journalDAO.storeJournalEntry(new JournalEntry(otro, "Mi propio yoga", BASE));
+        assertEquals(2, journalDAO.searchJournalEntries(usuarioId, "yoga", 1, 10).getTotal(),
+            "Solo las entradas del usuario");
+        assertEquals(1, journalDAO.searchJournalEntries(otro, "yoga", 1, 10).getTotal());
+    }
+
+    @Test
+    void given_entradaEnPeticionRevertida_when_buscar_then_noEstaEnElIndice() {
+        guardar("Paseo por la playa", 0);
+        assertEquals(1, journalDAO.searchJournalEntries(usuarioId, "playa", 1, 10).getTotal());
+
+        ContextoPersistencia.abrir(emf);
+        try {
+            guardar("Otra vez la playa", 1);
+        } finally {
+            ContextoPersistencia.cerrar(false);
+        }
+
+        assertEquals(1, journalDAO.searchJournalEntries(usuarioId, "playa", 1, 10).getTotal());
+        assertEquals(1, IndiceDiario.para(emf).usuario(usuarioId, List::of).buscar(Set.of("playa")).size(),
+            "La entrada revertida no llega al índice");
+    }
+
+    @Test
+    void given_masUsuariosQueElMaximo_when_buscar_then_seDesalojaElMenosReciente() {
+        IndiceDiario indice = IndiceDiario.para(emf);
+        for (int i = 0; i <= IndiceDiario.MAX_USUARIOS; i++) {
+            indice.usuario(-1 - i, List::of);
+        }
+        long cargas = indice.getCargas();
+
+        assertTrue(indice.getUsuarios() <= IndiceDiario.MAX_USUARIOS);
+        indice.usuario(-1 - IndiceDiario.MAX_USUARIOS, List::of);
+        assertEquals(cargas, indice.getCargas(), "El más reciente sigue en memoria");
+        indice.usuario(-1, List::of);
+        assertEquals(cargas + 1, indice.getCargas(), "El primero se desalojó y se reconstruye");
+    }
+
+    private JournalEntry guardar(String contenido, int horas) {
+        return journalDAO.storeJournalEntry(new JournalEntry(usuarioId, contenido, BASE.plusHours(horas)));
+    }
+
+}
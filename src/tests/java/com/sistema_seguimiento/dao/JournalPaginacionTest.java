@@ -0,0 +1,128 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.JournalEntry;
+import com.sistema_seguimiento.model.PaginaDiario;
+import com.sistema_seguimiento.model.ResumenEntradaDiario;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Diario por páginas con cursor (createdAt, id) y solo un extracto de cada entrada, y
+ * exportación recorriendo un cursor de la BD sin cargar entidades
+ */
+class JournalPaginacionTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2032, 5, 1, 9, 30);
+
+    private static EntityManagerFactory emf;
+    private JournalDAO journalDAO;
+    private Integer usuarioId;
+
+    @BeforeAll
+    static void setupClass() {
+        emf = Persistence.createEntityManagerFactory("test-persistence-unit", Map.of("hibernate.generate_statistics", "true"));
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        journalDAO = new JournalDAO(emf);
+        usuarioId = UsuariosPrueba.crear(emf, "pagina");
+    }
+
+    @Test
+    void given_entradasConFechasRepetidas_when_paginarPorCursor_then_todasUnaVezDeMasRecienteAMasAntigua() {
+        // Dos entradas por hora: el id desempata las de la misma fecha
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            ids.add(guardar("Entrada " + i, BASE.plusHours(i / 2)).getId());
+        }
+
+        List<ResumenEntradaDiario> recorridas = new ArrayList<>();
+        List<Integer> tamanos = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaginaDiario pagina = journalDAO.findJournalPage(usuarioId, cursor, 10, 50);
+            tamanos.add(pagina.getEntradas().size());
+            recorridas.addAll(pagina.getEntradas());
+            cursor = pagina.getSiguienteCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(10, 10, 3), tamanos);
+        List<Integer> esperados = new ArrayList<>(ids);
+        Collections.reverse(esperados);
+        assertEquals(esperados, recorridas.stream().map(ResumenEntradaDiario::getId).toList());
+        assertEquals(BASE.plusHours(11), recorridas.get(0).getCreatedAt());
+        assertEquals("Entrada 22", recorridas.get(0).getExtracto());
+    }
+
+    @Test
+    void given_entradaLarga_when_listar_then_soloElExtractoYElLargoCompleto() {
+        String contenido = "Hoy escribí mucho. ".repeat(100);
+        guardar(contenido, BASE);
+        guardar("Corta", BASE.plusMinutes(1));
+
+        List<ResumenEntradaDiario> entradas = journalDAO.findJournalPage(usuarioId, null, 10, 40).getEntradas();
+
+        ResumenEntradaDiario corta = entradas.get(0);
+        assertEquals("Corta", corta.getExtracto());
+        assertFalse(corta.isRecortado());
+        ResumenEntradaDiario larga = entradas.get(1);
+        assertEquals(contenido.substring(0, 40), larga.getExtracto());
+        assertEquals(contenido.length(), larga.getLargo());
+        assertTrue(larga.isRecortado());
+        assertEquals(contenido, journalDAO.findJournalEntry(usuarioId, larga.getId()).orElseThrow().getContent());
+        assertTrue(journalDAO.findJournalEntry(UsuariosPrueba.crear(emf, "pagina"), larga.getId()).isEmpty(), "Solo las entradas propias");
+
+        assertThrows(IllegalArgumentException.class, () -> journalDAO.findJournalPage(usuarioId, "no-es-un-cursor", 10, 40));
+    }
+
+    @Test
+    void given_diario_when_exportar_then_entregaTodasEnOrdenSinCargarEntidades() {
+        for (int i = 0; i < 250; i++) {
+            guardar("Reflexión " + i, BASE.plusMinutes(i));
+        }
+        Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        List<String> exportadas = new ArrayList<>();
+        long total = journalDAO.exportJournalEntries(usuarioId, entrada -> exportadas.add(entrada.getContent()));
+
+        assertEquals(250, total);
+        assertEquals("Reflexión 0", exportadas.get(0));
+        assertEquals("Reflexión 249", exportadas.get(249));
+        assertEquals(1, estadisticas.getPrepareStatementCount(), "Una sola sentencia recorrida con cursor");
+        assertEquals(0, estadisticas.getEntityLoadCount(), "Filas proyectadas: ninguna entidad en el contexto");
+
+        List<Integer> recibidas = new ArrayList<>();
+        assertThrows(RuntimeException.class, () -> journalDAO.exportJournalEntries(usuarioId, entrada -> {
+            if (recibidas.size() == 5) {
+                throw new IllegalStateException("Cliente desconectado");
+            }
+            recibidas.add(entrada.getId());
+        }));
+        assertEquals(5, recibidas.size(), "La exportación se corta al fallar el destino");
+    }
+
+    private JournalEntry guardar(String contenido, LocalDateTime fecha) {
+        return journalDAO.storeJournalEntry(new JournalEntry(usuarioId, contenido, fecha));
+    }
+
+}
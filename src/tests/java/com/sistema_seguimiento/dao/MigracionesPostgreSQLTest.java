@@ -0,0 +1,165 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.EventoGamificacion;
+import com.sistema_seguimiento.model.Habito;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Migraciones y sentencias con SQL nativo de PostgreSQL (ON CONFLICT) contra una BD real
+ *
+ * Solo se ejecuta con SISTEMA_TEST_POSTGRES_URL (y SISTEMA_TEST_POSTGRES_USER /
+ * SISTEMA_TEST_POSTGRES_PASSWORD) apuntando a una BD de pruebas: el esquema se crea y se
+ * borra en cada ejecución.
+ *
+ * SISTEMA_TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/seguimiento_test mvn test -Dtest=MigracionesPostgreSQLTest
+ */
+@EnabledIfEnvironmentVariable(named = "SISTEMA_TEST_POSTGRES_URL", matches = "jdbc:postgresql:.+")
+class MigracionesPostgreSQLTest {
+
+    private EntityManagerFactory emf;
+
+    @BeforeEach
+    void setup() {
+        emf = crearEmf("create-drop");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @Test
+    void given_tablaConFilasYSecuenciaAtrasada_when_aplicar_then_idsNuevosPorEncimaDelMaximo() {
+        // Como una tabla SERIAL antigua: filas con ids que la secuencia de Hibernate no conoce
+        ejecutar("CREATE SEQUENCE IF NOT EXISTS habito_id_seq",
+            "ALTER TABLE habito ALTER COLUMN id SET DEFAULT nextval('habito_id_seq')",
+            "INSERT INTO habito (id, nombre, activo) VALUES (1001, 'Antiguo 1', true), (1002, 'Antiguo 2', true), (1003, 'Antiguo 3', true)",
+            "ALTER SEQUENCE habito_seq RESTART WITH 1");
+
+        assertTrue(MigracionSecuencias.aplicar(emf) >= 1);
+        assertEquals(0, MigracionSecuencias.aplicar(emf), "Ejecutar de nuevo no cambia nada");
+
+        // Factoría nueva: sin bloques de ids reservados antes de la migración
+        EntityManagerFactory migrada = crearEmf("none");
+        try {
+            Habito nuevo = new HabitoDAO(migrada).save(
+                new Habito("Tras migrar", "", Habito.FrecuenciaHabito.DIARIA, 1, 1));
+            assertTrue(nuevo.getId() > 1003, "El id " + nuevo.getId() + " no debe chocar con las filas existentes");
+        } finally {
+            migrada.close();
+        }
+    }
+
+    @Test
+    void given_mismaClave_when_guardarEventoDosVeces_then_unSoloEventoSinRomperLaTransaccion() {
+        EventoGamificacionDAO eventoDAO = new EventoGamificacionDAO(emf);
+        Integer usuarioId = UsuariosPrueba.crear(emf, "evento");
+
+        EventoGamificacion primero = eventoDAO.guardar(EventoGamificacion.habitoRegistrado(
+            "habito:1:2025-01-01:CUMPLIDO", usuarioId, 1, LocalDate.of(2025, 1, 1), "CUMPLIDO", 10));
+        EventoGamificacion repetido = eventoDAO.guardar(EventoGamificacion.habitoRegistrado(
+            "habito:1:2025-01-01:CUMPLIDO", usuarioId, 1, LocalDate.of(2025, 1, 1), "CUMPLIDO", 10));
+
+        assertNotNull(primero.getId());
+        assertNotNull(primero.getCreadoEn());
+        assertEquals(primero.getId(), repetido.getId());
+        assertEquals(1, eventoDAO.contarPendientes());
+    }
+
+    @Test
+    void given_registrosDuplicadosSinRestriccion_when_aplicar_then_fusionadosYRestriccionCreada() {
+        Integer habitoId = prepararDuplicados();
+
+        assertEquals(2, MigracionRegistroUnico.aplicar(emf));
+        assertEquals(0, MigracionRegistroUnico.aplicar(emf), "Ejecutar de nuevo no cambia nada");
+
+        assertEquals(1, contar("SELECT COUNT(*) FROM information_schema.table_constraints "
+            + "WHERE table_name = 'registro_habito' AND constraint_name = '" + MigracionRegistroUnico.RESTRICCION + "'"));
+        assertEquals(1, contar("SELECT COUNT(*) FROM registro_habito WHERE habito_id = " + habitoId));
+        assertEquals(6, contar("SELECT veces_realizado FROM registro_habito WHERE habito_id = " + habitoId));
+        assertEquals(1, contar("SELECT COUNT(*) FROM registro_habito WHERE habito_id = " + habitoId + " AND completado"));
+        assertEquals(1, contar("SELECT racha_actual FROM habito WHERE id = " + habitoId),
+            "Fusionado llega a la meta de 5: la racha se recalcula");
+        assertEquals(1, contar("SELECT COUNT(*) FROM habito WHERE id = " + habitoId + " AND calendario_desde IS NOT NULL"));
+    }
+
+    @Test
+    void given_restriccionImposibleDeCrear_when_aplicar_then_fallaYNoBorraNada() {
+        Integer habitoId = prepararDuplicados();
+        // Un índice con el nombre de la restricción hace fallar el ALTER TABLE
+        ejecutar("CREATE INDEX " + MigracionRegistroUnico.RESTRICCION + " ON usuario (id)");
+
+        assertThrows(RuntimeException.class, () -> MigracionRegistroUnico.aplicar(emf));
+
+        assertEquals(3, contar("SELECT COUNT(*) FROM registro_habito WHERE habito_id = " + habitoId),
+            "La fusión se revierte con la restricción");
+    }
+
+    /**
+     * Quita la restricción única y crea tres registros del mismo hábito y día, ninguno con la
+     * meta diaria (5) y los tres juntos sí
+     *
+     * @return Id del hábito
+     */
+    private Integer prepararDuplicados() {
+        Integer usuarioId = UsuariosPrueba.crear(emf, "duplicados");
+        ejecutar("ALTER TABLE registro_habito DROP CONSTRAINT " + MigracionRegistroUnico.RESTRICCION,
+            "INSERT INTO habito (id, nombre, activo, meta_diaria, usuario_id) VALUES (nextval('habito_seq'), 'Duplicado', true, 5, " + usuarioId + ")");
+        Integer habitoId = contar("SELECT MAX(id) FROM habito");
+        for (int veces = 1; veces <= 3; veces++) {
+            ejecutar("INSERT INTO registro_habito (id, habito_id, usuario_id, fecha_registro, completado, veces_realizado) "
+                + "VALUES (nextval('registro_habito_seq'), " + habitoId + ", " + usuarioId + ", DATE '2025-02-01', "
+                + (veces == 2) + ", " + veces + ")");
+        }
+        return habitoId;
+    }
+
+    private Integer contar(String sql) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return ((Number) em.createNativeQuery(sql).getSingleResult()).intValue();
+        } finally {
+            em.close();
+        }
+    }
+
+    private void ejecutar(String... sentencias) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            for (String sql : sentencias) {
+                em.createNativeQuery(sql).executeUpdate();
+            }
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    private static EntityManagerFactory crearEmf(String hbm2ddl) {
+        Map<String, Object> propiedades = new HashMap<>();
+        propiedades.put("jakarta.persistence.jdbc.driver", "org.postgresql.Driver");
+        propiedades.put("jakarta.persistence.jdbc.url", System.getenv("SISTEMA_TEST_POSTGRES_URL"));
+        propiedades.put("jakarta.persistence.jdbc.user", System.getenv().getOrDefault("SISTEMA_TEST_POSTGRES_USER", "postgres"));
+        propiedades.put("jakarta.persistence.jdbc.password", System.getenv().getOrDefault("SISTEMA_TEST_POSTGRES_PASSWORD", ""));
+        propiedades.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        propiedades.put("hibernate.hbm2ddl.auto", hbm2ddl);
+        propiedades.put("hibernate.show_sql", "false");
+        return Persistence.createEntityManagerFactory("test-persistence-unit", propiedades);
+    }
+}
@@ -0,0 +1,134 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.DiaAnimo;
+import com.sistema_seguimiento.model.DistribucionAnimo;
+import com.sistema_seguimiento.model.EstadisticaPeriodo.Granularidad;
+import com.sistema_seguimiento.model.MoodEntry;
+import com.sistema_seguimiento.model.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Series de estado de ánimo por rango de fechas y distribuciones por semana y mes agrupadas en la BD
+ */
+class MoodSerieDAOTest {
+
+    private static final LocalDate DESDE = LocalDate.of(2024, 1, 1); // lunes
+    private static final LocalDate HASTA = LocalDate.of(2024, 12, 31);
+    private static final String[] ESTADOS = {"happy", "neutral", "sad"};
+
+    private static EntityManagerFactory emf;
+    private MoodDAO moodDAO;
+    private Integer usuarioId;
+
+    @BeforeAll
+    static void setupClass() {
+        emf = Persistence.createEntityManagerFactory("test-persistence-unit", Map.of("hibernate.generate_statistics", "true"));
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        moodDAO = new MoodDAO(emf);
+        usuarioId = crearAnioDeEstados();
+    }
+
+    @Test
+    void given_unAnioDeEstados_when_findEntre_then_unaConsultaOrdenadaPorFecha() {
+        Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        List<DiaAnimo> dias = moodDAO.findEntre(usuarioId, DESDE, HASTA);
+
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+        assertEquals(366, dias.size());
+        assertEquals(new DiaAnimo(DESDE, "happy").toString(), dias.get(0).toString());
+        assertEquals(HASTA, dias.get(365).getFecha());
+        assertEquals(7, moodDAO.findEntre(usuarioId, LocalDate.of(2024, 3, 4), LocalDate.of(2024, 3, 10)).size());
+    }
+
+    @Test
+    void given_unAnioDeEstados_when_distribucionSemanal_then_semanasIsoRecortadasAlRango() {
+        Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        List<DistribucionAnimo> semanas = moodDAO.distribucion(usuarioId, LocalDate.of(2024, 2, 28), LocalDate.of(2024, 3, 20),
+            Granularidad.SEMANA);
+
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+        assertEquals(4, semanas.size());
+        assertEquals(LocalDate.of(2024, 2, 28), semanas.get(0).getInicio(), "Primera semana recortada (miércoles)");
+        assertEquals(LocalDate.of(2024, 3, 3), semanas.get(0).getFin());
+        assertEquals(5, semanas.get(0).getTotal());
+        assertEquals(LocalDate.of(2024, 3, 4), semanas.get(1).getInicio());
+        assertEquals(7, semanas.get(1).getTotal());
+        assertEquals(3, semanas.get(3).getTotal(), "Última semana hasta el miércoles 20");
+        assertEquals(semanas.stream().mapToLong(DistribucionAnimo::getTotal).sum(),
+            moodDAO.findEntre(usuarioId, LocalDate.of(2024, 2, 28), LocalDate.of(2024, 3, 20)).size());
+    }
+
+    @Test
+    void given_unAnioDeEstados_when_distribucionMensual_then_conteosPorEstado() {
+        List<DistribucionAnimo> meses = moodDAO.distribucion(usuarioId, DESDE, HASTA, Granularidad.MES);
+
+        assertEquals(12, meses.size());
+        DistribucionAnimo febrero = meses.get(1);
+        assertEquals(LocalDate.of(2024, 2, 1), febrero.getInicio());
+        assertEquals(LocalDate.of(2024, 2, 29), febrero.getFin());
+        assertEquals(29, febrero.getTotal());
+        assertEquals(Map.of("happy", 9L, "neutral", 10L, "sad", 10L), febrero.getConteos());
+        assertEquals("neutral", febrero.getPredominante(), "En empate, el primero por orden");
+        assertEquals(366, meses.stream().mapToLong(DistribucionAnimo::getTotal).sum());
+
+        List<DistribucionAnimo> diasSinRegistros = moodDAO.distribucion(usuarioId, LocalDate.of(2025, 1, 1),
+            LocalDate.of(2025, 1, 3), Granularidad.DIA);
+        assertEquals(3, diasSinRegistros.size());
+        assertNull(diasSinRegistros.get(0).getPredominante());
+    }
+
+    @Test
+    void given_rangoInvertido_when_distribucion_then_IllegalArgument() {
+        assertThrows(IllegalArgumentException.class,
+            () -> moodDAO.distribucion(usuarioId, HASTA, DESDE, Granularidad.MES));
+        assertThrows(IllegalArgumentException.class,
+            () -> moodDAO.distribucion(usuarioId, DESDE, HASTA, null));
+    }
+
+    /**
+     * Un estado por día de 2024 rotando happy, neutral, sad (el 1 de enero happy)
+     */
+    private Integer crearAnioDeEstados() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Usuario usuario = UsuariosPrueba.nuevo("animo");
+            em.persist(usuario);
+            int i = 0;
+            for (LocalDate dia = DESDE; !dia.isAfter(HASTA); dia = dia.plusDays(1), i++) {
+                MoodEntry entrada = new MoodEntry(null, dia, ESTADOS[i % ESTADOS.length], null);
+                entrada.setUsuario(usuario);
+                em.persist(entrada);
+            }
+            em.getTransaction().commit();
+            return usuario.getId();
+        } finally {
+            em.close();
+        }
+    }
+}
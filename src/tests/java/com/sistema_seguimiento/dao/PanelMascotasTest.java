@@ -0,0 +1,182 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.CheckInHabito;
+import com.sistema_seguimiento.model.Habito;
+import com.sistema_seguimiento.model.PanelMascotas;
+import com.sistema_seguimiento.model.PetType;
+import com.sistema_seguimiento.model.RegistroHabito;
+import com.sistema_seguimiento.model.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Panel de mascotas en una consulta y contador de hábitos completados mantenido por HabitoDAO
+ */
+class PanelMascotasTest {
+
+    private static EntityManagerFactory emf;
+    private UserPetDAO userPetDAO;
+    private HabitoDAO habitoDAO;
+    private Integer usuarioId;
+
+    @BeforeAll
+    static void setupClass() {
+        emf = Persistence.createEntityManagerFactory("TestPU", Map.of("hibernate.generate_statistics", "true"));
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        userPetDAO = new UserPetDAO(emf);
+        habitoDAO = new HabitoDAO(emf);
+        usuarioId = UsuariosPrueba.crear(emf, "panel");
+    }
+
+    @Test
+    void given_usuarioSinMascotas_when_cargarPanel_then_panelVacioConContador() {
+        PanelMascotas panel = userPetDAO.cargarPanel(usuarioId);
+
+        assertNull(panel.getMascotaActiva());
+        assertTrue(panel.getMascotas().isEmpty());
+        assertEquals(0, panel.getHabitosCompletados());
+    }
+
+    @Test
+    void given_historialDeMascotas_when_cargarPanel_then_unaConsultaConActivaEHistorial() {
+        userPetDAO.createUserPet(usuarioId, PetType.HUEVO);
+        userPetDAO.createUserPet(usuarioId, PetType.BEBE);
+        Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        PanelMascotas panel = userPetDAO.cargarPanel(usuarioId);
+
+        assertEquals(1, estadisticas.getPrepareStatementCount(), "Una sola consulta");
+        assertEquals(2, panel.getMascotas().size());
+        assertEquals(PetType.BEBE, panel.getMascotaActiva().getState());
+        assertNotNull(panel.getMascotaActiva().getPet().getName(), "Pet cargado en la misma consulta");
+    }
+
+    @Test
+    void given_registrosQueCambianDeEstado_when_guardar_then_contadorMantenido() {
+        Habito habito = habitoDAO.save(new Habito("Panel " + System.nanoTime(), "", Habito.FrecuenciaHabito.DIARIA, 1, usuarioId));
+        LocalDate hoy = LocalDate.now();
+
+        habitoDAO.registrarCompletado(habito.getId(), hoy, "hoy");
+        habitoDAO.registrarCompletado(habito.getId(), hoy, "otra vez hoy");
+        RegistroHabito ayer = habitoDAO.saveRegistro(new RegistroHabito(habito, hoy.minusDays(1), true, null));
+        assertEquals(2, userPetDAO.countCompletedHabits(usuarioId));
+
+        ayer.setCompletado(false);
+        habitoDAO.saveRegistro(ayer);
+        assertEquals(1, userPetDAO.countCompletedHabits(usuarioId));
+
+        Map<Integer, CheckInHabito> lote = new LinkedHashMap<>();
+        lote.put(0, new CheckInHabito(habito.getId(), hoy.minusDays(1), 1, null, "CUMPLIDO", 10));
+        lote.put(1, new CheckInHabito(habito.getId(), hoy.minusDays(2), 1, null, "CUMPLIDO", 10));
+        lote.put(2, new CheckInHabito(habito.getId(), hoy, 0, null, "NO_CUMPLIDO", 0));
+        habitoDAO.registrarLote(usuarioId, lote);
+
+        assertEquals(2, userPetDAO.cargarPanel(usuarioId).getHabitosCompletados());
+        assertEquals(contarCompletados(usuarioId), userPetDAO.cargarPanel(usuarioId).getHabitosCompletados());
+    }
+
+    @Test
+    void given_usuarioAnteriorAlContador_when_cargarPanel_then_loInicializaUnaVez() {
+        Habito habito = habitoDAO.save(new Habito("Legado " + System.nanoTime(), "", Habito.FrecuenciaHabito.DIARIA, 1, usuarioId));
+        habitoDAO.saveRegistro(new RegistroHabito(habito, LocalDate.now().minusDays(3), true, null));
+        habitoDAO.saveRegistro(new RegistroHabito(habito, LocalDate.now().minusDays(2), true, null));
+        anularContador(usuarioId);
+
+        // Sin inicializar, las escrituras no tocan el contador
+        habitoDAO.saveRegistro(new RegistroHabito(habito, LocalDate.now().minusDays(1), true, null));
+        assertNull(leerContador(usuarioId));
+
+        assertEquals(3, userPetDAO.cargarPanel(usuarioId).getHabitosCompletados());
+        assertEquals(3L, leerContador(usuarioId));
+
+        habitoDAO.registrarCompletado(habito.getId(), LocalDate.now(), null);
+        assertEquals(4, userPetDAO.cargarPanel(usuarioId).getHabitosCompletados());
+    }
+
+    @Test
+    void given_mergeDelUsuarioDeSesion_when_contadorDesactualizado_then_noLoPisa() {
+        Habito habito = habitoDAO.save(new Habito("Sesion " + System.nanoTime(), "", Habito.FrecuenciaHabito.DIARIA, 1, usuarioId));
+        Usuario deSesion = buscarUsuario(usuarioId);
+        habitoDAO.registrarCompletado(habito.getId(), LocalDate.now(), null);
+
+        deSesion.setNombre("Nombre cambiado");
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.merge(deSesion);
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+
+        assertEquals(1L, leerContador(usuarioId));
+    }
+
+
+    private Usuario buscarUsuario(Integer id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.find(Usuario.class, id);
+        } finally {
+            em.close();
+        }
+    }
+
+    private void anularContador(Integer id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.createQuery("UPDATE Usuario u SET u.habitosCompletados = NULL WHERE u.id = :id")
+                .setParameter("id", id)
+                .executeUpdate();
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    private Long leerContador(Integer id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Long> valores = em.createQuery("SELECT u.habitosCompletados FROM Usuario u WHERE u.id = :id", Long.class)
+                .setParameter("id", id)
+                .getResultList();
+            return valores.get(0);
+        } finally {
+            em.close();
+        }
+    }
+
+    private long contarCompletados(Integer id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT COUNT(r) FROM RegistroHabito r WHERE r.habito.usuarioId = :id AND r.completado = true", Long.class)
+                .setParameter("id", id)
+                .getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+}
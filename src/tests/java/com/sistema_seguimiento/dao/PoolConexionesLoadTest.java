@@ -0,0 +1,115 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.config.MetricasPoolConexiones;
+import com.sistema_seguimiento.model.Habito;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba de carga del pool HikariCP sobre H2: más hilos que conexiones,
+ * comprobando que el pool nunca supera su máximo y que las métricas se registran.
+ */
+class PoolConexionesLoadTest {
+
+    private static final int HILOS = 16;
+    private static final int OPERACIONES_POR_HILO = 25;
+    private static final int MAXIMO_POOL = 4;
+
+    private static EntityManagerFactory emf;
+
+    @BeforeAll
+    static void setupClass() {
+        emf = Persistence.createEntityManagerFactory("pool-test-unit");
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @Test
+    void given_masHilosQueConexiones_when_cargaConcurrente_then_poolAcotadoYMetricasRegistradas() throws Exception {
+        MetricasPoolConexiones.Metricas metricas = MetricasPoolConexiones.obtener("pool-test");
+        assertNotNull(metricas, "HikariCP debe crear el tracker de métricas configurado");
+        long adquisicionesIniciales = metricas.getAdquisicionMicros().getTotal();
+
+        AtomicInteger maximoActivas = new AtomicInteger();
+        AtomicInteger maximoEnEspera = new AtomicInteger();
+        ScheduledExecutorService monitor = Executors.newSingleThreadScheduledExecutor();
+        monitor.scheduleAtFixedRate(() -> {
+            maximoActivas.accumulateAndGet(metricas.getActivas(), Math::max);
+            maximoEnEspera.accumulateAndGet(metricas.getEnEspera(), Math::max);
+        }, 0, 2, TimeUnit.MILLISECONDS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            final int hilo = h;
+            tareas.add(executor.submit(() -> {
+                salida.await();
+                for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                    guardarYContar(hilo * 1000 + i);
+                }
+                return null;
+            }));
+        }
+
+        long inicio = System.nanoTime();
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(60, TimeUnit.SECONDS);
+        }
+        long duracionMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        executor.shutdown();
+        monitor.shutdownNow();
+
+        int operaciones = HILOS * OPERACIONES_POR_HILO;
+        System.out.println("📊 " + operaciones + " transacciones en " + duracionMs + " ms, "
+                + "máx. activas=" + maximoActivas.get() + ", máx. en espera=" + maximoEnEspera.get());
+        System.out.println("📊 " + metricas);
+
+        assertEquals(0, metricas.getTimeouts());
+        assertTrue(metricas.getAdquisicionMicros().getTotal() - adquisicionesIniciales >= operaciones);
+        assertTrue(maximoActivas.get() <= MAXIMO_POOL);
+        assertTrue(metricas.getTotales() <= MAXIMO_POOL);
+        assertEquals(MAXIMO_POOL, metricas.getMaximo());
+        assertTrue(metricas.getAdquisicionMicros().percentil(0.99) > 0);
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            long total = em.createQuery("SELECT COUNT(h) FROM Habito h", Long.class).getSingleResult();
+            assertEquals(operaciones, total);
+        } finally {
+            em.close();
+        }
+    }
+
+    private void guardarYContar(int usuarioId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.persist(new Habito("Carga " + usuarioId, "", Habito.FrecuenciaHabito.DIARIA, 1, usuarioId));
+            em.createQuery("SELECT COUNT(h) FROM Habito h WHERE h.usuarioId = :u", Long.class)
+                .setParameter("u", usuarioId)
+                .getSingleResult();
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+}
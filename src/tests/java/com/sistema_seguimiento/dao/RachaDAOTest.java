@@ -0,0 +1,148 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.Habito;
+import com.sistema_seguimiento.model.Racha;
+import com.sistema_seguimiento.model.RegistroHabito;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rachas mantenidas por HabitoDAO y verificación masiva de RachaDAO sobre H2
+ */
+class RachaDAOTest {
+
+    private static final LocalDate HOY = LocalDate.now();
+
+    private static EntityManagerFactory emf;
+    private HabitoDAO habitoDAO;
+    private RachaDAO rachaDAO;
+
+    @BeforeAll
+    static void setupClass() {
+        emf = Persistence.createEntityManagerFactory("test-persistence-unit");
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        habitoDAO = new HabitoDAO(emf);
+        rachaDAO = new RachaDAO(emf);
+    }
+
+    @Test
+    void given_diasConsecutivos_when_registrarCompletado_then_rachaSeIncrementa() {
+        Habito habito = crearHabito(1);
+
+        habitoDAO.registrarCompletado(habito.getId(), HOY.minusDays(2), null);
+        habitoDAO.registrarCompletado(habito.getId(), HOY.minusDays(1), null);
+        habitoDAO.registrarCompletado(habito.getId(), HOY, null);
+
+        Habito recargado = recargar(habito);
+        assertEquals(new Racha(3, 3, HOY), recargado.getRacha());
+        assertEquals(3, recargado.getCalendario().contarEntre(HOY.minusDays(30), HOY));
+        assertEquals(3, recargado.getDiasConsecutivos());
+    }
+
+    @Test
+    void given_habitosConCalendario_when_getPorcentajeCompletadoSemana_then_cuentaDiasCumplidos() {
+        int usuarioId = (int) (System.nanoTime() % 100000) + 1000;
+        Habito leer = new Habito("Leer " + usuarioId, "", Habito.FrecuenciaHabito.DIARIA, 1, usuarioId);
+        Habito correr = new Habito("Correr " + usuarioId, "", Habito.FrecuenciaHabito.DIARIA, 2, usuarioId);
+        // Los dos previstos toda la semana
+        leer.setFechaInicio(HOY.minusDays(6));
+        correr.setFechaInicio(HOY.minusDays(6));
+        leer = habitoDAO.save(leer);
+        correr = habitoDAO.save(correr);
+        for (int i = 0; i < 7; i++) {
+            habitoDAO.registrarCompletado(leer.getId(), HOY.minusDays(i), null);
+        }
+        habitoDAO.registrarCompletado(correr.getId(), HOY, null); // 1 de 2: no cumple la meta
+
+        assertEquals(50.0, habitoDAO.getPorcentajeCompletadoSemana(usuarioId), 0.001);
+    }
+
+    @Test
+    void given_registroAtrasadoQueUneRachas_when_saveRegistro_then_recalculaDesdeHistorial() {
+        Habito habito = crearHabito(1);
+        habitoDAO.registrarCompletado(habito.getId(), HOY.minusDays(3), null);
+        habitoDAO.registrarCompletado(habito.getId(), HOY.minusDays(1), null);
+        habitoDAO.registrarCompletado(habito.getId(), HOY, null);
+
+        // Día que faltaba, registrado con retraso
+        habitoDAO.saveRegistro(registro(habito, HOY.minusDays(2), 1));
+
+        assertEquals(new Racha(4, 4, HOY), recargar(habito).getRacha());
+    }
+
+    @Test
+    void given_registroCorregidoANoCumplido_when_saveRegistro_then_rachaSeReduce() {
+        Habito habito = crearHabito(1);
+        habitoDAO.registrarCompletado(habito.getId(), HOY.minusDays(1), null);
+        RegistroHabito deHoy = habitoDAO.saveRegistro(registro(habito, HOY, 1));
+        assertEquals(2, recargar(habito).getRachaActual());
+
+        deHoy.setCompletado(false);
+        habitoDAO.saveRegistro(deHoy);
+
+        // La máxima también se recalcula: la racha de 2 días ya no existe en el historial
+        assertEquals(new Racha(1, 1, HOY.minusDays(1)), recargar(habito).getRacha());
+    }
+
+    @Test
+    void given_rachaDesincronizada_when_verificarConsistencia_then_detectaYCorrige() {
+        Habito habito = crearHabito(1);
+        habitoDAO.registrarCompletado(habito.getId(), HOY.minusDays(1), null);
+        habitoDAO.registrarCompletado(habito.getId(), HOY, null);
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.find(Habito.class, habito.getId()).aplicarRacha(new Racha(9, 9, HOY));
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+
+        RachaDAO.ResultadoVerificacion soloLectura = rachaDAO.verificarConsistencia(false);
+        assertTrue(soloLectura.getInconsistentes() >= 1);
+        assertEquals(0, soloLectura.getCorregidos());
+        assertEquals(9, recargar(habito).getRachaActual());
+
+        RachaDAO.ResultadoVerificacion corregido = rachaDAO.verificarConsistencia(true);
+        assertTrue(corregido.getCorregidos() >= 1);
+        assertEquals(new Racha(2, 2, HOY), recargar(habito).getRacha());
+        assertEquals(0, rachaDAO.verificarConsistencia(false).getInconsistentes());
+    }
+
+    private Habito crearHabito(int metaDiaria) {
+        Habito habito = new Habito("Habito racha " + System.nanoTime(), "", Habito.FrecuenciaHabito.DIARIA, metaDiaria, 1);
+        return habitoDAO.save(habito);
+    }
+
+    private RegistroHabito registro(Habito habito, LocalDate fecha, int veces) {
+        RegistroHabito registro = new RegistroHabito(habito, fecha, true, null);
+        registro.setVecesRealizado(veces);
+        return registro;
+    }
+
+    private Habito recargar(Habito habito) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.find(Habito.class, habito.getId());
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.CheckInHabito;
+import com.sistema_seguimiento.model.Habito;
+import com.sistema_seguimiento.model.RegistroHabito;
+import com.sistema_seguimiento.model.ResultadoCheckIn;
+import com.sistema_seguimiento.model.ResumenDiario;
+import com.sistema_seguimiento.model.Usuario;
+import com.sistema_seguimiento.services.HabitoServicio;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Registro de check-ins por lotes: una transacción, resultados por elemento y puntos agregados
+ */
+class RegistroLoteTest {
+
+    private static EntityManagerFactory emf;
+    private HabitoServicio habitoServicio;
+    private Integer usuarioId;
+
+    @BeforeAll
+    static void setupClass() {
+        emf = Persistence.createEntityManagerFactory("TestPU", Map.of("hibernate.generate_statistics", "true"));
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        habitoServicio = new HabitoServicio();
+        habitoServicio.setHabitoDAO(new HabitoDAO(emf));
+        usuarioId = UsuariosPrueba.crear(emf, "lote", usuario -> usuario.setPuntos(0));
+    }
+
+    @Test
+    void given_variosDias_when_registrarLote_then_creaRegistrosRachaYPuntosEnUnaOperacion() {
+        Habito habito = crearHabito(usuarioId, 1);
+        LocalDate hoy = LocalDate.now();
+        List<CheckInHabito> lote = List.of(
+            new CheckInHabito(habito.getId(), hoy.minusDays(2), 1, "dia 1", "CUMPLIDO", 10),
+            new CheckInHabito(habito.getId(), hoy.minusDays(1), 1, null, "CUMPLIDO", 10),
+            new CheckInHabito(habito.getId(), hoy, 0, null, "PARCIAL", 5));
+
+        List<ResultadoCheckIn> resultados = habitoServicio.registrarLote(usuarioId, lote);
+
+        assertEquals(3, resultados.size());
+        resultados.forEach(r -> assertEquals(ResultadoCheckIn.Estado.CREADO, r.getEstado()));
+        assertEquals(25, leerPuntos(usuarioId));
+
+        Habito actualizado = new HabitoDAO(emf).findById(habito.getId()).orElseThrow();
+        assertEquals(2, actualizado.getRachaMaxima());
+        assertEquals(3, contarRegistros(habito.getId()));
+    }
+
+    @Test
+    void given_loteReenviado_when_registrarLote_then_actualizaSinDuplicarPuntos() {
+        Habito habito = crearHabito(usuarioId, 2);
+        LocalDate ayer = LocalDate.now().minusDays(1);
+        habitoServicio.registrarLote(usuarioId, List.of(new CheckInHabito(habito.getId(), ayer, 1, null, "PARCIAL", 5)));
+
+        List<ResultadoCheckIn> resultados = habitoServicio.registrarLote(usuarioId,
+            List.of(new CheckInHabito(habito.getId(), ayer, 2, "completo", "CUMPLIDO", 10)));
+
+        assertEquals(ResultadoCheckIn.Estado.ACTUALIZADO, resultados.get(0).getEstado());
+        assertEquals(5, leerPuntos(usuarioId));
+        assertEquals(1, contarRegistros(habito.getId()));
+        Habito actualizado = new HabitoDAO(emf).findById(habito.getId()).orElseThrow();
+        assertEquals(1, actualizado.getRachaMaxima(), "El día pasa a cumplir la meta");
+    }
+
+    @Test
+    void given_elementosInvalidos_when_registrarLote_then_rechazaSoloEsosEnSuPosicion() {
+        Habito propio = crearHabito(usuarioId, 1);
+        Habito ajeno = crearHabito(UsuariosPrueba.crear(emf, "lote", usuario -> usuario.setPuntos(0)), 1);
+        LocalDate hoy = LocalDate.now();
+        List<CheckInHabito> lote = List.of(
+            new CheckInHabito(propio.getId(), hoy, 1, null, "CUMPLIDO", 10),
+            new CheckInHabito(ajeno.getId(), hoy, 1, null, "CUMPLIDO", 10),
+            new CheckInHabito(propio.getId(), hoy.plusDays(1), 1, null, "CUMPLIDO", 10),
+            new CheckInHabito(propio.getId(), hoy, 1, null, "CUMPLIDO", 10),
+            new CheckInHabito(propio.getId(), hoy.minusDays(1), 1, null, "REGULAR", 0),
+            new CheckInHabito(null, hoy, 1, null, null, 0));
+
+        List<ResultadoCheckIn> resultados = habitoServicio.registrarLote(usuarioId, lote);
+
+        assertEquals(6, resultados.size());
+        for (int i = 0; i < resultados.size(); i++) {
+            assertEquals(i, resultados.get(i).getIndice());
+        }
+        assertEquals(ResultadoCheckIn.Estado.CREADO, resultados.get(0).getEstado());
+        for (int i = 1; i < resultados.size(); i++) {
+            assertEquals(ResultadoCheckIn.Estado.RECHAZADO, resultados.get(i).getEstado(), "Elemento " + i);
+            assertNotNull(resultados.get(i).getMensaje());
+        }
+        assertEquals(10, leerPuntos(usuarioId));
+        assertEquals(0, contarRegistros(ajeno.getId()));
+    }
+
+    @Test
+    void given_errorEnLaTransaccion_when_registrarLote_then_noSeAplicaNada() {
+        Habito habito = crearHabito(usuarioId, 1);
+        fijarPuntos(usuarioId, Integer.MAX_VALUE - 5);
+        LocalDate hoy = LocalDate.now();
+        List<CheckInHabito> lote = List.of(
+            new CheckInHabito(habito.getId(), hoy.minusDays(1), 1, null, "CUMPLIDO", 10),
+            new CheckInHabito(habito.getId(), hoy, 1, null, "CUMPLIDO", 10));
+
+        // La suma de puntos desborda la columna: falla la última sentencia de la transacción
+        assertThrows(RuntimeException.class, () -> habitoServicio.registrarLote(usuarioId, lote));
+
+        assertEquals(0, contarRegistros(habito.getId()));
+        assertEquals(Integer.MAX_VALUE - 5, leerPuntos(usuarioId));
+    }
+
+    @Test
+    void given_muchosRegistros_when_registrarLote_then_actualizacionesAgrupadasEnLotesJdbc() {
+        Habito habito = crearHabito(usuarioId, 1);
+        LocalDate hoy = LocalDate.now();
+        int dias = 60;
+        List<CheckInHabito> lote = new ArrayList<>();
+        for (int i = 0; i < dias; i++) {
+            lote.add(new CheckInHabito(habito.getId(), hoy.minusDays(i), 0, null, "PARCIAL", 5));
+        }
+        habitoServicio.registrarLote(usuarioId, lote);
+
+        List<CheckInHabito> reenvio = new ArrayList<>();
+        for (int i = 0; i < dias; i++) {
+            reenvio.add(new CheckInHabito(habito.getId(), hoy.minusDays(i), 1, "sync", "CUMPLIDO", 10));
+        }
+        Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        List<ResultadoCheckIn> resultados = habitoServicio.registrarLote(usuarioId, reenvio);
+
+        assertTrue(resultados.stream().allMatch(r -> r.getEstado() == ResultadoCheckIn.Estado.ACTUALIZADO));
+        assertEquals(dias, estadisticas.getEntityStatistics(RegistroHabito.class.getName()).getUpdateCount(), "60 registros");
+        assertEquals(dias, estadisticas.getEntityStatistics(ResumenDiario.class.getName()).getUpdateCount(), "Un resumen por día");
+        assertEquals(2 * dias, estadisticas.getEntityUpdateCount() - 1, "Registros y resúmenes + el hábito (racha)");
+        assertTrue(estadisticas.getPrepareStatementCount() < dias / 2,
+            "Las actualizaciones deben ir en lotes JDBC: " + estadisticas.getPrepareStatementCount() + " sentencias");
+        assertEquals(dias, new HabitoDAO(emf).findById(habito.getId()).orElseThrow().getRachaActual());
+    }
+
+
+    private Habito crearHabito(Integer propietario, int meta) {
+        return new HabitoDAO(emf).save(
+            new Habito("Lote " + System.nanoTime(), "", Habito.FrecuenciaHabito.DIARIA, meta, propietario));
+    }
+
+    private int leerPuntos(Integer id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT u.puntos FROM Usuario u WHERE u.id = :id", Integer.class)
+                .setParameter("id", id)
+                .getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+
+    private long contarRegistros(Integer habitoId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT COUNT(r) FROM RegistroHabito r WHERE r.habito.id = :id", Long.class)
+                .setParameter("id", habitoId)
+                .getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+
+    private void fijarPuntos(Integer id, int puntos) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.find(Usuario.class, id).setPuntos(puntos);
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.Habito;
+import com.sistema_seguimiento.model.RegistroHabito;
+import com.sistema_seguimiento.model.ResumenDiario;
+import com.sistema_seguimiento.model.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Un registro por hábito y día: check-ins concurrentes del mismo hábito suman sobre una sola fila
+ * y la restricción única rechaza un segundo registro del mismo día
+ */
+class RegistroUpsertConcurrenteTest {
+
+    private static final LocalDate HOY = LocalDate.now();
+
+    private static EntityManagerFactory emf;
+    private HabitoDAO habitoDAO;
+
+    @BeforeAll
+    static void setupClass() {
+        emf = Persistence.createEntityManagerFactory("test-persistence-unit");
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        habitoDAO = new HabitoDAO(emf);
+    }
+
+    @Test
+    void given_checkInsConcurrentesDelMismoDia_when_registrarCompletado_then_unaFilaConTodasLasVeces() throws Exception {
+        Integer usuarioId = UsuariosPrueba.crear(emf, "upsert");
+        Habito habito = habitoDAO.save(new Habito("Agua " + usuarioId, "", Habito.FrecuenciaHabito.DIARIA, 3, usuarioId));
+        int hilos = 8;
+        int porHilo = 25;
+
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>();
+        try {
+            for (int h = 0; h < hilos; h++) {
+                tareas.add(executor.submit(() -> {
+                    salida.await();
+                    for (int i = 0; i < porHilo; i++) {
+                        habitoDAO.registrarCompletado(habito.getId(), HOY, null);
+                    }
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<RegistroHabito> registros = habitoDAO.findRegistrosByRango(habito.getId(), HOY, HOY);
+        assertEquals(1, registros.size(), "Un solo registro por hábito y día");
+        assertEquals(hilos * porHilo, registros.get(0).getVecesRealizado(), "Ningún check-in se pierde");
+        assertEquals(1L, buscarUsuario(usuarioId).getHabitosCompletados(), "El día cuenta una sola vez");
+
+        ResumenDiario dia = new ResumenDiarioDAO(emf).findDia(usuarioId, HOY).orElseThrow();
+        assertEquals(1, dia.getRegistrosCompletados());
+        assertEquals(hilos * porHilo, dia.getVecesTotal());
+        assertEquals(1, dia.getHabitosCumplidos());
+        assertEquals(1, recargar(habito).getRachaActual());
+    }
+
+    @Test
+    void given_registroDelDia_when_persistirOtroDelMismoDia_then_violaLaRestriccionUnica() {
+        Integer usuarioId = UsuariosPrueba.crear(emf, "upsert");
+        Habito habito = habitoDAO.save(new Habito("Leer " + usuarioId, "", Habito.FrecuenciaHabito.DIARIA, 1, usuarioId));
+        habitoDAO.registrarCompletado(habito.getId(), HOY, null);
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            RegistroHabito duplicado = new RegistroHabito(em.find(Habito.class, habito.getId()), HOY, true, null);
+            em.persist(duplicado);
+            assertThrows(RuntimeException.class, em::flush);
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+        assertEquals(1, habitoDAO.findRegistrosByRango(habito.getId(), HOY, HOY).size());
+    }
+
+    @Test
+    void given_registroDelDia_when_saveRegistroNuevoDelMismoDia_then_actualizaElExistente() {
+        Integer usuarioId = UsuariosPrueba.crear(emf, "upsert");
+        Habito habito = habitoDAO.save(new Habito("Correr " + usuarioId, "", Habito.FrecuenciaHabito.DIARIA, 2, usuarioId));
+        habitoDAO.registrarCompletado(habito.getId(), HOY, null);
+
+        RegistroHabito delFormulario = new RegistroHabito(habito, HOY, true, "Corregido");
+        delFormulario.setVecesRealizado(2);
+        habitoDAO.saveRegistro(delFormulario);
+
+        List<RegistroHabito> registros = habitoDAO.findRegistrosByRango(habito.getId(), HOY, HOY);
+        assertEquals(1, registros.size());
+        assertEquals(2, registros.get(0).getVecesRealizado());
+        assertEquals("Corregido", registros.get(0).getNotas());
+        assertEquals(1L, buscarUsuario(usuarioId).getHabitosCompletados());
+        assertEquals(1, recargar(habito).getRachaActual(), "Ahora cumple la meta diaria");
+    }
+
+
+    private Usuario buscarUsuario(Integer id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.find(Usuario.class, id);
+        } finally {
+            em.close();
+        }
+    }
+
+    private Habito recargar(Habito habito) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.find(Habito.class, habito.getId());
+        } finally {
+            em.close();
+        }
+    }
+}
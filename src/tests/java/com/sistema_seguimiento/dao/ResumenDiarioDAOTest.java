@@ -0,0 +1,182 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.CheckInHabito;
+import com.sistema_seguimiento.model.Habito;
+import com.sistema_seguimiento.model.RegistroHabito;
+import com.sistema_seguimiento.model.ResumenDiario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Resumen diario mantenido en cada escritura de HabitoDAO y reconstruido desde los registros
+ */
+class ResumenDiarioDAOTest {
+
+    private static final LocalDate HOY = LocalDate.now();
+
+    private static EntityManagerFactory emf;
+    private ResumenDiarioDAO resumenDiarioDAO;
+    private HabitoDAO habitoDAO;
+    private UserPetDAO userPetDAO;
+    private Integer usuarioId;
+
+    @BeforeAll
+    static void setupClass() {
+        emf = Persistence.createEntityManagerFactory("TestPU", Map.of("hibernate.generate_statistics", "true"));
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        resumenDiarioDAO = new ResumenDiarioDAO(emf);
+        habitoDAO = new HabitoDAO(emf);
+        userPetDAO = new UserPetDAO(emf);
+        usuarioId = UsuariosPrueba.crear(emf, "resumen");
+    }
+
+    @Test
+    void given_escriturasDeTodosLosCaminos_when_reconstruir_then_mismoResumen() {
+        Habito leer = habitoDAO.save(new Habito("Leer", "", Habito.FrecuenciaHabito.DIARIA, 1, usuarioId));
+        Habito correr = habitoDAO.save(new Habito("Correr", "", Habito.FrecuenciaHabito.DIARIA, 2, usuarioId));
+        habitoDAO.registrarCompletado(leer.getId(), HOY, null);
+        habitoDAO.registrarCompletado(correr.getId(), HOY, null);
+        RegistroHabito movido = habitoDAO.saveRegistro(registro(leer, HOY.minusDays(5), 1));
+        movido.setFecha(HOY.minusDays(4)); // el día 5 se queda sin registros
+        habitoDAO.saveRegistro(movido);
+        Map<Integer, CheckInHabito> lote = new LinkedHashMap<>();
+        lote.put(0, new CheckInHabito(correr.getId(), HOY.minusDays(1), 2, null, "CUMPLIDO", 10));
+        lote.put(1, new CheckInHabito(leer.getId(), HOY.minusDays(1), 1, null, "CUMPLIDO", 10));
+        lote.put(2, new CheckInHabito(correr.getId(), HOY.minusDays(2), 1, null, "PARCIAL", 5));
+        habitoDAO.registrarLote(usuarioId, lote);
+
+        Map<LocalDate, String> incremental = leerResumen();
+        assertFalse(incremental.containsKey(HOY.minusDays(5)));
+        ResumenDiario hoy = resumenDiarioDAO.findDia(usuarioId, HOY).orElseThrow();
+        assertEquals(2, hoy.getHabitosPrevistos());
+        assertEquals(1, hoy.getHabitosCumplidos());
+        assertEquals(2, hoy.getRegistrosCompletados());
+        assertEquals(ResumenDiario.PUNTOS_CUMPLIDO + ResumenDiario.PUNTOS_PARCIAL, hoy.getPuntos());
+        assertEquals(2, resumenDiarioDAO.findDia(usuarioId, HOY.minusDays(1)).orElseThrow().getHabitosCumplidos());
+
+        assertEquals(4, resumenDiarioDAO.reconstruir(usuarioId));
+        assertEquals(incremental, leerResumen());
+    }
+
+    @Test
+    void given_resumenDeLaSemana_when_estadisticas_then_leenDelResumen() {
+        Habito leer = habitoDAO.save(desde(new Habito("Leer", "", Habito.FrecuenciaHabito.DIARIA, 1, usuarioId), 6));
+        habitoDAO.save(desde(new Habito("Correr", "", Habito.FrecuenciaHabito.DIARIA, 2, usuarioId), 6));
+        for (int i = 0; i < 7; i++) {
+            habitoDAO.registrarCompletado(leer.getId(), HOY.minusDays(i), null);
+        }
+        Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        assertEquals(50.0, habitoDAO.getPorcentajeCompletadoSemana(usuarioId), 0.001);
+        assertEquals(1L, habitoDAO.countHabitosCompletadosHoy(usuarioId));
+        assertEquals(7, habitoDAO.countTotalHabitosCumplidosPorUsuario(usuarioId));
+
+        assertEquals(3, estadisticas.getPrepareStatementCount(), "Una consulta por estadística, sin leer registros");
+        assertEquals(0, estadisticas.getEntityStatistics(RegistroHabito.class.getName()).getLoadCount());
+    }
+
+    @Test
+    void given_registrosAnterioresAlResumen_when_reconstruirTodo_then_alimentaLasMascotas() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Habito habito = new Habito("Legado", "", Habito.FrecuenciaHabito.DIARIA, 1, usuarioId);
+            em.persist(habito);
+            for (int i = 1; i <= 3; i++) {
+                em.persist(registro(habito, HOY.minusDays(i), 1));
+            }
+            em.persist(registro(habito, HOY.minusDays(4), 0));
+            em.createQuery("UPDATE Usuario u SET u.habitosCompletados = NULL WHERE u.id = :id")
+                .setParameter("id", usuarioId)
+                .executeUpdate();
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+        assertTrue(resumenDiarioDAO.findEntre(usuarioId, HOY.minusDays(10), HOY).isEmpty());
+
+        resumenDiarioDAO.reconstruirTodo();
+
+        List<ResumenDiario> dias = resumenDiarioDAO.findEntre(usuarioId, HOY.minusDays(10), HOY);
+        assertEquals(4, dias.size());
+        assertEquals(0, dias.get(0).getHabitosCumplidos());
+        assertEquals(3, userPetDAO.cargarPanel(usuarioId).getHabitosCompletados());
+    }
+
+    @Test
+    void given_metaCambiada_when_save_then_recalculaSoloDesdeHoy() {
+        Habito habito = habitoDAO.save(desde(new Habito("Agua", "", Habito.FrecuenciaHabito.DIARIA, 2, usuarioId), 3));
+        habitoDAO.registrarCompletado(habito.getId(), HOY.minusDays(3), null);
+        habitoDAO.registrarCompletado(habito.getId(), HOY, null);
+        assertEquals(0, resumenDiarioDAO.findDia(usuarioId, HOY).orElseThrow().getHabitosCumplidos());
+
+        habito.setMetaDiaria(1);
+        habitoDAO.save(habito);
+
+        assertEquals(0, resumenDiarioDAO.findDia(usuarioId, HOY.minusDays(3)).orElseThrow().getHabitosCumplidos(),
+            "Los días pasados conservan la meta que tenían");
+        assertEquals(1, resumenDiarioDAO.findDia(usuarioId, HOY).orElseThrow().getHabitosCumplidos());
+    }
+
+    @Test
+    void given_habitosCreadosYDesactivados_when_sincronizar_then_previstosDeCadaDia() {
+        Habito leer = habitoDAO.save(desde(new Habito("Leer", "", Habito.FrecuenciaHabito.DIARIA, 1, usuarioId), 5));
+        Habito nuevo = habitoDAO.save(new Habito("Nuevo", "", Habito.FrecuenciaHabito.DIARIA, 1, usuarioId));
+        Habito dejado = habitoDAO.save(desde(new Habito("Dejado", "", Habito.FrecuenciaHabito.DIARIA, 1, usuarioId), 5));
+        habitoDAO.registrarCompletado(leer.getId(), HOY.minusDays(4), null);
+        habitoDAO.registrarCompletado(nuevo.getId(), HOY, null);
+        habitoDAO.delete(dejado.getId());
+
+        assertEquals(2, resumenDiarioDAO.findDia(usuarioId, HOY.minusDays(4)).orElseThrow().getHabitosPrevistos(),
+            "Nuevo aún no existía y Dejado seguía activo");
+        assertEquals(2, resumenDiarioDAO.findDia(usuarioId, HOY).orElseThrow().getHabitosPrevistos(),
+            "Dejado ya no está previsto hoy");
+
+        resumenDiarioDAO.reconstruir(usuarioId);
+        assertEquals(2, resumenDiarioDAO.findDia(usuarioId, HOY.minusDays(4)).orElseThrow().getHabitosPrevistos(),
+            "Reconstruir no cuenta los activos de hoy en días pasados");
+        assertEquals(50.0, resumenDiarioDAO.porcentajeCumplimiento(usuarioId, HOY, HOY), 0.001);
+        assertEquals(25.0, resumenDiarioDAO.porcentajeCumplimiento(usuarioId, HOY.minusDays(5), HOY.minusDays(4)), 0.001,
+            "Días sin resumen: los hábitos activos ese día");
+    }
+
+    private Map<LocalDate, String> leerResumen() {
+        return resumenDiarioDAO.findEntre(usuarioId, HOY.minusDays(30), HOY).stream()
+            .collect(Collectors.toMap(ResumenDiario::getFecha, ResumenDiario::toString));
+    }
+
+    private static Habito desde(Habito habito, int diasAtras) {
+        habito.setFechaInicio(HOY.minusDays(diasAtras));
+        return habito;
+    }
+
+    private RegistroHabito registro(Habito habito, LocalDate fecha, int veces) {
+        RegistroHabito registro = new RegistroHabito(habito, fecha, veces > 0, null);
+        registro.setVecesRealizado(veces);
+        return registro;
+    }
+
+}
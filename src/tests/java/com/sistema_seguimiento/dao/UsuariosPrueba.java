@@ -0,0 +1,62 @@
+package com.sistema_seguimiento.dao;
+
+import com.sistema_seguimiento.model.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Usuarios de prueba con username y email únicos en toda la ejecución de los tests
+ */
+public final class UsuariosPrueba {
+
+    private static final AtomicLong SECUENCIA = new AtomicLong(System.currentTimeMillis());
+
+    private UsuariosPrueba() {
+    }
+
+    /**
+     * Usuario sin persistir: prefijo_n / prefijo_n@test.com con contraseña password123
+     */
+    public static Usuario nuevo(String prefijo) {
+        long sufijo = SECUENCIA.incrementAndGet();
+        Usuario usuario = new Usuario();
+        usuario.setUsername(prefijo + "_" + sufijo);
+        usuario.setEmail(prefijo + "_" + sufijo + "@test.com");
+        usuario.setPassword("password123");
+        return usuario;
+    }
+
+    /**
+     * Persiste un usuario nuevo en su propia transacción
+     *
+     * @return Id del usuario
+     */
+    public static Integer crear(EntityManagerFactory emf, String prefijo) {
+        return crear(emf, prefijo, usuario -> { });
+    }
+
+    /**
+     * Persiste un usuario nuevo tras aplicarle los ajustes indicados
+     *
+     * @return Id del usuario
+     */
+    public static Integer crear(EntityManagerFactory emf, String prefijo, Consumer<Usuario> ajustes) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Usuario usuario = nuevo(prefijo);
+            ajustes.accept(usuario);
+            em.persist(usuario);
+            em.getTransaction().commit();
+            return usuario.getId();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.sistema_seguimiento.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalendarioCumplimientoTest {
+
+    private static final LocalDate BASE = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void given_diasMarcados_when_estaCumplido_then_soloEsosDias() {
+        CalendarioCumplimiento calendario = new CalendarioCumplimiento(BASE);
+        calendario.marcar(BASE.plusDays(3));
+        calendario.marcar(BASE.plusDays(200));
+
+        assertTrue(calendario.estaCumplido(BASE.plusDays(3)));
+        assertTrue(calendario.estaCumplido(BASE.plusDays(200)));
+        assertFalse(calendario.estaCumplido(BASE.plusDays(4)));
+        assertFalse(calendario.estaCumplido(BASE.minusDays(1)));
+        assertFalse(calendario.estaCumplido(BASE.plusDays(5000)));
+    }
+
+    @Test
+    void given_rangoQueCruzaPalabras_when_contarEntre_then_cuentaSoloElRango() {
+        List<LocalDate> dias = new ArrayList<>();
+        for (int i = 0; i < 300; i += 2) {
+            dias.add(BASE.plusDays(i));
+        }
+        CalendarioCumplimiento calendario = CalendarioCumplimiento.desdeFechas(BASE, dias);
+
+        assertEquals(150, calendario.contarEntre(BASE.minusDays(10), BASE.plusDays(400)));
+        assertEquals(50, calendario.contarEntre(BASE.plusDays(60), BASE.plusDays(159)));
+        assertEquals(1, calendario.contarEntre(BASE.plusDays(64), BASE.plusDays(64)));
+        assertEquals(0, calendario.contarEntre(BASE.plusDays(65), BASE.plusDays(65)));
+    }
+
+    @Test
+    void given_rachaLarga_when_rachaHasta_then_recorrePalabrasHaciaAtras() {
+        List<LocalDate> dias = new ArrayList<>();
+        for (int i = 10; i <= 210; i++) {
+            dias.add(BASE.plusDays(i));
+        }
+        CalendarioCumplimiento calendario = CalendarioCumplimiento.desdeFechas(BASE, dias);
+
+        assertEquals(201, calendario.rachaHasta(BASE.plusDays(210)));
+        assertEquals(54, calendario.rachaHasta(BASE.plusDays(63)));
+        assertEquals(0, calendario.rachaHasta(BASE.plusDays(211)));
+    }
+
+    @Test
+    void given_diaAnteriorALaBase_when_marcar_then_rebasaSinPerderDias() {
+        CalendarioCumplimiento calendario = new CalendarioCumplimiento(BASE);
+        calendario.marcar(BASE);
+        calendario.marcar(BASE.plusDays(70));
+
+        calendario.marcar(BASE.minusDays(100));
+
+        assertEquals(BASE.minusDays(100), calendario.getDesde());
+        assertTrue(calendario.estaCumplido(BASE));
+        assertTrue(calendario.estaCumplido(BASE.plusDays(70)));
+        assertTrue(calendario.estaCumplido(BASE.minusDays(100)));
+        assertEquals(3, calendario.contarEntre(BASE.minusDays(200), BASE.plusDays(200)));
+    }
+
+    @Test
+    void given_calendario_when_serializarYLeer_then_esIgual() {
+        CalendarioCumplimiento calendario = CalendarioCumplimiento.desdeFechas(BASE,
+                List.of(BASE, BASE.plusDays(1), BASE.plusDays(130)));
+        calendario.desmarcar(BASE.plusDays(1));
+
+        CalendarioCumplimiento leido = CalendarioCumplimiento.desdeBytes(BASE, calendario.toBytes());
+
+        assertEquals(calendario, leido);
+        assertEquals(24, calendario.toBytes().length);
+        assertFalse(leido.estaCumplido(BASE.plusDays(1)));
+    }
+}
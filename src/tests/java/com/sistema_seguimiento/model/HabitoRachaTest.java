@@ -0,0 +1,92 @@
+package com.sistema_seguimiento.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HabitoRachaTest {
+
+    private static final LocalDate HOY = LocalDate.now();
+
+    @Test
+    void given_diasConHuecos_when_desdeFechas_then_calculaActualYMaxima() {
+        List<LocalDate> dias = Arrays.asList(
+                HOY.minusDays(9), HOY.minusDays(8), HOY.minusDays(7), HOY.minusDays(7),
+                HOY.minusDays(2), HOY.minusDays(1), HOY);
+
+        Racha racha = Racha.desdeFechas(dias);
+
+        assertEquals(3, racha.getActual());
+        assertEquals(3, racha.getMaxima());
+        assertEquals(HOY, racha.getFechaUltima());
+    }
+
+    @Test
+    void given_sinDias_when_desdeFechas_then_rachaVacia() {
+        assertEquals(Racha.VACIA, Racha.desdeFechas(List.of()));
+    }
+
+    @Test
+    void given_rachaHastaAyer_when_registrarHoy_then_incrementaEnO1() {
+        Habito habito = new Habito("Leer", "", Habito.FrecuenciaHabito.DIARIA, 1, 1);
+        habito.aplicarRacha(new Racha(4, 6, HOY.minusDays(1)));
+        habito.setCalendario(new CalendarioCumplimiento(HOY.minusDays(10)));
+
+        assertTrue(habito.registrarDiaCumplido(HOY));
+        assertTrue(habito.tieneMetaDelDia(HOY));
+
+        assertEquals(5, habito.getRachaActual());
+        assertEquals(6, habito.getRachaMaxima());
+        assertEquals(HOY, habito.getFechaUltimaRacha());
+        assertEquals(5, habito.calcularRachaActual());
+    }
+
+    @Test
+    void given_huecoEnLaRacha_when_registrarHoy_then_reiniciaYActualizaMaxima() {
+        Habito habito = new Habito("Leer", "", Habito.FrecuenciaHabito.DIARIA, 1, 1);
+        habito.aplicarRacha(new Racha(1, 1, HOY.minusDays(3)));
+        habito.setCalendario(new CalendarioCumplimiento(HOY.minusDays(3)));
+
+        assertTrue(habito.registrarDiaCumplido(HOY));
+
+        assertEquals(1, habito.getRachaActual());
+        assertEquals(1, habito.getRachaMaxima());
+    }
+
+    @Test
+    void given_registroAtrasado_when_registrarDiaCumplido_then_pideRecalculo() {
+        Habito habito = new Habito("Leer", "", Habito.FrecuenciaHabito.DIARIA, 1, 1);
+        habito.aplicarRacha(new Racha(2, 2, HOY));
+
+        assertFalse(habito.registrarDiaCumplido(HOY.minusDays(5)));
+        assertEquals(new Racha(2, 2, HOY), habito.getRacha());
+    }
+
+    @Test
+    void given_rachaTerminadaAntesDeAyer_when_calcularRachaActual_then_cero() {
+        Habito habito = new Habito("Leer", "", Habito.FrecuenciaHabito.DIARIA, 1, 1);
+        habito.aplicarRacha(new Racha(7, 7, HOY.minusDays(2)));
+
+        assertEquals(0, habito.calcularRachaActual());
+    }
+
+    @Test
+    void given_habitoSinRachaMantenida_when_calcularRachaActual_then_recorreRegistros() {
+        Habito habito = new Habito("Correr", "", Habito.FrecuenciaHabito.DIARIA, 2, 1);
+        habito.agregarRegistro(registro(habito, HOY, true, 2));
+        habito.agregarRegistro(registro(habito, HOY.minusDays(1), true, 3));
+        habito.agregarRegistro(registro(habito, HOY.minusDays(2), true, 1)); // No llega a la meta
+
+        assertEquals(2, habito.calcularRachaActual());
+    }
+
+    private RegistroHabito registro(Habito habito, LocalDate fecha, boolean completado, int veces) {
+        RegistroHabito registro = new RegistroHabito(habito, fecha, completado, null);
+        registro.setVecesRealizado(veces);
+        return registro;
+    }
+}
@@ -0,0 +1,94 @@
+package com.sistema_seguimiento.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Resumen de la tarjeta de seguimiento calculado en un recorrido de los registros
+ */
+class ResumenHabitoTest {
+
+    private static final LocalDate HOY = LocalDate.of(2024, 6, 30);
+
+    @Test
+    void given_registrosDeLaVentana_when_desde_then_cuentaYClasificaEnUnaPasada() {
+        Habito habito = habito(2);
+        List<RegistroHabito> registros = new ArrayList<>();
+        registros.add(registro(habito, HOY, 2));
+        registros.add(registro(habito, HOY.minusDays(1), 1));
+        registros.add(registro(habito, HOY.minusDays(2), 0));
+        registros.add(registro(habito, HOY.minusDays(3), 3));
+        habito.setRegistros(registros);
+        habito.setVentanaRegistrosDesde(HOY.minusDays(29));
+
+        ResumenHabito resumen = ResumenHabito.desde(habito, HOY);
+
+        assertEquals(2, resumen.getCumplidos());
+        assertEquals(4, resumen.getTotal());
+        assertEquals(50, resumen.getProgreso());
+        assertTrue(resumen.isCumplidoHoy());
+        assertEquals(HOY.minusDays(29), resumen.getVentanaDesde());
+        assertEquals(ResumenHabito.EstadoDia.CUMPLIDO, resumen.getUltimosRegistros().get(0).getEstado());
+        assertEquals(ResumenHabito.EstadoDia.PARCIAL, resumen.getUltimosRegistros().get(1).getEstado());
+        assertEquals(ResumenHabito.EstadoDia.NO_CUMPLIDO, resumen.getUltimosRegistros().get(2).getEstado());
+    }
+
+    @Test
+    void given_calendarioConDiasFueraDeLaVentana_when_desde_then_totalDeDiasDeTodaLaVida() {
+        Habito habito = habito(1);
+        habito.recalcularDesde(List.of(HOY.minusDays(200), HOY.minusDays(100), HOY.minusDays(1), HOY));
+        habito.setRegistros(new ArrayList<>(List.of(registro(habito, HOY, 1), registro(habito, HOY.minusDays(1), 1))));
+        habito.setVentanaRegistrosDesde(HOY.minusDays(29));
+
+        ResumenHabito resumen = ResumenHabito.desde(habito, HOY);
+
+        assertEquals(2, resumen.getCumplidos(), "Solo la ventana");
+        assertEquals(4, resumen.getDiasCumplidosTotal(), "Todo el calendario");
+    }
+
+    @Test
+    void given_muchosRegistros_when_desde_then_limitaUltimosYEsInmutable() {
+        Habito habito = habito(1);
+        List<RegistroHabito> registros = new ArrayList<>();
+        for (int i = 0; i < ResumenHabito.ULTIMOS_REGISTROS + 10; i++) {
+            registros.add(registro(habito, HOY.minusDays(i), 1));
+        }
+        habito.setRegistros(registros);
+
+        ResumenHabito resumen = ResumenHabito.desde(habito, HOY);
+
+        assertEquals(ResumenHabito.ULTIMOS_REGISTROS + 10, resumen.getCumplidos());
+        assertEquals(ResumenHabito.ULTIMOS_REGISTROS, resumen.getUltimosRegistros().size());
+        assertThrows(UnsupportedOperationException.class, () -> resumen.getUltimosRegistros().clear());
+
+        registros.clear();
+        assertEquals(ResumenHabito.ULTIMOS_REGISTROS + 10, resumen.getTotal(), "No depende de la lista del hábito");
+    }
+
+    @Test
+    void given_sinRegistros_when_desde_then_resumenVacio() {
+        ResumenHabito resumen = ResumenHabito.desde(habito(1), HOY);
+
+        assertEquals(0, resumen.getTotal());
+        assertEquals(0, resumen.getProgreso());
+        assertFalse(resumen.isCumplidoHoy());
+        assertTrue(resumen.getUltimosRegistros().isEmpty());
+    }
+
+    private Habito habito(int meta) {
+        Habito habito = new Habito("Leer", "", Habito.FrecuenciaHabito.DIARIA, meta, 1);
+        habito.setId(7);
+        return habito;
+    }
+
+    private RegistroHabito registro(Habito habito, LocalDate fecha, int veces) {
+        RegistroHabito registro = new RegistroHabito(habito, fecha, veces > 0, null);
+        registro.setVecesRealizado(veces);
+        return registro;
+    }
+}
@@ -0,0 +1,176 @@
+package com.sistema_seguimiento.services;
+
+import com.sistema_seguimiento.dao.ContextoPersistencia;
+import com.sistema_seguimiento.dao.UsuarioDAOJPA;
+import com.sistema_seguimiento.dao.UsuariosPrueba;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Suma atómica de puntos y acumulador write-behind: ningún incremento concurrente se pierde
+ * y no se acumulan puntos de una transacción revertida
+ */
+class AcumuladorPuntosTest {
+
+    private static final int HILOS = 8;
+    private static final int SUMAS_POR_HILO = 250;
+
+    private static EntityManagerFactory emf;
+    private UsuarioDAOJPA usuarioDAO;
+
+    @BeforeAll
+    static void setupClass() {
+        emf = Persistence.createEntityManagerFactory("TestPU");
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        usuarioDAO = new UsuarioDAOJPA(emf);
+    }
+
+    @Test
+    void given_sumasConcurrentesDirectas_when_sumarPuntos_then_totalExacto() throws Exception {
+        Integer usuarioId = UsuariosPrueba.crear(emf, "acumulador", usuario -> usuario.setPuntos(0));
+        int hilos = 4;
+        int sumasPorHilo = 25;
+
+        ejecutarConcurrente(hilos, () -> {
+            for (int i = 0; i < sumasPorHilo; i++) {
+                assertNotNull(usuarioDAO.sumarPuntos(usuarioId, 10));
+            }
+        });
+
+        assertEquals(hilos * sumasPorHilo * 10, leerPuntos(usuarioId));
+    }
+
+    @Test
+    void given_usuarioInexistente_when_sumarPuntos_then_null() {
+        assertNull(usuarioDAO.sumarPuntos(999_999, 10));
+        assertFalse(usuarioDAO.addPoints(999_999, 10));
+    }
+
+    @Test
+    void given_sumarPuntos_when_usuarioExiste_then_devuelveNuevoTotal() {
+        Integer usuarioId = UsuariosPrueba.crear(emf, "acumulador", usuario -> usuario.setPuntos(0));
+
+        assertEquals(10, usuarioDAO.sumarPuntos(usuarioId, 10));
+        assertEquals(15, usuarioDAO.sumarPuntos(usuarioId, 5));
+    }
+
+    @Test
+    void given_muchosHilosYVaciadosFrecuentes_when_detener_then_ningunIncrementoPerdido() throws Exception {
+        Integer usuarioA = UsuariosPrueba.crear(emf, "acumulador", usuario -> usuario.setPuntos(0));
+        Integer usuarioB = UsuariosPrueba.crear(emf, "acumulador", usuario -> usuario.setPuntos(0));
+        AcumuladorPuntos acumulador = new AcumuladorPuntos(usuarioDAO, 5, 100);
+        acumulador.iniciar();
+
+        PointsService pointsService = new PointsService();
+        pointsService.setUsuarioDAO(usuarioDAO);
+        pointsService.setAcumuladorPuntos(acumulador);
+
+        ejecutarConcurrente(HILOS, () -> {
+            for (int i = 0; i < SUMAS_POR_HILO; i++) {
+                pointsService.addPointsToUser(usuarioA, "CUMPLIDO");
+                pointsService.addPointsToUser(usuarioB, i % 2 == 0 ? "PARCIAL" : "NO_CUMPLIDO");
+            }
+        });
+        acumulador.detener();
+
+        assertEquals(HILOS * SUMAS_POR_HILO * 10, leerPuntos(usuarioA));
+        assertEquals(HILOS * (SUMAS_POR_HILO / 2) * 5, leerPuntos(usuarioB));
+        assertEquals(0, acumulador.getPendientes(usuarioA));
+        assertEquals(0, acumulador.getUsuariosPendientes(), "Los usuarios vaciados salen del mapa");
+        assertTrue(acumulador.getVaciados() > 1, "Debe haber vaciado en varios lotes");
+    }
+
+    @Test
+    void given_sinIniciar_when_alcanzaMaxPendientes_then_vaciaEnElMismoHilo() {
+        Integer usuarioId = UsuariosPrueba.crear(emf, "acumulador", usuario -> usuario.setPuntos(0));
+        AcumuladorPuntos acumulador = new AcumuladorPuntos(usuarioDAO, 60_000, 3);
+
+        acumulador.agregar(usuarioId, 10);
+        acumulador.agregar(usuarioId, 10);
+        assertEquals(0, leerPuntos(usuarioId));
+        assertEquals(20, acumulador.getPendientes(usuarioId));
+
+        acumulador.agregar(usuarioId, 10);
+
+        assertEquals(30, leerPuntos(usuarioId));
+        assertEquals(0, acumulador.getPendientes(usuarioId));
+    }
+
+    @Test
+    void given_contextoDePeticion_when_addPointsToUser_then_soloAcumulaSiSeConfirma() {
+        Integer usuarioId = UsuariosPrueba.crear(emf, "acumulador", usuario -> usuario.setPuntos(0));
+        AcumuladorPuntos acumulador = new AcumuladorPuntos(usuarioDAO, 60_000, 100);
+        PointsService pointsService = new PointsService();
+        pointsService.setUsuarioDAO(usuarioDAO);
+        pointsService.setAcumuladorPuntos(acumulador);
+
+        ContextoPersistencia.abrir(emf);
+        pointsService.addPointsToUser(usuarioId, "CUMPLIDO");
+        assertEquals(0, acumulador.getPendientes(usuarioId), "Nada hasta que termine la transacción");
+        ContextoPersistencia.cerrar(false);
+        assertEquals(0, acumulador.getPendientes(usuarioId), "Revertida: los puntos se descartan");
+
+        ContextoPersistencia.abrir(emf);
+        pointsService.addPointsToUser(usuarioId, "CUMPLIDO");
+        ContextoPersistencia.cerrar(true);
+        assertEquals(10, acumulador.getPendientes(usuarioId));
+
+        pointsService.addPointsToUser(usuarioId, "PARCIAL");
+        assertEquals(15, acumulador.getPendientes(usuarioId), "Sin contexto se acumula en el acto");
+    }
+
+    private void ejecutarConcurrente(int hilos, Runnable tarea) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<?>> resultados = new ArrayList<>();
+        try {
+            for (int h = 0; h < hilos; h++) {
+                resultados.add(pool.submit(() -> {
+                    salida.await();
+                    tarea.run();
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> resultado : resultados) {
+                resultado.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+
+    private int leerPuntos(Integer usuarioId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT u.puntos FROM Usuario u WHERE u.id = :id", Integer.class)
+                    .setParameter("id", usuarioId)
+                    .getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+}
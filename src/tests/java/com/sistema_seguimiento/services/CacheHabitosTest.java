@@ -0,0 +1,128 @@
+package com.sistema_seguimiento.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Caché por usuario: límites de tamaño y tiempo, invalidación y aislamiento entre usuarios
+ */
+class CacheHabitosTest {
+
+    @Test
+    void given_valorCargado_when_obtenerOtraVez_then_aciertoSinCargar() {
+        CacheHabitos cache = new CacheHabitos();
+        AtomicInteger cargas = new AtomicInteger();
+
+        assertEquals("a", cache.obtener(1, "clave", () -> { cargas.incrementAndGet(); return "a"; }));
+        assertEquals("a", cache.obtener(1, "clave", () -> { cargas.incrementAndGet(); return "b"; }));
+
+        assertEquals(1, cargas.get());
+        assertEquals(1, cache.getAciertos());
+        assertEquals(1, cache.getFallos());
+    }
+
+    @Test
+    void given_mismaClave_when_usuariosDistintos_then_valoresSeparados() {
+        CacheHabitos cache = new CacheHabitos();
+
+        cache.obtener(1, "habitos", () -> "del usuario 1");
+
+        assertEquals("del usuario 2", cache.obtener(2, "habitos", () -> "del usuario 2"));
+        assertEquals("del usuario 1", cache.obtener(1, "habitos", () -> "otro"));
+    }
+
+    @Test
+    void given_limiteDeUsuarios_when_seSupera_then_desalojaElMenosUsado() {
+        CacheHabitos cache = new CacheHabitos(2, Duration.ofMinutes(1));
+        cache.obtener(1, "k", () -> "1");
+        cache.obtener(2, "k", () -> "2");
+        cache.obtener(1, "k", () -> "x"); // el 1 pasa a ser el más reciente
+
+        cache.obtener(3, "k", () -> "3");
+
+        assertEquals(2, cache.getUsuariosEnCache());
+        assertEquals(1, cache.getDesalojos());
+        assertEquals("1", cache.obtener(1, "k", () -> "recargado"));
+        assertEquals("recargado", cache.obtener(2, "k", () -> "recargado"));
+    }
+
+    @Test
+    void given_ttlVencido_when_obtener_then_recarga() throws InterruptedException {
+        CacheHabitos cache = new CacheHabitos(10, Duration.ofMillis(20));
+        cache.obtener(1, "k", () -> "viejo");
+
+        Thread.sleep(40);
+
+        assertEquals("nuevo", cache.obtener(1, "k", () -> "nuevo"));
+        assertEquals(1, cache.getExpirados());
+    }
+
+    @Test
+    void given_invalidacionDuranteLaCarga_when_terminaLaCarga_then_noSeGuarda() {
+        CacheHabitos cache = new CacheHabitos();
+
+        String leido = cache.obtener(1, "k", () -> {
+            cache.invalidar(1); // una escritura del mismo usuario mientras se leía
+            return "antiguo";
+        });
+
+        assertEquals("antiguo", leido);
+        assertEquals("actual", cache.obtener(1, "k", () -> "actual"));
+    }
+
+    @Test
+    void given_valorNuloOExcepcion_when_obtener_then_noSeGuarda() {
+        CacheHabitos cache = new CacheHabitos();
+
+        assertNull(cache.obtener(1, "k", () -> null));
+        assertThrows(IllegalStateException.class, () -> cache.obtener(1, "k", () -> { throw new IllegalStateException(); }));
+
+        assertEquals("v", cache.obtener(1, "k", () -> "v"));
+        assertEquals(0, cache.getAciertos());
+    }
+
+    @Test
+    void given_hilosConcurrentes_when_leenEInvalidan_then_cadaUsuarioVeSoloLoSuyo() throws Exception {
+        CacheHabitos cache = new CacheHabitos(8, Duration.ofMinutes(1));
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        try {
+            for (int h = 0; h < 8; h++) {
+                int hilo = h;
+                resultados.add(hilos.submit(() -> {
+                    salida.await();
+                    boolean correcto = true;
+                    for (int i = 0; i < 5_000; i++) {
+                        int usuario = (hilo + i) % 16;
+                        String valor = cache.obtener(usuario, "habitos", () -> "u" + usuario);
+                        correcto &= valor.equals("u" + usuario);
+                        if (i % 7 == 0) {
+                            cache.invalidar(usuario);
+                        }
+                    }
+                    return correcto;
+                }));
+            }
+            salida.countDown();
+            for (Future<Boolean> resultado : resultados) {
+                assertTrue(resultado.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+        assertTrue(cache.getUsuariosEnCache() <= 8);
+        assertEquals(8 * 5_000, cache.getAciertos() + cache.getFallos());
+    }
+}
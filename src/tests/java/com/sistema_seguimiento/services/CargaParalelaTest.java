@@ -0,0 +1,102 @@
+package com.sistema_seguimiento.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la carga en paralelo con plazo por petición
+ */
+class CargaParalelaTest {
+
+    private ExecutorService ejecutor;
+
+    @BeforeEach
+    void setUp() {
+        ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ejecutor.shutdownNow();
+    }
+
+    @Test
+    void given_lecturasIndependientes_when_cargar_then_seSolapanEnVezDeSumarse() {
+        CargaParalela cargaParalela = new CargaParalela(ejecutor, 5000);
+        long inicio = System.nanoTime();
+
+        CargaParalela.Composicion carga = cargaParalela.iniciar();
+        CargaParalela.Parte<String> a = carga.agregar("a", () -> dormirYDevolver(300, "A"), "-");
+        CargaParalela.Parte<String> b = carga.agregar("b", () -> dormirYDevolver(300, "B"), "-");
+        CargaParalela.Parte<String> c = carga.agregar("c", () -> dormirYDevolver(300, "C"), "-");
+
+        assertTrue(carga.esperar());
+        long duracionMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        assertEquals("ABC", a.get() + b.get() + c.get());
+        assertTrue(a.isCompleta() && b.isCompleta() && c.isCompleta());
+        assertFalse(carga.isParcial());
+        assertTrue(duracionMs < 800, "Tres lecturas de 300 ms en paralelo, no 900 ms: " + duracionMs);
+    }
+
+    @Test
+    void given_lecturaLenta_when_vencePlazo_then_valorPorDefectoYCargaParcial() throws Exception {
+        CargaParalela cargaParalela = new CargaParalela(ejecutor, 200);
+        CountDownLatch cancelada = new CountDownLatch(1);
+        long inicio = System.nanoTime();
+
+        CargaParalela.Composicion carga = cargaParalela.iniciar();
+        CargaParalela.Parte<List<String>> rapida = carga.agregar("rapida", () -> List.of("ok"), List.of());
+        CargaParalela.Parte<List<String>> lenta = carga.agregar("lenta", () -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                cancelada.countDown();
+            }
+            return List.of("tarde");
+        }, List.of());
+
+        assertEquals(List.of("ok"), rapida.get());
+        assertEquals(List.of(), lenta.get());
+        long duracionMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        assertTrue(duracionMs < 1000, "La petición no espera más que el plazo: " + duracionMs);
+        assertFalse(lenta.isCompleta());
+        assertTrue(carga.isParcial());
+        assertEquals(List.of("lenta"), carga.getPartesIncompletas());
+        assertTrue(cancelada.await(2, TimeUnit.SECONDS), "La lectura vencida se cancela");
+    }
+
+    @Test
+    void given_lecturaQueFalla_when_cargar_then_valorPorDefectoSinPropagar() {
+        CargaParalela cargaParalela = new CargaParalela(ejecutor, 1000);
+
+        CargaParalela.Composicion carga = cargaParalela.iniciar();
+        CargaParalela.Parte<Integer> correcta = carga.agregar("correcta", () -> 7, 0);
+        CargaParalela.Parte<Integer> fallida = carga.agregar("fallida", () -> {
+            throw new IllegalStateException("Sin acceso a la BD");
+        }, 0);
+
+        assertFalse(carga.esperar());
+        assertEquals(7, correcta.get());
+        assertEquals(0, fallida.get());
+        assertEquals(List.of("fallida"), carga.getPartesIncompletas());
+    }
+
+    private static String dormirYDevolver(long millis, String valor) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,104 @@
+package com.sistema_seguimiento.services;
+
+import com.sistema_seguimiento.dao.QuoteDAO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas del catálogo compartido de frases: carga única, recarga con intercambio atómico y
+ * lecturas sin acceso a la fuente
+ */
+class CatalogoFrasesTest {
+
+    private CatalogoFrases catalogo;
+
+    @AfterEach
+    void tearDown() {
+        if (catalogo != null) {
+            catalogo.detener();
+        }
+    }
+
+    @Test
+    void given_catalogoCargado_when_muchasFrasesDiarias_then_laFuenteSoloSeConsultaUnaVez() {
+        QuoteDAO quoteDAO = mock(QuoteDAO.class);
+        when(quoteDAO.getQuotes()).thenReturn(List.of("Uno", "Dos", "Tres"));
+        catalogo = new CatalogoFrases(quoteDAO);
+        assertTrue(catalogo.recargar());
+
+        QuoteService login1 = new QuoteService(catalogo);
+        QuoteService login2 = new QuoteService(catalogo);
+        for (int dia = 1; dia <= 366; dia++) {
+            assertEquals(login1.getDailyQuoteForDay(dia), login2.getDailyQuoteForDay(dia));
+        }
+
+        verify(quoteDAO, times(1)).getQuotes();
+        assertEquals("Dos", login1.getDailyQuoteForDay(1));
+        assertEquals(3, login1.getTotalQuotes());
+    }
+
+    @Test
+    void given_fuenteQueFallaOVacia_when_recargar_then_seMantieneElCatalogoAnterior() {
+        QuoteDAO quoteDAO = mock(QuoteDAO.class);
+        when(quoteDAO.getQuotes())
+            .thenReturn(List.of("Vigente"))
+            .thenThrow(new IllegalStateException("BD caída"))
+            .thenReturn(List.of());
+        catalogo = new CatalogoFrases(quoteDAO);
+
+        assertTrue(catalogo.recargar());
+        assertFalse(catalogo.recargar());
+        assertFalse(catalogo.recargar());
+
+        assertEquals(List.of("Vigente"), catalogo.getFrases());
+        assertEquals(1, catalogo.getErroresRecarga());
+        assertEquals(1, catalogo.getRecargas());
+    }
+
+    @Test
+    void given_catalogoIniciado_when_cambiaLaFuente_then_recargaEnSegundoPlanoYLosLectoresVenElNuevo() throws Exception {
+        AtomicReference<List<String>> fuente = new AtomicReference<>(List.of("Antigua"));
+        catalogo = new CatalogoFrases(fuente::get);
+        catalogo.recargar();
+        QuoteService quoteService = new QuoteService(catalogo);
+
+        fuente.set(List.of("Nueva A", "Nueva B"));
+        catalogo.iniciar(50);
+
+        long limite = System.currentTimeMillis() + 2000;
+        while (catalogo.getRecargas() < 2 && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertTrue(catalogo.getRecargas() >= 2);
+        assertEquals(2, quoteService.getTotalQuotes());
+        assertTrue(List.of("Nueva A", "Nueva B").contains(quoteService.getDailyQuote()));
+    }
+
+    @Test
+    void given_recargasConcurrentes_when_leer_then_nuncaSeVeUnCatalogoAMedias() throws Exception {
+        List<String> corto = List.of("C1");
+        List<String> largo = List.of("L1", "L2", "L3", "L4", "L5", "L6", "L7");
+        AtomicReference<List<String>> fuente = new AtomicReference<>(largo);
+        catalogo = new CatalogoFrases(fuente::get);
+        catalogo.recargar();
+
+        Thread recargador = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 2000; i++) {
+                fuente.set(i % 2 == 0 ? corto : largo);
+                catalogo.recargar();
+            }
+        });
+        int lecturas = 0;
+        while (recargador.isAlive() || lecturas == 0) {
+            String frase = catalogo.frase(lecturas++);
+            assertTrue(corto.contains(frase) || largo.contains(frase));
+        }
+        recargador.join();
+    }
+}
@@ -0,0 +1,152 @@
+package com.sistema_seguimiento.services;
+
+import com.sistema_seguimiento.dao.HabitoDAO;
+import com.sistema_seguimiento.model.Habito;
+import com.sistema_seguimiento.model.RegistroHabito;
+import com.sistema_seguimiento.model.ResumenHabito;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Caché por usuario de HabitoServicio: lecturas servidas desde memoria e invalidación
+ * precisa en cada escritura
+ */
+class HabitoServicioCacheTest {
+
+    private HabitoDAO habitoDAO;
+    private HabitoServicio servicio;
+
+    @BeforeEach
+    void setup() {
+        habitoDAO = mock(HabitoDAO.class);
+        servicio = new HabitoServicio();
+        servicio.setHabitoDAO(habitoDAO);
+        when(habitoDAO.findByUsuarioId(1)).thenReturn(List.of(habito(10, 1)));
+        when(habitoDAO.findByUsuarioId(2)).thenReturn(List.of(habito(20, 2)));
+    }
+
+    @Test
+    void given_sinEscrituras_when_obtenerResumenDosVeces_then_unaConsulta() {
+        List<ResumenHabito> primero = servicio.obtenerResumenSeguimiento(1);
+        List<ResumenHabito> segundo = servicio.obtenerResumenSeguimiento(1);
+
+        assertSame(primero, segundo);
+        verify(habitoDAO, times(1)).findByUsuarioId(1);
+    }
+
+    @Test
+    void given_registroGuardado_when_obtenerResumen_then_recalculaSoloEseUsuario() {
+        servicio.obtenerResumenSeguimiento(1);
+        servicio.obtenerResumenSeguimiento(2);
+
+        RegistroHabito registro = new RegistroHabito(habito(10, 1), LocalDate.now(), true, null);
+        when(habitoDAO.saveRegistro(any())).thenReturn(registro);
+        servicio.guardarRegistro(registro);
+        servicio.obtenerResumenSeguimiento(1);
+        servicio.obtenerResumenSeguimiento(2);
+
+        verify(habitoDAO, times(2)).findByUsuarioId(1);
+        verify(habitoDAO, times(1)).findByUsuarioId(2);
+    }
+
+    @Test
+    void given_loteRegistrado_when_obtenerResumen_then_recalcula() {
+        when(habitoDAO.registrarLote(any(), any())).thenReturn(Collections.emptyList());
+        servicio.obtenerResumenSeguimiento(1);
+
+        servicio.registrarLote(1, Collections.emptyList());
+        servicio.obtenerResumenSeguimiento(1);
+
+        verify(habitoDAO, times(2)).findByUsuarioId(1);
+    }
+
+    @Test
+    void given_errorDeConsulta_when_obtenerResumen_then_listaVaciaSinCachear() {
+        when(habitoDAO.findByUsuarioId(3)).thenThrow(new RuntimeException("BD caída"));
+
+        assertTrue(servicio.obtenerResumenSeguimiento(3).isEmpty());
+        servicio.obtenerResumenSeguimiento(3);
+
+        verify(habitoDAO, times(2)).findByUsuarioId(3);
+    }
+
+    @Test
+    void given_listaEnCache_when_buscarHabitoDelUsuario_then_sinConsultaYNuncaDeOtro() {
+        servicio.listarHabitosUsuario(1);
+
+        assertNotNull(servicio.buscarHabito(1, 10));
+        verify(habitoDAO, never()).findById(any());
+
+        when(habitoDAO.findById(20)).thenReturn(Optional.of(habito(20, 2)));
+        assertNull(servicio.buscarHabito(1, 20), "El hábito 20 es del usuario 2");
+    }
+
+    @Test
+    void given_habitoSinUsuario_when_buscarHabitoDelUsuario_then_null() {
+        Habito huerfano = new Habito("Sin usuario", "", Habito.FrecuenciaHabito.DIARIA, 1, null);
+        huerfano.setId(30);
+        when(habitoDAO.findById(30)).thenReturn(Optional.of(huerfano));
+
+        assertNull(servicio.buscarHabito(1, 30));
+    }
+
+    @Test
+    void given_cacheCompartida_when_otroServicioEscribe_then_invalidaLoLeidoPorEste() {
+        HabitoServicio otro = new HabitoServicio();
+        otro.setHabitoDAO(habitoDAO);
+        otro.setCacheHabitos(servicio.getCacheHabitos());
+        when(habitoDAO.saveRegistro(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        servicio.listarHabitosUsuario(1);
+        otro.guardarRegistro(new RegistroHabito(habito(10, 1), LocalDate.now(), true, null));
+        servicio.listarHabitosUsuario(1);
+
+        verify(habitoDAO, times(2)).findByUsuarioId(1);
+    }
+
+    @Test
+    void given_escriturasDelServicio_when_listar_then_cadaUnaInvalidaAlUsuario() {
+        Habito habito = habito(10, 1);
+        when(habitoDAO.save(any())).thenReturn(habito);
+        when(habitoDAO.findById(10)).thenReturn(Optional.of(habito));
+        when(habitoDAO.saveRegistro(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        servicio.listarHabitosUsuario(1);
+        servicio.guardarHabito(habito);
+        servicio.listarHabitosUsuario(1);
+        servicio.crearNuevoRegistro(habito, LocalDate.now(), null);
+        servicio.listarHabitosUsuario(1);
+        servicio.eliminarHabito(10);
+        servicio.listarHabitosUsuario(1);
+
+        verify(habitoDAO, times(4)).findByUsuarioId(1);
+        assertEquals(3, servicio.getCacheHabitos().getInvalidaciones());
+    }
+
+    @Test
+    void given_registrosDeHoy_when_obtenerDosVeces_then_contadoresDeAciertoYFallo() {
+        when(habitoDAO.findRegistrosDeHoy(1)).thenReturn(List.of());
+
+        servicio.obtenerRegistrosDeHoy(1);
+        servicio.obtenerRegistrosDeHoy(1);
+
+        verify(habitoDAO, times(1)).findRegistrosDeHoy(1);
+        assertEquals(1, servicio.getCacheHabitos().getAciertos());
+        assertEquals(1, servicio.getCacheHabitos().getFallos());
+    }
+
+    private Habito habito(int id, int usuarioId) {
+        Habito habito = new Habito("Hábito " + id, "", Habito.FrecuenciaHabito.DIARIA, 1, usuarioId);
+        habito.setId(id);
+        return habito;
+    }
+}
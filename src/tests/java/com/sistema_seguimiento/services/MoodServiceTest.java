@@ -137,4 +137,28 @@ public class MoodServiceTest {
         assertEquals("El estado de ánimo debió cambiar", "TRISTE", entryDeHoy.getMood());
     }
 
+    @Test
+    @DisplayName("Debe consultar la entrada de hoy una sola vez hasta que se invalide")
+    void given_consultasRepetidas_when_obtenerEntradaDeHoy_then_unaConsultaHastaInvalidar() {
+        MoodEntry deHoy = new MoodEntry(7, LocalDate.now(), "happy", null);
+        when(moodDAO.getTodayMoodEntry(7)).thenReturn(null, deHoy);
+
+        assertNull(moodService.obtenerEntradaDeHoy(7));
+        assertNull(moodService.obtenerEntradaDeHoy(7), "La ausencia de entrada también se guarda");
+        verify(moodDAO, times(1)).getTodayMoodEntry(7);
+
+        moodService.invalidarEntradaDeHoy(7);
+        assertSame(deHoy, moodService.obtenerEntradaDeHoy(7));
+        assertSame(deHoy, moodService.obtenerEntradaDeHoy(7));
+        verify(moodDAO, times(2)).getTodayMoodEntry(7);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar series de más de dos años sin consultar la BD")
+    void given_rangoDemasiadoLargo_when_obtenerSerie_then_IllegalArgument() {
+        LocalDate hoy = LocalDate.now();
+        assertThrows(IllegalArgumentException.class,
+            () -> moodService.obtenerSerie(7, hoy.minusDays(MoodService.MAX_DIAS_SERIE), hoy));
+        verifyNoInteractions(moodDAO);
+    }
 }
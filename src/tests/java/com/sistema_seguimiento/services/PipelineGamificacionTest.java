@@ -0,0 +1,141 @@
+package com.sistema_seguimiento.services;
+
+import com.sistema_seguimiento.dao.EventoGamificacionDAO;
+import com.sistema_seguimiento.dao.UserPetDAO;
+import com.sistema_seguimiento.dao.UsuariosPrueba;
+import com.sistema_seguimiento.model.EventoGamificacion;
+import com.sistema_seguimiento.model.PetType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pipeline de gamificación: outbox, contrapresión de la cola e idempotencia de los puntos
+ */
+class PipelineGamificacionTest {
+
+    private static final LocalDate HOY = LocalDate.now();
+
+    private static EntityManagerFactory emf;
+    private EventoGamificacionDAO eventoDAO;
+    private UserPetDAO userPetDAO;
+    private PipelineGamificacion pipeline;
+    private Integer usuarioId;
+
+    @BeforeAll
+    static void setupClass() {
+        emf = Persistence.createEntityManagerFactory("TestPU");
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        eventoDAO = new EventoGamificacionDAO(emf);
+        userPetDAO = new UserPetDAO(emf);
+        usuarioId = UsuariosPrueba.crear(emf, "gamificacion", usuario -> usuario.setHabitosCompletados(10L));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.detener();
+        }
+    }
+
+    @Test
+    void given_pipelineIniciado_when_publicar_then_sumaPuntosYDesbloqueaMascota() throws InterruptedException {
+        pipeline = new PipelineGamificacion(eventoDAO, userPetDAO, 10, 2, 60_000);
+        pipeline.iniciar();
+
+        EventoGamificacion evento = pipeline.publicar("registro:a-" + usuarioId, usuarioId, 1, HOY, "CUMPLIDO", 10);
+
+        esperar(() -> pipeline.getProcesados() == 1);
+        assertEquals(10, puntosDe(usuarioId));
+        assertTrue(eventoDAO.findById(evento.getId()).orElseThrow().isProcesado());
+        assertEquals(PetType.HUEVO, userPetDAO.findActiveUserPet(usuarioId).orElseThrow().getState());
+        assertEquals(1, pipeline.getMascotasDesbloqueadas());
+    }
+
+    @Test
+    void given_mismoEventoRepetido_when_procesar_then_sumaUnaSolaVez() {
+        pipeline = new PipelineGamificacion(eventoDAO, userPetDAO, 10, 1, 60_000);
+
+        EventoGamificacion primero = pipeline.publicar("registro:b-" + usuarioId, usuarioId, 1, HOY, "CUMPLIDO", 10);
+        EventoGamificacion segundo = pipeline.publicar("registro:b-" + usuarioId, usuarioId, 1, HOY, "CUMPLIDO", 10);
+        assertEquals(primero.getId(), segundo.getId(), "La misma clave no genera otro evento");
+
+        assertTrue(pipeline.procesarEvento(primero.getId()));
+        assertFalse(pipeline.procesarEvento(primero.getId()), "Reentrega tras procesar: no suma");
+        assertEquals(0, pipeline.barrer(), "Un evento procesado ya no está pendiente");
+
+        assertEquals(10, puntosDe(usuarioId));
+        assertEquals(1, pipeline.getProcesados());
+        assertEquals(1, pipeline.getDuplicados());
+    }
+
+    @Test
+    void given_colaLlena_when_publicar_then_quedaEnOutboxYSeRecuperaAlArrancar() throws InterruptedException {
+        PipelineGamificacion sinTrabajadores = new PipelineGamificacion(eventoDAO, userPetDAO, 1, 1, 60_000);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(sinTrabajadores.publicar("registro:c" + i + "-" + usuarioId, usuarioId, 1, HOY, "PARCIAL", 5).getId());
+        }
+        assertEquals(1, sinTrabajadores.getTamanoCola());
+        assertEquals(2, sinTrabajadores.getDesbordados(), "Sin hueco en la cola el evento no se pierde: espera en la tabla");
+        assertEquals(0, puntosDe(usuarioId));
+
+        // Arranque nuevo (p. ej. tras una caída): el primer barrido recoge los pendientes
+        pipeline = new PipelineGamificacion(eventoDAO, userPetDAO, 10, 2, 60_000);
+        pipeline.iniciar();
+
+        esperar(() -> ids.stream().allMatch(id -> eventoDAO.findById(id).orElseThrow().isProcesado()));
+        assertEquals(15, puntosDe(usuarioId));
+    }
+
+    @Test
+    void given_eventoSinPuntos_when_procesar_then_seMarcaProcesadoSinSumar() {
+        pipeline = new PipelineGamificacion(eventoDAO, userPetDAO, 10, 1, 60_000);
+
+        EventoGamificacion evento = pipeline.publicar("registro:d-" + usuarioId, usuarioId, 1, HOY, "NO_CUMPLIDO", 0);
+
+        assertTrue(pipeline.procesarEvento(evento.getId()));
+        assertTrue(eventoDAO.findById(evento.getId()).orElseThrow().isProcesado());
+        assertEquals(0, puntosDe(usuarioId));
+        assertThrows(IllegalArgumentException.class,
+            () -> pipeline.publicar(null, usuarioId, 1, HOY, "CUMPLIDO", 10));
+    }
+
+    private void esperar(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!condicion.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < limite, "El pipeline no terminó a tiempo");
+            Thread.sleep(20);
+        }
+    }
+
+    private int puntosDe(Integer id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT u.puntos FROM Usuario u WHERE u.id = :id", Integer.class)
+                .setParameter("id", id)
+                .getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+
+}
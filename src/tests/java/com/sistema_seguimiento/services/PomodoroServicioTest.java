@@ -0,0 +1,183 @@
+package com.sistema_seguimiento.services;
+
+import com.sistema_seguimiento.dao.PomodoroDAO;
+import com.sistema_seguimiento.model.Pomodoro;
+import com.sistema_seguimiento.model.Pomodoro.EstadoPomodoro;
+import com.sistema_seguimiento.model.ResumenPomodoro;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Temporizadores Pomodoro en memoria: tiempo calculado con el reloj monótono, transiciones
+ * bajo demanda y escritura en lote solo de los cambios de estado
+ */
+class PomodoroServicioTest {
+
+    private static final AtomicLong SIGUIENTE_USUARIO = new AtomicLong(50_000);
+
+    private static EntityManagerFactory emf;
+    private PomodoroDAO pomodoroDAO;
+    private AtomicLong reloj;
+    private PomodoroServicio servicio;
+
+    @BeforeAll
+    static void setupClass() {
+        emf = Persistence.createEntityManagerFactory("TestPU");
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        pomodoroDAO = new PomodoroDAO(emf);
+        reloj = new AtomicLong(1_000_000_000L);
+        servicio = new PomodoroServicio(pomodoroDAO, 60_000, Duration.ofHours(4), reloj::get);
+    }
+
+    @Test
+    void given_sesionIniciada_when_pasanFases_then_transicionesAlConsultarYUnaFilaPorSesion() {
+        Integer usuarioId = nuevoUsuario();
+        ResumenPomodoro inicio = servicio.iniciarSesion(usuarioId);
+        assertEquals(EstadoPomodoro.TRABAJO, inicio.getEstado());
+        assertEquals(25 * 60, inicio.getSegundosRestantes());
+
+        avanzarMinutos(10);
+        ResumenPomodoro enTrabajo = servicio.consultar(usuarioId).orElseThrow();
+        assertEquals(15 * 60, enTrabajo.getSegundosRestantes());
+        assertEquals(40, enTrabajo.getPorcentajeProgreso());
+        assertEquals(0, servicio.getTransiciones(), "Sin ticks: nada cambia hasta que acaba la fase");
+
+        avanzarMinutos(16);
+        ResumenPomodoro descanso = servicio.consultar(usuarioId).orElseThrow();
+        assertEquals(EstadoPomodoro.DESCANSO_CORTO, descanso.getEstado());
+        assertEquals(4 * 60, descanso.getSegundosRestantes(), "La fase empieza donde acabó la anterior");
+        assertEquals(1, descanso.getPomodorosCompletados());
+
+        // Tres pomodoros más sin consultar: se recuperan de golpe hasta el descanso largo
+        avanzarMinutos(4 + 2 * 30 + 25 + 5);
+        ResumenPomodoro largo = servicio.consultar(usuarioId).orElseThrow();
+        assertEquals(EstadoPomodoro.DESCANSO_LARGO, largo.getEstado());
+        assertEquals(4, largo.getPomodorosCompletados());
+        assertEquals(10 * 60, largo.getSegundosRestantes());
+        assertEquals(7, servicio.getTransiciones());
+
+        assertEquals(0, contarFilas(usuarioId), "Nada se escribe antes del vaciado");
+        assertEquals(1, servicio.vaciar(), "Inicio y siete transiciones se escriben en una fila");
+        Pomodoro guardado = buscarFila(usuarioId);
+        assertEquals(EstadoPomodoro.DESCANSO_LARGO, guardado.getEstadoActual());
+        assertEquals(4, guardado.getPomodorosCompletados());
+
+        avanzarMinutos(1);
+        servicio.consultar(usuarioId);
+        assertEquals(0, servicio.vaciar(), "Consultar sin cambiar de fase no escribe");
+
+        servicio.terminar(usuarioId);
+        assertEquals(1, servicio.vaciar());
+        assertEquals(1, contarFilas(usuarioId), "La sesión actualiza su fila");
+        assertEquals(EstadoPomodoro.COMPLETADO, buscarFila(usuarioId).getEstadoActual());
+        assertTrue(servicio.consultar(usuarioId).isEmpty());
+    }
+
+    @Test
+    void given_pausaEnDescanso_when_reanudar_then_conservaFaseYTiempoRestante() {
+        Integer usuarioId = nuevoUsuario();
+        servicio.iniciarSesion(usuarioId);
+        avanzarMinutos(27);
+
+        ResumenPomodoro pausado = servicio.pausar(usuarioId).orElseThrow();
+        assertTrue(pausado.isPausado());
+        assertEquals(EstadoPomodoro.DESCANSO_CORTO, pausado.getFase());
+        assertEquals(3 * 60, pausado.getSegundosRestantes());
+
+        avanzarMinutos(60);
+        assertEquals(3 * 60, servicio.consultar(usuarioId).orElseThrow().getSegundosRestantes(),
+            "En pausa el tiempo no corre");
+
+        ResumenPomodoro reanudado = servicio.reanudar(usuarioId).orElseThrow();
+        assertEquals(EstadoPomodoro.DESCANSO_CORTO, reanudado.getEstado());
+        assertEquals(3 * 60, reanudado.getSegundosRestantes());
+
+        avanzarMinutos(3);
+        assertEquals(EstadoPomodoro.TRABAJO, servicio.consultar(usuarioId).orElseThrow().getEstado());
+    }
+
+    @Test
+    void given_sesionSinConsultas_when_superaInactividad_then_seTerminaYSeGuarda() {
+        Integer activo = nuevoUsuario();
+        Integer olvidado = nuevoUsuario();
+        servicio.iniciarSesion(olvidado);
+        avanzarMinutos(3 * 60);
+        servicio.iniciarSesion(activo);
+        avanzarMinutos(61);
+
+        assertEquals(1, servicio.terminarInactivas());
+        servicio.vaciar();
+
+        assertEquals(1, servicio.getSesionesActivas());
+        assertTrue(servicio.consultar(olvidado).isEmpty());
+        assertEquals(EstadoPomodoro.COMPLETADO, buscarFila(olvidado).getEstadoActual());
+        assertTrue(servicio.consultar(activo).isPresent());
+    }
+
+    @Test
+    void given_milesDeTemporizadores_when_vaciar_then_unSoloLoteConUnaFilaPorSesion() {
+        int sesiones = 2000;
+        long primero = SIGUIENTE_USUARIO.get();
+        for (int i = 0; i < sesiones; i++) {
+            servicio.iniciarSesion(nuevoUsuario());
+        }
+        avanzarMinutos(26);
+        for (long id = primero; id < primero + sesiones; id++) {
+            assertEquals(EstadoPomodoro.DESCANSO_CORTO, servicio.consultar((int) id).orElseThrow().getEstado());
+        }
+
+        assertEquals(sesiones, servicio.getSesionesActivas());
+        assertEquals(sesiones, servicio.getTransiciones());
+        assertEquals(sesiones, servicio.vaciar());
+        assertEquals(1, servicio.getVaciados());
+        assertEquals(0, servicio.getPendientes());
+    }
+
+    private Integer nuevoUsuario() {
+        return (int) SIGUIENTE_USUARIO.getAndIncrement();
+    }
+
+    private void avanzarMinutos(long minutos) {
+        reloj.addAndGet(TimeUnit.MINUTES.toNanos(minutos));
+    }
+
+    private long contarFilas(Integer usuarioId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT COUNT(p) FROM Pomodoro p WHERE p.usuarioId = :u", Long.class)
+                .setParameter("u", String.valueOf(usuarioId))
+                .getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+
+    private Pomodoro buscarFila(Integer usuarioId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT p FROM Pomodoro p WHERE p.usuarioId = :u", Pomodoro.class)
+                .setParameter("u", String.valueOf(usuarioId))
+                .getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.sistema_seguimiento.services;
+
+import com.sistema_seguimiento.dao.EjecucionRecordatorioDAO;
+import com.sistema_seguimiento.dao.MoodDAO;
+import com.sistema_seguimiento.model.EjecucionRecordatorio;
+import com.sistema_seguimiento.model.MoodEntry;
+import com.sistema_seguimiento.model.ResultadoRecordatorios;
+import com.sistema_seguimiento.model.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Recordatorios diarios de estado de ánimo: anti-join paginado, trabajadores, límite de envíos
+ * por segundo y puntos de control para retomar una ejecución cortada
+ */
+class TareaRecordatoriosAnimoTest {
+
+    private static EntityManagerFactory emf;
+    private static LocalDate siguienteFecha = LocalDate.of(2030, 1, 1);
+
+    private MoodDAO moodDAO;
+    private EjecucionRecordatorioDAO ejecucionDAO;
+    private LocalDate fecha;
+    private List<Integer> sinEntrada;
+
+    @TempDir
+    Path directorio;
+
+    @BeforeAll
+    static void setupClass() {
+        emf = Persistence.createEntityManagerFactory("test-persistence-unit", Map.of("hibernate.generate_statistics", "true"));
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        moodDAO = new MoodDAO(emf);
+        ejecucionDAO = new EjecucionRecordatorioDAO(emf);
+        // Una fecha distinta por test: los usuarios de tests anteriores tampoco tienen entrada en ella
+        fecha = siguienteFecha;
+        siguienteFecha = siguienteFecha.plusDays(1);
+        sinEntrada = crearUsuarios(fecha);
+    }
+
+    @Test
+    void given_usuariosSinEntrada_when_ejecutar_then_unRecordatorioCadaUnoYUnaConsultaPorPagina() throws Exception {
+        DestinoArchivoRecordatorios destino = new DestinoArchivoRecordatorios(directorio.resolve("outbox.tsv"));
+        TareaRecordatoriosAnimo tarea = new TareaRecordatoriosAnimo(moodDAO, ejecucionDAO, destino, 3, 4, 0);
+        int total = contarSinEntrada();
+        Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        ResultadoRecordatorios resultado = tarea.ejecutar(fecha);
+
+        assertTrue(resultado.isCompleta());
+        assertEquals(total, resultado.getEnviados());
+        assertEquals(0, resultado.getFallidos());
+        int paginas = total / 4 + 1;
+        assertEquals(total % 4 == 0 ? paginas - 1 : paginas, resultado.getPaginas());
+        assertEquals(paginas, estadisticas.getQueryExecutionCount(), "Una consulta por página, nunca por usuario");
+
+        List<String> lineas = destino.leer();
+        assertEquals(total, lineas.size());
+        Set<String> usuarios = new HashSet<>();
+        lineas.forEach(linea -> usuarios.add(linea.split("\t")[1]));
+        sinEntrada.forEach(id -> assertTrue(usuarios.contains(String.valueOf(id))));
+        assertTrue(lineas.get(0).startsWith(fecha + "\t"));
+        assertTrue(lineas.get(0).contains("no olvides registrar tu ánimo"));
+
+        ResultadoRecordatorios repetida = tarea.ejecutar(fecha);
+        assertTrue(repetida.isOmitida(), "Un día terminado no se repite");
+        assertEquals(total, destino.leer().size());
+        EjecucionRecordatorio ejecucion = ejecucionDAO.findByFecha(fecha).orElseThrow();
+        assertTrue(ejecucion.isTerminada());
+        assertEquals(total, ejecucion.getEnviados());
+    }
+
+    @Test
+    void given_ejecucionCortada_when_ejecutarDeNuevo_then_retomaTrasElPuntoDeControlYReintentaLosFallos() throws Exception {
+        // Ejecución anterior cortada tras despachar hasta el tercer usuario sin entrada
+        Integer puntoDeControl = sinEntrada.get(2);
+        EjecucionRecordatorio cortada = new EjecucionRecordatorio(fecha);
+        cortada.avanzar(puntoDeControl, 3, List.of());
+        ejecucionDAO.guardar(cortada);
+
+        Integer falla = sinEntrada.get(4);
+        AtomicBoolean caido = new AtomicBoolean(true);
+        List<Integer> recibidos = new ArrayList<>();
+        TareaRecordatoriosAnimo tarea = new TareaRecordatoriosAnimo(moodDAO, ejecucionDAO, recordatorio -> {
+            if (caido.get() && recordatorio.getUsuarioId().equals(falla)) {
+                throw new IllegalStateException("Destino caído");
+            }
+            synchronized (recibidos) {
+                recibidos.add(recordatorio.getUsuarioId());
+            }
+        }, 2, 5, 0);
+
+        ResultadoRecordatorios resultado = tarea.ejecutar(fecha);
+
+        assertTrue(resultado.isReanudada());
+        assertFalse(resultado.isCompleta(), "Con un envío fallido el día no se termina");
+        assertEquals(1, resultado.getFallidos());
+        recibidos.forEach(id -> assertTrue(id > puntoDeControl, "Nadie antes del punto de control"));
+        assertTrue(recibidos.containsAll(List.of(sinEntrada.get(3), sinEntrada.get(5))));
+        assertFalse(recibidos.contains(falla));
+        EjecucionRecordatorio ejecucion = ejecucionDAO.findByFecha(fecha).orElseThrow();
+        assertFalse(ejecucion.isTerminada());
+        assertEquals(Set.of(falla), ejecucion.getPendientes());
+        assertEquals(3 + resultado.getEnviados(), ejecucion.getEnviados(), "Acumulados de las dos ejecuciones");
+        assertEquals(1, ejecucion.getFallidos());
+
+        // Siguiente intervalo con el destino recuperado: solo se reintenta el fallido
+        caido.set(false);
+        recibidos.clear();
+        ResultadoRecordatorios reintento = tarea.ejecutar(fecha);
+
+        assertTrue(reintento.isCompleta());
+        assertEquals(List.of(falla), recibidos);
+        EjecucionRecordatorio terminada = ejecucionDAO.findByFecha(fecha).orElseThrow();
+        assertTrue(terminada.isTerminada());
+        assertTrue(terminada.getPendientes().isEmpty());
+        assertEquals(3 + resultado.getEnviados() + 1, terminada.getEnviados());
+    }
+
+    @Test
+    void given_limiteDeEnviosPorSegundo_when_ejecutar_then_losEnviosSeEspacian() {
+        TareaRecordatoriosAnimo tarea = new TareaRecordatoriosAnimo(moodDAO, ejecucionDAO, recordatorio -> { }, 4, 100, 40);
+
+        ResultadoRecordatorios resultado = tarea.ejecutar(fecha);
+
+        long enviados = resultado.getEnviados();
+        assertTrue(enviados >= 6);
+        // 40 por segundo: un envío cada 25 ms aunque haya cuatro trabajadores
+        assertTrue(resultado.getDuracionMillis() >= (enviados - 1) * 25 - 5,
+            "Duración " + resultado.getDuracionMillis() + "ms para " + enviados + " envíos");
+    }
+
+    /**
+     * Diez usuarios: seis sin entrada en la fecha, tres con entrada y uno inactivo
+     *
+     * @return Ids de los usuarios sin entrada, en orden
+     */
+    private List<Integer> crearUsuarios(LocalDate dia) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            List<Integer> ids = new ArrayList<>();
+            List<Usuario> sin = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Usuario usuario = new Usuario("Usuario " + i, "rec_" + System.nanoTime() + "_" + i + "@test.com", "123");
+                if (i == 9) {
+                    usuario.setActivo(false);
+                }
+                em.persist(usuario);
+                if (i % 3 == 1) {
+                    MoodEntry entrada = new MoodEntry(null, dia, "happy", null);
+                    entrada.setUsuario(usuario);
+                    em.persist(entrada);
+                } else if (i != 9) {
+                    sin.add(usuario);
+                }
+            }
+            em.getTransaction().commit();
+            sin.forEach(usuario -> ids.add(usuario.getId()));
+            return ids;
+        } finally {
+            em.close();
+        }
+    }
+
+    private int contarSinEntrada() {
+        return moodDAO.findUsuariosSinEntrada(fecha, 0, Integer.MAX_VALUE).size();
+    }
+}
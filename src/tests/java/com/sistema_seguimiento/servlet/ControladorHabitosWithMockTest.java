@@ -2,6 +2,7 @@ package com.sistema_seguimiento.servlet;
 
 import com.sistema_seguimiento.dao.HabitoDAO;
 import com.sistema_seguimiento.model.Habito;
+import com.sistema_seguimiento.model.RegistroHabito;
 import com.sistema_seguimiento.services.PointsService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -12,6 +13,7 @@ import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -88,6 +90,7 @@ public class ControladorHabitosWithMockTest {
         // Mocks del HabitoDAO
         when(habitoDAO.findById(habitoId)).thenReturn(java.util.Optional.of(habitoMock));
         when(habitoDAO.saveRegistro(any())).thenReturn(registroGuardado);
+        when(habitoDAO.registrarCompletado(eq(habitoId), any(), any())).thenReturn(registroGuardado);
         
         // Inyectar mocks en el controlador
         controlador.setHabitoDAO(habitoDAO);
@@ -100,4 +103,29 @@ public class ControladorHabitosWithMockTest {
         // Verificar que addPointsToUser fue llamado EXACTAMENTE 1 vez
         verify(pointsService, times(1)).addPointsToUser(usuarioId, estado);
     }
+
+    @Test
+    @DisplayName("La clave de idempotencia usa el token del cliente o (registro, veces, estado)")
+    void testClaveIdempotencia_TokenORegistroVecesEstado() {
+        RegistroHabito registro = new RegistroHabito();
+        registro.setId(100);
+        registro.setVecesRealizado(1);
+
+        String parcial = ControladorHabitos.claveIdempotencia(request, 1, registro, "parcial");
+        String cumplido = ControladorHabitos.claveIdempotencia(request, 1, registro, "CUMPLIDO");
+        assertEquals("registro:100:1:PARCIAL", parcial);
+        assertNotEquals(parcial, cumplido, "Pasar de PARCIAL a CUMPLIDO es otro evento");
+        assertEquals(cumplido, ControladorHabitos.claveIdempotencia(request, 1, registro, "CUMPLIDO"));
+
+        registro.setVecesRealizado(2);
+        assertNotEquals(cumplido, ControladorHabitos.claveIdempotencia(request, 1, registro, "CUMPLIDO"),
+            "Un segundo check-in del día con el mismo estado también puntúa");
+
+        when(request.getParameter("idempotencyKey")).thenReturn("envio-123");
+        assertEquals("peticion:1:envio-123",
+            ControladorHabitos.claveIdempotencia(request, 1, registro, "CUMPLIDO"));
+        when(request.getHeader("Idempotency-Key")).thenReturn("cabecera-9");
+        assertEquals("peticion:1:cabecera-9",
+            ControladorHabitos.claveIdempotencia(request, 1, registro, "CUMPLIDO"));
+    }
 }
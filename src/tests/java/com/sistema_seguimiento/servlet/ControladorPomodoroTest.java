@@ -0,0 +1,82 @@
+package com.sistema_seguimiento.servlet;
+
+import com.sistema_seguimiento.model.Pomodoro.EstadoPomodoro;
+import com.sistema_seguimiento.model.ResumenPomodoro;
+import com.sistema_seguimiento.model.Usuario;
+import com.sistema_seguimiento.services.PomodoroServicio;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * /pomodoro: acciones del temporizador delegadas en el PomodoroServicio compartido
+ */
+class ControladorPomodoroTest {
+
+    private ControladorPomodoro controlador;
+    private PomodoroServicio servicio;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private HttpSession session;
+    private StringWriter cuerpo;
+
+    @BeforeEach
+    void setup() throws Exception {
+        servicio = mock(PomodoroServicio.class);
+        request = mock(HttpServletRequest.class);
+        response = mock(HttpServletResponse.class);
+        session = mock(HttpSession.class);
+        cuerpo = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(cuerpo));
+        when(request.getSession(false)).thenReturn(session);
+
+        Usuario usuario = new Usuario();
+        usuario.setId(7);
+        when(session.getAttribute("usuario")).thenReturn(usuario);
+
+        controlador = new ControladorPomodoro();
+        controlador.setPomodoroServicio(servicio);
+    }
+
+    @Test
+    void given_usuarioEnSesion_when_iniciar_then_devuelveElResumenDelServicio() throws Exception {
+        when(request.getParameter("action")).thenReturn("iniciar");
+        when(servicio.iniciarSesion(7)).thenReturn(
+            new ResumenPomodoro(7, EstadoPomodoro.TRABAJO, EstadoPomodoro.TRABAJO, 1500, 0, 0));
+
+        controlador.doPost(request, response);
+
+        verify(servicio).iniciarSesion(7);
+        assertEquals("{\"activa\":true,\"estado\":\"TRABAJO\",\"fase\":\"TRABAJO\",\"segundosRestantes\":1500,"
+            + "\"pomodorosCompletados\":0,\"porcentajeProgreso\":0,\"pausado\":false}", cuerpo.toString());
+    }
+
+    @Test
+    void given_sinSesionPomodoro_when_consultar_then_activaFalse() throws Exception {
+        when(servicio.consultar(7)).thenReturn(Optional.empty());
+
+        controlador.doGet(request, response);
+
+        assertEquals("{\"activa\":false}", cuerpo.toString());
+    }
+
+    @Test
+    void given_peticionInvalida_when_post_then_400SinAccionY401SinSesion() throws Exception {
+        controlador.doPost(request, response);
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+
+        when(request.getSession(false)).thenReturn(null);
+        controlador.doPost(request, response);
+        verify(response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        verifyNoInteractions(servicio);
+    }
+}